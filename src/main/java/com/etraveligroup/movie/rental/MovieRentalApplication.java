@@ -3,12 +3,14 @@ package com.etraveligroup.movie.rental;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.retry.annotation.EnableRetry;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Main application class for the Movie Rental application.
  * This class is responsible for bootstrapping the Spring Boot application.
  */
 @EnableRetry
+@EnableScheduling
 @SpringBootApplication
 public class MovieRentalApplication {
 
@@ -0,0 +1,305 @@
+package com.etraveligroup.movie.rental.catalog;
+
+import com.etraveligroup.movie.rental.entity.Movie;
+import com.etraveligroup.movie.rental.entity.MoviePricing;
+import com.etraveligroup.movie.rental.util.MoneyUtil;
+import com.etraveligroup.movie.rental.util.PointsCalculator;
+import com.etraveligroup.movie.rental.util.PriceCalculator;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, in-memory snapshot of the movie and pricing catalog.
+ * Movies and pricing codes are stored in parallel arrays addressed by a dense index,
+ * so resolving the title and price of a rental needs one map lookup and array reads.
+ * Prices are held in cents, so pricing a rental allocates nothing. The amount and frequent renter points of every
+ * pricing code are tabulated for rentals of up to {@link #TABULATED_DAYS} days when the snapshot is built, so pricing
+ * such a rental is two array reads; longer rentals are calculated from the pricing values. Bulk callers can price
+ * many rentals in one call from arrays of pricing indexes and days.
+ * Pricing rows without valid prices and movies without a valid pricing code are left out and logged, so they only
+ * fail the invoices renting those movies instead of the whole catalog.
+ * A snapshot is never modified after construction; a reload builds and publishes a new one.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+public final class MovieCatalogSnapshot {
+
+    public static final int NOT_FOUND = -1;
+    public static final int TABULATED_DAYS = 31;
+
+    // Table rows are addressed by pricing index, columns by days rented; column 0 is unused
+    private static final int TABLE_WIDTH = TABULATED_DAYS + 1;
+
+    private final long version;
+    private final Instant loadedAt;
+
+    private final Map<String, Integer> movieIndexById;
+    private final Set<String> skippedMovieIds;
+    private final String[] movieTitles;
+    private final int[] moviePricingIndex;
+
+    private final String[] pricingCodes;
+    private final int[] baseDays;
+    private final long[] basePriceCents;
+    private final long[] extraPricePerDayCents;
+    private final boolean[] newRelease;
+    private final long[] amountCentsTable;
+    private final byte[] pointsTable;
+
+    private MovieCatalogSnapshot(long version, Instant loadedAt, Map<String, Integer> movieIndexById, Set<String> skippedMovieIds,
+                                 String[] movieTitles, int[] moviePricingIndex, String[] pricingCodes, int[] baseDays,
+                                 long[] basePriceCents, long[] extraPricePerDayCents, boolean[] newRelease) {
+        this.version = version;
+        this.loadedAt = loadedAt;
+        this.movieIndexById = movieIndexById;
+        this.skippedMovieIds = skippedMovieIds;
+        this.movieTitles = movieTitles;
+        this.moviePricingIndex = moviePricingIndex;
+        this.pricingCodes = pricingCodes;
+        this.baseDays = baseDays;
+        this.basePriceCents = basePriceCents;
+        this.extraPricePerDayCents = extraPricePerDayCents;
+        this.newRelease = newRelease;
+        this.amountCentsTable = new long[pricingCodes.length * TABLE_WIDTH];
+        this.pointsTable = new byte[pricingCodes.length * TABLE_WIDTH];
+        for (int pricingIdx = 0; pricingIdx < pricingCodes.length; pricingIdx++) {
+            for (int days = 1; days <= TABULATED_DAYS; days++) {
+                amountCentsTable[pricingIdx * TABLE_WIDTH + days] = calculateAmountCents(pricingIdx, days);
+                pointsTable[pricingIdx * TABLE_WIDTH + days] = (byte) PointsCalculator.calculateFrequentRenterPoints(newRelease[pricingIdx], days);
+            }
+        }
+    }
+
+    /**
+     * Builds a snapshot from the given pricing and movie rows.
+     * Pricing rows without a code or with missing or out-of-range prices are skipped, and so are movies referencing a
+     * missing, unknown or skipped pricing code; each skipped row is logged.
+     *
+     * @param version  the version number of the snapshot
+     * @param pricings all pricing rows
+     * @param movies   all movie rows
+     * @return the new snapshot
+     */
+    public static MovieCatalogSnapshot of(long version, Collection<MoviePricing> pricings, Collection<Movie> movies) {
+        Map<String, Integer> pricingIndexByCode = new HashMap<>();
+        String[] pricingCodes = new String[pricings.size()];
+        int[] baseDays = new int[pricings.size()];
+        long[] basePriceCents = new long[pricings.size()];
+        long[] extraPricePerDayCents = new long[pricings.size()];
+        boolean[] newRelease = new boolean[pricings.size()];
+        int pricingIdx = 0;
+        for (MoviePricing pricing : pricings) {
+            if (pricing.getCode() == null || pricing.getBasePrice() == null || pricing.getExtraPricePerDay() == null) {
+                log.warn("Skipping pricing code '{}' of catalog version {}: code or prices missing", pricing.getCode(), version);
+                continue;
+            }
+            try {
+                basePriceCents[pricingIdx] = MoneyUtil.toCents(pricing.getBasePrice());
+                extraPricePerDayCents[pricingIdx] = MoneyUtil.toCents(pricing.getExtraPricePerDay());
+            } catch (ArithmeticException e) {
+                log.warn("Skipping pricing code '{}' of catalog version {}: {}", pricing.getCode(), version, e.getMessage());
+                continue;
+            }
+            pricingIndexByCode.put(pricing.getCode(), pricingIdx);
+            pricingCodes[pricingIdx] = pricing.getCode();
+            baseDays[pricingIdx] = pricing.getBaseDays();
+            newRelease[pricingIdx] = PointsCalculator.isNewRelease(pricing.getCode());
+            pricingIdx++;
+        }
+
+        Map<String, Integer> movieIndexById = new HashMap<>();
+        Set<String> skippedMovieIds = new HashSet<>();
+        String[] movieTitles = new String[movies.size()];
+        int[] moviePricingIndex = new int[movies.size()];
+        int movieIdx = 0;
+        for (Movie movie : movies) {
+            String code = movie.getPricing() != null ? movie.getPricing().getCode() : null;
+            Integer moviePricingIdx = code != null ? pricingIndexByCode.get(code) : null;
+            if (moviePricingIdx == null || movie.getId() == null) {
+                log.warn("Skipping movie {} of catalog version {}: no valid pricing code ('{}')", movie.getId(), version, code);
+                if (movie.getId() != null) {
+                    skippedMovieIds.add(movie.getId());
+                }
+                continue;
+            }
+            movieIndexById.put(movie.getId(), movieIdx);
+            movieTitles[movieIdx] = movie.getTitle();
+            moviePricingIndex[movieIdx] = moviePricingIdx;
+            movieIdx++;
+        }
+
+        return new MovieCatalogSnapshot(version, Instant.now(), Map.copyOf(movieIndexById), Set.copyOf(skippedMovieIds),
+                Arrays.copyOf(movieTitles, movieIdx), Arrays.copyOf(moviePricingIndex, movieIdx),
+                Arrays.copyOf(pricingCodes, pricingIdx), Arrays.copyOf(baseDays, pricingIdx), Arrays.copyOf(basePriceCents, pricingIdx),
+                Arrays.copyOf(extraPricePerDayCents, pricingIdx), Arrays.copyOf(newRelease, pricingIdx));
+    }
+
+    /**
+     * Returns the dense index of a movie.
+     *
+     * @param movieId the movie ID
+     * @return the movie index, or {@link #NOT_FOUND} if the movie is not part of this snapshot
+     */
+    public int movieIndex(String movieId) {
+        Integer movieIdx = movieId != null ? movieIndexById.get(movieId) : null;
+        return movieIdx != null ? movieIdx : NOT_FOUND;
+    }
+
+    /**
+     * Tells whether a movie was left out of this snapshot because its pricing is invalid.
+     *
+     * @param movieId the movie ID
+     * @return true if the movie row exists but could not be priced
+     */
+    public boolean isSkipped(String movieId) {
+        return movieId != null && skippedMovieIds.contains(movieId);
+    }
+
+    /**
+     * Returns the movies that are part of both this and a previous snapshot but are priced differently, because their
+     * pricing code or the values of that code changed.
+     *
+     * @param previous the snapshot this one replaces
+     * @return the IDs of the repriced movies
+     */
+    public Set<String> repricedMovieIds(MovieCatalogSnapshot previous) {
+        Set<String> repriced = new HashSet<>();
+        movieIndexById.forEach((movieId, movieIdx) -> {
+            int previousMovieIdx = previous.movieIndex(movieId);
+            if (previousMovieIdx != NOT_FOUND && !samePricing(moviePricingIndex[movieIdx], previous, previous.moviePricingIndex[previousMovieIdx])) {
+                repriced.add(movieId);
+            }
+        });
+        return repriced;
+    }
+
+    public String title(int movieIdx) {
+        return movieTitles[movieIdx];
+    }
+
+    public int pricingIndex(int movieIdx) {
+        return moviePricingIndex[movieIdx];
+    }
+
+    public String pricingCode(int pricingIdx) {
+        return pricingCodes[pricingIdx];
+    }
+
+    /**
+     * Calculates the rental amount of a movie for the given number of days.
+     *
+     * @param movieIdx the movie index
+     * @param days     the number of days rented
+     * @return the rental amount
+     */
+    public BigDecimal rentalAmount(int movieIdx, int days) {
+        return MoneyUtil.toAmount(rentalAmountCents(movieIdx, days));
+    }
+
+    /**
+     * Calculates the rental amount of a movie in cents for the given number of days.
+     *
+     * @param movieIdx the movie index
+     * @param days     the number of days rented
+     * @return the rental amount in cents
+     */
+    public long rentalAmountCents(int movieIdx, int days) {
+        return amountCents(moviePricingIndex[movieIdx], days);
+    }
+
+    /**
+     * Calculates the frequent renter points earned by renting a movie for the given number of days.
+     *
+     * @param movieIdx the movie index
+     * @param days     the number of days rented
+     * @return the frequent renter points
+     */
+    public int frequentRenterPoints(int movieIdx, int days) {
+        return points(moviePricingIndex[movieIdx], days);
+    }
+
+    /**
+     * Sums the amounts of rentals given as parallel arrays, without allocating.
+     *
+     * @param pricingIdx the pricing index of each rental, see {@link #pricingIndex(int)}
+     * @param days       the number of days of each rental
+     * @param count      the number of rentals, read from the start of the arrays
+     * @return the total amount in cents
+     * @throws IllegalArgumentException if a rental has no positive number of days
+     * @throws ArithmeticException      if the total does not fit in a long number of cents
+     */
+    public long totalAmountCents(int[] pricingIdx, int[] days, int count) {
+        long totalCents = 0;
+        for (int i = 0; i < count; i++) {
+            totalCents = MoneyUtil.add(totalCents, amountCents(pricingIdx[i], days[i]));
+        }
+        return totalCents;
+    }
+
+    /**
+     * Sums the frequent renter points of rentals given as parallel arrays, without allocating.
+     *
+     * @param pricingIdx the pricing index of each rental, see {@link #pricingIndex(int)}
+     * @param days       the number of days of each rental
+     * @param count      the number of rentals, read from the start of the arrays
+     * @return the total frequent renter points
+     */
+    public int totalFrequentRenterPoints(int[] pricingIdx, int[] days, int count) {
+        int totalPoints = 0;
+        for (int i = 0; i < count; i++) {
+            totalPoints += points(pricingIdx[i], days[i]);
+        }
+        return totalPoints;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public Instant loadedAt() {
+        return loadedAt;
+    }
+
+    public int movieCount() {
+        return movieTitles.length;
+    }
+
+    public int pricingCount() {
+        return pricingCodes.length;
+    }
+
+    public int skippedMovieCount() {
+        return skippedMovieIds.size();
+    }
+
+    private boolean samePricing(int pricingIdx, MovieCatalogSnapshot other, int otherPricingIdx) {
+        return baseDays[pricingIdx] == other.baseDays[otherPricingIdx]
+                && basePriceCents[pricingIdx] == other.basePriceCents[otherPricingIdx]
+                && extraPricePerDayCents[pricingIdx] == other.extraPricePerDayCents[otherPricingIdx]
+                && newRelease[pricingIdx] == other.newRelease[otherPricingIdx];
+    }
+
+    private long amountCents(int pricingIdx, int days) {
+        return days >= 1 && days <= TABULATED_DAYS ? amountCentsTable[pricingIdx * TABLE_WIDTH + days] : calculateAmountCents(pricingIdx, days);
+    }
+
+    private int points(int pricingIdx, int days) {
+        return days >= 1 && days <= TABULATED_DAYS ? pointsTable[pricingIdx * TABLE_WIDTH + days]
+                : PointsCalculator.calculateFrequentRenterPoints(newRelease[pricingIdx], days);
+    }
+
+    private long calculateAmountCents(int pricingIdx, int days) {
+        return PriceCalculator.calculateRentalAmountCents(baseDays[pricingIdx], basePriceCents[pricingIdx], extraPricePerDayCents[pricingIdx], days);
+    }
+}
@@ -0,0 +1,47 @@
+package com.etraveligroup.movie.rental.config;
+
+import com.etraveligroup.movie.rental.constants.BlockingExecutionMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+
+/**
+ * Configures where blocking repository and invoice computation work runs, so JDBC calls never occupy
+ * request-handling or Reactor event-loop threads. The mode is selected with "movie-rental.blocking.mode".
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Configuration(proxyBeanMethods = false)
+public class BlockingSchedulerConfig {
+
+    /**
+     * Executor running the blocking work; also registers its queue, activity and pinning metrics.
+     *
+     * @return the blocking task executor
+     */
+    @Bean(destroyMethod = "shutdown")
+    public BlockingTaskExecutor blockingTaskExecutor(
+            @Value("${movie-rental.blocking.mode:BOUNDED_POOL}") BlockingExecutionMode mode,
+            @Value("${movie-rental.blocking.pool-size:32}") int poolSize,
+            @Value("${movie-rental.blocking.queue-capacity:10000}") int queueCapacity,
+            @Value("${movie-rental.blocking.pinned-event-threshold:PT0.02S}") Duration pinnedEventThreshold) {
+        return new BlockingTaskExecutor(mode, poolSize, queueCapacity, pinnedEventThreshold);
+    }
+
+    /**
+     * Reactor scheduler on top of the blocking task executor, used with {@code subscribeOn}.
+     *
+     * @param blockingTaskExecutor the executor running the blocking work
+     * @return the blocking scheduler
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler blockingScheduler(BlockingTaskExecutor blockingTaskExecutor) {
+        return Schedulers.fromExecutorService(blockingTaskExecutor, "invoice-blocking");
+    }
+}
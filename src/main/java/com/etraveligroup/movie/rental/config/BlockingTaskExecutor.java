@@ -0,0 +1,184 @@
+package com.etraveligroup.movie.rental.config;
+
+import com.etraveligroup.movie.rental.constants.BlockingExecutionMode;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Executor running the blocking repository and invoice computation work, either on a bounded pool of
+ * platform threads or on virtual threads. It tracks the number of queued and running tasks and, on virtual
+ * threads, counts the JFR "jdk.VirtualThreadPinned" events raised while a virtual thread is pinned to its carrier.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+public class BlockingTaskExecutor extends AbstractExecutorService implements MeterBinder {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final BlockingExecutionMode mode;
+    private final ExecutorService delegate;
+    private final AtomicInteger queuedTasks = new AtomicInteger();
+    private final AtomicInteger activeTasks = new AtomicInteger();
+    private final AtomicLong pinnedEvents = new AtomicLong();
+    private final RecordingStream pinnedEventStream;
+
+    /**
+     * Creates the executor.
+     *
+     * @param mode              the execution mode
+     * @param poolSize          the number of platform threads in {@link BlockingExecutionMode#BOUNDED_POOL} mode
+     * @param queueCapacity     the number of tasks that may wait for a thread in {@link BlockingExecutionMode#BOUNDED_POOL} mode
+     * @param pinnedThreshold   the minimum pinning duration recorded in {@link BlockingExecutionMode#VIRTUAL_THREADS} mode,
+     *                          or null to not record pinning events
+     */
+    public BlockingTaskExecutor(BlockingExecutionMode mode, int poolSize, int queueCapacity, Duration pinnedThreshold) {
+        this.mode = mode;
+        if (mode == BlockingExecutionMode.VIRTUAL_THREADS) {
+            this.delegate = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("invoice-blocking-vt-", 0).factory());
+            this.pinnedEventStream = pinnedThreshold != null ? startPinnedEventStream(pinnedThreshold) : null;
+        } else {
+            AtomicInteger threadCount = new AtomicInteger();
+            this.delegate = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, "invoice-blocking-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            this.pinnedEventStream = null;
+        }
+        log.info("Blocking work runs in {} mode", mode);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        queuedTasks.incrementAndGet();
+        try {
+            delegate.execute(() -> {
+                queuedTasks.decrementAndGet();
+                activeTasks.incrementAndGet();
+                try {
+                    command.run();
+                } finally {
+                    activeTasks.decrementAndGet();
+                }
+            });
+        } catch (RuntimeException e) {
+            queuedTasks.decrementAndGet();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of submitted tasks that have not started yet.
+     *
+     * @return the queue depth
+     */
+    public int getQueueDepth() {
+        return queuedTasks.get();
+    }
+
+    /**
+     * Returns the number of tasks currently running.
+     *
+     * @return the number of active tasks
+     */
+    public int getActiveTasks() {
+        return activeTasks.get();
+    }
+
+    /**
+     * Returns the number of virtual-thread pinning events recorded so far.
+     *
+     * @return the number of pinning events
+     */
+    public long getPinnedEvents() {
+        return pinnedEvents.get();
+    }
+
+    public BlockingExecutionMode getMode() {
+        return mode;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        String modeTag = mode.name().toLowerCase(Locale.ROOT);
+        Gauge.builder("movie.rental.blocking.queue.depth", queuedTasks, AtomicInteger::get)
+                .description("Blocking tasks waiting for a thread")
+                .tag("mode", modeTag)
+                .register(registry);
+        Gauge.builder("movie.rental.blocking.active.tasks", activeTasks, AtomicInteger::get)
+                .description("Blocking tasks currently running")
+                .tag("mode", modeTag)
+                .register(registry);
+        FunctionCounter.builder("movie.rental.blocking.virtual.threads.pinned", pinnedEvents, AtomicLong::doubleValue)
+                .description("Virtual threads pinned to their carrier thread while blocking")
+                .tag("mode", modeTag)
+                .register(registry);
+    }
+
+    @Override
+    public void shutdown() {
+        if (pinnedEventStream != null) {
+            pinnedEventStream.close();
+        }
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        if (pinnedEventStream != null) {
+            pinnedEventStream.close();
+        }
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+
+    private RecordingStream startPinnedEventStream(Duration threshold) {
+        try {
+            RecordingStream stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            stream.onEvent(PINNED_EVENT, event -> {
+                pinnedEvents.incrementAndGet();
+                log.debug("Virtual thread pinned for {}: {}", event.getDuration(), event.getStackTrace());
+            });
+            stream.startAsync();
+            return stream;
+        } catch (RuntimeException e) {
+            log.warn("Virtual thread pinning events are not available: {}", e.getMessage());
+            return null;
+        }
+    }
+}
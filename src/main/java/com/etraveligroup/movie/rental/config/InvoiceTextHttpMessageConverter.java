@@ -0,0 +1,58 @@
+package com.etraveligroup.movie.rental.config;
+
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import com.etraveligroup.movie.rental.util.InvoiceTextWriter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Message converter rendering invoices returned as text/plain straight into the servlet response buffer.
+ * Spring Boot registers converter beans ahead of its default converters, so a text/plain response whose body is an
+ * {@link InvoiceResponseDTO} is written by {@link InvoiceTextWriter} instead of being formatted to a String first.
+ * The body, its length and the content type are the same as for the formatted String.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class InvoiceTextHttpMessageConverter extends AbstractHttpMessageConverter<InvoiceResponseDTO> {
+
+    public InvoiceTextHttpMessageConverter() {
+        super(StandardCharsets.UTF_8, MediaType.TEXT_PLAIN);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return InvoiceResponseDTO.class.isAssignableFrom(clazz);
+    }
+
+    // Invoices are only written as text; requests carry their own DTOs.
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected InvoiceResponseDTO readInternal(Class<? extends InvoiceResponseDTO> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Invoices cannot be read from plain text", inputMessage);
+    }
+
+    // Known up front, so the response carries a Content-Length instead of being sent in chunks.
+    @Override
+    protected Long getContentLength(InvoiceResponseDTO invoice, MediaType contentType) {
+        return InvoiceTextWriter.encodedLength(invoice);
+    }
+
+    @Override
+    protected void writeInternal(InvoiceResponseDTO invoice, HttpOutputMessage outputMessage) throws IOException {
+        InvoiceTextWriter.write(invoice, outputMessage.getBody());
+    }
+}
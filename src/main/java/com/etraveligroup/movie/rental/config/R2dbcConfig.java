@@ -0,0 +1,72 @@
+package com.etraveligroup.movie.rental.config;
+
+import com.etraveligroup.movie.rental.repository.reactive.ReactiveCustomerRepository;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+
+import java.time.Duration;
+
+/**
+ * Configures the R2DBC data path used by the "r2dbc" profile.
+ * The connection pool is deliberately not registered as a {@code ConnectionFactory} bean: Spring Boot would
+ * otherwise run schema.sql and data.sql through R2DBC instead of the JDBC data source that JPA uses.
+ * The reactive repositories are wired to the entity template below instead.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@Profile("r2dbc")
+@EnableR2dbcRepositories(basePackageClasses = ReactiveCustomerRepository.class, entityOperationsRef = "rentalR2dbcEntityTemplate")
+public class R2dbcConfig implements DisposableBean {
+
+    private final ConnectionPool connectionPool;
+
+    public R2dbcConfig(@Value("${movie-rental.r2dbc.url}") String url,
+                       @Value("${movie-rental.r2dbc.username:}") String username,
+                       @Value("${movie-rental.r2dbc.password:}") String password,
+                       @Value("${movie-rental.r2dbc.pool.max-size:10}") int maxSize,
+                       @Value("${movie-rental.r2dbc.pool.max-acquire-time:PT5S}") Duration maxAcquireTime) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+        if (!username.isEmpty()) {
+            options.option(ConnectionFactoryOptions.USER, username);
+        }
+        if (!password.isEmpty()) {
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .name("rental-r2dbc")
+                .initialSize(Math.min(2, maxSize))
+                .maxSize(maxSize)
+                .maxAcquireTime(maxAcquireTime)
+                .build());
+        log.info("R2DBC data path enabled: {} (pool max size {})", url, maxSize);
+    }
+
+    /**
+     * Entity template backing the reactive repositories.
+     *
+     * @return R2dbcEntityTemplate on the R2DBC connection pool
+     */
+    @Bean
+    public R2dbcEntityTemplate rentalR2dbcEntityTemplate() {
+        return new R2dbcEntityTemplate(connectionPool);
+    }
+
+    @Override
+    public void destroy() {
+        connectionPool.dispose();
+    }
+}
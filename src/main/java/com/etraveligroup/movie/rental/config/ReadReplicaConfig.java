@@ -0,0 +1,114 @@
+package com.etraveligroup.movie.rental.config;
+
+import com.etraveligroup.movie.rental.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Routes read-only transactions to read replicas when "movie-rental.read-replicas.enabled" is true.
+ * The application data source becomes a {@link LazyConnectionDataSourceProxy} over the primary: the physical
+ * connection is only fetched once the transaction has marked it read-only, and read-only connections are then
+ * taken from the {@link ReplicaRoutingDataSource}. Everything else keeps using the primary.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "movie-rental.read-replicas", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties({ReadReplicaProperties.class, SqlInitializationProperties.class})
+public class ReadReplicaConfig {
+
+    /**
+     * The primary data source, configured from "spring.datasource".
+     *
+     * @param dataSourceProperties the primary data source settings
+     * @return the primary data source
+     */
+    @Bean
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    /**
+     * The data source serving read-only connections from the healthy replicas.
+     *
+     * @param primaryDataSource the primary data source used as fallback
+     * @param properties        the replica settings
+     * @param sqlInitProperties the SQL script locations, run on the replicas when schema initialization is enabled
+     * @param resourceLoader    the loader of the SQL scripts
+     * @return the replica routing data source
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource, ReadReplicaProperties properties,
+                                                             SqlInitializationProperties sqlInitProperties, ResourceLoader resourceLoader) {
+        List<ReplicaRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.replicas().size(); i++) {
+            ReadReplicaProperties.Replica settings = properties.replicas().get(i);
+            String name = settings.name() != null ? settings.name() : "replica-" + (i + 1);
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName(name);
+            replica.setJdbcUrl(settings.url());
+            replica.setUsername(settings.username());
+            replica.setPassword(settings.password());
+            replica.setReadOnly(true);
+            if (settings.maximumPoolSize() != null) {
+                replica.setMaximumPoolSize(settings.maximumPoolSize());
+            }
+            if (properties.initializeSchema()) {
+                initializeSchema(new DriverManagerDataSource(settings.url(), settings.username(), settings.password()),
+                        sqlInitProperties, resourceLoader);
+            }
+            replicas.add(new ReplicaRoutingDataSource.Replica(name, replica));
+            log.info("Read replica {} configured: {}", name, settings.url());
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, properties.strategy(), properties.healthCheckTimeout());
+    }
+
+    /**
+     * The application data source.
+     *
+     * @param primaryDataSource        the primary data source
+     * @param replicaRoutingDataSource the data source for read-only connections
+     * @return the routing proxy used by JPA and JDBC
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+
+    private static void initializeSchema(DataSource replica, SqlInitializationProperties sqlInitProperties, ResourceLoader resourceLoader) {
+        ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
+        List<String> locations = new ArrayList<>();
+        if (sqlInitProperties.getSchemaLocations() != null) {
+            locations.addAll(sqlInitProperties.getSchemaLocations());
+        }
+        if (sqlInitProperties.getDataLocations() != null) {
+            locations.addAll(sqlInitProperties.getDataLocations());
+        }
+        locations.forEach(location -> populator.addScript(resourceLoader.getResource(location)));
+        DatabasePopulatorUtils.execute(populator, replica);
+    }
+}
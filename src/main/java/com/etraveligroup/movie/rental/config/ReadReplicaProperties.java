@@ -0,0 +1,50 @@
+package com.etraveligroup.movie.rental.config;
+
+import com.etraveligroup.movie.rental.constants.ReplicaSelectionStrategy;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings of the read replicas serving read-only transactions, bound from "movie-rental.read-replicas".
+ *
+ * @param enabled             whether read-only transactions are routed to the replicas
+ * @param strategy            how a replica is chosen among the healthy ones
+ * @param healthCheckInterval the delay between replica health checks
+ * @param healthCheckTimeout  the maximum time a replica may take to validate a connection
+ * @param initializeSchema    whether schema.sql and data.sql are run on every replica at startup, for local testing
+ * @param replicas            the replica connection settings
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@ConfigurationProperties(prefix = "movie-rental.read-replicas")
+public record ReadReplicaProperties(
+        boolean enabled,
+        ReplicaSelectionStrategy strategy,
+        Duration healthCheckInterval,
+        Duration healthCheckTimeout,
+        boolean initializeSchema,
+        List<Replica> replicas
+) {
+
+    public ReadReplicaProperties {
+        strategy = strategy != null ? strategy : ReplicaSelectionStrategy.ROUND_ROBIN;
+        healthCheckInterval = healthCheckInterval != null ? healthCheckInterval : Duration.ofSeconds(10);
+        healthCheckTimeout = healthCheckTimeout != null ? healthCheckTimeout : Duration.ofSeconds(2);
+        replicas = replicas != null ? List.copyOf(replicas) : List.of();
+    }
+
+    /**
+     * Connection settings of one read replica.
+     *
+     * @param name          the replica name used in logs and as pool name
+     * @param url           the JDBC URL
+     * @param username      the user name
+     * @param password      the password
+     * @param maximumPoolSize the maximum number of pooled connections
+     */
+    public record Replica(String name, String url, String username, String password, Integer maximumPoolSize) {
+    }
+}
@@ -0,0 +1,118 @@
+package com.etraveligroup.movie.rental.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Enables the Hibernate second-level cache when "movie-rental.second-level-cache.enabled" is true.
+ * Every configured region is created up front as a Caffeine cache behind the JCache API; Hibernate fails to start
+ * if a cached entity names a region that is not configured. Hit, miss and put counts of each region are
+ * published as metrics from the Hibernate statistics.
+ * The regions serve lookups by ID such as MovieRepository.findById. Invoices do not read them: the invoice query
+ * fetches movies and pricing joined with the rentals, and the default catalog read path does not use Hibernate.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "movie-rental.second-level-cache", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(SecondLevelCacheProperties.class)
+public class SecondLevelCacheConfig {
+
+    /**
+     * The JCache manager holding the second-level cache regions.
+     * Each application context gets its own manager, so contexts never share or close each other's regions.
+     *
+     * @param properties the region settings
+     * @return the cache manager
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager(SecondLevelCacheProperties properties) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("movie-rental-second-level-cache-" + UUID.randomUUID()), getClass().getClassLoader());
+        properties.regions().forEach((name, region) -> {
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            if (region.maximumSize() != null) {
+                configuration.setMaximumSize(OptionalLong.of(region.maximumSize()));
+            }
+            if (region.expireAfterWrite() != null) {
+                configuration.setExpireAfterWrite(OptionalLong.of(region.expireAfterWrite().toNanos()));
+            }
+            cacheManager.createCache(name, configuration);
+            log.info("Second-level cache region {} created: maximum size {}, expire after write {}",
+                    name, region.maximumSize(), region.expireAfterWrite());
+        });
+        return cacheManager;
+    }
+
+    /**
+     * Points Hibernate at the JCache regions and turns on the statistics behind the cache metrics.
+     *
+     * @param secondLevelCacheManager the cache manager holding the regions
+     * @return the Hibernate properties customizer
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheHibernateProperties(CacheManager secondLevelCacheManager) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put("hibernate.javax.cache.cache_manager", secondLevelCacheManager);
+            hibernateProperties.put("hibernate.javax.cache.missing_cache_strategy", "fail");
+            hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+
+    /**
+     * Publishes the hits, misses and puts of every configured region.
+     *
+     * @param entityManagerFactory the entity manager factory whose statistics are read
+     * @param properties           the region settings
+     * @return the meter binder
+     */
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(EntityManagerFactory entityManagerFactory, SecondLevelCacheProperties properties) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> properties.regions().keySet().forEach(region -> {
+            register(registry, "hits", "Second-level cache lookups served from the region", statistics, region,
+                    CacheRegionStatistics::getHitCount);
+            register(registry, "misses", "Second-level cache lookups that went to the database", statistics, region,
+                    CacheRegionStatistics::getMissCount);
+            register(registry, "puts", "Entities put into the second-level cache region", statistics, region,
+                    CacheRegionStatistics::getPutCount);
+        });
+    }
+
+    private static void register(MeterRegistry registry, String name, String description,
+                                 Statistics statistics, String region, ToDoubleFunction<CacheRegionStatistics> count) {
+        FunctionCounter.builder("movie.rental.second-level-cache." + name, statistics, stats -> {
+                    CacheRegionStatistics regionStatistics = stats.getCacheRegionStatistics(region);
+                    return regionStatistics != null ? count.applyAsDouble(regionStatistics) : 0;
+                })
+                .description(description)
+                .tag("region", region)
+                .register(registry);
+    }
+}
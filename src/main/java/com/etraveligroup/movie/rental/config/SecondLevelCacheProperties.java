@@ -0,0 +1,35 @@
+package com.etraveligroup.movie.rental.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Settings of the Hibernate second-level cache, bound from "movie-rental.second-level-cache".
+ *
+ * @param enabled whether entities annotated for caching are kept in the second-level cache
+ * @param regions the size and expiry of each cache region, by region name
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@ConfigurationProperties(prefix = "movie-rental.second-level-cache")
+public record SecondLevelCacheProperties(
+        boolean enabled,
+        Map<String, Region> regions
+) {
+
+    public SecondLevelCacheProperties {
+        regions = regions != null ? Map.copyOf(regions) : Map.of();
+    }
+
+    /**
+     * Size and expiry of one cache region.
+     *
+     * @param maximumSize      the maximum number of cached entries, unbounded if not set
+     * @param expireAfterWrite the time after which an entry is reloaded from the database, never if not set
+     */
+    public record Region(Long maximumSize, Duration expireAfterWrite) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.etraveligroup.movie.rental.constants;
+
+/**
+ * Lifecycle states of a billing run.
+ */
+public enum BillingRunState {
+    // Pages are being generated.
+    RUNNING,
+    // Every customer has been processed.
+    COMPLETED,
+    // The run stopped because a page could not be generated or written.
+    FAILED,
+    // The run has a checkpoint on disk but is not running, e.g. after a crash or restart.
+    INTERRUPTED
+}
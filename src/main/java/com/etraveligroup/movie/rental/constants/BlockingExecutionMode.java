@@ -0,0 +1,12 @@
+package com.etraveligroup.movie.rental.constants;
+
+/**
+ * Execution modes for blocking repository and invoice computation work.
+ * Selected with the "movie-rental.blocking.mode" property.
+ */
+public enum BlockingExecutionMode {
+    // Runs blocking work on a fixed pool of platform threads with a bounded task queue.
+    BOUNDED_POOL,
+    // Runs every blocking task on its own virtual thread.
+    VIRTUAL_THREADS
+}
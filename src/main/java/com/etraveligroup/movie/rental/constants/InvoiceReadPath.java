@@ -0,0 +1,14 @@
+package com.etraveligroup.movie.rental.constants;
+
+/**
+ * Read paths available for loading the rental data of an invoice.
+ * Selected with the "movie-rental.invoice.read-path" property.
+ */
+public enum InvoiceReadPath {
+    // Loads the customer, rentals, movies and pricing as managed entities.
+    ENTITY,
+    // Loads flat invoice rows through a constructor projection, skipping entity hydration.
+    PROJECTION,
+    // Loads only movie IDs and days, resolving titles and pricing from the in-memory movie catalog.
+    CATALOG
+}
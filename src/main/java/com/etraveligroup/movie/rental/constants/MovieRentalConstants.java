@@ -23,4 +23,8 @@ public final class MovieRentalConstants {
     public static final String CUSTOMER_LABEL = "customer: ";
     public static final String INVOICE_NOT_FOUND_FOR = "Invoice not found for ";
 
+    // Second-level cache regions
+    public static final String MOVIE_CACHE_REGION = "movie";
+    public static final String MOVIE_PRICING_CACHE_REGION = "movie-pricing";
+
 }
\ No newline at end of file
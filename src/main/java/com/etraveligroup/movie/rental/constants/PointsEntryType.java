@@ -0,0 +1,15 @@
+package com.etraveligroup.movie.rental.constants;
+
+/**
+ * Kinds of entries in the frequent renter points ledger.
+ */
+public enum PointsEntryType {
+    // Points earned by a rental that was added or changed.
+    EARNED,
+    // Points taken back from a rental that was deleted or changed, negative.
+    REVERSED,
+    // Sum of entries folded by compaction, or of rentals that existed before the customer had a balance.
+    CARRIED_FORWARD,
+    // Difference applied by verification to bring a drifted balance to the points recomputed from the rentals.
+    CORRECTION
+}
@@ -0,0 +1,14 @@
+package com.etraveligroup.movie.rental.constants;
+
+/**
+ * Kinds of rental changes published as {@link com.etraveligroup.movie.rental.event.RentalChangedEvent}.
+ * An update of a rental is published as the removal of its previous state followed by the addition of its new state.
+ */
+public enum RentalChangeType {
+    // The rental now counts towards the invoice of the customer.
+    ADDED,
+    // The rental no longer counts towards the invoice of the customer.
+    REMOVED,
+    // The rental was moved to the archive; it no longer counts towards the invoice but stays part of the customer's history.
+    ARCHIVED
+}
@@ -0,0 +1,12 @@
+package com.etraveligroup.movie.rental.constants;
+
+/**
+ * Strategies for choosing the read replica that serves a read-only transaction.
+ * Selected with the "movie-rental.read-replicas.strategy" property.
+ */
+public enum ReplicaSelectionStrategy {
+    // Cycles through the healthy replicas in configuration order.
+    ROUND_ROBIN,
+    // Picks the healthy replica with the fewest connections in use.
+    LEAST_CONNECTIONS
+}
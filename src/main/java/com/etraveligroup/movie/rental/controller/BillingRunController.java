@@ -0,0 +1,71 @@
+package com.etraveligroup.movie.rental.controller;
+
+import com.etraveligroup.movie.rental.dto.BillingRunStatusDTO;
+import com.etraveligroup.movie.rental.service.impl.BillingRunService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * BillingRunController exposes the bulk billing run, which writes the invoices of all customers to files.
+ * It provides endpoints to start a run, follow its progress and resume an interrupted run.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/billing-runs")
+@RequiredArgsConstructor
+@Tag(name = "Billing Run API", description = "Generate the invoices of all customers in bulk")
+public class BillingRunController {
+
+    private final BillingRunService billingRunService;
+
+    /**
+     * Starts a billing run over all customers. The run executes in the background.
+     *
+     * @return ResponseEntity containing the status of the started run
+     */
+    @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Starts a billing run over all customers")
+    public ResponseEntity<BillingRunStatusDTO> startBillingRun() {
+        log.info("Received request to start a billing run");
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(billingRunService.start());
+    }
+
+    /**
+     * Returns the progress of a billing run.
+     *
+     * @param runId the ID of the billing run
+     * @return ResponseEntity containing the status of the run
+     */
+    @GetMapping(value = "/{runId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Returns the status of a billing run")
+    public ResponseEntity<BillingRunStatusDTO> getBillingRun(@PathVariable String runId) {
+        return ResponseEntity.ok(billingRunService.status(runId));
+    }
+
+    /**
+     * Resumes an interrupted billing run from its last checkpoint.
+     *
+     * @param runId the ID of the billing run
+     * @return ResponseEntity containing the status of the resumed run
+     */
+    @PostMapping(value = "/{runId}/resume", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Resumes an interrupted billing run")
+    public ResponseEntity<BillingRunStatusDTO> resumeBillingRun(@PathVariable String runId) {
+        log.info("Received request to resume billing run {}", runId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(billingRunService.resume(runId));
+    }
+}
@@ -0,0 +1,56 @@
+package com.etraveligroup.movie.rental.controller;
+
+import com.etraveligroup.movie.rental.dto.CatalogStatusDTO;
+import com.etraveligroup.movie.rental.service.impl.MovieCatalogService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * CatalogController exposes the in-memory movie catalog used for invoice generation.
+ * It provides endpoints to inspect the current catalog snapshot and to reload it from the database.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/catalog")
+@RequiredArgsConstructor
+@Tag(name = "Catalog API", description = "Inspect and reload the movie catalog")
+public class CatalogController {
+
+    private final MovieCatalogService movieCatalogService;
+
+    /**
+     * Returns the status of the catalog snapshot currently in use.
+     *
+     * @return ResponseEntity containing the catalog status
+     */
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Returns the current movie catalog status")
+    public ResponseEntity<CatalogStatusDTO> getCatalogStatus() {
+        return ResponseEntity.ok(movieCatalogService.status());
+    }
+
+    /**
+     * Reloads the movie catalog from the database and swaps in the new snapshot.
+     *
+     * @return ResponseEntity containing the status of the reloaded catalog
+     */
+    @PostMapping(value = "/reload", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Reloads the movie catalog")
+    public ResponseEntity<CatalogStatusDTO> reloadCatalog() {
+        log.info("Received request to reload the movie catalog");
+        movieCatalogService.reload();
+        return ResponseEntity.ok(movieCatalogService.status());
+    }
+}
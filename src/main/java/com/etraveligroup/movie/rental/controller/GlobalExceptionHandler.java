@@ -165,6 +165,44 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ex.getMessage());
     }
 
+    /**
+     * Handles billing run not found exceptions.
+     *
+     * @param ex the BillingRunNotFoundException containing the error message
+     * @return a ResponseEntity with a not found status and the error message
+     */
+    @ExceptionHandler(BillingRunNotFoundException.class)
+    public ResponseEntity<String> handleBillingRunNotFound(BillingRunNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    /**
+     * Handles attempts to start a billing run while another one is running.
+     *
+     * @param ex the BillingRunInProgressException containing the error message
+     * @return a ResponseEntity with a conflict status and the error message
+     */
+    @ExceptionHandler(BillingRunInProgressException.class)
+    public ResponseEntity<String> handleBillingRunInProgress(BillingRunInProgressException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    /**
+     * Handles bulk rental inserts that failed after committing some chunks.
+     *
+     * @param ex the RentalIngestionFailedException containing the committed and requested rentals
+     * @return a ResponseEntity with an internal server error status and the number of committed rentals
+     */
+    @ExceptionHandler(RentalIngestionFailedException.class)
+    public ResponseEntity<Map<String, Object>> handleRentalIngestionFailed(RentalIngestionFailedException ex) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", HttpStatus.INTERNAL_SERVER_ERROR.value());
+        response.put("error", ex.getMessage());
+        response.put("rowsCommitted", ex.getRowsCommitted());
+        response.put("rowsRequested", ex.getRowsRequested());
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+    }
+
     @ExceptionHandler(org.springframework.web.servlet.NoHandlerFoundException.class)
     @ResponseStatus(HttpStatus.NOT_FOUND)
     public ResponseEntity<Map<String, String>> handleNotFound(NoHandlerFoundException ex) {
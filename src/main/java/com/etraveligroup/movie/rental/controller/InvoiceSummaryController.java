@@ -0,0 +1,66 @@
+package com.etraveligroup.movie.rental.controller;
+
+import com.etraveligroup.movie.rental.dto.CustomerInvoiceSummaryDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceSummaryVerificationDTO;
+import com.etraveligroup.movie.rental.service.impl.CustomerInvoiceSummaryService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * InvoiceSummaryController exposes the incrementally maintained invoice summaries of customers.
+ * It provides endpoints to read the summary of a customer and to verify a sample of summaries against the rentals.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/invoice-summaries")
+@RequiredArgsConstructor
+@Tag(name = "Invoice Summary API", description = "Read invoice totals without recomputing them from rentals")
+@Validated
+public class InvoiceSummaryController {
+
+    private final CustomerInvoiceSummaryService customerInvoiceSummaryService;
+
+    /**
+     * Returns the invoice summary of a customer with a single row lookup.
+     *
+     * @param customerId the ID of the customer
+     * @return ResponseEntity containing the summary of the customer
+     */
+    @GetMapping(value = "/{customerId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Returns the invoice summary of a customer")
+    public ResponseEntity<CustomerInvoiceSummaryDTO> getSummary(@PathVariable @NotNull @Positive Long customerId) {
+        return ResponseEntity.ok(customerInvoiceSummaryService.getSummary(customerId));
+    }
+
+    /**
+     * Recomputes a random sample of summaries from the rentals and reports the summaries that drifted.
+     *
+     * @param sampleSize the number of customers to check
+     * @return ResponseEntity containing the verification report
+     */
+    @PostMapping(value = "/verification", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Verifies a sample of invoice summaries against the rentals")
+    public ResponseEntity<InvoiceSummaryVerificationDTO> verify(
+            @RequestParam(defaultValue = "100") @Positive @Max(10000) int sampleSize) {
+        log.info("Received request to verify {} invoice summaries", sampleSize);
+        return ResponseEntity.ok(customerInvoiceSummaryService.verify(sampleSize));
+    }
+}
@@ -0,0 +1,80 @@
+package com.etraveligroup.movie.rental.controller;
+
+import com.etraveligroup.movie.rental.dto.CustomerPointsBalanceDTO;
+import com.etraveligroup.movie.rental.dto.PointsLedgerCompactionDTO;
+import com.etraveligroup.movie.rental.dto.PointsLedgerVerificationDTO;
+import com.etraveligroup.movie.rental.service.impl.FrequentPointsLedgerService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * PointsLedgerController exposes the frequent renter points balances kept by the points ledger.
+ * It provides endpoints to read the balance of a customer, to compact the ledger and to verify a sample of
+ * balances against the rentals.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/points")
+@RequiredArgsConstructor
+@Tag(name = "Points Ledger API", description = "Read frequent renter points balances without recomputing them from rentals")
+@Validated
+public class PointsLedgerController {
+
+    private final FrequentPointsLedgerService frequentPointsLedgerService;
+
+    /**
+     * Returns the frequent renter points balance of a customer with a single row lookup.
+     *
+     * @param customerId the ID of the customer
+     * @return ResponseEntity containing the balance of the customer
+     */
+    @GetMapping(value = "/{customerId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Returns the frequent renter points balance of a customer")
+    public ResponseEntity<CustomerPointsBalanceDTO> getBalance(@PathVariable @NotNull @Positive Long customerId) {
+        return ResponseEntity.ok(frequentPointsLedgerService.getBalance(customerId));
+    }
+
+    /**
+     * Folds old ledger entries into one carried-forward entry per customer.
+     *
+     * @return ResponseEntity containing the compaction report
+     */
+    @PostMapping(value = "/compaction", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Compacts old points ledger entries")
+    public ResponseEntity<PointsLedgerCompactionDTO> compact() {
+        log.info("Received request to compact the points ledger");
+        return ResponseEntity.ok(frequentPointsLedgerService.compact());
+    }
+
+    /**
+     * Recomputes the points of a random sample of customers from the rentals and reports the balances that drifted.
+     *
+     * @param sampleSize the number of customers to check
+     * @return ResponseEntity containing the verification report
+     */
+    @PostMapping(value = "/verification", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Verifies a sample of points balances against the ledger and the rentals")
+    public ResponseEntity<PointsLedgerVerificationDTO> verify(
+            @RequestParam(defaultValue = "100") @Positive @Max(10000) int sampleSize) {
+        log.info("Received request to verify {} points balances", sampleSize);
+        return ResponseEntity.ok(frequentPointsLedgerService.verify(sampleSize));
+    }
+}
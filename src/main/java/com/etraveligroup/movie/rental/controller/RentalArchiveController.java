@@ -0,0 +1,62 @@
+package com.etraveligroup.movie.rental.controller;
+
+import com.etraveligroup.movie.rental.dto.RentalArchiveResultDTO;
+import com.etraveligroup.movie.rental.service.impl.RentalArchiveService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * RentalArchiveController closes rentals and moves closed rentals out of the hot rental table.
+ * It provides endpoints to record the return of a rental and to run the archive mover on demand.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/rentals")
+@RequiredArgsConstructor
+@Tag(name = "Rental Archive API", description = "Return rentals and archive closed rentals")
+@Validated
+public class RentalArchiveController {
+
+    private final RentalArchiveService rentalArchiveService;
+
+    /**
+     * Records the return of a rental at the current time.
+     *
+     * @param rentalId the ID of the rental
+     * @return ResponseEntity without content
+     */
+    @PostMapping("/{rentalId}/return")
+    @Operation(summary = "Records the return of a rental")
+    public ResponseEntity<Void> returnRental(@PathVariable @NotNull @Positive Long rentalId) {
+        log.info("Received request to return rental {}", rentalId);
+        rentalArchiveService.markReturned(rentalId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Moves the rentals returned before the archive horizon to the archive table.
+     *
+     * @return ResponseEntity containing the archive run report
+     */
+    @PostMapping(value = "/archive", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Archives rentals returned before the archive horizon")
+    public ResponseEntity<RentalArchiveResultDTO> archive() {
+        log.info("Received request to archive closed rentals");
+        return ResponseEntity.ok(rentalArchiveService.archive());
+    }
+}
@@ -1,10 +1,16 @@
 package com.etraveligroup.movie.rental.controller;
 
+import com.etraveligroup.movie.rental.dto.BatchInvoiceResultDTO;
 import com.etraveligroup.movie.rental.dto.GenerateInvoiceByNameRequestDTO;
+import com.etraveligroup.movie.rental.dto.GenerateInvoicesByIdsRequestDTO;
 import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import com.etraveligroup.movie.rental.dto.RentalPeriodDTO;
+import com.etraveligroup.movie.rental.exceptions.CustomerNotFoundException;
 import com.etraveligroup.movie.rental.service.RentalInfoService;
+import com.etraveligroup.movie.rental.service.impl.CustomerExistenceGuard;
+import com.etraveligroup.movie.rental.service.impl.InvoiceRequestCoalescer;
 import com.etraveligroup.movie.rental.service.impl.PdfGenerateService;
-import com.etraveligroup.movie.rental.util.InvoiceParserUtil;
+import com.etraveligroup.movie.rental.util.InvoiceETagUtil;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -12,14 +18,18 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.LocalDate;
 import java.util.Map;
 
 import static com.etraveligroup.movie.rental.constants.MovieRentalConstants.*;
@@ -27,6 +37,10 @@ import static com.etraveligroup.movie.rental.constants.MovieRentalConstants.*;
 /**
  * RentalController handles requests related to generating invoices for movie rentals.
  * It provides endpoints to generate invoices by customer name or ID.
+ * Invoice responses carry an entity tag of the invoice content, so clients polling an invoice by ID can revalidate it
+ * with If-None-Match and receive 304 Not Modified without the body being rendered again.
+ * Concurrent requests for the current invoice of the same customer in the same format share one computation and
+ * rendering. Requests for customer IDs the existence guard knows to be missing are answered without a database query.
  *
  * @author Suresh
  * @version 1.0
@@ -42,6 +56,11 @@ public class RentalController {
 
     private final RentalInfoService rentalInfoService;
     private final PdfGenerateService pdfGeneratorService;
+    private final InvoiceRequestCoalescer invoiceRequestCoalescer;
+    private final CustomerExistenceGuard customerExistenceGuard;
+
+    // Invoices are customer specific and must be revalidated before a stored copy is reused
+    private static final CacheControl INVOICE_CACHE_CONTROL = CacheControl.noCache().cachePrivate();
 
     /**
      * Generates an invoice based on the customer name or ID.
@@ -60,67 +79,176 @@ public class RentalController {
             @RequestHeader("Accept") String acceptHeader) {
         log.info("Received request to generate invoice by {}{}, Accept: {}", CUSTOMER_LABEL, generateInvoiceByNameDTO.customerName(), acceptHeader);
 
+        String label = CUSTOMER_LABEL + generateInvoiceByNameDTO.customerName();
         return rentalInfoService.generateInvoiceByName(generateInvoiceByNameDTO)
-                .map(invoiceText -> buildInvoiceResponse(invoiceText, acceptHeader, generateInvoiceByNameDTO.customerName(), null))
+                .map(invoice -> renderInvoice(null, invoice, invoiceFormat(acceptHeader), label))
+                .flatMap(rendered -> buildInvoiceResponse(rendered, null, label))
+                .switchIfEmpty(Mono.fromSupplier(() -> invoiceNotFound(label)))
                 .doOnError(e -> log.error("Error generating invoice for {}{}", CUSTOMER_LABEL, generateInvoiceByNameDTO.customerName(), e));
     }
 
     /**
      * Generates an invoice based on the customer ID.
+     * Without a date range only current rentals are invoiced; with "from" and/or "to" the invoice covers the rentals
+     * rented on those UTC days, including archived rentals.
+     * If the If-None-Match header holds the entity tag of the current invoice, 304 Not Modified is returned instead.
+     * Concurrent requests for the current invoice in the same format wait for the same computation.
      *
      * @param customerId   the ID of the customer for whom the invoice is to be generated
+     * @param from         the first rental day to include, or null to start with the oldest rental
+     * @param to           the last rental day to include, or null to end today
      * @param acceptHeader the Accept header to determine response format
+     * @param ifNoneMatch  the entity tags of the invoices the client already holds, may be null
      * @return Mono<ResponseEntity < Object>> containing the generated invoice in the requested format
-     * @throws IllegalArgumentException if the customer ID is null or not positive
+     * @throws IllegalArgumentException if the customer ID is null or not positive, or "from" is after "to"
      */
     @GetMapping(value = "/invoice/{customerId}", produces = {MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_PDF_VALUE, MediaType.APPLICATION_JSON_VALUE})
     @Operation(summary = "Generates invoice by customer ID")
     public Mono<ResponseEntity<Object>> generateInvoiceById(
             @PathVariable @NotNull @Positive Long customerId,
-            @RequestHeader("Accept") String acceptHeader) {
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestHeader("Accept") String acceptHeader,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.info("Received request to generate invoice by {}{}, Accept: {}", CUSTOMER_ID_LABEL, customerId, acceptHeader);
 
-        return rentalInfoService.generateInvoiceById(customerId)
-                .map(invoiceText -> buildInvoiceResponse(invoiceText, acceptHeader, null, customerId))
+        String label = CUSTOMER_ID_LABEL + customerId;
+        if (customerExistenceGuard.isKnownMissing(customerId)) {
+            log.info("Customer not found for {} without a database query", label);
+            return Mono.just(customerNotFound());
+        }
+        MediaType format = invoiceFormat(acceptHeader);
+        Mono<RenderedInvoice> rendered = from == null && to == null
+                ? invoiceRequestCoalescer.execute(customerId, format, () -> rentalInfoService.generateInvoiceById(customerId)
+                        .map(invoice -> renderInvoice(customerId, invoice, format, label)))
+                : rentalInfoService.generateInvoiceById(customerId, RentalPeriodDTO.ofDates(from, to))
+                        .map(invoice -> renderInvoice(customerId, invoice, format, label));
+        return rendered
+                .flatMap(renderedInvoice -> buildInvoiceResponse(renderedInvoice, ifNoneMatch, label))
+                .switchIfEmpty(Mono.fromSupplier(() -> invoiceNotFound(label)))
+                .doOnError(CustomerNotFoundException.class, e -> customerExistenceGuard.recordMissing(customerId))
                 .doOnError(e -> log.error("Error generating invoice for {}{}", CUSTOMER_ID_LABEL, customerId, e));
     }
 
     /**
-     * Builds the response entity for the generated invoice based on the requested format.
-     * @param invoiceText  the generated invoice text
-     * @param acceptHeader the Accept header to determine response format
-     * @param customerName the name of the customer (if available)
-     * @param customerId   the ID of the customer (if available)
-     * @return ResponseEntity containing the invoice in the requested format
+     * Generates invoices for many customers in one request.
+     * The invoices are streamed as newline-delimited JSON, one line per customer as soon as it is ready.
+     * Customers whose invoice cannot be generated get an error line instead of failing the whole batch.
+     *
+     * @param generateInvoicesByIdsDTO DTO containing the IDs of the customers
+     * @return Flux streaming one invoice or error per distinct customer ID
      */
-    private ResponseEntity<Object> buildInvoiceResponse(String invoiceText, String acceptHeader, String customerName, Long customerId) {
-        String label = customerName != null ? CUSTOMER_LABEL + customerName : CUSTOMER_ID_LABEL + customerId;
-        if (invoiceText == null) {
-            String notFoundMsg = INVOICE_NOT_FOUND_FOR + label;
-            log.warn(notFoundMsg);
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(Map.of("error", notFoundMsg));
+    @PostMapping(value = "/invoices", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Generates invoices for a list of customer IDs as NDJSON")
+    public Flux<BatchInvoiceResultDTO> generateInvoices(@Valid @RequestBody GenerateInvoicesByIdsRequestDTO generateInvoicesByIdsDTO) {
+        log.info("Received request to generate invoices for {} customer IDs", generateInvoicesByIdsDTO.customerIds().size());
+
+        return rentalInfoService.generateInvoicesByIds(generateInvoicesByIdsDTO.customerIds())
+                .doOnError(e -> log.error("Error streaming batch invoices", e));
+    }
+
+    /**
+     * Prepares the response for the generated invoice in the requested format.
+     * The entity tag is computed from the invoice at once, while the body is only rendered when the first
+     * request needs it, so a matching If-None-Match skips the rendering. Concurrent requests for the PDF of the same
+     * invoice of a customer share one rendering.
+     * @param customerId the ID of the customer, or null if the invoice was looked up by name
+     * @param invoice the generated invoice
+     * @param format  the content type of the response
+     * @param label   the customer label used in log messages
+     * @return the invoice with its entity tag and the lazily rendered response
+     */
+    private RenderedInvoice renderInvoice(Long customerId, InvoiceResponseDTO invoice, MediaType format, String label) {
+        String eTag = InvoiceETagUtil.eTag(invoice, format);
+        Mono<ResponseEntity<Object>> rendering = Mono.fromCallable(() -> {
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                    .eTag(eTag)
+                    .cacheControl(INVOICE_CACHE_CONTROL)
+                    .varyBy(HttpHeaders.ACCEPT);
+            if (MediaType.APPLICATION_PDF.equals(format)) {
+                log.info("Generating PDF invoice for {}", label);
+                byte[] pdfBytes = pdfGeneratorService.generatePdfFromHtmlTemplate(invoice);
+                return builder
+                        .contentType(MediaType.APPLICATION_PDF)
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=invoice.pdf")
+                        .body((Object) pdfBytes);
+            } else if (MediaType.APPLICATION_JSON.equals(format)) {
+                log.info("Returning JSON invoice for {}", label);
+                return builder
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body((Object) invoice);
+            } else {
+                log.info("Returning plain text invoice for {}", label);
+                // Written as text straight into the response by InvoiceTextHttpMessageConverter
+                return builder
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .body((Object) invoice);
+            }
+        });
+        Mono<ResponseEntity<Object>> response = customerId != null && MediaType.APPLICATION_PDF.equals(format)
+                ? Mono.defer(() -> invoiceRequestCoalescer.render(customerId, format, eTag, () -> rendering))
+                : rendering;
+        return new RenderedInvoice(eTag, response.cache());
+    }
+
+    /**
+     * Builds the response entity for a rendered invoice, or 304 Not Modified if the client holds its entity tag.
+     * @param rendered    the rendered invoice
+     * @param ifNoneMatch the If-None-Match header (if any)
+     * @param label       the customer label used in log messages
+     * @return Mono emitting the invoice response
+     */
+    private static Mono<ResponseEntity<Object>> buildInvoiceResponse(RenderedInvoice rendered, String ifNoneMatch, String label) {
+        if (InvoiceETagUtil.matches(ifNoneMatch, rendered.eTag())) {
+            log.info("Invoice for {} not modified", label);
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(rendered.eTag())
+                    .cacheControl(INVOICE_CACHE_CONTROL)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .build());
         }
+        return rendered.response();
+    }
 
+    /**
+     * Builds the response for a request whose invoice could not be found.
+     * @param label the customer label used in log messages
+     * @return ResponseEntity with status 404 Not Found
+     */
+    private static ResponseEntity<Object> invoiceNotFound(String label) {
+        String notFoundMsg = INVOICE_NOT_FOUND_FOR + label;
+        log.warn(notFoundMsg);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(Map.of("error", notFoundMsg));
+    }
+
+    /**
+     * Builds the response for a customer known to be missing, as the exception handler does for
+     * {@link CustomerNotFoundException}.
+     * @return ResponseEntity with status 400 Bad Request
+     */
+    private static ResponseEntity<Object> customerNotFound() {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Customer not found");
+    }
+
+    /**
+     * Determines the invoice format from the Accept header; PDF takes precedence over JSON, plain text is the default.
+     * @param acceptHeader the Accept header
+     * @return the content type of the invoice response
+     */
+    private static MediaType invoiceFormat(String acceptHeader) {
         if (acceptHeader.contains(MediaType.APPLICATION_PDF_VALUE)) {
-            log.info("Generating PDF invoice for {}", label);
-            InvoiceResponseDTO structuredInvoice = InvoiceParserUtil.parseInvoiceText(invoiceText);
-            byte[] pdfBytes = pdfGeneratorService.generatePdfFromHtmlTemplate(structuredInvoice);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=invoice.pdf")
-                    .body(pdfBytes);
-        } else if (acceptHeader.contains(MediaType.APPLICATION_JSON_VALUE)) {
-            log.info("Returning JSON invoice for {}", label);
-            InvoiceResponseDTO structuredInvoice = InvoiceParserUtil.parseInvoiceText(invoiceText);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(structuredInvoice);
-        } else {
-            log.info("Returning plain text invoice for {}", label);
-            return ResponseEntity.ok()
-                    .contentType(MediaType.TEXT_PLAIN)
-                    .body(invoiceText);
+            return MediaType.APPLICATION_PDF;
         }
+        if (acceptHeader.contains(MediaType.APPLICATION_JSON_VALUE)) {
+            return MediaType.APPLICATION_JSON;
+        }
+        return MediaType.TEXT_PLAIN;
+    }
+
+    /**
+     * An invoice prepared for one response format: its entity tag and the response rendered on first subscription.
+     */
+    private record RenderedInvoice(String eTag, Mono<ResponseEntity<Object>> response) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,49 @@
+package com.etraveligroup.movie.rental.controller;
+
+import com.etraveligroup.movie.rental.dto.IngestRentalsRequestDTO;
+import com.etraveligroup.movie.rental.dto.RentalIngestionResultDTO;
+import com.etraveligroup.movie.rental.service.impl.RentalIngestionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * RentalIngestionController accepts new movie rentals in bulk.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/rentals")
+@RequiredArgsConstructor
+@Tag(name = "Rental Ingestion API", description = "Add movie rentals in bulk")
+public class RentalIngestionController {
+
+    private final RentalIngestionService rentalIngestionService;
+
+    /**
+     * Validates and inserts rentals for existing customers and movies.
+     * The whole request is rejected if any rental is invalid; valid requests are committed in chunks, and a failure
+     * while inserting reports how many rentals were committed before it.
+     *
+     * @param ingestRentalsRequestDTO DTO containing the new rentals grouped by customer
+     * @return ResponseEntity containing the number of inserted rentals and the throughput
+     */
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Inserts rentals in bulk")
+    public ResponseEntity<RentalIngestionResultDTO> ingestRentals(@Valid @RequestBody IngestRentalsRequestDTO ingestRentalsRequestDTO) {
+        log.info("Received request to ingest rentals for {} customers", ingestRentalsRequestDTO.customers().size());
+        return ResponseEntity.status(HttpStatus.CREATED).body(rentalIngestionService.ingest(ingestRentalsRequestDTO.customers()));
+    }
+}
@@ -0,0 +1,63 @@
+package com.etraveligroup.movie.rental.datasource;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Runs blocking reads in a read-only transaction on the current thread.
+ * Read-only transactions are what the data source routes to the read replicas, so reads running on
+ * scheduler threads must open their transaction here rather than rely on an annotated service method.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class ReadOnlyTransactionExecutor {
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ReadOnlyTransactionExecutor(PlatformTransactionManager transactionManager) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Runs a task in a read-only transaction.
+     *
+     * @param readYourWrites whether the reads must be served by the primary database
+     * @param task           the reads to run
+     * @param <T>            the result type
+     * @return the result of the task
+     * @throws Exception if the task fails
+     */
+    public <T> T call(boolean readYourWrites, Callable<T> task) throws Exception {
+        return ReadYourWrites.call(readYourWrites, () -> {
+            try {
+                return readOnlyTransaction.execute(status -> {
+                    try {
+                        return task.call();
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new CheckedTaskException(e);
+                    }
+                });
+            } catch (CheckedTaskException e) {
+                throw (Exception) e.getCause();
+            }
+        });
+    }
+
+    private static final class CheckedTaskException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private CheckedTaskException(Exception cause) {
+            super(cause);
+        }
+    }
+}
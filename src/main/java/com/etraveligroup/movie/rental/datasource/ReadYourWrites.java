@@ -0,0 +1,63 @@
+package com.etraveligroup.movie.rental.datasource;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Holder for the per-request "read my writes" override.
+ * While it is active on a thread, read-only transactions are served by the primary database instead of
+ * a replica, so data written just before is visible even if replication lags behind.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public final class ReadYourWrites {
+
+    /**
+     * Request header enabling the override, e.g. {@code X-Read-Your-Writes: true}.
+     */
+    public static final String HEADER = "X-Read-Your-Writes";
+
+    /**
+     * Reactor context key carrying the override from the request thread to the threads doing the reads.
+     */
+    public static final String CONTEXT_KEY = ReadYourWrites.class.getName();
+
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+        throw new UnsupportedOperationException("Utility class should not be instantiated");
+    }
+
+    /**
+     * Returns whether reads on the current thread must be served by the primary database.
+     *
+     * @return true if the override is active
+     */
+    public static boolean isActive() {
+        return Boolean.TRUE.equals(ACTIVE.get());
+    }
+
+    /**
+     * Runs a task with the override set as given, restoring the previous state afterwards.
+     *
+     * @param active whether the override is active while the task runs
+     * @param task   the task to run
+     * @param <T>    the result type
+     * @return the result of the task
+     * @throws Exception if the task fails
+     */
+    public static <T> T call(boolean active, Callable<T> task) throws Exception {
+        Boolean previous = ACTIVE.get();
+        ACTIVE.set(active);
+        try {
+            return task.call();
+        } finally {
+            if (previous == null) {
+                ACTIVE.remove();
+            } else {
+                ACTIVE.set(previous);
+            }
+        }
+    }
+}
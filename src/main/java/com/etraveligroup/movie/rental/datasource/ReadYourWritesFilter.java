@@ -0,0 +1,37 @@
+package com.etraveligroup.movie.rental.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Servlet filter activating {@link ReadYourWrites} for requests sending {@code X-Read-Your-Writes: true}.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean active = Boolean.parseBoolean(request.getHeader(ReadYourWrites.HEADER));
+        try {
+            ReadYourWrites.call(active, () -> {
+                filterChain.doFilter(request, response);
+                return null;
+            });
+        } catch (ServletException | IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ServletException(e);
+        }
+    }
+}
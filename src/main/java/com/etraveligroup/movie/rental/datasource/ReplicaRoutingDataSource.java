@@ -0,0 +1,182 @@
+package com.etraveligroup.movie.rental.datasource;
+
+import com.etraveligroup.movie.rental.constants.ReplicaSelectionStrategy;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Data source serving read-only connections from a set of read replicas.
+ * A replica is chosen round-robin or by fewest connections in use among the replicas that passed their last
+ * health check. The primary serves the connection instead when no replica is healthy, when the chosen replica
+ * refuses a connection, or when {@link ReadYourWrites} is active on the current thread.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements MeterBinder, AutoCloseable {
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReplicaSelectionStrategy strategy;
+    private final int healthCheckTimeoutSeconds;
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    /**
+     * Creates the routing data source.
+     *
+     * @param primary            the primary data source used as fallback
+     * @param replicas           the replica data sources by name
+     * @param strategy           the replica selection strategy
+     * @param healthCheckTimeout the maximum time a replica may take to validate a connection
+     */
+    public ReplicaRoutingDataSource(DataSource primary, List<Replica> replicas, ReplicaSelectionStrategy strategy,
+                                    Duration healthCheckTimeout) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.strategy = strategy;
+        this.healthCheckTimeoutSeconds = (int) Math.max(1, healthCheckTimeout.toSeconds());
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (ReadYourWrites.isActive()) {
+            log.debug("Read-your-writes requested, reading from the primary");
+            return primary.getConnection();
+        }
+        Replica replica = selectReplica();
+        if (replica == null) {
+            log.debug("No healthy read replica, reading from the primary");
+            return primary.getConnection();
+        }
+        try {
+            return replica.dataSource().getConnection();
+        } catch (SQLException e) {
+            log.warn("Read replica {} refused a connection, marking it unhealthy: {}", replica.name(), e.getMessage());
+            replica.markHealthy(false);
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLException("Read replica connections use the configured credentials");
+    }
+
+    /**
+     * Validates a connection of every replica and updates its health.
+     */
+    @Scheduled(initialDelayString = "${movie-rental.read-replicas.health-check-interval:PT10S}",
+            fixedDelayString = "${movie-rental.read-replicas.health-check-interval:PT10S}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try (Connection connection = replica.dataSource().getConnection()) {
+                healthy = connection.isValid(healthCheckTimeoutSeconds);
+            } catch (SQLException e) {
+                healthy = false;
+            }
+            if (healthy != replica.isHealthy()) {
+                log.warn("Read replica {} is now {}", replica.name(), healthy ? "healthy" : "unhealthy");
+            }
+            replica.markHealthy(healthy);
+        }
+    }
+
+    /**
+     * Returns the number of replicas that passed their last health check.
+     *
+     * @return the number of healthy replicas
+     */
+    public int getHealthyReplicaCount() {
+        return (int) replicas.stream().filter(Replica::isHealthy).count();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("movie.rental.datasource.replicas.healthy", this, ReplicaRoutingDataSource::getHealthyReplicaCount)
+                .description("Read replicas that passed their last health check")
+                .register(registry);
+    }
+
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.dataSource() instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    log.warn("Failed to close read replica {}: {}", replica.name(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private Replica selectReplica() {
+        List<Replica> healthy = replicas.stream().filter(Replica::isHealthy).toList();
+        if (healthy.isEmpty()) {
+            return null;
+        }
+        if (strategy == ReplicaSelectionStrategy.LEAST_CONNECTIONS) {
+            return healthy.stream().min(Comparator.comparingInt(Replica::activeConnections)).orElseThrow();
+        }
+        return healthy.get(Math.floorMod(nextReplica.getAndIncrement(), healthy.size()));
+    }
+
+    /**
+     * A read replica and its last known health.
+     */
+    public static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public DataSource dataSource() {
+            return dataSource;
+        }
+
+        public boolean isHealthy() {
+            return healthy;
+        }
+
+        void markHealthy(boolean healthy) {
+            this.healthy = healthy;
+        }
+
+        /**
+         * Returns the number of connections in use, known for Hikari pools only.
+         */
+        int activeConnections() {
+            if (dataSource instanceof HikariDataSource hikari) {
+                HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+                return pool != null ? pool.getActiveConnections() : 0;
+            }
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.etraveligroup.movie.rental.datasource;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Collects items per transaction and hands them over when the transaction completes, before it commits.
+ * The items of a transaction are registered with the action queue of its Hibernate session, which runs the
+ * before-completion step after its final flush, so items added while flushing are included and whatever the
+ * step writes commits together with the transaction. The after-completion step drops the items of rolled back
+ * transactions.
+ *
+ * @param <T> the type of the collected items
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public class TransactionCompletionBuffer<T> {
+
+    private final EntityManager entityManager;
+    private final Consumer<List<T>> beforeCompletion;
+    private final Map<SessionImplementor, Pending> pendingBySession = new ConcurrentHashMap<>();
+
+    /**
+     * @param entityManager    the shared entity manager, resolving the Hibernate session of the current transaction
+     * @param beforeCompletion receives the items of a transaction, in the order they were added, before it commits
+     */
+    public TransactionCompletionBuffer(EntityManager entityManager, Consumer<List<T>> beforeCompletion) {
+        this.entityManager = entityManager;
+        this.beforeCompletion = beforeCompletion;
+    }
+
+    /**
+     * Adds an item to the items of the current transaction.
+     *
+     * @param item the item
+     * @return true if the item was added, false outside a transaction, where the caller handles it at once
+     */
+    public boolean add(T item) {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return false;
+        }
+        SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+        pendingBySession.computeIfAbsent(session, Pending::new).items.add(item);
+        return true;
+    }
+
+    /**
+     * Items of one transaction, registered with its session on creation.
+     */
+    private final class Pending implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+        private final SessionImplementor session;
+        private final List<T> items = new ArrayList<>();
+
+        private Pending(SessionImplementor session) {
+            this.session = session;
+            session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) this);
+            session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) this);
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor completingSession) {
+            pendingBySession.remove(session);
+            if (!items.isEmpty()) {
+                beforeCompletion.accept(items);
+            }
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor completedSession) {
+            pendingBySession.remove(session);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.etraveligroup.movie.rental.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Data Transfer Object for one customer's result in a batch invoice request.
+ * Exactly one of invoice and error is set, so a failing customer does not fail the whole batch.
+ *
+ * @param customerId the ID of the customer
+ * @param invoice    the generated invoice, or null if generation failed
+ * @param error      the error message, or null if generation succeeded
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchInvoiceResultDTO(
+        Long customerId,
+        InvoiceResponseDTO invoice,
+        String error
+) {
+}
@@ -0,0 +1,38 @@
+package com.etraveligroup.movie.rental.dto;
+
+import com.etraveligroup.movie.rental.constants.BillingRunState;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object describing the progress of a billing run.
+ *
+ * @param runId                the ID of the billing run
+ * @param state                the current state of the run
+ * @param totalCustomers       the number of customers when the run was started or resumed
+ * @param customersProcessed   the number of customers whose invoice has been written
+ * @param customersFailed      the number of customers whose invoice could not be generated
+ * @param pagesCompleted       the number of customer pages written
+ * @param checkpointCustomerId the highest customer ID up to which every page has been written
+ * @param customersPerSecond   the throughput since the run was started or resumed
+ * @param startedAt            the time the run was started or resumed
+ * @param finishedAt           the time the run finished, or null while it is running
+ * @param outputDirectory      the directory the page files are written to
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record BillingRunStatusDTO(
+        String runId,
+        BillingRunState state,
+        long totalCustomers,
+        long customersProcessed,
+        long customersFailed,
+        long pagesCompleted,
+        long checkpointCustomerId,
+        double customersPerSecond,
+        Instant startedAt,
+        Instant finishedAt,
+        String outputDirectory
+) {
+}
@@ -0,0 +1,16 @@
+package com.etraveligroup.movie.rental.dto;
+
+import java.time.Instant;
+
+/**
+ * Invoice held in the invoice cache, as written to and read from a cache snapshot.
+ *
+ * @param customerId the ID of the customer
+ * @param invoice    the invoice
+ * @param cachedAt   the time the invoice was cached
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record CachedInvoiceDTO(Long customerId, InvoiceResponseDTO invoice, Instant cachedAt) {
+}
@@ -0,0 +1,17 @@
+package com.etraveligroup.movie.rental.dto;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object describing the movie catalog snapshot currently in use.
+ *
+ * @param version      the version number of the snapshot, incremented on every reload
+ * @param movies       the number of movies in the snapshot
+ * @param pricingCodes the number of pricing codes in the snapshot
+ * @param loadedAt     the time the snapshot was loaded
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record CatalogStatusDTO(long version, int movies, int pricingCodes, Instant loadedAt) {
+}
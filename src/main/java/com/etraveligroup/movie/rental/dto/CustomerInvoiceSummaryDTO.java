@@ -0,0 +1,27 @@
+package com.etraveligroup.movie.rental.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Data Transfer Object for the incrementally maintained invoice summary of a customer.
+ *
+ * @param customerId     the ID of the customer
+ * @param totalAmount    the amount owed for all rentals of the customer
+ * @param frequentPoints the frequent renter points earned with all rentals
+ * @param rentalCount    the number of rentals of the customer
+ * @param version        the number of changes applied to the summary, 0 if it was never written
+ * @param updatedAt      the time of the last change, or null if the summary was never written
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record CustomerInvoiceSummaryDTO(
+        Long customerId,
+        BigDecimal totalAmount,
+        int frequentPoints,
+        int rentalCount,
+        long version,
+        Instant updatedAt
+) {
+}
@@ -0,0 +1,13 @@
+package com.etraveligroup.movie.rental.dto;
+
+/**
+ * Projection of a customer's ID and name.
+ *
+ * @param id   the ID of the customer
+ * @param name the name of the customer
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record CustomerNameDTO(Long id, String name) {
+}
@@ -0,0 +1,13 @@
+package com.etraveligroup.movie.rental.dto;
+
+/**
+ * Projection of a customer's ID and normalized name key.
+ *
+ * @param id      the ID of the customer
+ * @param nameKey the trimmed, case-folded name of the customer
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record CustomerNameKeyDTO(Long id, String nameKey) {
+}
@@ -0,0 +1,22 @@
+package com.etraveligroup.movie.rental.dto;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object for the frequent renter points balance of a customer.
+ *
+ * @param customerId the ID of the customer
+ * @param balance    the frequent renter points earned with all rentals, archived ones included
+ * @param version    the number of changes applied to the balance, 0 if it was never written
+ * @param updatedAt  the time of the last change, or null if the balance was never written
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record CustomerPointsBalanceDTO(
+        Long customerId,
+        long balance,
+        long version,
+        Instant updatedAt
+) {
+}
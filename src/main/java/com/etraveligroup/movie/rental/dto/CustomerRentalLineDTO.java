@@ -0,0 +1,15 @@
+package com.etraveligroup.movie.rental.dto;
+
+/**
+ * Projection of a single rental together with the customer it belongs to.
+ * Used when the rentals of several customers are loaded with one query.
+ *
+ * @param customerId the ID of the customer
+ * @param movieId    the ID of the rented movie
+ * @param days       the number of days the movie was rented
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record CustomerRentalLineDTO(Long customerId, String movieId, int days) {
+}
@@ -0,0 +1,25 @@
+package com.etraveligroup.movie.rental.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for the new rentals of one customer in a bulk rental ingestion.
+ *
+ * @param customerId the ID of the existing customer who rented the movies
+ * @param rentals    the rentals to add for the customer
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record CustomerRentalsDTO(
+        @NotNull(message = "Customer ID must not be null")
+        @Positive(message = "Customer ID must be positive")
+        Long customerId,
+        @NotEmpty(message = "Rentals must not be empty")
+        List<@NotNull(message = "Rental must not be null") @Valid MovieRentalDTO> rentals
+) {}
@@ -0,0 +1,23 @@
+package com.etraveligroup.movie.rental.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Request DTO for generating invoices for many customers in one request.
+ * This record contains the IDs of the customers whose invoices are to be generated.
+ *
+ * @param customerIds the IDs of the customers, at most 10000 per request
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record GenerateInvoicesByIdsRequestDTO(
+        @NotEmpty(message = "Customer IDs must not be empty")
+        @Size(max = 10000, message = "At most 10000 customer IDs are allowed per request")
+        List<@NotNull(message = "Customer ID must not be null") @Positive(message = "Customer ID must be positive") Long> customerIds
+) {}
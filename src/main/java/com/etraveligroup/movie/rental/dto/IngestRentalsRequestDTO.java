@@ -0,0 +1,21 @@
+package com.etraveligroup.movie.rental.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * Request DTO for adding many rentals in one request.
+ * The total number of rentals per request is limited by "movie-rental.ingestion.max-rows".
+ *
+ * @param customers the new rentals grouped by customer
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record IngestRentalsRequestDTO(
+        @NotEmpty(message = "Customers must not be empty")
+        List<@NotNull(message = "Customer rentals must not be null") @Valid CustomerRentalsDTO> customers
+) {}
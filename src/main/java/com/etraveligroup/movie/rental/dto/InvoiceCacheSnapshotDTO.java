@@ -0,0 +1,17 @@
+package com.etraveligroup.movie.rental.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Snapshot of the hottest invoices of the invoice cache, written on shutdown and restored on startup.
+ *
+ * @param createdAt the time the snapshot was taken
+ * @param changeId  the last change of the invoice change log applied to the invoices, or -1 if unknown
+ * @param invoices  the cached invoices, hottest first
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record InvoiceCacheSnapshotDTO(Instant createdAt, long changeId, List<CachedInvoiceDTO> invoices) {
+}
@@ -0,0 +1,17 @@
+package com.etraveligroup.movie.rental.dto;
+
+import java.time.Instant;
+
+/**
+ * Entry of the invoice change log, recording that the rentals of a customer changed.
+ *
+ * @param changeId   the ID of the log entry, increasing in insertion order
+ * @param customerId the ID of the customer whose rentals changed
+ * @param changedAt  the database time the change was logged
+ * @param readAt     the database time the entry was read, so lag is measured on one clock
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record InvoiceChangeDTO(long changeId, Long customerId, Instant changedAt, Instant readAt) {
+}
@@ -1,10 +1,12 @@
 package com.etraveligroup.movie.rental.dto;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 /**
  * Data Transfer Object for Invoice Item.
  * This record represents an item in an invoice, containing the title of the item and its price.
+ * The price is kept with two decimals, as it is printed on the invoice.
  * * @param title the title of the invoice item
  * * @param price the price of the invoice item
  * * @author Suresh
@@ -12,6 +14,12 @@ import java.math.BigDecimal;
  * * @since 1.0
  */
 public record InvoiceItemDTO(String title, BigDecimal price) {
+
+    public InvoiceItemDTO {
+        if (price != null) {
+            price = price.setScale(2, RoundingMode.HALF_UP);
+        }
+    }
 }
 
 
@@ -2,11 +2,13 @@ package com.etraveligroup.movie.rental.dto;
 
 import java.util.List;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 /**
  * Data Transfer Object for Invoice Response.
  * This record encapsulates the details of an invoice, including the customer name,
  * * a list of items in the invoice, the total amount, and the frequent points earned.
+ * The total is kept with two decimals, as it is printed on the invoice.
  * <p>
  * * @param customer the name of the customer associated with the invoice
  * * @param items a list of items included in the invoice, represented as InvoiceItemDTO
@@ -24,4 +26,10 @@ public record InvoiceResponseDTO(
         BigDecimal total,
         int frequentPoints
 ) {
+
+    public InvoiceResponseDTO {
+        if (total != null) {
+            total = total.setScale(2, RoundingMode.HALF_UP);
+        }
+    }
 }
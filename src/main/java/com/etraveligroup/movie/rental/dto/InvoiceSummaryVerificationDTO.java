@@ -0,0 +1,25 @@
+package com.etraveligroup.movie.rental.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Data Transfer Object reporting a verification of invoice summaries against the raw rentals.
+ *
+ * @param sampled            the number of customers whose summary was checked
+ * @param drifted            the number of summaries that did not match their rentals
+ * @param driftedCustomerIds the IDs of the customers whose summary did not match
+ * @param repaired           whether the drifted summaries were rebuilt from the rentals
+ * @param verifiedAt         the time the verification finished
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record InvoiceSummaryVerificationDTO(
+        int sampled,
+        int drifted,
+        List<Long> driftedCustomerIds,
+        boolean repaired,
+        Instant verifiedAt
+) {
+}
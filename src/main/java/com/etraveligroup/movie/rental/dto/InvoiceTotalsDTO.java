@@ -0,0 +1,26 @@
+package com.etraveligroup.movie.rental.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Data Transfer Object for the invoice totals of a set of rentals, or for a change of such totals.
+ *
+ * @param amount         the amount owed, negative for a change that removes rentals
+ * @param frequentPoints the frequent renter points earned
+ * @param rentalCount    the number of rentals
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record InvoiceTotalsDTO(BigDecimal amount, int frequentPoints, int rentalCount) {
+
+    public static final InvoiceTotalsDTO ZERO = new InvoiceTotalsDTO(BigDecimal.ZERO, 0, 0);
+
+    public InvoiceTotalsDTO plus(InvoiceTotalsDTO other) {
+        return new InvoiceTotalsDTO(amount.add(other.amount), frequentPoints + other.frequentPoints, rentalCount + other.rentalCount);
+    }
+
+    public InvoiceTotalsDTO negate() {
+        return new InvoiceTotalsDTO(amount.negate(), -frequentPoints, -rentalCount);
+    }
+}
@@ -0,0 +1,22 @@
+package com.etraveligroup.movie.rental.dto;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object reporting the outcome of a points ledger compaction.
+ *
+ * @param customers     the number of customers whose old entries were folded
+ * @param removed       the number of ledger entries removed, net of the carried-forward entries written
+ * @param cutoff        the recording time before which entries were folded
+ * @param elapsedMillis the duration of the compaction
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record PointsLedgerCompactionDTO(
+        int customers,
+        int removed,
+        Instant cutoff,
+        long elapsedMillis
+) {
+}
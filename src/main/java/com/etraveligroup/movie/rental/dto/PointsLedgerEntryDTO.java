@@ -0,0 +1,17 @@
+package com.etraveligroup.movie.rental.dto;
+
+import com.etraveligroup.movie.rental.constants.PointsEntryType;
+
+/**
+ * Data Transfer Object for an entry appended to the frequent renter points ledger.
+ *
+ * @param customerId the ID of the customer
+ * @param rentalId   the ID of the rental the points belong to, or null for entries not tied to one rental
+ * @param type       the kind of entry
+ * @param points     the points added to the balance, negative to subtract
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record PointsLedgerEntryDTO(Long customerId, Long rentalId, PointsEntryType type, long points) {
+}
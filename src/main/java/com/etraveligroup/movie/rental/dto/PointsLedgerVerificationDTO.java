@@ -0,0 +1,25 @@
+package com.etraveligroup.movie.rental.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Data Transfer Object reporting a verification of points balances against their ledger entries and the rentals.
+ *
+ * @param sampled            the number of customers whose balance was checked
+ * @param drifted            the number of balances that did not match their ledger entries or rentals
+ * @param driftedCustomerIds the IDs of the customers whose balance did not match
+ * @param repaired           whether the drifted balances were corrected to the points recomputed from the rentals
+ * @param verifiedAt         the time the verification finished
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record PointsLedgerVerificationDTO(
+        int sampled,
+        int drifted,
+        List<Long> driftedCustomerIds,
+        boolean repaired,
+        Instant verifiedAt
+) {
+}
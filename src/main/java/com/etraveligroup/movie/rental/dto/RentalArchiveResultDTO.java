@@ -0,0 +1,22 @@
+package com.etraveligroup.movie.rental.dto;
+
+import java.time.Instant;
+
+/**
+ * Data Transfer Object reporting the outcome of an archive run.
+ *
+ * @param archived      the number of rentals moved to the archive
+ * @param batches       the number of transactions the rentals were moved in
+ * @param cutoff        the return time before which closed rentals were archived
+ * @param elapsedMillis the duration of the run
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record RentalArchiveResultDTO(
+        int archived,
+        int batches,
+        Instant cutoff,
+        long elapsedMillis
+) {
+}
@@ -0,0 +1,20 @@
+package com.etraveligroup.movie.rental.dto;
+
+/**
+ * Data Transfer Object reporting the outcome of a bulk rental ingestion.
+ *
+ * @param rowsInserted    the number of rentals inserted
+ * @param chunksCommitted the number of transactions the rentals were committed in
+ * @param elapsedMillis   the time spent inserting, excluding validation
+ * @param rowsPerSecond   the insert throughput
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record RentalIngestionResultDTO(
+        int rowsInserted,
+        int chunksCommitted,
+        long elapsedMillis,
+        double rowsPerSecond
+) {
+}
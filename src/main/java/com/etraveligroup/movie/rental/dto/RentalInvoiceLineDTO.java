@@ -0,0 +1,28 @@
+package com.etraveligroup.movie.rental.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Flat projection of a single rental with the fields needed to build an invoice line.
+ * This record is filled directly by a query, without hydrating the Customer, MovieRental,
+ * Movie or MoviePricing entities.
+ *
+ * @param title            the title of the rented movie
+ * @param days             the number of days the movie was rented
+ * @param pricingCode      the pricing code of the movie
+ * @param baseDays         the number of days covered by the base price
+ * @param basePrice        the base price of the rental
+ * @param extraPricePerDay the price for each day beyond the base days
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record RentalInvoiceLineDTO(
+        String title,
+        int days,
+        String pricingCode,
+        int baseDays,
+        BigDecimal basePrice,
+        BigDecimal extraPricePerDay
+) {
+}
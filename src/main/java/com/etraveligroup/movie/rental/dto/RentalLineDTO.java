@@ -0,0 +1,14 @@
+package com.etraveligroup.movie.rental.dto;
+
+/**
+ * Minimal projection of a single rental: the rented movie and the number of days.
+ * Titles and pricing are resolved from the in-memory movie catalog.
+ *
+ * @param movieId the ID of the rented movie
+ * @param days    the number of days the movie was rented
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record RentalLineDTO(String movieId, int days) {
+}
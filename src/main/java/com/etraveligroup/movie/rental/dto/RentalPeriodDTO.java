@@ -0,0 +1,37 @@
+package com.etraveligroup.movie.rental.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Range of rental times for a historical invoice, from inclusive to exclusive.
+ *
+ * @param from the earliest rental time included
+ * @param to   the rental time from which rentals are no longer included
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record RentalPeriodDTO(Instant from, Instant to) {
+
+    public RentalPeriodDTO {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("Rental period must start before it ends: " + from + " - " + to);
+        }
+    }
+
+    /**
+     * Creates the period covering whole UTC days.
+     *
+     * @param fromDate the first day, or null to start at the epoch
+     * @param toDate   the last day, or null to end today
+     * @return the rental period
+     */
+    public static RentalPeriodDTO ofDates(LocalDate fromDate, LocalDate toDate) {
+        LocalDate lastDay = toDate != null ? toDate : LocalDate.now(ZoneOffset.UTC);
+        return new RentalPeriodDTO(
+                fromDate != null ? fromDate.atStartOfDay(ZoneOffset.UTC).toInstant() : Instant.EPOCH,
+                lastDay.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant());
+    }
+}
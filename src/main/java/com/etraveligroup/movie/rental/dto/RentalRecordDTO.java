@@ -0,0 +1,15 @@
+package com.etraveligroup.movie.rental.dto;
+
+/**
+ * Projection of a single rental with its ID, read from the hot or the archive rental table.
+ *
+ * @param rentalId   the ID of the rental
+ * @param customerId the ID of the customer
+ * @param movieId    the ID of the rented movie
+ * @param days       the number of days the movie was rented
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record RentalRecordDTO(Long rentalId, Long customerId, String movieId, int days) {
+}
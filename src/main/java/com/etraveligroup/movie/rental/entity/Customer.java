@@ -1,6 +1,7 @@
 package com.etraveligroup.movie.rental.entity;
 
 
+import com.etraveligroup.movie.rental.util.CustomerNameNormalizer;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.ToString;
@@ -11,14 +12,15 @@ import java.util.List;
 /**
  * Entity class representing a Customer in the movie rental system.
  * This class maps to the "Customer" table in the database and contains fields for
- * customer ID, name, and a list of movie rentals associated with the customer.
+ * customer ID, name, normalized name key, and a list of movie rentals associated with the customer.
  * @author Suresh
  * @version 1.0
  * @since 1.0
  */
 @Entity
 @Data
-@Table(name = "Customer")
+@Table(name = "Customer", indexes = @Index(name = "idx_customer_name_key", columnList = "name_key"))
+@EntityListeners(CustomerListener.class)
 @ToString(exclude = "rentals")
 public class Customer implements Serializable {
 
@@ -30,11 +32,31 @@ public class Customer implements Serializable {
     @Column(name = "name")
     private String name;
 
+    /**
+     * Trimmed, case-folded copy of the name used for indexed name lookups.
+     * This field is derived from the name before the customer is inserted or updated.
+     */
+    @Column(name = "name_key")
+    private String nameKey;
+
+    /**
+     * Name key the customer had before it was last written, so the resolution of a previous name can be dropped.
+     */
+    @Transient
+    private transient String previousNameKey;
+
     /**
      * List of movie rentals associated with this customer.
-     * This field is mapped to the MovieRental entity and is fetched lazily.
+     * This field is mapped to the MovieRental entity, is fetched lazily and is ordered by rental ID.
      */
     @OneToMany(mappedBy = "customer",fetch = FetchType.LAZY)
+    @OrderBy("id")
     private List<MovieRental> rentals;
 
+    @PrePersist
+    @PreUpdate
+    void updateNameKey() {
+        this.previousNameKey = nameKey;
+        this.nameKey = CustomerNameNormalizer.normalize(name);
+    }
 }
@@ -0,0 +1,30 @@
+package com.etraveligroup.movie.rental.entity;
+
+import com.etraveligroup.movie.rental.event.CustomerSavedEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener publishing a {@link CustomerSavedEvent} for every customer inserted or updated through JPA.
+ * Hibernate creates the listener through the Spring bean container, so the event publisher is injected.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class CustomerListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    void saved(Customer customer) {
+        log.debug("Customer {} saved", customer.getId());
+        eventPublisher.publishEvent(new CustomerSavedEvent(customer.getId(), customer.getNameKey(), customer.getPreviousNameKey()));
+    }
+}
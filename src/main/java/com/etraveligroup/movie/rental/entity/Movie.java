@@ -1,10 +1,13 @@
 package com.etraveligroup.movie.rental.entity;
 
+import com.etraveligroup.movie.rental.constants.MovieRentalConstants;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import jakarta.persistence.*;
 import java.io.Serializable;
@@ -13,12 +16,14 @@ import java.io.Serializable;
  * Entity class representing a Movie in the rental system.
  * This class maps to the "Movie" table in the database and contains fields for
  * the movie ID, title, and pricing information.
+ * Movies are held in the "movie" second-level cache region.
  * @author Suresh
  * @version 1.0
  * @since 1.0
  */
 @Entity
 @Data
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = MovieRentalConstants.MOVIE_CACHE_REGION)
 @Table(name = "Movie")
 public class Movie implements Serializable {
 
@@ -1,7 +1,10 @@
 package com.etraveligroup.movie.rental.entity;
 
+import com.etraveligroup.movie.rental.constants.MovieRentalConstants;
 import jakarta.persistence.*;
 import lombok.Data;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.io.Serializable;
 import java.math.BigDecimal;
@@ -10,12 +13,14 @@ import java.math.BigDecimal;
  * Entity class representing the pricing details of a movie in the rental system.
  * This class maps to the "MoviePricing" table in the database and contains fields for
  * the pricing code, base days, base price, and extra price per day.
+ * Pricing rows are held in the "movie-pricing" second-level cache region.
  * @author Suresh
  * @version 1.0
  * @since 1.0
  */
 @Entity
 @Data
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = MovieRentalConstants.MOVIE_PRICING_CACHE_REGION)
 @Table(name = "MoviePricing")
 public class MoviePricing implements Serializable {
 
@@ -1,15 +1,21 @@
 package com.etraveligroup.movie.rental.entity;
 
+import com.etraveligroup.movie.rental.dto.CustomerRentalLineDTO;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.ToString;
 
 import java.io.Serializable;
+import java.time.Instant;
 
 /**
  * Entity class representing a Movie Rental in the movie rental system.
  * This class maps to the "MovieRental" table in the database and contains fields for
- * rental ID, number of days rented, associated customer, and the movie being rented.
+ * rental ID, number of days rented, associated customer, the movie being rented, and when it was rented and returned.
+ * Every insert, update and delete is published as a rental change by {@link MovieRentalListener}.
  * @author Suresh
  * @version 1.0
  * @since 1.0
@@ -17,11 +23,17 @@ import java.io.Serializable;
 @Entity
 @Data
 @Table(name = "MovieRental")
-@ToString(exclude = "customer")
+@EntityListeners(MovieRentalListener.class)
+@ToString(exclude = {"customer", "persistedLine"})
 public class MovieRental implements Serializable {
 
+    /**
+     * Rental ID allocated from a pooled sequence in blocks of 50, so inserted rentals can be sent as JDBC batches.
+     * Rows inserted with plain SQL take their ID from the same sequence.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movie_rental_seq")
+    @SequenceGenerator(name = "movie_rental_seq", sequenceName = "movie_rental_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -35,4 +47,45 @@ public class MovieRental implements Serializable {
     @ManyToOne
     @JoinColumn(name = "movie_id")
     private Movie movie;
+
+    /**
+     * When the movie was rented; set to the current time when the rental is inserted without one.
+     */
+    @Column(name = "rented_at", nullable = false, updatable = false)
+    private Instant rentedAt;
+
+    /**
+     * When the movie was returned, or null while the rental is open.
+     * Closed rentals are moved to the archive table once they are older than the archive horizon.
+     */
+    @Column(name = "returned_at")
+    private Instant returnedAt;
+
+    /**
+     * Customer, movie and days as last loaded from or written to the database.
+     * This field is not persisted; it lets an update be published as a change from the previous state.
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private transient CustomerRentalLineDTO persistedLine;
+
+    @PrePersist
+    void defaultRentedAt() {
+        if (rentedAt == null) {
+            rentedAt = Instant.now();
+        }
+    }
+
+    CustomerRentalLineDTO currentLine() {
+        return new CustomerRentalLineDTO(customer != null ? customer.getId() : null, movie != null ? movie.getId() : null, days);
+    }
+
+    CustomerRentalLineDTO persistedLine() {
+        return persistedLine;
+    }
+
+    void rememberPersistedLine() {
+        this.persistedLine = currentLine();
+    }
 }
@@ -0,0 +1,64 @@
+package com.etraveligroup.movie.rental.entity;
+
+import com.etraveligroup.movie.rental.constants.RentalChangeType;
+import com.etraveligroup.movie.rental.dto.CustomerRentalLineDTO;
+import com.etraveligroup.movie.rental.event.RentalChangedEvent;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener publishing a {@link RentalChangedEvent} for every rental written through JPA.
+ * Hibernate creates the listener through the Spring bean container, so the event publisher is injected.
+ * The state a rental was loaded or last written with is kept on the entity, so an update can be published
+ * as the removal of the previous state and the addition of the new one.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class MovieRentalListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    @PostLoad
+    void loaded(MovieRental rental) {
+        rental.rememberPersistedLine();
+    }
+
+    @PostPersist
+    void added(MovieRental rental) {
+        publish(RentalChangeType.ADDED, rental.getId(), rental.currentLine());
+        rental.rememberPersistedLine();
+    }
+
+    @PostUpdate
+    void updated(MovieRental rental) {
+        CustomerRentalLineDTO previous = rental.persistedLine();
+        CustomerRentalLineDTO current = rental.currentLine();
+        if (!current.equals(previous)) {
+            if (previous != null) {
+                publish(RentalChangeType.REMOVED, rental.getId(), previous);
+            }
+            publish(RentalChangeType.ADDED, rental.getId(), current);
+        }
+        rental.rememberPersistedLine();
+    }
+
+    @PostRemove
+    void removed(MovieRental rental) {
+        CustomerRentalLineDTO previous = rental.persistedLine();
+        publish(RentalChangeType.REMOVED, rental.getId(), previous != null ? previous : rental.currentLine());
+    }
+
+    private void publish(RentalChangeType type, Long rentalId, CustomerRentalLineDTO line) {
+        log.debug("Rental {} {} for customer {}", rentalId, type, line.customerId());
+        eventPublisher.publishEvent(new RentalChangedEvent(type, rentalId, line.customerId(), line.movieId(), line.days()));
+    }
+}
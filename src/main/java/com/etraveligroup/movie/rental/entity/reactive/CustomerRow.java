@@ -0,0 +1,23 @@
+package com.etraveligroup.movie.rental.entity.reactive;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Read model of a row of the "Customer" table, used by the R2DBC data path.
+ *
+ * @param id      the customer ID
+ * @param name    the customer name
+ * @param nameKey the trimmed, case-folded name used for indexed name lookups
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Table("Customer")
+public record CustomerRow(
+        @Id @Column("id") Long id,
+        @Column("name") String name,
+        @Column("name_key") String nameKey
+) {
+}
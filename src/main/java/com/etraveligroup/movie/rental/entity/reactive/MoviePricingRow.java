@@ -0,0 +1,27 @@
+package com.etraveligroup.movie.rental.entity.reactive;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+
+/**
+ * Read model of a row of the "MoviePricing" table, used by the R2DBC data path.
+ *
+ * @param code             the pricing code
+ * @param baseDays         the number of days covered by the base price
+ * @param basePrice        the price of the base days
+ * @param extraPricePerDay the price of every day after the base days
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Table("MoviePricing")
+public record MoviePricingRow(
+        @Id @Column("code") String code,
+        @Column("base_days") int baseDays,
+        @Column("base_price") BigDecimal basePrice,
+        @Column("extra_price_per_day") BigDecimal extraPricePerDay
+) {
+}
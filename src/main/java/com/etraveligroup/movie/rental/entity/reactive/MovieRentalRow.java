@@ -0,0 +1,25 @@
+package com.etraveligroup.movie.rental.entity.reactive;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Read model of a row of the "MovieRental" table, used by the R2DBC data path.
+ *
+ * @param id         the rental ID
+ * @param customerId the ID of the renting customer
+ * @param movieId    the ID of the rented movie
+ * @param days       the number of days rented
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Table("MovieRental")
+public record MovieRentalRow(
+        @Id @Column("id") Long id,
+        @Column("customer_id") Long customerId,
+        @Column("movie_id") String movieId,
+        @Column("days") int days
+) {
+}
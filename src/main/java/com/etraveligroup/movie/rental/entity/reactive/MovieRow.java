@@ -0,0 +1,23 @@
+package com.etraveligroup.movie.rental.entity.reactive;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * Read model of a row of the "Movie" table, used by the R2DBC data path.
+ *
+ * @param id    the movie ID
+ * @param title the movie title
+ * @param code  the pricing code of the movie
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Table("Movie")
+public record MovieRow(
+        @Id @Column("id") String id,
+        @Column("title") String title,
+        @Column("code") String code
+) {
+}
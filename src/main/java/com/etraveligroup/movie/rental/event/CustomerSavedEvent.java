@@ -0,0 +1,15 @@
+package com.etraveligroup.movie.rental.event;
+
+/**
+ * Application event published after a customer has been inserted or updated through JPA, or has had its missing
+ * name key backfilled. The event is published synchronously inside the writing transaction, before it commits.
+ *
+ * @param customerId      the ID of the customer
+ * @param nameKey         the normalized name key the customer was written with
+ * @param previousNameKey the name key the customer had before, or null for a new customer or a backfilled key
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record CustomerSavedEvent(Long customerId, String nameKey, String previousNameKey) {
+}
@@ -0,0 +1,18 @@
+package com.etraveligroup.movie.rental.event;
+
+import java.util.Set;
+
+/**
+ * Application event published when a reloaded movie catalog prices some movies differently than the snapshot it
+ * replaced. The event is published synchronously by the reloading thread while the reload lock is held, so
+ * listeners should only record the change and do the work later.
+ *
+ * @param previousVersion  the version of the replaced catalog snapshot
+ * @param version          the version of the new catalog snapshot
+ * @param repricedMovieIds the IDs of the movies part of both snapshots whose amount or points changed
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record MovieCatalogReloadedEvent(long previousVersion, long version, Set<String> repricedMovieIds) {
+}
@@ -0,0 +1,20 @@
+package com.etraveligroup.movie.rental.event;
+
+import com.etraveligroup.movie.rental.constants.RentalChangeType;
+
+/**
+ * Application event published while a movie rental is inserted, updated or deleted through JPA.
+ * The event is published synchronously inside the writing transaction, so listeners may write
+ * to the database and their changes commit or roll back together with the rental.
+ *
+ * @param type       whether the rental was added to, removed from or archived out of the invoice of the customer
+ * @param rentalId   the ID of the rental
+ * @param customerId the ID of the customer the rental belongs to
+ * @param movieId    the ID of the rented movie
+ * @param days       the number of days the movie was rented
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public record RentalChangedEvent(RentalChangeType type, Long rentalId, Long customerId, String movieId, int days) {
+}
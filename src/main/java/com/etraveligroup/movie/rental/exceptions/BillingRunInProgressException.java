@@ -0,0 +1,18 @@
+package com.etraveligroup.movie.rental.exceptions;
+
+/**
+ * Exception thrown when a billing run is started or resumed while another run is still in progress.
+ */
+public class BillingRunInProgressException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs a new BillingRunInProgressException with the specified message.
+     *
+     * @param message the detail message
+     */
+    public BillingRunInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,18 @@
+package com.etraveligroup.movie.rental.exceptions;
+
+/**
+ * Exception thrown when a billing run with the requested ID does not exist.
+ */
+public class BillingRunNotFoundException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs a new BillingRunNotFoundException with the specified message.
+     *
+     * @param message the detail message
+     */
+    public BillingRunNotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,34 @@
+package com.etraveligroup.movie.rental.exceptions;
+
+/**
+ * Exception thrown when a bulk rental insert fails after validation. Rentals are committed chunk by chunk,
+ * so the rentals of the chunks committed before the failure stay inserted.
+ */
+public class RentalIngestionFailedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int rowsCommitted;
+    private final int rowsRequested;
+
+    /**
+     * Constructs a new RentalIngestionFailedException.
+     *
+     * @param rowsCommitted the number of rentals committed before the failure
+     * @param rowsRequested the number of rentals in the request
+     * @param cause         the failure of the chunk being inserted
+     */
+    public RentalIngestionFailedException(int rowsCommitted, int rowsRequested, Throwable cause) {
+        super("Rental ingestion failed after committing " + rowsCommitted + " of " + rowsRequested + " rentals: " + cause.getMessage(), cause);
+        this.rowsCommitted = rowsCommitted;
+        this.rowsRequested = rowsRequested;
+    }
+
+    public int getRowsCommitted() {
+        return rowsCommitted;
+    }
+
+    public int getRowsRequested() {
+        return rowsRequested;
+    }
+}
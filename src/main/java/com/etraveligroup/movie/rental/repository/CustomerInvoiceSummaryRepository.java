@@ -0,0 +1,174 @@
+package com.etraveligroup.movie.rental.repository;
+
+import com.etraveligroup.movie.rental.dto.CustomerInvoiceSummaryDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceTotalsDTO;
+import com.etraveligroup.movie.rental.dto.RentalLineDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Repository for the CustomerInvoiceSummary read model.
+ * The summaries are written while Hibernate flushes rentals, so this repository uses plain JDBC on the
+ * transaction's connection instead of JPA queries, which would trigger a nested flush.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Repository
+@RequiredArgsConstructor
+public class CustomerInvoiceSummaryRepository {
+
+    private static final RowMapper<CustomerInvoiceSummaryDTO> SUMMARY_MAPPER = (rs, rowNum) -> new CustomerInvoiceSummaryDTO(
+            rs.getLong("customer_id"),
+            rs.getBigDecimal("total_amount"),
+            rs.getInt("frequent_points"),
+            rs.getInt("rental_count"),
+            rs.getLong("version"),
+            rs.getTimestamp("updated_at").toInstant());
+
+    private static final RowMapper<RentalLineDTO> RENTAL_LINE_MAPPER =
+            (rs, rowNum) -> new RentalLineDTO(rs.getString("movie_id"), rs.getInt("days"));
+
+    private static final String ADD_DELTA = """
+            UPDATE CustomerInvoiceSummary
+            SET total_amount = total_amount + :amount, frequent_points = frequent_points + :points,
+                rental_count = rental_count + :rentals, version = version + 1, updated_at = :updatedAt
+            WHERE customer_id = :customerId""";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds a change to the summary of a customer and increments its version.
+     *
+     * @param customerId the ID of the customer
+     * @param delta      the change to add, with negative values to subtract
+     * @return true if the summary exists and was updated
+     */
+    public boolean addDelta(Long customerId, InvoiceTotalsDTO delta) {
+        return jdbcTemplate.update(ADD_DELTA, values(customerId, delta)) > 0;
+    }
+
+    /**
+     * Adds changes to the summaries of several customers in one JDBC batch.
+     *
+     * @param deltas the change to add per customer ID
+     * @return the IDs of the customers that have no summary yet and were not updated
+     */
+    public Set<Long> addDeltas(Map<Long, InvoiceTotalsDTO> deltas) {
+        List<Long> customerIds = new ArrayList<>(deltas.keySet());
+        SqlParameterSource[] batch = customerIds.stream()
+                .map(customerId -> values(customerId, deltas.get(customerId)))
+                .toArray(SqlParameterSource[]::new);
+        int[] updated = jdbcTemplate.batchUpdate(ADD_DELTA, batch);
+        Set<Long> missing = new HashSet<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(customerIds.get(i));
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Inserts the summary of a customer with version 1.
+     *
+     * @throws org.springframework.dao.DuplicateKeyException if the customer already has a summary
+     */
+    public void insert(Long customerId, InvoiceTotalsDTO totals) {
+        jdbcTemplate.update("""
+                INSERT INTO CustomerInvoiceSummary (customer_id, total_amount, frequent_points, rental_count, version, updated_at)
+                VALUES (:customerId, :amount, :points, :rentals, 1, :updatedAt)""", values(customerId, totals));
+    }
+
+    /**
+     * Overwrites the amounts of an existing summary and increments its version.
+     *
+     * @return true if the summary exists and was updated
+     */
+    public boolean replace(Long customerId, InvoiceTotalsDTO totals) {
+        return jdbcTemplate.update("""
+                UPDATE CustomerInvoiceSummary
+                SET total_amount = :amount, frequent_points = :points, rental_count = :rentals,
+                    version = version + 1, updated_at = :updatedAt
+                WHERE customer_id = :customerId""", values(customerId, totals)) > 0;
+    }
+
+    /**
+     * Finds the summary of a customer and locks it until the end of the current transaction.
+     */
+    public Optional<CustomerInvoiceSummaryDTO> findByCustomerIdForUpdate(Long customerId) {
+        return jdbcTemplate.query("SELECT * FROM CustomerInvoiceSummary WHERE customer_id = :customerId FOR UPDATE",
+                Map.of("customerId", customerId), SUMMARY_MAPPER).stream().findFirst();
+    }
+
+    public Optional<CustomerInvoiceSummaryDTO> findByCustomerId(Long customerId) {
+        return jdbcTemplate.query("SELECT * FROM CustomerInvoiceSummary WHERE customer_id = :customerId",
+                Map.of("customerId", customerId), SUMMARY_MAPPER).stream().findFirst();
+    }
+
+    public Map<Long, CustomerInvoiceSummaryDTO> findByCustomerIdIn(Collection<Long> customerIds) {
+        if (customerIds.isEmpty()) {
+            return Map.of();
+        }
+        return jdbcTemplate.query("SELECT * FROM CustomerInvoiceSummary WHERE customer_id IN (:customerIds)",
+                        Map.of("customerIds", customerIds), SUMMARY_MAPPER).stream()
+                .collect(Collectors.toMap(CustomerInvoiceSummaryDTO::customerId, Function.identity()));
+    }
+
+    // Finds the rented movie IDs and days of a customer as visible to the current transaction.
+    public List<RentalLineDTO> findRentalLines(Long customerId) {
+        return jdbcTemplate.query("SELECT movie_id, days FROM MovieRental WHERE customer_id = :customerId ORDER BY id",
+                Map.of("customerId", customerId), RENTAL_LINE_MAPPER);
+    }
+
+    // Finds the rented movie IDs and days of a customer except one rental, which may still sit in a JDBC batch.
+    public List<RentalLineDTO> findRentalLinesExcept(Long customerId, Long rentalId) {
+        return jdbcTemplate.query("SELECT movie_id, days FROM MovieRental WHERE customer_id = :customerId AND id <> :rentalId ORDER BY id",
+                Map.of("customerId", customerId, "rentalId", rentalId), RENTAL_LINE_MAPPER);
+    }
+
+    // Finds the next customer IDs after the given ID that have no summary yet, in ascending order.
+    public List<Long> findCustomerIdsWithoutSummary(Long afterId, int limit) {
+        return jdbcTemplate.queryForList("""
+                SELECT c.id FROM Customer c
+                WHERE c.id > :afterId
+                  AND NOT EXISTS (SELECT 1 FROM CustomerInvoiceSummary s WHERE s.customer_id = c.id)
+                ORDER BY c.id
+                LIMIT :limit""", Map.of("afterId", afterId, "limit", limit), Long.class);
+    }
+
+    // Finds the next customer IDs after the given ID that rent any of the given movies, in ascending order.
+    public List<Long> findCustomerIdsRentingAny(Collection<String> movieIds, Long afterId, int limit) {
+        return jdbcTemplate.queryForList("""
+                SELECT DISTINCT customer_id FROM MovieRental
+                WHERE movie_id IN (:movieIds) AND customer_id > :afterId
+                ORDER BY customer_id
+                LIMIT :limit""", Map.of("movieIds", movieIds, "afterId", afterId, "limit", limit), Long.class);
+    }
+
+    private static MapSqlParameterSource values(Long customerId, InvoiceTotalsDTO totals) {
+        return new MapSqlParameterSource()
+                .addValue("customerId", customerId)
+                .addValue("amount", totals.amount())
+                .addValue("points", totals.frequentPoints())
+                .addValue("rentals", totals.rentalCount())
+                .addValue("updatedAt", Timestamp.from(Instant.now()));
+    }
+}
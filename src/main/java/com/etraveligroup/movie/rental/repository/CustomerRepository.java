@@ -1,8 +1,19 @@
 package com.etraveligroup.movie.rental.repository;
 
+import com.etraveligroup.movie.rental.dto.CustomerNameDTO;
+import com.etraveligroup.movie.rental.dto.CustomerNameKeyDTO;
 import com.etraveligroup.movie.rental.entity.Customer;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -11,6 +22,47 @@ import java.util.Optional;
  */
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
-    // Finds a customer by their name.
-    Optional<Customer> findByName(String name);
-}
\ No newline at end of file
+
+    // Finds a customer by their ID together with rentals, movies and pricing in a single query.
+    @EntityGraph(attributePaths = {"rentals", "rentals.movie", "rentals.movie.pricing"})
+    Optional<Customer> findWithRentalsById(Long id);
+
+    // Finds only the name of a customer by their ID.
+    @Query("select c.name from Customer c where c.id = :id")
+    Optional<String> findNameById(@Param("id") Long id);
+
+    // Finds the IDs and names of several customers.
+    @Query("select new com.etraveligroup.movie.rental.dto.CustomerNameDTO(c.id, c.name) from Customer c where c.id in :ids")
+    List<CustomerNameDTO> findNamesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Finds the IDs of customers whose normalized name key matches, using the name_key index.
+    @Query("select c.id from Customer c where c.nameKey = :nameKey order by c.id")
+    List<Long> findIdsByNameKey(@Param("nameKey") String nameKey);
+
+    // Finds the next customer IDs after the given ID in ascending order, for keyset pagination.
+    @Query("select c.id from Customer c where c.id > :afterId order by c.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Finds the IDs and name keys of the next customers after the given ID in ascending order, for keyset pagination.
+    @Query("select new com.etraveligroup.movie.rental.dto.CustomerNameKeyDTO(c.id, c.nameKey) from Customer c where c.id > :afterId order by c.id")
+    List<CustomerNameKeyDTO> findNameKeysAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Finds the IDs and names of the next customers without a name key after the given ID, e.g. inserted with plain SQL.
+    @Query("select new com.etraveligroup.movie.rental.dto.CustomerNameDTO(c.id, c.name) from Customer c "
+            + "where c.nameKey is null and c.name is not null and c.id > :afterId order by c.id")
+    List<CustomerNameDTO> findNamesWithoutNameKeyAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Sets the name key of a customer that has none yet; returns 0 if it has been set in the meantime.
+    @Transactional
+    @Modifying
+    @Query("update Customer c set c.nameKey = :nameKey where c.id = :id and c.nameKey is null")
+    int updateMissingNameKey(@Param("id") Long id, @Param("nameKey") String nameKey);
+
+    // Finds which of the given customer IDs exist.
+    @Query("select c.id from Customer c where c.id in :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Finds the highest customer ID, or null if there are no customers.
+    @Query("select max(c.id) from Customer c")
+    Long findMaxId();
+}
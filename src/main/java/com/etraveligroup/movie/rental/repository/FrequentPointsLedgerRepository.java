@@ -0,0 +1,245 @@
+package com.etraveligroup.movie.rental.repository;
+
+import com.etraveligroup.movie.rental.constants.PointsEntryType;
+import com.etraveligroup.movie.rental.dto.CustomerPointsBalanceDTO;
+import com.etraveligroup.movie.rental.dto.CustomerRentalLineDTO;
+import com.etraveligroup.movie.rental.dto.PointsLedgerEntryDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Repository for the frequent renter points ledger and the per-customer balances kept next to it.
+ * Entries and balances are written while Hibernate flushes rentals, so this repository uses plain JDBC on the
+ * transaction's connection instead of JPA queries, which would trigger a nested flush.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Repository
+@RequiredArgsConstructor
+public class FrequentPointsLedgerRepository {
+
+    private static final RowMapper<CustomerPointsBalanceDTO> BALANCE_MAPPER = (rs, rowNum) -> new CustomerPointsBalanceDTO(
+            rs.getLong("customer_id"),
+            rs.getLong("balance"),
+            rs.getLong("version"),
+            rs.getTimestamp("updated_at").toInstant());
+
+    private static final RowMapper<CustomerRentalLineDTO> RENTAL_LINE_MAPPER = (rs, rowNum) ->
+            new CustomerRentalLineDTO(rs.getLong("customer_id"), rs.getString("movie_id"), rs.getInt("days"));
+
+    private static final String ADD_TO_BALANCE = """
+            UPDATE CustomerPointsBalance
+            SET balance = balance + :points, version = version + 1, updated_at = :updatedAt
+            WHERE customer_id = :customerId""";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Appends entries to the ledger in one JDBC batch.
+     *
+     * @param entries    the entries to append
+     * @param recordedAt the recording time of the entries
+     */
+    public void appendEntries(List<PointsLedgerEntryDTO> entries, Instant recordedAt) {
+        OffsetDateTime recorded = utc(recordedAt);
+        SqlParameterSource[] batch = entries.stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("customerId", entry.customerId())
+                        .addValue("rentalId", entry.rentalId())
+                        .addValue("type", entry.type().name())
+                        .addValue("points", entry.points())
+                        .addValue("recordedAt", recorded))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO FrequentPointsLedger (customer_id, rental_id, entry_type, points, recorded_at)
+                VALUES (:customerId, :rentalId, :type, :points, :recordedAt)""", batch);
+    }
+
+    /**
+     * Adds points to the balances of several customers in one JDBC batch and increments their versions.
+     *
+     * @param points the points to add per customer ID, negative to subtract
+     * @return the IDs of the customers that have no balance yet and were not updated
+     */
+    public Set<Long> addToBalances(Map<Long, Long> points) {
+        List<Long> customerIds = new ArrayList<>(points.keySet());
+        SqlParameterSource[] batch = customerIds.stream()
+                .map(customerId -> values(customerId, points.get(customerId)))
+                .toArray(SqlParameterSource[]::new);
+        int[] updated = jdbcTemplate.batchUpdate(ADD_TO_BALANCE, batch);
+        Set<Long> missing = new HashSet<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                missing.add(customerIds.get(i));
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Adds points to the balance of a customer and increments its version.
+     *
+     * @return true if the balance exists and was updated
+     */
+    public boolean addToBalance(Long customerId, long points) {
+        return jdbcTemplate.update(ADD_TO_BALANCE, values(customerId, points)) > 0;
+    }
+
+    /**
+     * Inserts the balance of a customer with version 1.
+     *
+     * @throws org.springframework.dao.DuplicateKeyException if the customer already has a balance
+     */
+    public void insertBalance(Long customerId, long balance) {
+        jdbcTemplate.update("""
+                INSERT INTO CustomerPointsBalance (customer_id, balance, version, updated_at)
+                VALUES (:customerId, :points, 1, :updatedAt)""", values(customerId, balance));
+    }
+
+    public Optional<CustomerPointsBalanceDTO> findBalance(Long customerId) {
+        return jdbcTemplate.query("SELECT * FROM CustomerPointsBalance WHERE customer_id = :customerId",
+                Map.of("customerId", customerId), BALANCE_MAPPER).stream().findFirst();
+    }
+
+    /**
+     * Finds the balance of a customer and locks it until the end of the current transaction.
+     */
+    public Optional<CustomerPointsBalanceDTO> findBalanceForUpdate(Long customerId) {
+        return jdbcTemplate.query("SELECT * FROM CustomerPointsBalance WHERE customer_id = :customerId FOR UPDATE",
+                Map.of("customerId", customerId), BALANCE_MAPPER).stream().findFirst();
+    }
+
+    public Map<Long, CustomerPointsBalanceDTO> findBalances(Collection<Long> customerIds) {
+        if (customerIds.isEmpty()) {
+            return Map.of();
+        }
+        return jdbcTemplate.query("SELECT * FROM CustomerPointsBalance WHERE customer_id IN (:customerIds)",
+                        Map.of("customerIds", customerIds), BALANCE_MAPPER).stream()
+                .collect(Collectors.toMap(CustomerPointsBalanceDTO::customerId, Function.identity()));
+    }
+
+    /**
+     * Sums the ledger entries of a customer.
+     *
+     * @return the sum of the points of all entries, 0 if the customer has none
+     */
+    public long sumEntries(Long customerId) {
+        Long sum = jdbcTemplate.queryForObject("SELECT COALESCE(SUM(points), 0) FROM FrequentPointsLedger WHERE customer_id = :customerId",
+                Map.of("customerId", customerId), Long.class);
+        return sum != null ? sum : 0;
+    }
+
+    /**
+     * Sums the ledger entries of several customers.
+     *
+     * @return the sum of the points of all entries per customer ID, without customers that have no entries
+     */
+    public Map<Long, Long> sumEntries(Collection<Long> customerIds) {
+        if (customerIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, Long> sums = new HashMap<>();
+        jdbcTemplate.query("""
+                SELECT customer_id, SUM(points) AS points FROM FrequentPointsLedger
+                WHERE customer_id IN (:customerIds)
+                GROUP BY customer_id""", Map.of("customerIds", customerIds),
+                rs -> { sums.put(rs.getLong("customer_id"), rs.getLong("points")); });
+        return sums;
+    }
+
+    // Finds the rented movie IDs and days of customers, archived rentals included, as visible to the current transaction.
+    public List<CustomerRentalLineDTO> findRentalLines(Collection<Long> customerIds) {
+        if (customerIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query("""
+                SELECT customer_id, movie_id, days FROM MovieRental WHERE customer_id IN (:customerIds)
+                UNION ALL
+                SELECT customer_id, movie_id, days FROM MovieRentalArchive WHERE customer_id IN (:customerIds)""",
+                Map.of("customerIds", customerIds), RENTAL_LINE_MAPPER);
+    }
+
+    // Finds the next customer IDs after the given ID that have no balance yet, in ascending order.
+    public List<Long> findCustomerIdsWithoutBalance(Long afterId, int limit) {
+        return jdbcTemplate.queryForList("""
+                SELECT c.id FROM Customer c
+                WHERE c.id > :afterId
+                  AND NOT EXISTS (SELECT 1 FROM CustomerPointsBalance b WHERE b.customer_id = c.id)
+                ORDER BY c.id
+                LIMIT :limit""", Map.of("afterId", afterId, "limit", limit), Long.class);
+    }
+
+    // Finds the next customer IDs after the given ID with more than one entry recorded before the cutoff, in ascending order.
+    public List<Long> findCustomerIdsToCompact(Instant cutoff, Long afterId, int limit) {
+        return jdbcTemplate.queryForList("""
+                SELECT customer_id FROM FrequentPointsLedger
+                WHERE recorded_at < :cutoff AND customer_id > :afterId
+                GROUP BY customer_id
+                HAVING COUNT(*) > 1
+                ORDER BY customer_id
+                LIMIT :limit""", Map.of("cutoff", utc(cutoff), "afterId", afterId, "limit", limit), Long.class);
+    }
+
+    /**
+     * Replaces the entries of customers recorded before the cutoff with one carried-forward entry per customer,
+     * recorded at the time of the latest entry it replaces. Customers whose old entries sum to zero get no entry.
+     * The sum of the entries of every customer, and so its balance, does not change.
+     *
+     * @param customerIds the IDs of the customers to compact
+     * @param cutoff      the recording time before which entries are folded
+     * @return the number of entries removed, net of the carried-forward entries written
+     */
+    public int compact(Collection<Long> customerIds, Instant cutoff) {
+        Long maxId = jdbcTemplate.getJdbcTemplate().queryForObject("SELECT MAX(id) FROM FrequentPointsLedger", Long.class);
+        if (customerIds.isEmpty() || maxId == null) {
+            return 0;
+        }
+        // Entries appended after the carried-forward entries are written are not folded.
+        MapSqlParameterSource params = new MapSqlParameterSource("customerIds", customerIds)
+                .addValue("cutoff", utc(cutoff))
+                .addValue("maxId", maxId)
+                .addValue("type", PointsEntryType.CARRIED_FORWARD.name());
+        int written = jdbcTemplate.update("""
+                INSERT INTO FrequentPointsLedger (customer_id, rental_id, entry_type, points, recorded_at)
+                SELECT customer_id, NULL, :type, SUM(points), MAX(recorded_at) FROM FrequentPointsLedger
+                WHERE customer_id IN (:customerIds) AND recorded_at < :cutoff AND id <= :maxId
+                GROUP BY customer_id
+                HAVING SUM(points) <> 0""", params);
+        int deleted = jdbcTemplate.update("""
+                DELETE FROM FrequentPointsLedger
+                WHERE customer_id IN (:customerIds) AND recorded_at < :cutoff AND id <= :maxId""", params);
+        return deleted - written;
+    }
+
+    private static MapSqlParameterSource values(Long customerId, long points) {
+        return new MapSqlParameterSource()
+                .addValue("customerId", customerId)
+                .addValue("points", points)
+                .addValue("updatedAt", Timestamp.from(Instant.now()));
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,134 @@
+package com.etraveligroup.movie.rental.repository;
+
+import com.etraveligroup.movie.rental.dto.InvoiceChangeDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Repository for the "InvoiceChangeLog" table, which records the customers whose rentals changed.
+ * Entries are written while Hibernate completes the writing transaction, so this repository uses plain JDBC on the
+ * transaction's connection.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Repository
+@RequiredArgsConstructor
+public class InvoiceChangeLogRepository {
+
+    private static final RowMapper<InvoiceChangeDTO> CHANGE_MAPPER = (rs, rowNum) -> new InvoiceChangeDTO(
+            rs.getLong("id"),
+            rs.getLong("customer_id"),
+            rs.getObject("changed_at", OffsetDateTime.class).toInstant(),
+            rs.getObject("read_at", OffsetDateTime.class).toInstant());
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Logs a change for each of the given customers with one batch insert.
+     *
+     * @param customerIds the IDs of the customers whose rentals changed
+     */
+    public void append(Collection<Long> customerIds) {
+        SqlParameterSource[] batch = customerIds.stream()
+                .map(customerId -> new MapSqlParameterSource("customerId", customerId))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("INSERT INTO InvoiceChangeLog (customer_id) VALUES (:customerId)", batch);
+    }
+
+    /**
+     * Finds the ID of the latest change logged for a customer.
+     *
+     * @param customerId the ID of the customer
+     * @return the latest change ID, or 0 if no change is logged
+     */
+    public long findLatestChangeId(Long customerId) {
+        Long changeId = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(MAX(id), 0) FROM InvoiceChangeLog WHERE customer_id = :customerId",
+                Map.of("customerId", customerId), Long.class);
+        return changeId != null ? changeId : 0;
+    }
+
+    /**
+     * Finds the ID of the latest change logged for any customer.
+     *
+     * @return the latest change ID, or 0 if the log is empty
+     */
+    public long findLatestChangeId() {
+        Long changeId = jdbcTemplate.getJdbcTemplate().queryForObject("SELECT COALESCE(MAX(id), 0) FROM InvoiceChangeLog", Long.class);
+        return changeId != null ? changeId : 0;
+    }
+
+    /**
+     * Finds the changes logged after a change ID.
+     *
+     * @param afterChangeId the ID after which changes are returned
+     * @param limit         the maximum number of changes returned
+     * @return the changes in ID order
+     */
+    public List<InvoiceChangeDTO> findChangesAfter(long afterChangeId, int limit) {
+        return jdbcTemplate.query("""
+                SELECT id, customer_id, changed_at, CURRENT_TIMESTAMP AS read_at FROM InvoiceChangeLog
+                WHERE id > :afterChangeId
+                ORDER BY id
+                LIMIT :limit""",
+                Map.of("afterChangeId", afterChangeId, "limit", limit), CHANGE_MAPPER);
+    }
+
+    /**
+     * Finds the changes with the given IDs. Used for IDs skipped by earlier reads, whose transactions may have
+     * committed after changes with higher IDs.
+     *
+     * @param changeIds the IDs of the changes
+     * @return the committed changes among them
+     */
+    public List<InvoiceChangeDTO> findChanges(Collection<Long> changeIds) {
+        if (changeIds.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query("""
+                SELECT id, customer_id, changed_at, CURRENT_TIMESTAMP AS read_at FROM InvoiceChangeLog
+                WHERE id IN (:changeIds)""",
+                Map.of("changeIds", changeIds), CHANGE_MAPPER);
+    }
+
+    /**
+     * Finds the customers with changes logged after a change ID.
+     *
+     * @param afterChangeId the ID after which changes are considered
+     * @return the IDs of the changed customers
+     */
+    public Set<Long> findCustomerIdsChangedAfter(long afterChangeId) {
+        return new HashSet<>(jdbcTemplate.queryForList(
+                "SELECT DISTINCT customer_id FROM InvoiceChangeLog WHERE id > :afterChangeId",
+                Map.of("afterChangeId", afterChangeId), Long.class));
+    }
+
+    /**
+     * Deletes the changes logged before a time.
+     *
+     * @param cutoff the time before which changes are deleted
+     * @return the number of deleted changes
+     */
+    public int deleteChangedBefore(Instant cutoff) {
+        return jdbcTemplate.update("DELETE FROM InvoiceChangeLog WHERE changed_at < :cutoff", Map.of("cutoff", utc(cutoff)));
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,13 @@
+package com.etraveligroup.movie.rental.repository;
+
+import com.etraveligroup.movie.rental.entity.MoviePricing;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for managing MoviePricing entities.
+ * Provides methods to perform CRUD operations and custom queries.
+ */
+@Repository
+public interface MoviePricingRepository extends JpaRepository<MoviePricing, String> {
+}
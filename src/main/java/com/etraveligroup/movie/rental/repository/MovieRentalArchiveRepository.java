@@ -0,0 +1,96 @@
+package com.etraveligroup.movie.rental.repository;
+
+import com.etraveligroup.movie.rental.dto.RentalRecordDTO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository moving closed rentals from the hot "MovieRental" table to "MovieRentalArchive" and reading them back.
+ * Rows are copied and deleted with plain JDBC so a batch is moved with two statements, without loading entities.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Repository
+@RequiredArgsConstructor
+public class MovieRentalArchiveRepository {
+
+    private static final RowMapper<RentalRecordDTO> RECORD_MAPPER = (rs, rowNum) -> new RentalRecordDTO(
+            rs.getLong("id"), rs.getLong("customer_id"), rs.getString("movie_id"), rs.getInt("days"));
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Finds and locks the oldest closed rentals returned before the cutoff, in rental order.
+     *
+     * @param cutoff the return time before which rentals are archived
+     * @param limit  the maximum number of rentals returned
+     * @return the archivable rentals
+     */
+    public List<RentalRecordDTO> findArchivable(Instant cutoff, int limit) {
+        return jdbcTemplate.query("""
+                SELECT id, customer_id, movie_id, days FROM MovieRental
+                WHERE returned_at < :cutoff
+                ORDER BY id
+                LIMIT :limit
+                FOR UPDATE""", Map.of("cutoff", utc(cutoff), "limit", limit), RECORD_MAPPER);
+    }
+
+    /**
+     * Copies the given rentals to the archive and deletes them from the hot table.
+     *
+     * @param rentalIds  the IDs of the rentals
+     * @param archivedAt the archive time recorded on the copies
+     * @return the number of rentals moved
+     */
+    public int moveToArchive(Collection<Long> rentalIds, Instant archivedAt) {
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", rentalIds)
+                .addValue("archivedAt", utc(archivedAt));
+        jdbcTemplate.update("""
+                INSERT INTO MovieRentalArchive (id, days, customer_id, movie_id, rented_at, returned_at, archived_at)
+                SELECT id, days, customer_id, movie_id, rented_at, returned_at, :archivedAt
+                FROM MovieRental WHERE id IN (:ids)""", params);
+        return jdbcTemplate.update("DELETE FROM MovieRental WHERE id IN (:ids)", params);
+    }
+
+    /**
+     * Finds the archived rentals of a customer rented within a period, in rental order.
+     *
+     * @param customerId the ID of the customer
+     * @param from       the earliest rental time included
+     * @param to         the rental time from which rentals are no longer included
+     * @return the archived rentals
+     */
+    public List<RentalRecordDTO> findByCustomerIdRentedBetween(Long customerId, Instant from, Instant to) {
+        return jdbcTemplate.query("""
+                SELECT id, customer_id, movie_id, days FROM MovieRentalArchive
+                WHERE customer_id = :customerId AND rented_at >= :from AND rented_at < :to
+                ORDER BY id""",
+                Map.of("customerId", customerId, "from", utc(from), "to", utc(to)), RECORD_MAPPER);
+    }
+
+    /**
+     * Counts the archived rentals.
+     *
+     * @return the number of rentals in the archive
+     */
+    public long count() {
+        Long count = jdbcTemplate.getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM MovieRentalArchive", Long.class);
+        return count != null ? count : 0;
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+}
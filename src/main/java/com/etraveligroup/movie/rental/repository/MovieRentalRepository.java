@@ -0,0 +1,55 @@
+package com.etraveligroup.movie.rental.repository;
+
+import com.etraveligroup.movie.rental.dto.CustomerRentalLineDTO;
+import com.etraveligroup.movie.rental.dto.RentalInvoiceLineDTO;
+import com.etraveligroup.movie.rental.dto.RentalLineDTO;
+import com.etraveligroup.movie.rental.dto.RentalRecordDTO;
+import com.etraveligroup.movie.rental.entity.MovieRental;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for managing MovieRental entities.
+ * Provides methods to perform CRUD operations and custom queries.
+ */
+@Repository
+public interface MovieRentalRepository extends JpaRepository<MovieRental, Long> {
+    // Finds the invoice lines of a customer as flat rows, without loading any entities.
+    @Query("""
+            select new com.etraveligroup.movie.rental.dto.RentalInvoiceLineDTO(
+                m.title, r.days, p.code, p.baseDays, p.basePrice, p.extraPricePerDay)
+            from MovieRental r join r.movie m join m.pricing p
+            where r.customer.id = :customerId
+            order by r.id""")
+    List<RentalInvoiceLineDTO> findInvoiceLinesByCustomerId(@Param("customerId") Long customerId);
+
+    // Finds the rented movie IDs and days of a customer, to be priced from the movie catalog.
+    @Query("""
+            select new com.etraveligroup.movie.rental.dto.RentalLineDTO(r.movie.id, r.days)
+            from MovieRental r
+            where r.customer.id = :customerId
+            order by r.id""")
+    List<RentalLineDTO> findRentalLinesByCustomerId(@Param("customerId") Long customerId);
+
+    // Finds the rented movie IDs and days of several customers, ordered by customer and rental.
+    @Query("""
+            select new com.etraveligroup.movie.rental.dto.CustomerRentalLineDTO(r.customer.id, r.movie.id, r.days)
+            from MovieRental r
+            where r.customer.id in :customerIds
+            order by r.customer.id, r.id""")
+    List<CustomerRentalLineDTO> findRentalLinesByCustomerIdIn(@Param("customerIds") Collection<Long> customerIds);
+
+    // Finds the rentals of a customer rented within [from, to), in rental order.
+    @Query("""
+            select new com.etraveligroup.movie.rental.dto.RentalRecordDTO(r.id, r.customer.id, r.movie.id, r.days)
+            from MovieRental r
+            where r.customer.id = :customerId and r.rentedAt >= :from and r.rentedAt < :to
+            order by r.id""")
+    List<RentalRecordDTO> findByCustomerIdRentedBetween(@Param("customerId") Long customerId,
+                                                        @Param("from") Instant from, @Param("to") Instant to);
+}
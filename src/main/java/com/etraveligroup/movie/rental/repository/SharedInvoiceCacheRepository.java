@@ -0,0 +1,102 @@
+package com.etraveligroup.movie.rental.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Repository for the "SharedInvoiceCache" table, the invoice cache tier shared by all instances.
+ * An entry records the latest logged change of its customer when the invoice was computed; it is only returned
+ * while no later change has been logged.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Repository
+@RequiredArgsConstructor
+public class SharedInvoiceCacheRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Finds the cached invoice of a customer if it was computed after a time and no change was logged since.
+     *
+     * @param customerId the ID of the customer
+     * @param notBefore  the time before which cached invoices are expired
+     * @return the invoice as JSON, or empty if there is no valid entry
+     */
+    public Optional<String> findValid(Long customerId, Instant notBefore) {
+        List<String> invoices = jdbcTemplate.queryForList("""
+                SELECT c.invoice_json FROM SharedInvoiceCache c
+                WHERE c.customer_id = :customerId AND c.computed_at >= :notBefore
+                AND NOT EXISTS (SELECT 1 FROM InvoiceChangeLog l WHERE l.customer_id = c.customer_id AND l.id > c.change_id)""",
+                Map.of("customerId", customerId, "notBefore", utc(notBefore)), String.class);
+        return invoices.stream().findFirst();
+    }
+
+    /**
+     * Stores the invoice of a customer unless an invoice computed after a later change is already stored.
+     *
+     * @param customerId  the ID of the customer
+     * @param invoiceJson the invoice as JSON
+     * @param changeId    the latest change logged for the customer before the invoice was computed
+     * @param computedAt  the time the invoice was computed
+     */
+    public void save(Long customerId, String invoiceJson, long changeId, Instant computedAt) {
+        MapSqlParameterSource params = new MapSqlParameterSource("customerId", customerId)
+                .addValue("invoiceJson", invoiceJson)
+                .addValue("changeId", changeId)
+                .addValue("computedAt", utc(computedAt));
+        int updated = jdbcTemplate.update("""
+                UPDATE SharedInvoiceCache SET invoice_json = :invoiceJson, change_id = :changeId, computed_at = :computedAt
+                WHERE customer_id = :customerId AND change_id <= :changeId""", params);
+        if (updated == 0) {
+            try {
+                jdbcTemplate.update("""
+                        INSERT INTO SharedInvoiceCache (customer_id, invoice_json, change_id, computed_at)
+                        VALUES (:customerId, :invoiceJson, :changeId, :computedAt)""", params);
+            } catch (DuplicateKeyException e) {
+                // Another instance stored an invoice computed after a later change in the meantime
+            }
+        }
+    }
+
+    /**
+     * Finds the customers whose invoices were shared most recently, i.e. recently requested on any instance.
+     *
+     * @param notBefore the time before which entries are expired
+     * @param limit     the maximum number of customer IDs returned
+     * @return the customer IDs, most recent first
+     */
+    public List<Long> findRecentCustomerIds(Instant notBefore, int limit) {
+        return jdbcTemplate.queryForList("""
+                SELECT customer_id FROM SharedInvoiceCache WHERE computed_at >= :notBefore
+                ORDER BY computed_at DESC
+                LIMIT :limit""",
+                Map.of("notBefore", utc(notBefore), "limit", limit), Long.class);
+    }
+
+    /**
+     * Deletes the entries computed before a time.
+     *
+     * @param cutoff the time before which entries are deleted
+     * @return the number of deleted entries
+     */
+    public int deleteComputedBefore(Instant cutoff) {
+        return jdbcTemplate.update("DELETE FROM SharedInvoiceCache WHERE computed_at < :cutoff", Map.of("cutoff", utc(cutoff)));
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
+}
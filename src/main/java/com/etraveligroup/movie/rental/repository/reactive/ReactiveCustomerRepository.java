@@ -0,0 +1,15 @@
+package com.etraveligroup.movie.rental.repository.reactive;
+
+import com.etraveligroup.movie.rental.entity.reactive.CustomerRow;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+/**
+ * Reactive repository for customer rows, used by the R2DBC data path.
+ */
+@Repository
+public interface ReactiveCustomerRepository extends R2dbcRepository<CustomerRow, Long> {
+    // Finds the customers with the given normalized name key, lowest ID first.
+    Flux<CustomerRow> findByNameKeyOrderById(String nameKey);
+}
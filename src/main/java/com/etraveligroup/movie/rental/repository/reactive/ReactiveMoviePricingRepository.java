@@ -0,0 +1,12 @@
+package com.etraveligroup.movie.rental.repository.reactive;
+
+import com.etraveligroup.movie.rental.entity.reactive.MoviePricingRow;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Reactive repository for movie pricing rows, used by the R2DBC data path.
+ */
+@Repository
+public interface ReactiveMoviePricingRepository extends R2dbcRepository<MoviePricingRow, String> {
+}
@@ -0,0 +1,30 @@
+package com.etraveligroup.movie.rental.repository.reactive;
+
+import com.etraveligroup.movie.rental.entity.reactive.MovieRentalRow;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+
+/**
+ * Reactive repository for movie rental rows, used by the R2DBC data path.
+ */
+@Repository
+public interface ReactiveMovieRentalRepository extends R2dbcRepository<MovieRentalRow, Long> {
+    // Finds the rentals of a customer in rental order.
+    Flux<MovieRentalRow> findByCustomerIdOrderById(Long customerId);
+
+    // Finds the rentals of several customers, ordered by customer and rental.
+    Flux<MovieRentalRow> findByCustomerIdInOrderByCustomerIdAscIdAsc(Collection<Long> customerIds);
+
+    // Finds the rentals of a customer rented within [from, to), in rental order.
+    @Query("SELECT id, customer_id, movie_id, days FROM MovieRental WHERE customer_id = :customerId AND rented_at >= :from AND rented_at < :to ORDER BY id")
+    Flux<MovieRentalRow> findByCustomerIdRentedBetween(Long customerId, OffsetDateTime from, OffsetDateTime to);
+
+    // Finds the archived rentals of a customer rented within [from, to), in rental order, as rental rows.
+    @Query("SELECT id, customer_id, movie_id, days FROM MovieRentalArchive WHERE customer_id = :customerId AND rented_at >= :from AND rented_at < :to ORDER BY id")
+    Flux<MovieRentalRow> findArchivedByCustomerIdRentedBetween(Long customerId, OffsetDateTime from, OffsetDateTime to);
+}
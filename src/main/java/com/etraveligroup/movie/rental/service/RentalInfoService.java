@@ -1,8 +1,14 @@
 package com.etraveligroup.movie.rental.service;
 
+import com.etraveligroup.movie.rental.dto.BatchInvoiceResultDTO;
 import com.etraveligroup.movie.rental.dto.GenerateInvoiceByNameRequestDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import com.etraveligroup.movie.rental.dto.RentalPeriodDTO;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+
 /**
  * Interface for rental  information services
  */
@@ -12,14 +18,32 @@ public interface RentalInfoService {
      * Generates an invoice by customer.
      *
      * @param generateInvoiceRequestDTO the customer for whom to generate the invoice
-     * @return the invoice as a string
+     * @return the structured invoice
      */
-    Mono<String> generateInvoiceByName(GenerateInvoiceByNameRequestDTO generateInvoiceRequestDTO);
+    Mono<InvoiceResponseDTO> generateInvoiceByName(GenerateInvoiceByNameRequestDTO generateInvoiceRequestDTO);
     /**
      * Generates an invoice by customer ID.
      *
      * @param customerId the customer ID for whom to generate the invoice
-     * @return the invoice as a string
+     * @return the structured invoice
+     */
+    Mono<InvoiceResponseDTO> generateInvoiceById(Long customerId);
+
+    /**
+     * Generates an invoice by customer ID for the rentals rented within a period, including archived rentals.
+     *
+     * @param customerId the customer ID for whom to generate the invoice
+     * @param period     the rental times to include
+     * @return the structured invoice
+     */
+    Mono<InvoiceResponseDTO> generateInvoiceById(Long customerId, RentalPeriodDTO period);
+
+    /**
+     * Generates invoices for many customers, emitting one result per distinct customer ID as it completes.
+     * Failures are reported per customer instead of failing the whole batch.
+     *
+     * @param customerIds the IDs of the customers for whom to generate invoices
+     * @return the invoice or error of each customer, in request order
      */
-    Mono<String> generateInvoiceById(Long customerId);
+    Flux<BatchInvoiceResultDTO> generateInvoicesByIds(List<Long> customerIds);
 }
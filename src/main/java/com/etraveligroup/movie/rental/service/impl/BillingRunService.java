@@ -0,0 +1,475 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.constants.BillingRunState;
+import com.etraveligroup.movie.rental.dto.BatchInvoiceResultDTO;
+import com.etraveligroup.movie.rental.dto.BillingRunStatusDTO;
+import com.etraveligroup.movie.rental.exceptions.BillingRunInProgressException;
+import com.etraveligroup.movie.rental.exceptions.BillingRunNotFoundException;
+import com.etraveligroup.movie.rental.repository.CustomerRepository;
+import com.etraveligroup.movie.rental.service.RentalInfoService;
+import com.etraveligroup.movie.rental.util.InvoiceFormatter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Service running bulk billing runs that generate the invoice of every customer.
+ * Customers are paged by keyset ({@code id > lastId}), so the table is never loaded at once.
+ * Pages are handed to a bounded pool of workers which compute the invoices with the batch invoice
+ * computation and write a text and a JSON file per page. The highest customer ID up to which every
+ * page has been written is persisted as a checkpoint, so an interrupted run can be resumed.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Service
+public class BillingRunService {
+
+    private static final String CHECKPOINT_FILE = "checkpoint.properties";
+    private static final Pattern RUN_ID_PATTERN = Pattern.compile("[A-Za-z0-9-]+");
+    private static final DateTimeFormatter RUN_ID_FORMAT = DateTimeFormatter.ofPattern("'run-'yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+
+    private final CustomerRepository customerRepository;
+    private final RentalInfoService rentalInfoService;
+    private final ObjectMapper objectMapper;
+    private final Path outputDirectory;
+    private final int pageSize;
+    private final int retainedRuns;
+    private final ExecutorService coordinator;
+    private final ExecutorService workers;
+    private final Map<String, BillingRun> runs = new ConcurrentHashMap<>();
+
+    public BillingRunService(CustomerRepository customerRepository,
+                             RentalInfoService rentalInfoService,
+                             ObjectMapper objectMapper,
+                             @Value("${movie-rental.billing-run.output-dir:billing-runs}") String outputDirectory,
+                             @Value("${movie-rental.billing-run.page-size:1000}") int pageSize,
+                             @Value("${movie-rental.billing-run.workers:4}") int workerCount,
+                             @Value("${movie-rental.billing-run.retained-runs:20}") int retainedRuns) {
+        this.customerRepository = customerRepository;
+        this.rentalInfoService = rentalInfoService;
+        this.objectMapper = objectMapper;
+        this.outputDirectory = Paths.get(outputDirectory);
+        this.pageSize = pageSize;
+        this.retainedRuns = retainedRuns;
+        this.coordinator = Executors.newSingleThreadExecutor(namedThreads("billing-run-coordinator"));
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workerCount), namedThreads("billing-run-worker"), BillingRunService::rejectPage);
+    }
+
+    /**
+     * Starts a billing run on the configured schedule. Disabled unless "movie-rental.billing-run.cron" is set.
+     */
+    @Scheduled(cron = "${movie-rental.billing-run.cron:-}", zone = "UTC")
+    public void scheduledRun() {
+        try {
+            start();
+        } catch (BillingRunInProgressException e) {
+            log.warn("Skipping scheduled billing run: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Starts a new billing run over all customers.
+     *
+     * @return the status of the started run
+     * @throws BillingRunInProgressException if another billing run is still running
+     */
+    public synchronized BillingRunStatusDTO start() {
+        ensureNoRunInProgress();
+        String runId = RUN_ID_FORMAT.format(Instant.now());
+        Path runDirectory = outputDirectory.resolve(runId);
+        createDirectories(runDirectory);
+
+        BillingRun run = new BillingRun(runId, runDirectory, Instant.now(), customerRepository.count(), new Checkpoint(0L, 1, 0L, 0L, false));
+        writeCheckpoint(run.directory, run.checkpoint);
+        return launch(run);
+    }
+
+    /**
+     * Resumes an interrupted or failed billing run from its last checkpoint.
+     * Pages written after the checkpoint are generated again and overwritten.
+     *
+     * @param runId the ID of the billing run
+     * @return the status of the resumed run
+     * @throws BillingRunNotFoundException   if no checkpoint exists for the run
+     * @throws BillingRunInProgressException if another billing run is still running
+     */
+    public synchronized BillingRunStatusDTO resume(String runId) {
+        ensureNoRunInProgress();
+        Path runDirectory = runDirectory(runId);
+        Checkpoint checkpoint = readCheckpoint(runId, runDirectory);
+        if (checkpoint.completed()) {
+            log.info("Billing run {} is already completed", runId);
+            return status(runId);
+        }
+        log.info("Resuming billing run {} after customer ID {} (page {})", runId, checkpoint.lastCustomerId(), checkpoint.nextPage());
+        BillingRun run = new BillingRun(runId, runDirectory, Instant.now(), customerRepository.count(), checkpoint);
+        return launch(run);
+    }
+
+    /**
+     * Returns the status of a billing run, from memory if it ran in this process or from its checkpoint otherwise.
+     *
+     * @param runId the ID of the billing run
+     * @return the status of the run
+     * @throws BillingRunNotFoundException if the run is unknown
+     */
+    public BillingRunStatusDTO status(String runId) {
+        BillingRun run = runs.get(runId);
+        if (run != null) {
+            return run.toStatus();
+        }
+        Path runDirectory = runDirectory(runId);
+        Checkpoint checkpoint = readCheckpoint(runId, runDirectory);
+        return new BillingRunStatusDTO(runId, checkpoint.completed() ? BillingRunState.COMPLETED : BillingRunState.INTERRUPTED,
+                0L, checkpoint.customersProcessed(), checkpoint.customersFailed(), checkpoint.nextPage() - 1L,
+                checkpoint.lastCustomerId(), 0d, null, null, runDirectory.toString());
+    }
+
+    /**
+     * Stops the coordinator and the workers. Pages still queued are failed, so the run ends as failed and can be resumed.
+     */
+    @PreDestroy
+    public void shutdown() {
+        coordinator.shutdownNow();
+        for (Runnable task : workers.shutdownNow()) {
+            if (task instanceof PageTask pageTask) {
+                pageTask.reject();
+            }
+        }
+    }
+
+    private BillingRunStatusDTO launch(BillingRun run) {
+        pruneFinishedRuns();
+        runs.put(run.runId, run);
+        try {
+            coordinator.execute(() -> execute(run));
+        } catch (RejectedExecutionException e) {
+            runs.remove(run.runId, run);
+            throw e;
+        }
+        log.info("Billing run {} started, writing to {}", run.runId, run.directory);
+        return run.toStatus();
+    }
+
+    /**
+     * Pages through the customers after the checkpoint and hands every page to the worker pool.
+     */
+    private void execute(BillingRun run) {
+        List<CompletableFuture<Void>> pages = new ArrayList<>();
+        try {
+            long lastCustomerId = run.checkpoint.lastCustomerId();
+            int pageNumber = run.checkpoint.nextPage();
+            while (run.failure == null) {
+                List<Long> customerIds = customerRepository.findIdsAfter(lastCustomerId, PageRequest.of(0, pageSize));
+                if (customerIds.isEmpty()) {
+                    break;
+                }
+                PageTask task = new PageTask(run, new BillingPage(pageNumber++, customerIds));
+                pages.add(task.future);
+                workers.execute(task);
+                lastCustomerId = customerIds.get(customerIds.size() - 1);
+            }
+            CompletableFuture.allOf(pages.toArray(CompletableFuture[]::new)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            run.fail(new IllegalStateException("Billing run " + run.runId + " was interrupted", e));
+        } catch (ExecutionException e) {
+            run.fail(e.getCause() instanceof RuntimeException cause ? cause : new IllegalStateException(e.getCause()));
+        } catch (RuntimeException e) {
+            run.fail(e);
+        }
+        run.finish();
+        log.info("Billing run {} finished: {}", run.runId, run.toStatus());
+    }
+
+    private void processPage(BillingRun run, BillingPage page) {
+        if (run.failure != null) {
+            return;
+        }
+        try {
+            List<BatchInvoiceResultDTO> results = rentalInfoService.generateInvoicesByIds(page.customerIds()).collectList().block();
+            writePage(run.directory, page, results != null ? results : List.of());
+            long failed = results == null ? 0 : results.stream().filter(result -> result.error() != null).count();
+            run.pageCompleted(page, failed);
+        } catch (RuntimeException e) {
+            log.error("Billing run {} failed on page {}", run.runId, page.number(), e);
+            run.fail(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Handles a page the worker pool does not accept. A full queue makes the coordinator render the page itself,
+     * which stops it from reading further pages; once the pool is shut down the page is failed instead.
+     */
+    private static void rejectPage(Runnable task, ThreadPoolExecutor executor) {
+        if (!executor.isShutdown()) {
+            task.run();
+        } else if (task instanceof PageTask pageTask) {
+            pageTask.reject();
+        } else {
+            throw new RejectedExecutionException("Billing run workers are shut down");
+        }
+    }
+
+    /**
+     * Drops the oldest finished runs beyond the retained count; their status is then read from the checkpoint.
+     */
+    private void pruneFinishedRuns() {
+        List<BillingRun> finished = runs.values().stream()
+                .filter(run -> run.finishedAt != null)
+                .sorted(Comparator.comparing((BillingRun run) -> run.finishedAt))
+                .toList();
+        for (int i = 0; i < finished.size() - retainedRuns; i++) {
+            runs.remove(finished.get(i).runId, finished.get(i));
+        }
+    }
+
+    private void writePage(Path runDirectory, BillingPage page, List<BatchInvoiceResultDTO> results) {
+        String baseName = String.format("page-%06d", page.number());
+        try {
+            objectMapper.writeValue(runDirectory.resolve(baseName + ".json").toFile(), results);
+            try (Writer writer = Files.newBufferedWriter(runDirectory.resolve(baseName + ".txt"), StandardCharsets.UTF_8)) {
+                for (BatchInvoiceResultDTO result : results) {
+                    if (result.invoice() != null) {
+                        writer.write(InvoiceFormatter.format(result.invoice()));
+                        writer.write(System.lineSeparator());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write billing page " + page.number(), e);
+        }
+    }
+
+    private void ensureNoRunInProgress() {
+        runs.values().stream()
+                .filter(run -> run.state == BillingRunState.RUNNING)
+                .findFirst()
+                .ifPresent(run -> {
+                    throw new BillingRunInProgressException("Billing run " + run.runId + " is still running");
+                });
+    }
+
+    private Path runDirectory(String runId) {
+        if (runId == null || !RUN_ID_PATTERN.matcher(runId).matches()) {
+            throw new BillingRunNotFoundException("Billing run not found: " + runId);
+        }
+        return outputDirectory.resolve(runId);
+    }
+
+    private static Checkpoint readCheckpoint(String runId, Path runDirectory) {
+        Path checkpointFile = runDirectory.resolve(CHECKPOINT_FILE);
+        if (!Files.isRegularFile(checkpointFile)) {
+            throw new BillingRunNotFoundException("Billing run not found: " + runId);
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(checkpointFile, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read checkpoint of billing run " + runId, e);
+        }
+        return new Checkpoint(
+                Long.parseLong(properties.getProperty("lastCustomerId", "0")),
+                Integer.parseInt(properties.getProperty("nextPage", "1")),
+                Long.parseLong(properties.getProperty("customersProcessed", "0")),
+                Long.parseLong(properties.getProperty("customersFailed", "0")),
+                Boolean.parseBoolean(properties.getProperty("completed", "false")));
+    }
+
+    /**
+     * Writes the checkpoint to a temporary file and moves it into place, so a crash never leaves a partial checkpoint.
+     */
+    private static void writeCheckpoint(Path runDirectory, Checkpoint checkpoint) {
+        Properties properties = new Properties();
+        properties.setProperty("lastCustomerId", Long.toString(checkpoint.lastCustomerId()));
+        properties.setProperty("nextPage", Integer.toString(checkpoint.nextPage()));
+        properties.setProperty("customersProcessed", Long.toString(checkpoint.customersProcessed()));
+        properties.setProperty("customersFailed", Long.toString(checkpoint.customersFailed()));
+        properties.setProperty("completed", Boolean.toString(checkpoint.completed()));
+        Path temporaryFile = runDirectory.resolve(CHECKPOINT_FILE + ".tmp");
+        try {
+            try (Writer writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+                properties.store(writer, "Billing run checkpoint");
+            }
+            Files.move(temporaryFile, runDirectory.resolve(CHECKPOINT_FILE), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write billing run checkpoint in " + runDirectory, e);
+        }
+    }
+
+    private static void createDirectories(Path directory) {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to create billing run directory " + directory, e);
+        }
+    }
+
+    private static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record BillingPage(int number, List<Long> customerIds) {
+    }
+
+    /**
+     * Page handed to the worker pool, completing its future when it is processed or rejected.
+     */
+    private final class PageTask implements Runnable {
+
+        private final BillingRun run;
+        private final BillingPage page;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private PageTask(BillingRun run, BillingPage page) {
+            this.run = run;
+            this.page = page;
+        }
+
+        @Override
+        public void run() {
+            try {
+                processPage(run, page);
+                future.complete(null);
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        private void reject() {
+            RejectedExecutionException e = new RejectedExecutionException("Billing run workers are shut down, page " + page.number() + " was not written");
+            run.fail(e);
+            future.completeExceptionally(e);
+        }
+    }
+
+    private record Checkpoint(long lastCustomerId, int nextPage, long customersProcessed, long customersFailed, boolean completed) {
+    }
+
+    /**
+     * Mutable progress of a billing run executing in this process.
+     * Pages can finish out of order; the checkpoint only advances over a contiguous prefix of finished pages.
+     */
+    private static final class BillingRun {
+
+        private final String runId;
+        private final Path directory;
+        private final Instant startedAt;
+        private final long totalCustomers;
+        private final TreeMap<Integer, BillingPageResult> finishedAhead = new TreeMap<>();
+
+        private volatile BillingRunState state = BillingRunState.RUNNING;
+        private volatile RuntimeException failure;
+        private volatile Instant finishedAt;
+        private Checkpoint checkpoint;
+        private long customersProcessed;
+        private long customersFailed;
+        private long pagesCompleted;
+        private long customersProcessedSinceStart;
+
+        private BillingRun(String runId, Path directory, Instant startedAt, long totalCustomers, Checkpoint checkpoint) {
+            this.runId = runId;
+            this.directory = directory;
+            this.startedAt = startedAt;
+            this.totalCustomers = totalCustomers;
+            this.checkpoint = checkpoint;
+            this.customersProcessed = checkpoint.customersProcessed();
+            this.customersFailed = checkpoint.customersFailed();
+            this.pagesCompleted = checkpoint.nextPage() - 1L;
+        }
+
+        private synchronized void pageCompleted(BillingPage page, long failed) {
+            customersProcessed += page.customerIds().size();
+            customersFailed += failed;
+            customersProcessedSinceStart += page.customerIds().size();
+            pagesCompleted++;
+
+            finishedAhead.put(page.number(), new BillingPageResult(page, failed));
+            Checkpoint advanced = checkpoint;
+            while (finishedAhead.containsKey(advanced.nextPage())) {
+                BillingPageResult result = finishedAhead.remove(advanced.nextPage());
+                List<Long> ids = result.page().customerIds();
+                advanced = new Checkpoint(ids.get(ids.size() - 1), advanced.nextPage() + 1,
+                        advanced.customersProcessed() + ids.size(), advanced.customersFailed() + result.failed(), false);
+            }
+            if (advanced != checkpoint) {
+                checkpoint = advanced;
+                writeCheckpoint(directory, checkpoint);
+            }
+        }
+
+        private void fail(RuntimeException e) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+
+        private synchronized void finish() {
+            finishedAt = Instant.now();
+            if (failure == null) {
+                checkpoint = new Checkpoint(checkpoint.lastCustomerId(), checkpoint.nextPage(),
+                        checkpoint.customersProcessed(), checkpoint.customersFailed(), true);
+                writeCheckpoint(directory, checkpoint);
+                state = BillingRunState.COMPLETED;
+            } else {
+                state = BillingRunState.FAILED;
+            }
+        }
+
+        private synchronized BillingRunStatusDTO toStatus() {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            double seconds = Math.max(Duration.between(startedAt, end).toMillis(), 1L) / 1000d;
+            return new BillingRunStatusDTO(runId, state, totalCustomers, customersProcessed, customersFailed, pagesCompleted,
+                    checkpoint.lastCustomerId(), customersProcessedSinceStart / seconds, startedAt, finishedAt, directory.toString());
+        }
+    }
+
+    private record BillingPageResult(BillingPage page, long failed) {
+    }
+}
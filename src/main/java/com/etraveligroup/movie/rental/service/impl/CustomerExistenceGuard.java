@@ -0,0 +1,352 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.dto.CustomerNameKeyDTO;
+import com.etraveligroup.movie.rental.event.CustomerSavedEvent;
+import com.etraveligroup.movie.rental.repository.CustomerRepository;
+import com.etraveligroup.movie.rental.util.BloomFilter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers lookups of customers that certainly do not exist without touching the database.
+ * A Bloom filter holds the IDs and normalized name keys of all customers. It is built on startup and rebuilt
+ * periodically, which drops deleted and renamed customers; customers written through JPA are added as they are
+ * saved, and customers inserted with plain SQL are picked up by a frequent incremental refresh reading the IDs
+ * above a watermark. Transactions may commit out of ID order, so a customer ID below the highest loaded one can
+ * still appear; the watermark therefore only rises to the highest ID loaded at least the settle time ago, and
+ * every refresh reads again the IDs above it. IDs above the watermark are never rejected, so only customers
+ * committing later than the settle time after a higher ID, and names of customers inserted with plain SQL until
+ * the next refresh, can be rejected. IDs and names the database confirmed to be
+ * missing are kept in a short-lived negative cache, which also covers the filter's false positives.
+ * Until the first build completes, and whenever a build fails, every lookup is passed to the database.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Service
+public class CustomerExistenceGuard implements MeterBinder {
+
+    // Filters are sized for twice the customers present when they are built, with at least this many customers
+    private static final long MINIMUM_CAPACITY = 1_000;
+
+    private final CustomerRepository customerRepository;
+    private final boolean enabled;
+    private final double falsePositiveRate;
+    private final int pageSize;
+    private final long settleNanos;
+    private final Cache<Object, Boolean> knownMissing;
+    private final Object saveLock = new Object();
+
+    private volatile CustomerFilter current;
+    // The filter being built, receiving the customers saved meanwhile; guarded by saveLock
+    private CustomerFilter rebuilding;
+
+    private final AtomicLong rejectedByFilter = new AtomicLong();
+    private final AtomicLong rejectedByNegativeCache = new AtomicLong();
+    private final AtomicLong passed = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    public CustomerExistenceGuard(CustomerRepository customerRepository,
+                                  @Value("${movie-rental.customer-guard.enabled:true}") boolean enabled,
+                                  @Value("${movie-rental.customer-guard.false-positive-rate:0.01}") double falsePositiveRate,
+                                  @Value("${movie-rental.customer-guard.page-size:10000}") int pageSize,
+                                  @Value("${movie-rental.customer-guard.settle-time:PT1M}") Duration settleTime,
+                                  @Value("${movie-rental.customer-guard.negative-cache.maximum-size:100000}") long negativeCacheSize,
+                                  @Value("${movie-rental.customer-guard.negative-cache.expire-after-write:PT10S}") Duration negativeCacheExpiry) {
+        this.customerRepository = customerRepository;
+        this.enabled = enabled;
+        this.falsePositiveRate = falsePositiveRate;
+        this.pageSize = pageSize;
+        this.settleNanos = settleTime.toNanos();
+        this.knownMissing = Caffeine.newBuilder()
+                .maximumSize(negativeCacheSize)
+                .expireAfterWrite(negativeCacheExpiry)
+                .build();
+    }
+
+    /**
+     * Tells whether a customer ID certainly does not exist.
+     *
+     * @param customerId the ID of the customer
+     * @return true if the customer does not exist, false if it may exist and the database must be asked
+     */
+    public boolean isKnownMissing(Long customerId) {
+        if (!enabled || customerId == null) {
+            return false;
+        }
+        if (knownMissing.getIfPresent(customerId) != null) {
+            rejectedByNegativeCache.incrementAndGet();
+            return true;
+        }
+        CustomerFilter filter = current;
+        if (filter == null || customerId > filter.watermark) {
+            passed.incrementAndGet();
+            return false;
+        }
+        return reject(filter.bloom.mightContain(customerId));
+    }
+
+    /**
+     * Tells whether no customer has a normalized name key.
+     *
+     * @param nameKey the trimmed, case-folded customer name
+     * @return true if no customer has that name, false if one may have it and the database must be asked
+     */
+    public boolean isKnownMissingName(String nameKey) {
+        if (!enabled || nameKey == null) {
+            return false;
+        }
+        if (knownMissing.getIfPresent(nameKey) != null) {
+            rejectedByNegativeCache.incrementAndGet();
+            return true;
+        }
+        CustomerFilter filter = current;
+        if (filter == null) {
+            passed.incrementAndGet();
+            return false;
+        }
+        return reject(filter.bloom.mightContain(nameKey));
+    }
+
+    /**
+     * Records that the database has no customer with an ID, counting a false positive if the filter held it.
+     *
+     * @param customerId the ID of the missing customer
+     */
+    public void recordMissing(Long customerId) {
+        if (!enabled || customerId == null) {
+            return;
+        }
+        knownMissing.put(customerId, Boolean.TRUE);
+        CustomerFilter filter = current;
+        if (filter != null && customerId <= filter.watermark && filter.bloom.mightContain(customerId)) {
+            falsePositives.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records that the database has no customer with a name key, counting a false positive if the filter held it.
+     *
+     * @param nameKey the trimmed, case-folded name of the missing customer
+     */
+    public void recordMissingName(String nameKey) {
+        if (!enabled || nameKey == null) {
+            return;
+        }
+        knownMissing.put(nameKey, Boolean.TRUE);
+        CustomerFilter filter = current;
+        if (filter != null && filter.bloom.mightContain(nameKey)) {
+            falsePositives.incrementAndGet();
+        }
+    }
+
+    /**
+     * Adds a customer saved through JPA to the filters, before its transaction commits.
+     * A rolled back customer stays in the filter as a false positive until the next rebuild.
+     *
+     * @param event the saved customer
+     */
+    @EventListener
+    public void onCustomerSaved(CustomerSavedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        knownMissing.invalidate(event.customerId());
+        if (event.nameKey() != null) {
+            knownMissing.invalidate(event.nameKey());
+        }
+        synchronized (saveLock) {
+            if (current != null) {
+                current.add(event.customerId(), event.nameKey());
+            }
+            if (rebuilding != null) {
+                rebuilding.add(event.customerId(), event.nameKey());
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Adds the customers above the watermark to the filter, on the configured schedule.
+     * The filter is rebuilt instead if it has not been built yet or has grown past its false-positive rate.
+     */
+    @Scheduled(initialDelayString = "${movie-rental.customer-guard.refresh-interval:PT30S}",
+            fixedDelayString = "${movie-rental.customer-guard.refresh-interval:PT30S}")
+    public synchronized void refresh() {
+        if (!enabled) {
+            return;
+        }
+        CustomerFilter filter = current;
+        if (filter == null || filter.bloom.expectedFalsePositiveRate() > 2 * falsePositiveRate) {
+            rebuild();
+            return;
+        }
+        try {
+            long read = load(filter, filter.watermark);
+            if (read > 0) {
+                log.debug("Read {} customers into the customer filter", read);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to refresh the customer filter: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Builds a new filter from all customers and replaces the current one, on the configured schedule.
+     * The current filter keeps answering lookups while the new one is built. The IDs below the watermark of the
+     * current filter have settled, so the new filter starts from that watermark rather than from none.
+     */
+    @Scheduled(initialDelayString = "${movie-rental.customer-guard.rebuild-interval:PT1H}",
+            fixedDelayString = "${movie-rental.customer-guard.rebuild-interval:PT1H}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            long capacity = 2 * Math.max(MINIMUM_CAPACITY, customerRepository.count());
+            // Every customer adds its ID and its name key
+            CustomerFilter fresh = new CustomerFilter(BloomFilter.create(2 * capacity, falsePositiveRate));
+            synchronized (saveLock) {
+                rebuilding = fresh;
+            }
+            long loaded = load(fresh, 0);
+            CustomerFilter previous = current;
+            if (previous != null) {
+                fresh.watermark = Math.max(fresh.watermark, Math.min(previous.watermark, fresh.loaded));
+            }
+            synchronized (saveLock) {
+                current = fresh;
+                rebuilding = null;
+            }
+            log.info("Built the customer filter of {} customers in {} ms", loaded,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } catch (RuntimeException e) {
+            synchronized (saveLock) {
+                rebuilding = null;
+            }
+            log.warn("Failed to build the customer filter: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        lookupCounter(registry, "rejected-by-filter", rejectedByFilter);
+        lookupCounter(registry, "rejected-by-negative-cache", rejectedByNegativeCache);
+        lookupCounter(registry, "passed", passed);
+        FunctionCounter.builder("movie.rental.customer-guard.false-positives", falsePositives, AtomicLong::doubleValue)
+                .description("Lookups passed by the customer filter for customers the database did not have")
+                .register(registry);
+        Gauge.builder("movie.rental.customer-guard.false-positive-rate", this, CustomerExistenceGuard::observedFalsePositiveRate)
+                .description("Share of lookups of missing customers the filter passed to the database")
+                .register(registry);
+        Gauge.builder("movie.rental.customer-guard.expected-false-positive-rate", this, CustomerExistenceGuard::expectedFalsePositiveRate)
+                .description("False-positive rate of the customer filter estimated from its fill")
+                .register(registry);
+    }
+
+    private boolean reject(boolean mightContain) {
+        if (!mightContain) {
+            rejectedByFilter.incrementAndGet();
+            return true;
+        }
+        passed.incrementAndGet();
+        return false;
+    }
+
+    private double observedFalsePositiveRate() {
+        long positives = falsePositives.get();
+        long lookupsOfMissing = positives + rejectedByFilter.get();
+        return lookupsOfMissing == 0 ? 0 : (double) positives / lookupsOfMissing;
+    }
+
+    private double expectedFalsePositiveRate() {
+        CustomerFilter filter = current;
+        return filter == null ? 0 : filter.bloom.expectedFalsePositiveRate();
+    }
+
+    /**
+     * Adds the customers above an ID to a filter page by page, then raises its watermark to the highest ID loaded
+     * at least the settle time ago.
+     *
+     * @return the number of customers read
+     */
+    private long load(CustomerFilter filter, long after) {
+        long read = 0;
+        List<CustomerNameKeyDTO> customers;
+        while (!(customers = customerRepository.findNameKeysAfter(after, PageRequest.of(0, pageSize))).isEmpty()) {
+            for (CustomerNameKeyDTO customer : customers) {
+                filter.add(customer.id(), customer.nameKey());
+            }
+            after = customers.getLast().id();
+            read += customers.size();
+        }
+        filter.settle(after, System.nanoTime(), settleNanos);
+        return read;
+    }
+
+    private static void lookupCounter(MeterRegistry registry, String result, AtomicLong count) {
+        FunctionCounter.builder("movie.rental.customer-guard.lookups", count, AtomicLong::doubleValue)
+                .description("Customer lookups by whether they were rejected without a database query")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * A Bloom filter of customers and the highest customer ID below which all customers have been loaded into it.
+     */
+    private static final class CustomerFilter {
+
+        private final BloomFilter bloom;
+        private volatile long watermark;
+        // Highest ID loaded and the loads not settled yet; guarded by the guard's monitor
+        private long loaded;
+        private final Deque<Load> unsettled = new ArrayDeque<>();
+
+        private CustomerFilter(BloomFilter bloom) {
+            this.bloom = bloom;
+        }
+
+        private void add(Long customerId, String nameKey) {
+            bloom.put(customerId);
+            if (nameKey != null) {
+                bloom.put(nameKey);
+            }
+        }
+
+        private void settle(long highestId, long now, long settleNanos) {
+            loaded = Math.max(loaded, highestId);
+            unsettled.addLast(new Load(loaded, now));
+            while (!unsettled.isEmpty() && now - unsettled.peekFirst().loadedAt() >= settleNanos) {
+                watermark = Math.max(watermark, unsettled.pollFirst().highestId());
+            }
+        }
+    }
+
+    private record Load(long highestId, long loadedAt) {
+    }
+}
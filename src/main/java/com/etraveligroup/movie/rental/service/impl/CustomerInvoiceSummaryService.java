@@ -0,0 +1,486 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.catalog.MovieCatalogSnapshot;
+import com.etraveligroup.movie.rental.constants.RentalChangeType;
+import com.etraveligroup.movie.rental.datasource.TransactionCompletionBuffer;
+import com.etraveligroup.movie.rental.dto.CustomerInvoiceSummaryDTO;
+import com.etraveligroup.movie.rental.dto.CustomerRentalLineDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceSummaryVerificationDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceTotalsDTO;
+import com.etraveligroup.movie.rental.dto.RentalLineDTO;
+import com.etraveligroup.movie.rental.event.MovieCatalogReloadedEvent;
+import com.etraveligroup.movie.rental.event.RentalChangedEvent;
+import com.etraveligroup.movie.rental.exceptions.CustomerNotFoundException;
+import com.etraveligroup.movie.rental.repository.CustomerInvoiceSummaryRepository;
+import com.etraveligroup.movie.rental.repository.CustomerRepository;
+import com.etraveligroup.movie.rental.repository.MovieRentalRepository;
+import com.etraveligroup.movie.rental.util.MoneyUtil;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service maintaining the CustomerInvoiceSummary read model, which answers invoice totals without reading rentals.
+ * Every rental change published by the MovieRental entity listener is collected per customer and applied to the
+ * summaries as one JDBC batch of deltas when the writing transaction completes, after Hibernate's last flush and
+ * before the commit, so bulk inserts do not pay an extra statement per rental. Customers without a summary row get
+ * one built from their rentals on first change and by a backfill on startup.
+ * Changes are priced only when they are applied, with the catalog current at that time. The summary never vetoes the
+ * rental write: a customer whose changes cannot be priced is logged and left to a scheduled job, which rebuilds it
+ * from its rentals, as it does for the customers renting movies repriced by a catalog reload. Rentals written with
+ * plain SQL bypass the listener, so a verification job recomputes a random sample of summaries from the rentals and
+ * reports, and optionally repairs, any drift.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Service
+public class CustomerInvoiceSummaryService implements MeterBinder {
+
+    private final CustomerInvoiceSummaryRepository summaryRepository;
+    private final CustomerRepository customerRepository;
+    private final MovieRentalRepository movieRentalRepository;
+    private final MovieCatalogService movieCatalogService;
+    private final TransactionTemplate transactionTemplate;
+    private final int sampleSize;
+    private final boolean repairDrift;
+    private final int backfillPageSize;
+    private final AtomicLong driftedSummaries = new AtomicLong();
+    private final TransactionCompletionBuffer<RentalChangedEvent> pendingChanges;
+    private final Set<String> repricedMovieIds = ConcurrentHashMap.newKeySet();
+    private final Set<Long> unpricedCustomerIds = ConcurrentHashMap.newKeySet();
+
+    public CustomerInvoiceSummaryService(CustomerInvoiceSummaryRepository summaryRepository,
+                                         CustomerRepository customerRepository,
+                                         MovieRentalRepository movieRentalRepository,
+                                         MovieCatalogService movieCatalogService,
+                                         EntityManager entityManager,
+                                         PlatformTransactionManager transactionManager,
+                                         @Value("${movie-rental.invoice-summary.verification-sample-size:100}") int sampleSize,
+                                         @Value("${movie-rental.invoice-summary.repair-drift:false}") boolean repairDrift,
+                                         @Value("${movie-rental.invoice-summary.backfill-page-size:1000}") int backfillPageSize) {
+        this.summaryRepository = summaryRepository;
+        this.customerRepository = customerRepository;
+        this.movieRentalRepository = movieRentalRepository;
+        this.movieCatalogService = movieCatalogService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sampleSize = sampleSize;
+        this.repairDrift = repairDrift;
+        this.backfillPageSize = backfillPageSize;
+        this.pendingChanges = new TransactionCompletionBuffer<>(entityManager, this::applyChanges);
+    }
+
+    /**
+     * Records a rental change for the summary of its customer.
+     * Inside a transaction the change is added to the pending changes of the transaction, which are priced and
+     * applied when it completes. Changes made outside a transaction are applied at once.
+     *
+     * @param event the rental change
+     */
+    @EventListener
+    public void onRentalChanged(RentalChangedEvent event) {
+        if (pendingChanges.add(event)) {
+            return;
+        }
+        InvoiceTotalsDTO delta = delta(event.customerId(), List.of(event));
+        if (delta == null || summaryRepository.addDelta(event.customerId(), delta)) {
+            return;
+        }
+        // The rental itself may still sit in a JDBC batch, so the summary is built from the other rentals plus this change.
+        InvoiceTotalsDTO rebuilt = totalsOrMarkUnpriced(event.customerId(),
+                summaryRepository.findRentalLinesExcept(event.customerId(), event.rentalId()));
+        if (rebuilt == null) {
+            return;
+        }
+        if (event.type() == RentalChangeType.ADDED) {
+            rebuilt = rebuilt.plus(delta);
+        }
+        insertOrAddDelta(event.customerId(), rebuilt, delta);
+    }
+
+    /**
+     * Returns the invoice summary of a customer.
+     *
+     * @param customerId the ID of the customer
+     * @return the summary, with zero amounts and version 0 if the customer has never had a rental change
+     * @throws CustomerNotFoundException if the customer does not exist
+     */
+    public CustomerInvoiceSummaryDTO getSummary(Long customerId) {
+        return summaryRepository.findByCustomerId(customerId).orElseGet(() -> {
+            if (!customerRepository.existsById(customerId)) {
+                log.warn("Customer not found for ID: {}", customerId);
+                throw new CustomerNotFoundException("Customer not found");
+            }
+            return new CustomerInvoiceSummaryDTO(customerId, BigDecimal.ZERO, 0, 0, 0L, null);
+        });
+    }
+
+    /**
+     * Creates the summary of every customer that has none, e.g. for rentals loaded by data.sql.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        int created = backfill();
+        if (created > 0) {
+            log.info("Backfilled the invoice summary of {} customers", created);
+        }
+    }
+
+    /**
+     * Builds a summary from the rentals for every customer that has none, page by page.
+     *
+     * @return the number of summaries created
+     */
+    public int backfill() {
+        int created = 0;
+        Long afterId = 0L;
+        List<Long> customerIds;
+        while (!(customerIds = summaryRepository.findCustomerIdsWithoutSummary(afterId, backfillPageSize)).isEmpty()) {
+            Map<Long, InvoiceTotalsDTO> expected = totalsByCustomer(movieRentalRepository.findRentalLinesByCustomerIdIn(customerIds));
+            for (Long customerId : customerIds) {
+                try {
+                    summaryRepository.insert(customerId, expected.getOrDefault(customerId, InvoiceTotalsDTO.ZERO));
+                    created++;
+                } catch (DuplicateKeyException e) {
+                    log.debug("Invoice summary of customer {} was created concurrently", customerId);
+                }
+            }
+            afterId = customerIds.getLast();
+        }
+        return created;
+    }
+
+    /**
+     * Records the movies repriced by a catalog reload; their summaries are rebuilt by {@link #rebuildRepriced()}.
+     *
+     * @param event the catalog reload
+     */
+    @EventListener
+    public void onCatalogReloaded(MovieCatalogReloadedEvent event) {
+        repricedMovieIds.addAll(event.repricedMovieIds());
+        log.info("Catalog version {} repriced {} movies, their invoice summaries will be rebuilt", event.version(), event.repricedMovieIds().size());
+    }
+
+    /**
+     * Rebuilds the summaries of the customers whose rental changes could not be priced and of the customers renting
+     * movies repriced by catalog reloads, page by page.
+     * Each summary is recomputed from the rentals while locked and only written if it changed; a customer whose
+     * rentals cannot be priced is logged and skipped, leaving its summary to the verification job.
+     *
+     * @return the number of summaries rewritten
+     */
+    @Scheduled(initialDelayString = "${movie-rental.invoice-summary.reprice-interval:PT10S}",
+            fixedDelayString = "${movie-rental.invoice-summary.reprice-interval:PT10S}")
+    public int rebuildRepriced() {
+        int rebuilt = rebuildUnpriced();
+        if (repricedMovieIds.isEmpty()) {
+            return rebuilt;
+        }
+        Set<String> movieIds = Set.copyOf(repricedMovieIds);
+        repricedMovieIds.removeAll(movieIds);
+        Long afterId = 0L;
+        List<Long> customerIds;
+        try {
+            while (!(customerIds = summaryRepository.findCustomerIdsRentingAny(movieIds, afterId, backfillPageSize)).isEmpty()) {
+                for (Long customerId : customerIds) {
+                    try {
+                        if (rebuild(customerId)) {
+                            rebuilt++;
+                        }
+                    } catch (RuntimeException e) {
+                        log.warn("Failed to rebuild the invoice summary of customer {}", customerId, e);
+                    }
+                }
+                afterId = customerIds.getLast();
+            }
+        } catch (RuntimeException e) {
+            repricedMovieIds.addAll(movieIds);
+            throw e;
+        }
+        log.info("Rebuilt {} invoice summaries for {} repriced movies", rebuilt, movieIds.size());
+        return rebuilt;
+    }
+
+    /**
+     * Verifies a random sample of summaries on the configured schedule.
+     * Disabled unless "movie-rental.invoice-summary.verification-cron" is set.
+     */
+    @Scheduled(cron = "${movie-rental.invoice-summary.verification-cron:-}", zone = "UTC")
+    public void scheduledVerification() {
+        verify(sampleSize);
+    }
+
+    /**
+     * Recomputes the summaries of a random, contiguous sample of customers from their rentals.
+     * Summaries that look drifted are checked again while locked, so a rental written between the
+     * two reads is not reported. With "movie-rental.invoice-summary.repair-drift" set, drifted summaries
+     * are overwritten with the recomputed values.
+     *
+     * @param requestedSampleSize the number of customers to check
+     * @return the verification report
+     */
+    public InvoiceSummaryVerificationDTO verify(int requestedSampleSize) {
+        List<Long> customerIds = sampleCustomerIds(requestedSampleSize);
+        Map<Long, InvoiceTotalsDTO> expected = totalsByCustomer(movieRentalRepository.findRentalLinesByCustomerIdIn(customerIds));
+        Map<Long, CustomerInvoiceSummaryDTO> actual = summaryRepository.findByCustomerIdIn(customerIds);
+
+        List<Long> drifted = new ArrayList<>();
+        for (Long customerId : customerIds) {
+            if (!matches(expected.getOrDefault(customerId, InvoiceTotalsDTO.ZERO), actual.get(customerId)) && recheck(customerId)) {
+                drifted.add(customerId);
+            }
+        }
+        driftedSummaries.addAndGet(drifted.size());
+        if (drifted.isEmpty()) {
+            log.info("Verified {} invoice summaries, no drift", customerIds.size());
+        } else {
+            log.warn("Verified {} invoice summaries, {} drifted{}: {}", customerIds.size(), drifted.size(),
+                    repairDrift ? " and were repaired" : "", drifted);
+        }
+        return new InvoiceSummaryVerificationDTO(customerIds.size(), drifted.size(), List.copyOf(drifted),
+                repairDrift && !drifted.isEmpty(), Instant.now());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("movie.rental.invoice.summary.drift", driftedSummaries, AtomicLong::doubleValue)
+                .description("Invoice summaries found not to match the rentals of their customer")
+                .register(registry);
+    }
+
+    /**
+     * Compares the locked summary of a customer with the rentals and repairs it if configured.
+     *
+     * @return true if the summary does not match the rentals
+     */
+    private boolean recheck(Long customerId) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            CustomerInvoiceSummaryDTO actual = summaryRepository.findByCustomerIdForUpdate(customerId).orElse(null);
+            InvoiceTotalsDTO expected = totals(summaryRepository.findRentalLines(customerId));
+            if (matches(expected, actual)) {
+                return false;
+            }
+            log.warn("Invoice summary of customer {} drifted: expected {} but was {}", customerId, expected, actual);
+            if (repairDrift) {
+                if (actual != null) {
+                    summaryRepository.replace(customerId, expected);
+                } else {
+                    summaryRepository.insert(customerId, expected);
+                }
+            }
+            return true;
+        }));
+    }
+
+    /**
+     * Rebuilds the summaries of the customers whose rental changes could not be priced when they were applied.
+     *
+     * @return the number of summaries rewritten
+     */
+    private int rebuildUnpriced() {
+        int rebuilt = 0;
+        for (Long customerId : Set.copyOf(unpricedCustomerIds)) {
+            unpricedCustomerIds.remove(customerId);
+            try {
+                if (rebuild(customerId)) {
+                    rebuilt++;
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to rebuild the invoice summary of customer {}", customerId, e);
+            }
+        }
+        return rebuilt;
+    }
+
+    /**
+     * Recomputes the locked summary of a customer from the rentals and overwrites it if it differs.
+     * A customer without a summary gets one, unless it has no rentals either.
+     *
+     * @return true if the summary was rewritten
+     */
+    private boolean rebuild(Long customerId) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            CustomerInvoiceSummaryDTO actual = summaryRepository.findByCustomerIdForUpdate(customerId).orElse(null);
+            InvoiceTotalsDTO expected = totals(summaryRepository.findRentalLines(customerId));
+            if (matches(expected, actual)) {
+                return false;
+            }
+            if (actual == null) {
+                summaryRepository.insert(customerId, expected);
+                return true;
+            }
+            return summaryRepository.replace(customerId, expected);
+        }));
+    }
+
+    private List<Long> sampleCustomerIds(int requestedSampleSize) {
+        Long maxId = customerRepository.findMaxId();
+        if (maxId == null || requestedSampleSize <= 0) {
+            return List.of();
+        }
+        long startAfter = ThreadLocalRandom.current().nextLong(maxId);
+        List<Long> customerIds = new ArrayList<>(customerRepository.findIdsAfter(startAfter, PageRequest.of(0, requestedSampleSize)));
+        if (customerIds.size() < requestedSampleSize && startAfter > 0) {
+            // Wrap around to the lowest IDs not covered yet.
+            customerRepository.findIdsAfter(0L, PageRequest.of(0, requestedSampleSize - customerIds.size())).stream()
+                    .filter(customerId -> customerId <= startAfter)
+                    .forEach(customerIds::add);
+        }
+        return customerIds;
+    }
+
+    private static boolean matches(InvoiceTotalsDTO expected, CustomerInvoiceSummaryDTO actual) {
+        if (actual == null) {
+            return expected.rentalCount() == 0;
+        }
+        return expected.amount().compareTo(actual.totalAmount()) == 0
+                && expected.frequentPoints() == actual.frequentPoints()
+                && expected.rentalCount() == actual.rentalCount();
+    }
+
+    /**
+     * Prices the changes collected in a transaction and applies them with one batch update. Customers without a
+     * summary get one built from their rentals, which by now include every change of the transaction.
+     */
+    private void applyChanges(List<RentalChangedEvent> changes) {
+        Map<Long, List<RentalChangedEvent>> changesByCustomer = new LinkedHashMap<>();
+        for (RentalChangedEvent change : changes) {
+            changesByCustomer.computeIfAbsent(change.customerId(), id -> new ArrayList<>()).add(change);
+        }
+        Map<Long, InvoiceTotalsDTO> deltas = new LinkedHashMap<>();
+        changesByCustomer.forEach((customerId, customerChanges) -> {
+            InvoiceTotalsDTO delta = delta(customerId, customerChanges);
+            if (delta != null) {
+                deltas.put(customerId, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+        for (Long customerId : summaryRepository.addDeltas(deltas)) {
+            InvoiceTotalsDTO rebuilt = totalsOrMarkUnpriced(customerId, summaryRepository.findRentalLines(customerId));
+            if (rebuilt != null) {
+                insertOrAddDelta(customerId, rebuilt, deltas.get(customerId));
+            }
+        }
+        log.debug("Applied invoice summary deltas of {} customers", deltas.size());
+    }
+
+    /**
+     * Prices the changes of one customer into the delta of its summary.
+     *
+     * @return the delta, or null if the changes cannot be priced
+     */
+    private InvoiceTotalsDTO delta(Long customerId, List<RentalChangedEvent> changes) {
+        List<RentalLineDTO> added = new ArrayList<>();
+        List<RentalLineDTO> removed = new ArrayList<>();
+        for (RentalChangedEvent change : changes) {
+            (change.type() == RentalChangeType.ADDED ? added : removed).add(new RentalLineDTO(change.movieId(), change.days()));
+        }
+        InvoiceTotalsDTO addedTotals = added.isEmpty() ? InvoiceTotalsDTO.ZERO : totalsOrMarkUnpriced(customerId, added);
+        InvoiceTotalsDTO removedTotals = removed.isEmpty() ? InvoiceTotalsDTO.ZERO : totalsOrMarkUnpriced(customerId, removed);
+        return addedTotals == null || removedTotals == null ? null : addedTotals.plus(removedTotals.negate());
+    }
+
+    /**
+     * Prices rental lines of a customer. If they cannot be priced, the failure is logged and the customer is left to
+     * {@link #rebuildRepriced()}, so the rental write still commits.
+     *
+     * @return the totals, or null if the lines cannot be priced
+     */
+    private InvoiceTotalsDTO totalsOrMarkUnpriced(Long customerId, List<RentalLineDTO> rentalLines) {
+        try {
+            return totals(rentalLines);
+        } catch (RuntimeException e) {
+            log.warn("Failed to price the rental changes of customer {}, its invoice summary will be rebuilt: {}",
+                    customerId, e.getMessage());
+            unpricedCustomerIds.add(customerId);
+            return null;
+        }
+    }
+
+    private void insertOrAddDelta(Long customerId, InvoiceTotalsDTO rebuilt, InvoiceTotalsDTO delta) {
+        try {
+            summaryRepository.insert(customerId, rebuilt);
+            log.debug("Created invoice summary of customer {} from {} rentals", customerId, rebuilt.rentalCount());
+        } catch (DuplicateKeyException e) {
+            // Another transaction created the summary in the meantime; it does not contain this change yet.
+            summaryRepository.addDelta(customerId, delta);
+        }
+    }
+
+    private Map<Long, InvoiceTotalsDTO> totalsByCustomer(List<CustomerRentalLineDTO> rentalLines) {
+        Map<Long, List<RentalLineDTO>> linesByCustomer = new HashMap<>();
+        for (CustomerRentalLineDTO line : rentalLines) {
+            linesByCustomer.computeIfAbsent(line.customerId(), id -> new ArrayList<>()).add(new RentalLineDTO(line.movieId(), line.days()));
+        }
+        Map<Long, InvoiceTotalsDTO> totalsByCustomer = new HashMap<>();
+        linesByCustomer.forEach((customerId, lines) -> totalsByCustomer.put(customerId, totals(lines)));
+        return totalsByCustomer;
+    }
+
+    /**
+     * Prices rental lines with the movie catalog in one bulk call, reloading the catalog once if a movie is unknown.
+     *
+     * @throws IllegalArgumentException if a rented movie is not part of the reloaded catalog
+     */
+    private InvoiceTotalsDTO totals(List<RentalLineDTO> rentalLines) {
+        int[] pricingIdx = new int[rentalLines.size()];
+        int[] days = new int[rentalLines.size()];
+        MovieCatalogSnapshot catalog = movieCatalogService.current();
+        int unknownIdx = resolvePricing(catalog, rentalLines, pricingIdx, days);
+        if (unknownIdx != MovieCatalogSnapshot.NOT_FOUND) {
+            log.warn("Movie {} not found in catalog version {}, reloading catalog", rentalLines.get(unknownIdx).movieId(), catalog.version());
+            catalog = movieCatalogService.reloadForMissingMovie(rentalLines.get(unknownIdx).movieId());
+            unknownIdx = resolvePricing(catalog, rentalLines, pricingIdx, days);
+            if (unknownIdx != MovieCatalogSnapshot.NOT_FOUND) {
+                throw new IllegalArgumentException("Unknown movie ID: " + rentalLines.get(unknownIdx).movieId());
+            }
+        }
+        return new InvoiceTotalsDTO(MoneyUtil.toAmount(catalog.totalAmountCents(pricingIdx, days, days.length)),
+                catalog.totalFrequentRenterPoints(pricingIdx, days, days.length), days.length);
+    }
+
+    /**
+     * Fills the pricing indexes and days of rental lines from a catalog.
+     *
+     * @return the position of the first line whose movie is not part of the catalog, or {@link MovieCatalogSnapshot#NOT_FOUND}
+     */
+    private static int resolvePricing(MovieCatalogSnapshot catalog, List<RentalLineDTO> rentalLines, int[] pricingIdx, int[] days) {
+        for (int i = 0; i < pricingIdx.length; i++) {
+            RentalLineDTO line = rentalLines.get(i);
+            int movieIdx = catalog.movieIndex(line.movieId());
+            if (movieIdx == MovieCatalogSnapshot.NOT_FOUND) {
+                return i;
+            }
+            pricingIdx[i] = catalog.pricingIndex(movieIdx);
+            days[i] = line.days();
+        }
+        return MovieCatalogSnapshot.NOT_FOUND;
+    }
+}
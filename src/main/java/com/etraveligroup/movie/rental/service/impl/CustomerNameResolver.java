@@ -0,0 +1,161 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.dto.CustomerNameDTO;
+import com.etraveligroup.movie.rental.event.CustomerSavedEvent;
+import com.etraveligroup.movie.rental.repository.CustomerRepository;
+import com.etraveligroup.movie.rental.util.CustomerNameNormalizer;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service resolving customer names to customer IDs.
+ * Names are normalized into their indexed lookup key and resolved IDs are kept in a bounded
+ * in-memory cache, so repeated by-name requests can be served through the by-ID path.
+ * Names the {@link CustomerExistenceGuard} knows to be missing are not looked up in the database.
+ * The resolution of a customer's previous name is dropped once a rename commits, and customers inserted with plain
+ * SQL get their name key from a backfill on startup and on a schedule.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Service
+public class CustomerNameResolver {
+
+    private final CustomerRepository customerRepository;
+    private final CustomerExistenceGuard customerExistenceGuard;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int backfillPageSize;
+    private final Cache<String, Long> customerIdsByNameKey;
+
+    public CustomerNameResolver(CustomerRepository customerRepository,
+                                CustomerExistenceGuard customerExistenceGuard,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${movie-rental.name-resolver.maximum-size:10000}") long maximumSize,
+                                @Value("${movie-rental.name-resolver.expire-after-write:PT30M}") Duration expireAfterWrite,
+                                @Value("${movie-rental.name-resolver.backfill-page-size:1000}") int backfillPageSize) {
+        this.customerRepository = customerRepository;
+        this.customerExistenceGuard = customerExistenceGuard;
+        this.eventPublisher = eventPublisher;
+        this.backfillPageSize = backfillPageSize;
+        this.customerIdsByNameKey = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    /**
+     * Resolves the ID of the customer with the given name.
+     * Only successful lookups are cached here; missing names are remembered briefly by the existence guard, so newly
+     * created customers are found once it has seen them.
+     *
+     * @param customerName the customer name, compared trimmed and case-insensitively
+     * @return the customer ID, or empty if no customer has that name
+     */
+    public Optional<Long> resolveCustomerId(String customerName) {
+        String nameKey = CustomerNameNormalizer.normalize(customerName);
+        if (nameKey == null || nameKey.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Long cachedId = customerIdsByNameKey.getIfPresent(nameKey);
+        if (cachedId != null) {
+            log.debug("Resolved customer name key '{}' to ID {} from cache", nameKey, cachedId);
+            return Optional.of(cachedId);
+        }
+
+        if (customerExistenceGuard.isKnownMissingName(nameKey)) {
+            log.debug("Customer name key '{}' is known to be missing", nameKey);
+            return Optional.empty();
+        }
+
+        List<Long> customerIds = customerRepository.findIdsByNameKey(nameKey);
+        if (customerIds.isEmpty()) {
+            log.debug("No customer found for name key '{}'", nameKey);
+            customerExistenceGuard.recordMissingName(nameKey);
+            return Optional.empty();
+        }
+        if (customerIds.size() > 1) {
+            log.warn("Multiple customers share name key '{}', using lowest ID {}", nameKey, customerIds.get(0));
+        }
+        Long customerId = customerIds.get(0);
+        customerIdsByNameKey.put(nameKey, customerId);
+        return Optional.of(customerId);
+    }
+
+    /**
+     * Removes a cached name resolution, e.g. after the customer has been renamed.
+     *
+     * @param customerName the customer name whose resolution should be dropped
+     */
+    public void evict(String customerName) {
+        String nameKey = CustomerNameNormalizer.normalize(customerName);
+        if (nameKey != null) {
+            customerIdsByNameKey.invalidate(nameKey);
+        }
+    }
+
+    /**
+     * Drops the resolution of a renamed customer's previous name once the rename has committed.
+     *
+     * @param event the saved customer
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCustomerSaved(CustomerSavedEvent event) {
+        if (event.previousNameKey() != null && !event.previousNameKey().equals(event.nameKey())) {
+            customerIdsByNameKey.invalidate(event.previousNameKey());
+            log.debug("Dropped the resolution of customer {}'s previous name key '{}'", event.customerId(), event.previousNameKey());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        backfillNameKeys();
+    }
+
+    /**
+     * Derives the name key of customers that have a name but no key, e.g. inserted with plain SQL, on the configured
+     * schedule. Each backfilled customer is published as saved, so the existence guard learns its name.
+     *
+     * @return the number of customers given a name key
+     */
+    @Scheduled(initialDelayString = "${movie-rental.name-resolver.backfill-interval:PT30S}",
+            fixedDelayString = "${movie-rental.name-resolver.backfill-interval:PT30S}")
+    public int backfillNameKeys() {
+        int updated = 0;
+        try {
+            Long afterId = 0L;
+            List<CustomerNameDTO> customers;
+            while (!(customers = customerRepository.findNamesWithoutNameKeyAfter(afterId, PageRequest.of(0, backfillPageSize))).isEmpty()) {
+                for (CustomerNameDTO customer : customers) {
+                    String nameKey = CustomerNameNormalizer.normalize(customer.name());
+                    if (customerRepository.updateMissingNameKey(customer.id(), nameKey) > 0) {
+                        eventPublisher.publishEvent(new CustomerSavedEvent(customer.id(), nameKey, null));
+                        updated++;
+                    }
+                }
+                afterId = customers.get(customers.size() - 1).id();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to backfill customer name keys: {}", e.getMessage());
+        }
+        if (updated > 0) {
+            log.info("Backfilled the name key of {} customers", updated);
+        }
+        return updated;
+    }
+}
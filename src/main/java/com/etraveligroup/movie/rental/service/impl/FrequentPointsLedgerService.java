@@ -0,0 +1,411 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.catalog.MovieCatalogSnapshot;
+import com.etraveligroup.movie.rental.constants.PointsEntryType;
+import com.etraveligroup.movie.rental.constants.RentalChangeType;
+import com.etraveligroup.movie.rental.datasource.TransactionCompletionBuffer;
+import com.etraveligroup.movie.rental.dto.CustomerPointsBalanceDTO;
+import com.etraveligroup.movie.rental.dto.CustomerRentalLineDTO;
+import com.etraveligroup.movie.rental.dto.PointsLedgerCompactionDTO;
+import com.etraveligroup.movie.rental.dto.PointsLedgerEntryDTO;
+import com.etraveligroup.movie.rental.dto.PointsLedgerVerificationDTO;
+import com.etraveligroup.movie.rental.dto.RentalLineDTO;
+import com.etraveligroup.movie.rental.event.RentalChangedEvent;
+import com.etraveligroup.movie.rental.exceptions.CustomerNotFoundException;
+import com.etraveligroup.movie.rental.repository.CustomerRepository;
+import com.etraveligroup.movie.rental.repository.FrequentPointsLedgerRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service maintaining the frequent renter points ledger: an append-only entry per rental change and a running
+ * balance per customer, which answers the points of a customer with a single row lookup.
+ * Every rental change published by the MovieRental entity listener is collected per transaction, scored and
+ * appended, with the balances updated by the sum per customer, as JDBC batches when the writing transaction
+ * completes, after Hibernate's last flush and before the commit. A change that cannot be scored, e.g. for a movie
+ * missing from the catalog, is skipped rather than failing the rental write, and left to the verification.
+ * Archived rentals keep their points, so archiving writes no entry.
+ * Customers without a balance get one carrying forward the points of their rentals on first change and by a backfill
+ * on startup. A maintenance job folds old entries into one carried-forward entry per customer and verifies a random
+ * sample of balances against their entries and the points recomputed from the rentals, reporting and optionally
+ * correcting any drift, e.g. from rentals written with plain SQL.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Service
+public class FrequentPointsLedgerService implements MeterBinder {
+
+    private final FrequentPointsLedgerRepository ledgerRepository;
+    private final CustomerRepository customerRepository;
+    private final MovieCatalogService movieCatalogService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration compactionHorizon;
+    private final int compactionPageSize;
+    private final int sampleSize;
+    private final boolean repairDrift;
+    private final int backfillPageSize;
+    private final AtomicLong driftedBalances = new AtomicLong();
+    private final AtomicLong compactedEntries = new AtomicLong();
+    private final TransactionCompletionBuffer<RentalChangedEvent> pendingChanges;
+
+    public FrequentPointsLedgerService(FrequentPointsLedgerRepository ledgerRepository,
+                                       CustomerRepository customerRepository,
+                                       MovieCatalogService movieCatalogService,
+                                       EntityManager entityManager,
+                                       PlatformTransactionManager transactionManager,
+                                       @Value("${movie-rental.points-ledger.compaction-horizon:90d}") Duration compactionHorizon,
+                                       @Value("${movie-rental.points-ledger.compaction-page-size:1000}") int compactionPageSize,
+                                       @Value("${movie-rental.points-ledger.verification-sample-size:100}") int sampleSize,
+                                       @Value("${movie-rental.points-ledger.repair-drift:false}") boolean repairDrift,
+                                       @Value("${movie-rental.points-ledger.backfill-page-size:1000}") int backfillPageSize) {
+        this.ledgerRepository = ledgerRepository;
+        this.customerRepository = customerRepository;
+        this.movieCatalogService = movieCatalogService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.compactionHorizon = compactionHorizon;
+        this.compactionPageSize = compactionPageSize;
+        this.sampleSize = sampleSize;
+        this.repairDrift = repairDrift;
+        this.backfillPageSize = backfillPageSize;
+        this.pendingChanges = new TransactionCompletionBuffer<>(entityManager, this::applyChanges);
+    }
+
+    /**
+     * Records the points of a rental change in the ledger.
+     * Inside a transaction the change is added to the pending changes of the transaction, which are scored and appended
+     * when it completes. Changes made outside a transaction are appended at once.
+     *
+     * @param event the rental change
+     */
+    @EventListener
+    public void onRentalChanged(RentalChangedEvent event) {
+        if (event.type() == RentalChangeType.ARCHIVED) {
+            return;
+        }
+        if (!pendingChanges.add(event)) {
+            applyChanges(List.of(event));
+        }
+    }
+
+    /**
+     * Returns the frequent renter points balance of a customer.
+     *
+     * @param customerId the ID of the customer
+     * @return the balance, 0 with version 0 if the customer has never had a rental change
+     * @throws CustomerNotFoundException if the customer does not exist
+     */
+    public CustomerPointsBalanceDTO getBalance(Long customerId) {
+        return ledgerRepository.findBalance(customerId).orElseGet(() -> {
+            if (!customerRepository.existsById(customerId)) {
+                log.warn("Customer not found for ID: {}", customerId);
+                throw new CustomerNotFoundException("Customer not found");
+            }
+            return new CustomerPointsBalanceDTO(customerId, 0, 0L, null);
+        });
+    }
+
+    /**
+     * Creates the balance of every customer that has none, e.g. for rentals loaded by data.sql.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        int created = backfill();
+        if (created > 0) {
+            log.info("Backfilled the points balance of {} customers", created);
+        }
+    }
+
+    /**
+     * Creates a balance for every customer that has none, page by page, carrying forward the points of their rentals.
+     *
+     * @return the number of balances created
+     */
+    public int backfill() {
+        int created = 0;
+        Long afterId = 0L;
+        List<Long> customerIds;
+        while (!(customerIds = ledgerRepository.findCustomerIdsWithoutBalance(afterId, backfillPageSize)).isEmpty()) {
+            Map<Long, Long> expected = pointsByCustomer(ledgerRepository.findRentalLines(customerIds));
+            for (Long customerId : customerIds) {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> openBalance(customerId, expected.getOrDefault(customerId, 0L), 0)))) {
+                    created++;
+                }
+            }
+            afterId = customerIds.getLast();
+        }
+        return created;
+    }
+
+    /**
+     * Compacts the ledger and then verifies a random sample of balances on the configured schedule.
+     * Disabled unless "movie-rental.points-ledger.maintenance-cron" is set.
+     */
+    @Scheduled(cron = "${movie-rental.points-ledger.maintenance-cron:-}", zone = "UTC")
+    public void scheduledMaintenance() {
+        compact();
+        verify(sampleSize);
+    }
+
+    /**
+     * Folds the entries recorded before now minus the compaction horizon into one carried-forward entry per
+     * customer, one transaction per page of customers. Balances do not change.
+     *
+     * @return the compaction report
+     */
+    public synchronized PointsLedgerCompactionDTO compact() {
+        long start = System.nanoTime();
+        Instant cutoff = Instant.now().minus(compactionHorizon);
+        int customers = 0;
+        int removed = 0;
+        Long afterId = 0L;
+        List<Long> customerIds;
+        while (!(customerIds = ledgerRepository.findCustomerIdsToCompact(cutoff, afterId, compactionPageSize)).isEmpty()) {
+            List<Long> page = customerIds;
+            Integer pageRemoved = transactionTemplate.execute(status -> ledgerRepository.compact(page, cutoff));
+            customers += page.size();
+            removed += pageRemoved != null ? pageRemoved : 0;
+            afterId = page.getLast();
+        }
+        compactedEntries.addAndGet(removed);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Compacted the points ledger entries of {} customers recorded before {}, {} entries removed ({} ms)",
+                customers, cutoff, removed, elapsedMillis);
+        return new PointsLedgerCompactionDTO(customers, removed, cutoff, elapsedMillis);
+    }
+
+    /**
+     * Checks the balances of a random, contiguous sample of customers against the sum of their ledger entries and
+     * the points recomputed from their rentals, archived ones included. Balances that look drifted are checked again
+     * while locked, so a rental written between the two reads is not reported. With
+     * "movie-rental.points-ledger.repair-drift" set, drifted balances get a correction entry and are set to the
+     * recomputed points.
+     *
+     * @param requestedSampleSize the number of customers to check
+     * @return the verification report
+     */
+    public PointsLedgerVerificationDTO verify(int requestedSampleSize) {
+        List<Long> customerIds = sampleCustomerIds(requestedSampleSize);
+        Map<Long, Long> expected = pointsByCustomer(ledgerRepository.findRentalLines(customerIds));
+        Map<Long, Long> ledgerSums = ledgerRepository.sumEntries(customerIds);
+        Map<Long, CustomerPointsBalanceDTO> actual = ledgerRepository.findBalances(customerIds);
+
+        List<Long> drifted = new ArrayList<>();
+        for (Long customerId : customerIds) {
+            if (!matches(expected.getOrDefault(customerId, 0L), ledgerSums.getOrDefault(customerId, 0L), actual.get(customerId))
+                    && recheck(customerId)) {
+                drifted.add(customerId);
+            }
+        }
+        driftedBalances.addAndGet(drifted.size());
+        if (drifted.isEmpty()) {
+            log.info("Verified {} points balances, no drift", customerIds.size());
+        } else {
+            log.warn("Verified {} points balances, {} drifted{}: {}", customerIds.size(), drifted.size(),
+                    repairDrift ? " and were corrected" : "", drifted);
+        }
+        return new PointsLedgerVerificationDTO(customerIds.size(), drifted.size(), List.copyOf(drifted),
+                repairDrift && !drifted.isEmpty(), Instant.now());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("movie.rental.points.ledger.drift", driftedBalances, AtomicLong::doubleValue)
+                .description("Points balances found not to match their ledger entries or the rentals of their customer")
+                .register(registry);
+        FunctionCounter.builder("movie.rental.points.ledger.compacted", compactedEntries, AtomicLong::doubleValue)
+                .description("Points ledger entries removed by folding them into carried-forward entries")
+                .register(registry);
+    }
+
+    /**
+     * Compares the locked balance of a customer with its entries and rentals and corrects it if configured.
+     *
+     * @return true if the balance does not match its entries or the rentals
+     */
+    private boolean recheck(Long customerId) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            CustomerPointsBalanceDTO actual = ledgerRepository.findBalanceForUpdate(customerId).orElse(null);
+            long expected = pointsByCustomer(ledgerRepository.findRentalLines(List.of(customerId))).getOrDefault(customerId, 0L);
+            long ledgerSum = ledgerRepository.sumEntries(customerId);
+            if (matches(expected, ledgerSum, actual)) {
+                return false;
+            }
+            log.warn("Points balance of customer {} drifted: expected {} with entries summing to {} but was {}",
+                    customerId, expected, ledgerSum, actual);
+            if (repairDrift) {
+                if (expected != ledgerSum) {
+                    ledgerRepository.appendEntries(List.of(
+                            new PointsLedgerEntryDTO(customerId, null, PointsEntryType.CORRECTION, expected - ledgerSum)), Instant.now());
+                }
+                if (actual != null) {
+                    ledgerRepository.addToBalance(customerId, expected - actual.balance());
+                } else {
+                    ledgerRepository.insertBalance(customerId, expected);
+                }
+            }
+            return true;
+        }));
+    }
+
+    private List<Long> sampleCustomerIds(int requestedSampleSize) {
+        Long maxId = customerRepository.findMaxId();
+        if (maxId == null || requestedSampleSize <= 0) {
+            return List.of();
+        }
+        long startAfter = ThreadLocalRandom.current().nextLong(maxId);
+        List<Long> customerIds = new ArrayList<>(customerRepository.findIdsAfter(startAfter, PageRequest.of(0, requestedSampleSize)));
+        if (customerIds.size() < requestedSampleSize && startAfter > 0) {
+            // Wrap around to the lowest IDs not covered yet.
+            customerRepository.findIdsAfter(0L, PageRequest.of(0, requestedSampleSize - customerIds.size())).stream()
+                    .filter(customerId -> customerId <= startAfter)
+                    .forEach(customerIds::add);
+        }
+        return customerIds;
+    }
+
+    private static boolean matches(long expected, long ledgerSum, CustomerPointsBalanceDTO actual) {
+        long balance = actual != null ? actual.balance() : 0;
+        return balance == expected && balance == ledgerSum;
+    }
+
+    /**
+     * Scores rental changes and appends their entries, skipping the changes that cannot be scored.
+     */
+    private void applyChanges(List<RentalChangedEvent> changes) {
+        List<PointsLedgerEntryDTO> entries = new ArrayList<>(changes.size());
+        for (RentalChangedEvent change : changes) {
+            long points;
+            try {
+                points = points(List.of(new RentalLineDTO(change.movieId(), change.days())));
+            } catch (RuntimeException e) {
+                log.warn("Skipped the points ledger entry of rental {} of customer {}: {}",
+                        change.rentalId(), change.customerId(), e.getMessage());
+                continue;
+            }
+            entries.add(change.type() == RentalChangeType.ADDED
+                    ? new PointsLedgerEntryDTO(change.customerId(), change.rentalId(), PointsEntryType.EARNED, points)
+                    : new PointsLedgerEntryDTO(change.customerId(), change.rentalId(), PointsEntryType.REVERSED, -points));
+        }
+        if (!entries.isEmpty()) {
+            applyEntries(entries);
+        }
+    }
+
+    /**
+     * Appends entries with one batch insert and adds their sum per customer to the balances with one batch update.
+     * Customers without a balance get one from their rentals, which by now include every change of the transaction,
+     * unless their rentals cannot be scored, which leaves them to the backfill.
+     */
+    private void applyEntries(List<PointsLedgerEntryDTO> entries) {
+        ledgerRepository.appendEntries(entries, Instant.now());
+        Map<Long, Long> points = new LinkedHashMap<>();
+        for (PointsLedgerEntryDTO entry : entries) {
+            points.merge(entry.customerId(), entry.points(), Long::sum);
+        }
+        for (Long customerId : ledgerRepository.addToBalances(points)) {
+            long expected;
+            try {
+                expected = pointsByCustomer(ledgerRepository.findRentalLines(List.of(customerId))).getOrDefault(customerId, 0L);
+            } catch (RuntimeException e) {
+                log.warn("Left the points balance of customer {} to the backfill: {}", customerId, e.getMessage());
+                continue;
+            }
+            openBalance(customerId, expected, points.get(customerId));
+        }
+        log.debug("Appended {} points ledger entries of {} customers", entries.size(), points.size());
+    }
+
+    /**
+     * Inserts the balance of a customer and carries forward whatever its rentals earned beyond its entries.
+     *
+     * @param expected the points of the rentals of the customer
+     * @param points   the points of this transaction's entries, added instead if the balance was created concurrently
+     * @return true if the balance was created
+     */
+    private boolean openBalance(Long customerId, long expected, long points) {
+        try {
+            ledgerRepository.insertBalance(customerId, expected);
+        } catch (DuplicateKeyException e) {
+            // Another transaction created the balance in the meantime; it does not contain this transaction's entries.
+            if (points != 0) {
+                ledgerRepository.addToBalance(customerId, points);
+            }
+            return false;
+        }
+        long carriedForward = expected - ledgerRepository.sumEntries(customerId);
+        if (carriedForward != 0) {
+            ledgerRepository.appendEntries(List.of(
+                    new PointsLedgerEntryDTO(customerId, null, PointsEntryType.CARRIED_FORWARD, carriedForward)), Instant.now());
+        }
+        log.debug("Created points balance of customer {} with {} points", customerId, expected);
+        return true;
+    }
+
+    private Map<Long, Long> pointsByCustomer(List<CustomerRentalLineDTO> rentalLines) {
+        Map<Long, List<RentalLineDTO>> linesByCustomer = new HashMap<>();
+        for (CustomerRentalLineDTO line : rentalLines) {
+            linesByCustomer.computeIfAbsent(line.customerId(), id -> new ArrayList<>()).add(new RentalLineDTO(line.movieId(), line.days()));
+        }
+        Map<Long, Long> pointsByCustomer = new HashMap<>();
+        linesByCustomer.forEach((customerId, lines) -> pointsByCustomer.put(customerId, points(lines)));
+        return pointsByCustomer;
+    }
+
+    /**
+     * Sums the frequent renter points of rental lines with the movie catalog, reloading the catalog once if a movie
+     * is unknown.
+     *
+     * @throws IllegalArgumentException if a rented movie is not part of the reloaded catalog
+     */
+    private long points(List<RentalLineDTO> rentalLines) {
+        MovieCatalogSnapshot catalog = movieCatalogService.current();
+        String unknownMovieId = firstUnknownMovie(catalog, rentalLines);
+        if (unknownMovieId != null) {
+            log.warn("Movie {} not found in catalog version {}, reloading catalog", unknownMovieId, catalog.version());
+            catalog = movieCatalogService.reloadForMissingMovie(unknownMovieId);
+            unknownMovieId = firstUnknownMovie(catalog, rentalLines);
+            if (unknownMovieId != null) {
+                throw new IllegalArgumentException("Unknown movie ID: " + unknownMovieId);
+            }
+        }
+        long points = 0;
+        for (RentalLineDTO line : rentalLines) {
+            points += catalog.frequentRenterPoints(catalog.movieIndex(line.movieId()), line.days());
+        }
+        return points;
+    }
+
+    private static String firstUnknownMovie(MovieCatalogSnapshot catalog, List<RentalLineDTO> rentalLines) {
+        for (RentalLineDTO line : rentalLines) {
+            if (catalog.movieIndex(line.movieId()) == MovieCatalogSnapshot.NOT_FOUND) {
+                return line.movieId();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,230 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.datasource.ReadYourWrites;
+import com.etraveligroup.movie.rental.dto.CachedInvoiceDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceItemDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import com.etraveligroup.movie.rental.event.RentalChangedEvent;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cache of computed invoices, keyed by customer ID.
+ * Invoices requested by customer name are resolved to the customer ID first, so both request kinds share one entry.
+ * The cache holds the computed invoice rather than the publisher computing it: concurrent requests for a
+ * customer wait for the same load, and failed or empty loads are not kept. Entries are weighed by the length of their text,
+ * dropped once the rentals of their customer change, and expire after a fixed time so catalog price changes
+ * also reach cached invoices.
+ * This is the per-instance tier: misses are served from the {@link SharedInvoiceCache} before the invoice is
+ * computed, and changes made through other instances are picked up by polling its change log.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Service
+public class InvoiceCache implements MeterBinder {
+
+    // Characters of the invoice text besides the customer name and the item titles
+    private static final int INVOICE_TEXT_OVERHEAD = 70;
+    private static final int ITEM_TEXT_OVERHEAD = 8;
+
+    private final SharedInvoiceCache sharedInvoiceCache;
+    private final boolean enabled;
+    private final AsyncCache<Long, InvoiceResponseDTO> invoices;
+
+    public InvoiceCache(SharedInvoiceCache sharedInvoiceCache,
+                        @Value("${movie-rental.invoice-cache.enabled:true}") boolean enabled,
+                        @Value("${movie-rental.invoice-cache.maximum-weight:10000000}") long maximumWeight,
+                        @Value("${movie-rental.invoice-cache.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        this.sharedInvoiceCache = sharedInvoiceCache;
+        this.enabled = enabled;
+        this.invoices = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .weigher((Long customerId, InvoiceResponseDTO invoice) -> weigh(invoice))
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .buildAsync();
+        log.info("Invoice cache {} (maximum weight {} characters, expire after write {})",
+                enabled ? "enabled" : "disabled", maximumWeight, expireAfterWrite);
+    }
+
+    /**
+     * Returns the cached invoice of a customer, loading it with the given publisher on a miss.
+     * Requests that must read their own writes bypass the cache, since the cached invoice may predate the write.
+     *
+     * @param customerId the ID of the customer
+     * @param loader     the publisher computing the invoice
+     * @return Mono emitting the invoice
+     */
+    public Mono<InvoiceResponseDTO> get(Long customerId, Mono<InvoiceResponseDTO> loader) {
+        if (!enabled) {
+            return loader;
+        }
+        return Mono.deferContextual(context -> {
+            if (context.getOrDefault(ReadYourWrites.CONTEXT_KEY, false)) {
+                return loader;
+            }
+            // Cancelling one request must not cancel the load other requests are waiting for
+            return Mono.fromFuture(() -> lookup(customerId, loader, Context.of(context)), true);
+        });
+    }
+
+    /**
+     * Returns the pending or completed load of an invoice, starting a load on a miss.
+     * Caffeine drops a failed load shortly after it fails; a request arriving in between starts a new load
+     * instead of receiving the earlier failure. The load is subscribed outside the request, so it carries the request
+     * context explicitly.
+     */
+    private CompletableFuture<InvoiceResponseDTO> lookup(Long customerId, Mono<InvoiceResponseDTO> loader, Context context) {
+        AtomicBoolean loaded = new AtomicBoolean();
+        CompletableFuture<InvoiceResponseDTO> invoice = invoices.get(customerId, (key, executor) -> {
+            loaded.set(true);
+            return sharedInvoiceCache.get(customerId, loader).contextWrite(context).toFuture();
+        });
+        if (!loaded.get() && invoice.isCompletedExceptionally()) {
+            invoices.asMap().remove(customerId, invoice);
+            invoice = invoices.get(customerId, (key, executor) -> sharedInvoiceCache.get(customerId, loader).contextWrite(context).toFuture());
+        }
+        return invoice;
+    }
+
+    /**
+     * Returns whether invoices are cached at all.
+     *
+     * @return true if the cache is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the most frequently used completed invoices, hottest first, with the time they were cached.
+     *
+     * @param limit the maximum number of invoices returned
+     * @return the cached invoices
+     */
+    public List<CachedInvoiceDTO> hottest(int limit) {
+        Policy<Long, InvoiceResponseDTO> policy = invoices.synchronous().policy();
+        Map<Long, InvoiceResponseDTO> hottest = policy.eviction().map(eviction -> eviction.hottest(limit)).orElse(Map.of());
+        Instant now = Instant.now();
+        return hottest.entrySet().stream()
+                .map(entry -> new CachedInvoiceDTO(entry.getKey(), entry.getValue(), now.minus(policy.expireAfterWrite()
+                        .flatMap(expiration -> expiration.ageOf(entry.getKey())).orElse(Duration.ZERO))))
+                .toList();
+    }
+
+    /**
+     * Caches an invoice computed earlier, e.g. one restored from a snapshot.
+     *
+     * @param customerId the ID of the customer
+     * @param invoice    the invoice
+     */
+    public void put(Long customerId, InvoiceResponseDTO invoice) {
+        invoices.put(customerId, CompletableFuture.completedFuture(invoice));
+    }
+
+    /**
+     * Drops the cached invoice of a customer.
+     * A load that is still running is dropped too, so its result is only returned to the requests already waiting.
+     *
+     * @param customerId the ID of the customer
+     */
+    public void invalidate(Long customerId) {
+        invoices.synchronous().invalidate(customerId);
+    }
+
+    /**
+     * Drops the cached invoice of the customer whose rental changed, once the change is committed.
+     * Invalidating before the commit would let a concurrent request cache the invoice from before the change.
+     *
+     * @param event the rental change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRentalChanged(RentalChangedEvent event) {
+        log.debug("Rental {} of customer {} changed, dropping the cached invoice", event.rentalId(), event.customerId());
+        invalidate(event.customerId());
+    }
+
+    /**
+     * Drops the cached invoices of the customers whose rentals were changed through any instance, as read from
+     * the change log of the shared tier.
+     */
+    @Scheduled(fixedDelayString = "${movie-rental.invoice-cache.shared.poll-interval:PT1S}")
+    public void pollSharedChanges() {
+        Set<Long> customerIds = sharedInvoiceCache.pollChanges();
+        customerIds.forEach(this::invalidate);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("movie.rental.invoice-cache.requests", this, cache -> cache.stats().hitCount())
+                .description("Invoice cache lookups")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("movie.rental.invoice-cache.requests", this, cache -> cache.stats().missCount())
+                .description("Invoice cache lookups")
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("movie.rental.invoice-cache.hit-ratio", this, cache -> cache.stats().hitRate())
+                .description("Share of invoice cache lookups served from the cache")
+                .register(registry);
+        FunctionTimer.builder("movie.rental.invoice-cache.loads", this,
+                        cache -> cache.stats().loadCount(), cache -> cache.stats().totalLoadTime(), TimeUnit.NANOSECONDS)
+                .description("Invoice computations on cache misses")
+                .register(registry);
+        FunctionCounter.builder("movie.rental.invoice-cache.evictions", this, cache -> cache.stats().evictionCount())
+                .description("Invoices evicted for size or age")
+                .register(registry);
+        Gauge.builder("movie.rental.invoice-cache.weight", this, cache -> cache.invoices.synchronous().policy().eviction()
+                        .map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L))
+                .description("Characters of invoice text held in the cache")
+                .register(registry);
+    }
+
+    /**
+     * Estimates the characters of the invoice text, keeping the weight comparable to the configured maximum.
+     * A missing customer name or title counts as empty, as it is printed.
+     */
+    private static int weigh(InvoiceResponseDTO invoice) {
+        int weight = INVOICE_TEXT_OVERHEAD + length(invoice.customer());
+        if (invoice.items() != null) {
+            for (InvoiceItemDTO item : invoice.items()) {
+                weight += ITEM_TEXT_OVERHEAD + length(item.title());
+            }
+        }
+        return weight;
+    }
+
+    private static int length(String text) {
+        return text != null ? text.length() : 0;
+    }
+
+    private CacheStats stats() {
+        return invoices.synchronous().stats();
+    }
+}
@@ -0,0 +1,211 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.dto.CachedInvoiceDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceCacheSnapshotDTO;
+import com.etraveligroup.movie.rental.service.RentalInfoService;
+import com.etraveligroup.movie.rental.util.InvoiceCacheSnapshotUtil;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fills the invoice cache before the application reports ready, so a restarted instance does not send a burst of
+ * cold misses to the database.
+ * On shutdown the hottest cached invoices can be written to a snapshot file. On startup the snapshot is restored,
+ * keeping only invoices that are younger than the cache expiry and whose customers have no rental changes logged
+ * after the last change this instance had applied when it wrote the snapshot; the remaining snapshot customers and
+ * the customers most recently requested on other instances are then computed. The recently requested customers are
+ * read from the shared invoice cache, so without it only the snapshot customers are warmed up. Warm-up runs as an
+ * application runner, so Spring Boot reports the readiness state ACCEPTING_TRAFFIC only once it completed or its
+ * timeout passed.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Service
+public class InvoiceCacheWarmer implements ApplicationRunner, MeterBinder {
+
+    private final InvoiceCache invoiceCache;
+    private final SharedInvoiceCache sharedInvoiceCache;
+    private final RentalInfoService rentalInfoService;
+    private final boolean warmUpEnabled;
+    private final int warmUpCustomers;
+    private final int warmUpConcurrency;
+    private final Duration warmUpTimeout;
+    private final boolean snapshotEnabled;
+    private final Path snapshotFile;
+    private final int snapshotMaxEntries;
+    private final Duration expireAfterWrite;
+
+    private final AtomicInteger restoredInvoices = new AtomicInteger();
+    private final AtomicInteger computedInvoices = new AtomicInteger();
+    private final AtomicLong warmUpMillis = new AtomicLong();
+
+    public InvoiceCacheWarmer(InvoiceCache invoiceCache,
+                              SharedInvoiceCache sharedInvoiceCache,
+                              RentalInfoService rentalInfoService,
+                              @Value("${movie-rental.invoice-cache.warm-up.enabled:true}") boolean warmUpEnabled,
+                              @Value("${movie-rental.invoice-cache.warm-up.customers:1000}") int warmUpCustomers,
+                              @Value("${movie-rental.invoice-cache.warm-up.concurrency:8}") int warmUpConcurrency,
+                              @Value("${movie-rental.invoice-cache.warm-up.timeout:PT30S}") Duration warmUpTimeout,
+                              @Value("${movie-rental.invoice-cache.snapshot.enabled:false}") boolean snapshotEnabled,
+                              @Value("${movie-rental.invoice-cache.snapshot.file:invoice-cache.snapshot}") String snapshotFile,
+                              @Value("${movie-rental.invoice-cache.snapshot.max-entries:10000}") int snapshotMaxEntries,
+                              @Value("${movie-rental.invoice-cache.expire-after-write:PT10M}") Duration expireAfterWrite) {
+        this.invoiceCache = invoiceCache;
+        this.sharedInvoiceCache = sharedInvoiceCache;
+        this.rentalInfoService = rentalInfoService;
+        this.warmUpEnabled = warmUpEnabled;
+        this.warmUpCustomers = warmUpCustomers;
+        this.warmUpConcurrency = warmUpConcurrency;
+        this.warmUpTimeout = warmUpTimeout;
+        this.snapshotEnabled = snapshotEnabled;
+        this.snapshotFile = Paths.get(snapshotFile);
+        this.snapshotMaxEntries = snapshotMaxEntries;
+        this.expireAfterWrite = expireAfterWrite;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        warmUp();
+    }
+
+    /**
+     * Restores the snapshot, if enabled, and computes the invoices of the hot customers not restored from it.
+     * Customers whose invoice cannot be computed are skipped; computations still running at the timeout are
+     * abandoned.
+     */
+    public void warmUp() {
+        if (!invoiceCache.isEnabled() || (!warmUpEnabled && !snapshotEnabled)) {
+            return;
+        }
+        long started = System.nanoTime();
+        Set<Long> customerIds = new LinkedHashSet<>();
+        if (snapshotEnabled) {
+            customerIds.addAll(restoreSnapshot());
+        }
+        if (warmUpEnabled) {
+            if (!sharedInvoiceCache.isEnabled()) {
+                log.warn("Shared invoice cache disabled, so warm-up only computes the {} snapshot customers", customerIds.size());
+            }
+            try {
+                customerIds.addAll(sharedInvoiceCache.recentCustomerIds(warmUpCustomers));
+            } catch (RuntimeException e) {
+                log.warn("Failed to read the recently requested customers: {}", e.getMessage());
+            }
+            List<Long> toCompute = customerIds.stream().limit(warmUpCustomers).toList();
+            Long computed = Flux.fromIterable(toCompute)
+                    .flatMap(customerId -> rentalInfoService.generateInvoiceById(customerId)
+                            .onErrorResume(e -> {
+                                log.debug("Skipping warm-up of customer ID {}: {}", customerId, e.getMessage());
+                                return Mono.empty();
+                            }), warmUpConcurrency)
+                    .take(warmUpTimeout)
+                    .count()
+                    .block();
+            computedInvoices.set(computed != null ? computed.intValue() : 0);
+            if (computedInvoices.get() < toCompute.size()) {
+                log.warn("Invoice cache warm-up computed {} of {} invoices, the others failed or exceeded the timeout of {}",
+                        computedInvoices.get(), toCompute.size(), warmUpTimeout);
+            }
+        }
+        warmUpMillis.set(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        log.info("Invoice cache warmed up in {} ms: {} invoices restored, {} computed",
+                warmUpMillis.get(), restoredInvoices.get(), computedInvoices.get());
+    }
+
+    /**
+     * Writes the hottest cached invoices to the snapshot file, if enabled.
+     */
+    @PreDestroy
+    public void writeSnapshot() {
+        if (!snapshotEnabled || !invoiceCache.isEnabled()) {
+            return;
+        }
+        try {
+            // Read before collecting the invoices, so every change up to this ID was applied to them
+            Instant createdAt = Instant.now();
+            long changeId = sharedInvoiceCache.appliedChangeId();
+            List<CachedInvoiceDTO> invoices = invoiceCache.hottest(snapshotMaxEntries);
+            InvoiceCacheSnapshotUtil.write(snapshotFile, new InvoiceCacheSnapshotDTO(createdAt, changeId, invoices));
+            log.info("Wrote {} cached invoices to {}", invoices.size(), snapshotFile);
+        } catch (RuntimeException e) {
+            log.warn("Failed to write the invoice cache snapshot: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("movie.rental.invoice-cache.warm-up.invoices", restoredInvoices, AtomicInteger::get)
+                .description("Invoices cached during warm-up")
+                .tag("source", "snapshot")
+                .register(registry);
+        Gauge.builder("movie.rental.invoice-cache.warm-up.invoices", computedInvoices, AtomicInteger::get)
+                .description("Invoices cached during warm-up")
+                .tag("source", "computed")
+                .register(registry);
+        TimeGauge.builder("movie.rental.invoice-cache.warm-up.duration", warmUpMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Time the last warm-up took")
+                .register(registry);
+    }
+
+    /**
+     * Caches the snapshot invoices that are still valid.
+     *
+     * @return the IDs of the snapshot customers whose invoices were not restored, hottest first
+     */
+    private Set<Long> restoreSnapshot() {
+        if (!Files.isRegularFile(snapshotFile)) {
+            return Set.of();
+        }
+        InvoiceCacheSnapshotDTO snapshot;
+        Optional<Set<Long>> changedCustomers;
+        try {
+            snapshot = InvoiceCacheSnapshotUtil.read(snapshotFile);
+            changedCustomers = sharedInvoiceCache.customersChangedAfter(snapshot.changeId(), snapshot.createdAt());
+        } catch (RuntimeException e) {
+            log.warn("Ignoring the invoice cache snapshot: {}", e.getMessage());
+            return Set.of();
+        }
+        if (changedCustomers.isEmpty()) {
+            log.info("The change log does not reach back to change {} of the snapshot of {}, recomputing its invoices",
+                    snapshot.changeId(), snapshot.createdAt());
+        }
+        Instant notBefore = Instant.now().minus(expireAfterWrite);
+        Set<Long> stale = new LinkedHashSet<>();
+        for (CachedInvoiceDTO invoice : snapshot.invoices()) {
+            if (changedCustomers.isPresent() && !changedCustomers.get().contains(invoice.customerId())
+                    && !invoice.cachedAt().isBefore(notBefore)) {
+                invoiceCache.put(invoice.customerId(), invoice.invoice());
+                restoredInvoices.incrementAndGet();
+            } else {
+                stale.add(invoice.customerId());
+            }
+        }
+        return stale;
+    }
+}
@@ -0,0 +1,158 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.datasource.ReadYourWrites;
+import com.etraveligroup.movie.rental.event.RentalChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent invoice requests for the same customer and response format.
+ * The first request starts the computation; requests arriving while it runs wait for it and receive the same
+ * result or error instead of fetching the invoice again. Nothing is kept once the computation completes, so this
+ * complements the {@link InvoiceCache}: it also covers requests made while the cache is disabled or just dropped an
+ * invoice. Rendering a response body, e.g. a PDF, is coalesced separately per invoice version, since it runs after
+ * the computation completed and may outlast it.
+ * All callers of a key share one computation, so they must compute the same type of result.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Service
+public class InvoiceRequestCoalescer implements MeterBinder {
+
+    private final Map<FlightKey, Flight> flights = new ConcurrentHashMap<>();
+    private Counter leaders;
+    private Counter waiters;
+    private DistributionSummary waitersPerFlight;
+
+    /**
+     * Returns the result of the computation running for a customer and format, starting it if none is running.
+     * Requests that must read their own writes always compute their own result, since a running computation may
+     * have read the data before the write.
+     *
+     * @param customerId  the ID of the customer
+     * @param format      the content type of the response
+     * @param computation supplies the publisher computing the result, called only by the request starting it
+     * @param <T>         the result type
+     * @return Mono emitting the shared result
+     */
+    public <T> Mono<T> execute(Long customerId, MediaType format, Supplier<Mono<T>> computation) {
+        if (ReadYourWrites.isActive()) {
+            return computation.get();
+        }
+        return join(new FlightKey(customerId, format, null), computation);
+    }
+
+    /**
+     * Returns the response body rendering for an invoice version, starting it if none is running.
+     * Renderings are keyed by the entity tag of the invoice, so requests only share one if they render the same
+     * invoice, even after the computations they started from have completed.
+     *
+     * @param customerId the ID of the customer
+     * @param format     the content type of the response
+     * @param eTag       the entity tag of the invoice in that format
+     * @param rendering  supplies the publisher rendering the body, called only by the request starting it
+     * @param <T>        the result type
+     * @return Mono emitting the shared rendering
+     */
+    public <T> Mono<T> render(Long customerId, MediaType format, String eTag, Supplier<Mono<T>> rendering) {
+        return join(new FlightKey(customerId, format, eTag), rendering);
+    }
+
+    /**
+     * Detaches the computations running for the customer whose rental changed, once the change is committed.
+     * Requests already waiting still receive their result; later requests start a new computation.
+     *
+     * @param event the rental change
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRentalChanged(RentalChangedEvent event) {
+        flights.keySet().removeIf(key -> key.customerId().equals(event.customerId()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Mono<T> join(FlightKey key, Supplier<Mono<T>> computation) {
+        Flight started = new Flight();
+        Flight flight = flights.putIfAbsent(key, started);
+        if (flight == null) {
+            flight = started;
+            record(leaders);
+            // Assembled on the request thread, which carries the request-scoped state the computation reads
+            Mono.defer(computation).toFuture().whenComplete((result, error) -> complete(key, started, result, error));
+        } else {
+            flight.waiters.incrementAndGet();
+            record(waiters);
+            log.debug("Invoice request for customer ID {} as {} joins the running {}", key.customerId(), key.format(),
+                    key.eTag() == null ? "computation" : "rendering");
+        }
+        // Cancelling one request must not cancel the computation other requests are waiting for
+        return Mono.fromFuture((CompletableFuture<T>) flight.result, true);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        leaders = Counter.builder("movie.rental.invoice-requests.coalescing")
+                .description("Invoice requests by whether they started a computation or joined a running one")
+                .tag("role", "leader")
+                .register(registry);
+        waiters = Counter.builder("movie.rental.invoice-requests.coalescing")
+                .description("Invoice requests by whether they started a computation or joined a running one")
+                .tag("role", "waiter")
+                .register(registry);
+        waitersPerFlight = DistributionSummary.builder("movie.rental.invoice-requests.coalesced-waiters")
+                .description("Requests that joined a computation, per computation")
+                .register(registry);
+        Gauge.builder("movie.rental.invoice-requests.in-flight", flights, Map::size)
+                .description("Invoice computations currently shared by concurrent requests")
+                .register(registry);
+    }
+
+    private void complete(FlightKey key, Flight flight, Object result, Throwable error) {
+        flights.remove(key, flight);
+        if (waitersPerFlight != null) {
+            waitersPerFlight.record(flight.waiters.get());
+        }
+        if (error != null) {
+            flight.result.completeExceptionally(error);
+        } else {
+            flight.result.complete(result);
+        }
+    }
+
+    private static void record(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * Key of a computation, or of a rendering if the entity tag is set.
+     */
+    private record FlightKey(Long customerId, MediaType format, String eTag) {
+    }
+
+    /**
+     * A running computation and the number of requests that joined it.
+     */
+    private static final class Flight {
+
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final AtomicInteger waiters = new AtomicInteger();
+    }
+}
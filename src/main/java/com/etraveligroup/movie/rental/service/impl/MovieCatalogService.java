@@ -0,0 +1,189 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.catalog.MovieCatalogSnapshot;
+import com.etraveligroup.movie.rental.dto.CatalogStatusDTO;
+import com.etraveligroup.movie.rental.event.MovieCatalogReloadedEvent;
+import com.etraveligroup.movie.rental.repository.MoviePricingRepository;
+import com.etraveligroup.movie.rental.repository.MovieRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Service holding the in-memory movie catalog used for invoice generation.
+ * All movie and pricing rows are loaded into an immutable {@link MovieCatalogSnapshot}.
+ * Reloads build a new snapshot and publish it atomically, so readers never block and
+ * always see a complete catalog.
+ * Reloads are single-flight: a caller arriving while a reload is running waits for it and shares its snapshot.
+ * Rentals of movies missing from the snapshot reload it at most once per minimum reload interval, and movie IDs
+ * still missing afterwards are remembered until the next reload, so unknown movies do not reload the catalog on
+ * every request.
+ * A reload that prices movies differently than the previous snapshot publishes a {@link MovieCatalogReloadedEvent}.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Service
+public class MovieCatalogService {
+
+    // Bounds the remembered unknown movie IDs; further IDs are still covered by the minimum reload interval
+    private static final int MAX_UNKNOWN_MOVIE_IDS = 10_000;
+
+    private final MovieRepository movieRepository;
+    private final MoviePricingRepository moviePricingRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final long minReloadIntervalNanos;
+
+    private final AtomicReference<MovieCatalogSnapshot> snapshot = new AtomicReference<>();
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private volatile long lastReloadStartedNanos;
+    private volatile Set<String> unknownMovieIds = ConcurrentHashMap.newKeySet();
+
+    public MovieCatalogService(MovieRepository movieRepository, MoviePricingRepository moviePricingRepository,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${movie-rental.catalog.min-reload-interval:PT5S}") Duration minReloadInterval) {
+        this.movieRepository = movieRepository;
+        this.moviePricingRepository = moviePricingRepository;
+        this.eventPublisher = eventPublisher;
+        this.minReloadIntervalNanos = minReloadInterval.toNanos();
+        this.lastReloadStartedNanos = System.nanoTime() - minReloadIntervalNanos;
+    }
+
+    /**
+     * Loads the catalog once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        reload();
+    }
+
+    /**
+     * Periodically reloads the catalog so pricing and movie changes apply without a restart.
+     */
+    @Scheduled(initialDelayString = "${movie-rental.catalog.refresh-interval:PT5M}",
+            fixedDelayString = "${movie-rental.catalog.refresh-interval:PT5M}")
+    public void scheduledReload() {
+        reload();
+    }
+
+    /**
+     * Returns the current catalog snapshot, loading it first if no snapshot has been published yet.
+     *
+     * @return the current catalog snapshot
+     */
+    public MovieCatalogSnapshot current() {
+        MovieCatalogSnapshot current = snapshot.get();
+        return current != null ? current : reload();
+    }
+
+    /**
+     * Builds a new snapshot from the database and swaps it in.
+     * If another reload started while this caller waited for the running one, its snapshot is returned instead.
+     *
+     * @return the newly published snapshot
+     */
+    public MovieCatalogSnapshot reload() {
+        long requested = System.nanoTime();
+        reloadLock.lock();
+        try {
+            MovieCatalogSnapshot current = snapshot.get();
+            if (current != null && lastReloadStartedNanos - requested >= 0) {
+                return current;
+            }
+            return load();
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Returns a snapshot for pricing a rental of a movie missing from the given one.
+     * The catalog is reloaded only if the movie is not known to be missing from the current snapshot and the last
+     * reload is at least the minimum reload interval ago; otherwise the current snapshot is returned.
+     *
+     * @param movieId the ID of the movie missing from the caller's snapshot
+     * @return the current or reloaded snapshot, which may still lack the movie
+     */
+    public MovieCatalogSnapshot reloadForMissingMovie(String movieId) {
+        MovieCatalogSnapshot current = snapshot.get();
+        if (current != null && (current.movieIndex(movieId) != MovieCatalogSnapshot.NOT_FOUND || isKnownUnknown(movieId))) {
+            return current;
+        }
+        reloadLock.lock();
+        try {
+            current = snapshot.get();
+            if (current != null && (current.movieIndex(movieId) != MovieCatalogSnapshot.NOT_FOUND || isKnownUnknown(movieId))) {
+                return current;
+            }
+            if (current == null || System.nanoTime() - lastReloadStartedNanos >= minReloadIntervalNanos) {
+                log.info("Reloading the movie catalog for missing movie {}", movieId);
+                current = load();
+            }
+            if (current.movieIndex(movieId) == MovieCatalogSnapshot.NOT_FOUND) {
+                rememberUnknown(movieId);
+            }
+            return current;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Returns the status of the current catalog snapshot.
+     *
+     * @return the catalog status
+     */
+    public CatalogStatusDTO status() {
+        MovieCatalogSnapshot current = current();
+        return new CatalogStatusDTO(current.version(), current.movieCount(), current.pricingCount(), current.loadedAt());
+    }
+
+    // Called with the reload lock held
+    private MovieCatalogSnapshot load() {
+        lastReloadStartedNanos = System.nanoTime();
+        long version = versionSequence.incrementAndGet();
+        MovieCatalogSnapshot loaded = MovieCatalogSnapshot.of(version, moviePricingRepository.findAll(), movieRepository.findAll());
+        MovieCatalogSnapshot previous = snapshot.get();
+        MovieCatalogSnapshot published = snapshot.accumulateAndGet(loaded,
+                (current, candidate) -> current == null || candidate.version() > current.version() ? candidate : current);
+        unknownMovieIds = ConcurrentHashMap.newKeySet();
+        if (published.skippedMovieCount() > 0) {
+            log.warn("Movie catalog version {} left out {} movies without valid pricing", published.version(), published.skippedMovieCount());
+        }
+        log.info("Movie catalog version {} loaded: {} movies, {} pricing codes",
+                published.version(), published.movieCount(), published.pricingCount());
+        if (previous != null && published == loaded) {
+            Set<String> repriced = loaded.repricedMovieIds(previous);
+            if (!repriced.isEmpty()) {
+                log.info("Movie catalog version {} reprices {} movies", version, repriced.size());
+                eventPublisher.publishEvent(new MovieCatalogReloadedEvent(previous.version(), version, Set.copyOf(repriced)));
+            }
+        }
+        return published;
+    }
+
+    private boolean isKnownUnknown(String movieId) {
+        return movieId == null || unknownMovieIds.contains(movieId);
+    }
+
+    private void rememberUnknown(String movieId) {
+        Set<String> unknown = unknownMovieIds;
+        if (unknown.size() < MAX_UNKNOWN_MOVIE_IDS) {
+            unknown.add(movieId);
+        }
+    }
+}
@@ -2,9 +2,12 @@ package com.etraveligroup.movie.rental.service.impl;
 
 import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
 import com.etraveligroup.movie.rental.exceptions.PdfGenerationException;
+import com.etraveligroup.movie.rental.util.InvoiceHtmlWriter;
 import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
@@ -12,16 +15,23 @@ import java.io.ByteArrayOutputStream;
 
 /**
  * Service for generating PDF documents.
- * This service uses iText library to create PDF files from text input.
+ * This service renders the HTML of an invoice and converts it to a PDF with openhtmltopdf. The HTML of the
+ * bundled invoice template is written by {@link InvoiceHtmlWriter}; a custom Thymeleaf template, configured with
+ * movie-rental.pdf.template, is processed by the template engine instead.
  */
 @Slf4j
 @Service
 public class PdfGenerateService {
 
     private final TemplateEngine templateEngine;
+    private final String template;
 
-    public PdfGenerateService(TemplateEngine templateEngine) {
+    public PdfGenerateService(TemplateEngine templateEngine,
+                              @Value("${movie-rental.pdf.template:}") String template) {
         this.templateEngine = templateEngine;
+        this.template = StringUtils.hasText(template) ? template : null;
+        log.info("Invoice PDFs rendered from {}", this.template != null ? "Thymeleaf template " + this.template
+                : "the built-in invoice HTML");
     }
 
     /**
@@ -32,10 +42,8 @@ public class PdfGenerateService {
      */
     public byte[] generatePdfFromHtmlTemplate(InvoiceResponseDTO invoice) {
         log.info("Starting PDF generation for invoice: {}", invoice != null ? invoice.customer() : "null");
-        Context context = new Context();
-        context.setVariable("invoice", invoice);
-        String html = templateEngine.process("invoice-template", context);
-        log.debug("Generated HTML for invoice: {}", html);
+        String html = renderHtml(invoice);
+        log.debug("Generated {} characters of HTML for invoice", html.length());
 
         try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
             PdfRendererBuilder builder = new PdfRendererBuilder();
@@ -49,4 +57,13 @@ public class PdfGenerateService {
             throw new PdfGenerationException("Failed to generate PDF from HTML", e);
         }
     }
-}
\ No newline at end of file
+
+    private String renderHtml(InvoiceResponseDTO invoice) {
+        if (template == null) {
+            return InvoiceHtmlWriter.toHtml(invoice);
+        }
+        Context context = new Context();
+        context.setVariable("invoice", invoice);
+        return templateEngine.process(template, context);
+    }
+}
@@ -0,0 +1,316 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.dto.BatchInvoiceResultDTO;
+import com.etraveligroup.movie.rental.dto.GenerateInvoiceByNameRequestDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceItemDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import com.etraveligroup.movie.rental.dto.RentalPeriodDTO;
+import com.etraveligroup.movie.rental.entity.reactive.CustomerRow;
+import com.etraveligroup.movie.rental.entity.reactive.MoviePricingRow;
+import com.etraveligroup.movie.rental.entity.reactive.MovieRentalRow;
+import com.etraveligroup.movie.rental.entity.reactive.MovieRow;
+import com.etraveligroup.movie.rental.exceptions.CustomerNotFoundException;
+import com.etraveligroup.movie.rental.exceptions.RentalProcessingException;
+import com.etraveligroup.movie.rental.exceptions.RentalsNotFoundException;
+import com.etraveligroup.movie.rental.repository.reactive.ReactiveCustomerRepository;
+import com.etraveligroup.movie.rental.repository.reactive.ReactiveMoviePricingRepository;
+import com.etraveligroup.movie.rental.repository.reactive.ReactiveMovieRentalRepository;
+import com.etraveligroup.movie.rental.repository.reactive.ReactiveMovieRepository;
+import com.etraveligroup.movie.rental.service.RentalInfoService;
+import com.etraveligroup.movie.rental.util.CustomerNameNormalizer;
+import com.etraveligroup.movie.rental.util.PointsCalculator;
+import com.etraveligroup.movie.rental.util.MoneyUtil;
+import com.etraveligroup.movie.rental.util.PriceCalculator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * R2dbcRentalServiceImpl generates invoices on a fully non-blocking data path.
+ * All reads go through reactive R2DBC repositories, so no request thread is parked while the database works.
+ * It is enabled by the "r2dbc" profile and replaces the JPA based {@link RentalServiceImpl}; the produced
+ * invoices are identical, and invoices of the current rentals are served from the same {@link InvoiceCache}.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Service
+@Profile("r2dbc")
+@RequiredArgsConstructor
+public class R2dbcRentalServiceImpl implements RentalInfoService {
+
+    private final ReactiveCustomerRepository customerRepository;
+    private final ReactiveMovieRentalRepository movieRentalRepository;
+    private final ReactiveMovieRepository movieRepository;
+    private final ReactiveMoviePricingRepository moviePricingRepository;
+    private final InvoiceCache invoiceCache;
+
+    @Value("${movie-rental.invoice.batch-chunk-size:500}")
+    private int batchChunkSize = 500;
+
+    /**
+     * Generates an invoice for a customer based on their name.
+     * If several customers share the name, the one with the lowest ID is used.
+     *
+     * @param generateInvoiceRequestDTO DTO containing the customer name for invoice generation
+     * @return Mono<InvoiceResponseDTO> containing the generated invoice
+     * @throws CustomerNotFoundException if the customer with the given name does not exist
+     * @throws RentalsNotFoundException  if the customer has no rentals
+     */
+    @Override
+    public Mono<InvoiceResponseDTO> generateInvoiceByName(final GenerateInvoiceByNameRequestDTO generateInvoiceRequestDTO) {
+        final String customerName = generateInvoiceRequestDTO.customerName();
+        final String nameKey = CustomerNameNormalizer.normalize(customerName);
+        log.info("Starting reactive invoice generation for customer: {}", customerName);
+        if (nameKey == null || nameKey.isEmpty()) {
+            return Mono.error(new CustomerNotFoundException("Customer not found"));
+        }
+        return customerRepository.findByNameKeyOrderById(nameKey)
+                .collectList()
+                .flatMap(customers -> {
+                    if (customers.isEmpty()) {
+                        log.error("Customer not found: {}", customerName);
+                        return Mono.error(new CustomerNotFoundException("Customer not found"));
+                    }
+                    if (customers.size() > 1) {
+                        log.warn("Multiple customers share name key '{}', using lowest ID {}", nameKey, customers.get(0).id());
+                    }
+                    final CustomerRow customer = customers.get(0);
+                    return invoiceCache.get(customer.id(), generateInvoice(customer));
+                });
+    }
+
+    /**
+     * Generates an invoice for a customer based on their ID.
+     *
+     * @param customerId the ID of the customer for whom the invoice is to be generated
+     * @return Mono<InvoiceResponseDTO> containing the generated invoice
+     * @throws CustomerNotFoundException if the customer with the given ID does not exist
+     * @throws RentalsNotFoundException  if the customer has no rentals
+     */
+    @Override
+    public Mono<InvoiceResponseDTO> generateInvoiceById(final Long customerId) {
+        log.info("Starting reactive invoice generation for customer ID: {}", customerId);
+        final Mono<InvoiceResponseDTO> invoice = customerRepository.findById(customerId)
+                .switchIfEmpty(Mono.error(() -> {
+                    log.error("Customer not found with ID: {}", customerId);
+                    return new CustomerNotFoundException("Customer not found");
+                }))
+                .flatMap(this::generateInvoice);
+        return invoiceCache.get(customerId, invoice);
+    }
+
+    /**
+     * Generates an invoice for a customer from the rentals rented within a period, including archived rentals.
+     *
+     * @param customerId the ID of the customer for whom the invoice is to be generated
+     * @param period     the rental times to include
+     * @return Mono<InvoiceResponseDTO> containing the generated invoice
+     * @throws CustomerNotFoundException if the customer with the given ID does not exist
+     * @throws RentalsNotFoundException  if the customer has no rentals in the period
+     */
+    @Override
+    public Mono<InvoiceResponseDTO> generateInvoiceById(final Long customerId, final RentalPeriodDTO period) {
+        log.info("Starting reactive historical invoice generation for customer ID: {} from {} to {}", customerId, period.from(), period.to());
+        final OffsetDateTime from = period.from().atOffset(ZoneOffset.UTC);
+        final OffsetDateTime to = period.to().atOffset(ZoneOffset.UTC);
+        return customerRepository.findById(customerId)
+                .switchIfEmpty(Mono.error(() -> {
+                    log.error("Customer not found with ID: {}", customerId);
+                    return new CustomerNotFoundException("Customer not found");
+                }))
+                .flatMap(customer -> generateInvoice(customer, Flux.concat(
+                                movieRentalRepository.findArchivedByCustomerIdRentedBetween(customerId, from, to),
+                                movieRentalRepository.findByCustomerIdRentedBetween(customerId, from, to))
+                        .collectSortedList(Comparator.comparing(MovieRentalRow::id))));
+    }
+
+    /**
+     * Generates invoices for many customers.
+     * The distinct customer IDs are processed in chunks; each chunk reads the customers, their rentals and the
+     * rented movies and pricing with one query each. The next chunk is only read once its results are requested.
+     *
+     * @param customerIds the IDs of the customers for whom to generate invoices
+     * @return Flux emitting the invoice or error of each distinct customer ID, in request order
+     */
+    @Override
+    public Flux<BatchInvoiceResultDTO> generateInvoicesByIds(final List<Long> customerIds) {
+        final List<Long> distinctCustomerIds = List.copyOf(new LinkedHashSet<>(customerIds));
+        log.info("Starting reactive batch invoice generation for {} customers", distinctCustomerIds.size());
+        return Flux.fromIterable(distinctCustomerIds)
+                .buffer(batchChunkSize)
+                .concatMap(this::generateInvoiceChunk, 1);
+    }
+
+    /**
+     * Generates the invoices of one chunk of customers.
+     * @param customerIds the IDs of the customers in the chunk
+     * @return Flux emitting the invoice or error of each customer, in the order of the given IDs
+     */
+    private Flux<BatchInvoiceResultDTO> generateInvoiceChunk(final List<Long> customerIds) {
+        log.debug("Generating invoices for chunk of {} customers", customerIds.size());
+        final Mono<Map<Long, String>> customerNames = customerRepository.findAllById(customerIds)
+                .collectMap(CustomerRow::id, CustomerRow::name);
+        final Mono<Map<Long, List<MovieRentalRow>>> rentalsByCustomer = movieRentalRepository
+                .findByCustomerIdInOrderByCustomerIdAscIdAsc(customerIds)
+                .collect(Collectors.groupingBy(MovieRentalRow::customerId));
+
+        return Mono.zip(customerNames, rentalsByCustomer)
+                .flatMap(loaded -> loadPricing(loaded.getT2().values().stream().flatMap(List::stream).toList())
+                        .map(pricing -> {
+                            final List<BatchInvoiceResultDTO> results = new ArrayList<>(customerIds.size());
+                            for (final Long customerId : customerIds) {
+                                results.add(toBatchResult(customerId, loaded.getT1().get(customerId),
+                                        loaded.getT2().get(customerId), pricing));
+                            }
+                            return results;
+                        }))
+                .flatMapIterable(results -> results);
+    }
+
+    private BatchInvoiceResultDTO toBatchResult(final Long customerId, final String customerName,
+                                                final List<MovieRentalRow> rentals, final RentalPricing pricing) {
+        if (customerName == null) {
+            log.warn("Customer not found with ID: {}", customerId);
+            return new BatchInvoiceResultDTO(customerId, null, "Customer not found");
+        }
+        try {
+            return new BatchInvoiceResultDTO(customerId, renderInvoice(customerName, rentals, pricing), null);
+        } catch (final RuntimeException e) {
+            log.warn("Invoice generation failed for customer ID {}: {}", customerId, e.getMessage());
+            return new BatchInvoiceResultDTO(customerId, null, e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the rentals of a customer from the hot rental table, then renders the invoice.
+     * @param customer the customer for whom the invoice is to be generated
+     * @return Mono<InvoiceResponseDTO> containing the generated invoice
+     */
+    private Mono<InvoiceResponseDTO> generateInvoice(final CustomerRow customer) {
+        return generateInvoice(customer, movieRentalRepository.findByCustomerIdOrderById(customer.id()).collectList());
+    }
+
+    /**
+     * Reads the given rentals of a customer and the rented movies and pricing, then renders the invoice.
+     * Rental processing errors are retried up to 2 times with a backoff, like on the JPA data path.
+     * @param customer        the customer for whom the invoice is to be generated
+     * @param customerRentals the rentals to invoice, in rental order
+     * @return Mono<InvoiceResponseDTO> containing the generated invoice
+     */
+    private Mono<InvoiceResponseDTO> generateInvoice(final CustomerRow customer, final Mono<List<MovieRentalRow>> customerRentals) {
+        return customerRentals
+                .flatMap(rentals -> {
+                    if (rentals.isEmpty()) {
+                        log.warn("No rentals found for customer: {}", customer.name());
+                        return Mono.error(new RentalsNotFoundException("No rentals found for customer"));
+                    }
+                    return loadPricing(rentals).map(pricing -> renderInvoice(customer.name(), rentals, pricing));
+                })
+                .retryWhen(
+                        Retry.backoff(2, Duration.ofSeconds(1))
+                                .filter(throwable -> throwable instanceof RentalProcessingException)
+                                .onRetryExhaustedThrow((spec, signal) -> signal.failure())
+                )
+                .doOnError(RentalProcessingException.class, ex -> log.error("All retry attempts failed for customer: {}", customer.name(), ex));
+    }
+
+    /**
+     * Reads the movies of the given rentals and the pricing of those movies.
+     * @param rentals the rentals to price
+     * @return Mono emitting the movies and pricing rows keyed by ID
+     */
+    private Mono<RentalPricing> loadPricing(final Collection<MovieRentalRow> rentals) {
+        final Set<String> movieIds = rentals.stream().map(MovieRentalRow::movieId).collect(Collectors.toSet());
+        if (movieIds.isEmpty()) {
+            return Mono.just(new RentalPricing(Map.of(), Map.of()));
+        }
+        return movieRepository.findAllById(movieIds)
+                .collectMap(MovieRow::id)
+                .flatMap(movies -> moviePricingRepository
+                        .findAllById(movies.values().stream().map(MovieRow::code).collect(Collectors.toSet()))
+                        .collectMap(MoviePricingRow::code, Function.identity(), HashMap::new)
+                        .map(pricings -> new RentalPricing(movies, pricings)));
+    }
+
+    /**
+     * Builds the invoice of a customer from their rentals.
+     * @param customerName the name of the customer
+     * @param rentals      the rentals of the customer, in rental order
+     * @param pricing      the rented movies and their pricing
+     * @return the structured invoice
+     * @throws RentalsNotFoundException if the customer has no rentals
+     * @throws IllegalArgumentException if a rented movie or its pricing is unknown
+     */
+    private InvoiceResponseDTO renderInvoice(final String customerName, final List<MovieRentalRow> rentals, final RentalPricing pricing) {
+        if (rentals == null || rentals.isEmpty()) {
+            log.warn("No rentals found for customer: {}", customerName);
+            throw new RentalsNotFoundException("No rentals found for customer");
+        }
+
+        long totalCents = 0;
+        int frequentRenterPoints = 0;
+        final List<InvoiceItemDTO> items = new ArrayList<>(rentals.size());
+
+        for (final MovieRentalRow rental : rentals) {
+            try {
+                final MovieRow movie = pricing.movies().get(rental.movieId());
+                if (movie == null) {
+                    throw new IllegalArgumentException("Unknown movie ID: " + rental.movieId());
+                }
+                final MoviePricingRow moviePricing = pricing.pricings().get(movie.code());
+                if (moviePricing == null) {
+                    throw new IllegalArgumentException("Unknown pricing code: " + movie.code());
+                }
+                final long rentalCents = PriceCalculator.calculateRentalAmountCents(moviePricing.baseDays(),
+                        MoneyUtil.toCents(moviePricing.basePrice()), MoneyUtil.toCents(moviePricing.extraPricePerDay()), rental.days());
+                frequentRenterPoints += PointsCalculator.calculateFrequentRenterPoints(moviePricing.code(), rental.days());
+
+                items.add(new InvoiceItemDTO(movie.title(), MoneyUtil.toAmount(rentalCents)));
+                totalCents = MoneyUtil.add(totalCents, rentalCents);
+
+                log.debug("Processed rental: {} | Amount: {} cents | Points: {}", movie.title(), rentalCents, frequentRenterPoints);
+
+            } catch (final IllegalArgumentException e) {
+                log.error("Validation failed for rental with movie ID {}: {}", rental.movieId(), e.getMessage());
+                throw new IllegalArgumentException("Invalid rental data: " + e.getMessage(), e);
+            } catch (final Exception e) {
+                log.error("Unexpected error during invoice generation for customer: {}", customerName, e);
+                throw new RentalProcessingException("Unexpected error during invoice generation: " + e.getMessage(), List.of(e.getMessage()));
+            }
+        }
+
+        final BigDecimal totalAmount = MoneyUtil.toAmount(totalCents);
+        log.info("Invoice generation completed for customer: {} | Total: {} | Points: {}", customerName, totalAmount, frequentRenterPoints);
+
+        return new InvoiceResponseDTO(customerName, items, totalAmount, frequentRenterPoints);
+    }
+
+    /**
+     * The movies and pricing rows needed to price a set of rentals.
+     */
+    private record RentalPricing(Map<String, MovieRow> movies, Map<String, MoviePricingRow> pricings) {
+    }
+}
@@ -0,0 +1,139 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.constants.RentalChangeType;
+import com.etraveligroup.movie.rental.dto.RentalArchiveResultDTO;
+import com.etraveligroup.movie.rental.dto.RentalRecordDTO;
+import com.etraveligroup.movie.rental.entity.MovieRental;
+import com.etraveligroup.movie.rental.event.RentalChangedEvent;
+import com.etraveligroup.movie.rental.repository.MovieRentalArchiveRepository;
+import com.etraveligroup.movie.rental.repository.MovieRentalRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Service keeping the hot "MovieRental" table small by moving closed rentals to "MovieRentalArchive".
+ * Rentals returned longer ago than the configured horizon are moved in batches, one transaction per batch.
+ * Every archived rental is published as an archived rental change, so read models built from the hot table, like the
+ * invoice summaries, follow the move in the same transaction, while the frequent renter points ledger keeps its points.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Service
+public class RentalArchiveService implements MeterBinder {
+
+    private final MovieRentalArchiveRepository archiveRepository;
+    private final MovieRentalRepository movieRentalRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration horizon;
+    private final int batchSize;
+    private final AtomicLong archivedRentals = new AtomicLong();
+
+    public RentalArchiveService(MovieRentalArchiveRepository archiveRepository,
+                                MovieRentalRepository movieRentalRepository,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${movie-rental.archive.horizon:365d}") Duration horizon,
+                                @Value("${movie-rental.archive.batch-size:1000}") int batchSize) {
+        this.archiveRepository = archiveRepository;
+        this.movieRentalRepository = movieRentalRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.horizon = horizon;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Records the return of a rental at the current time.
+     *
+     * @param rentalId the ID of the rental
+     * @throws IllegalArgumentException if the rental does not exist or has already been returned
+     */
+    public void markReturned(Long rentalId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            MovieRental rental = movieRentalRepository.findById(rentalId)
+                    .orElseThrow(() -> new IllegalArgumentException("Rental not found: " + rentalId));
+            if (rental.getReturnedAt() != null) {
+                throw new IllegalArgumentException("Rental " + rentalId + " was already returned at " + rental.getReturnedAt());
+            }
+            rental.setReturnedAt(Instant.now());
+        });
+        log.info("Rental {} returned", rentalId);
+    }
+
+    /**
+     * Archives closed rentals on the configured schedule.
+     * Disabled unless "movie-rental.archive.cron" is set.
+     */
+    @Scheduled(cron = "${movie-rental.archive.cron:-}", zone = "UTC")
+    public void scheduledArchive() {
+        archive();
+    }
+
+    /**
+     * Moves all rentals returned before now minus the horizon to the archive, in batches.
+     * Runs on one node do not overlap; concurrent nodes lock the rows of the batch they move.
+     *
+     * @return the archive run report
+     */
+    public synchronized RentalArchiveResultDTO archive() {
+        long start = System.nanoTime();
+        Instant cutoff = Instant.now().minus(horizon);
+        int archived = 0;
+        int batches = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status -> archiveBatch(cutoff));
+            if (moved > 0) {
+                archived += moved;
+                batches++;
+            }
+        } while (moved == batchSize);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Archived {} rentals returned before {} in {} batches ({} ms)", archived, cutoff, batches, elapsedMillis);
+        return new RentalArchiveResultDTO(archived, batches, cutoff, elapsedMillis);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("movie.rental.archive.rentals", archivedRentals, AtomicLong::doubleValue)
+                .description("Closed rentals moved from the hot rental table to the archive")
+                .register(registry);
+    }
+
+    /**
+     * Moves one batch of archivable rentals inside the current transaction.
+     *
+     * @return the number of rentals moved
+     */
+    private int archiveBatch(Instant cutoff) {
+        List<RentalRecordDTO> rentals = archiveRepository.findArchivable(cutoff, batchSize);
+        if (rentals.isEmpty()) {
+            return 0;
+        }
+        int moved = archiveRepository.moveToArchive(rentals.stream().map(RentalRecordDTO::rentalId).toList(), Instant.now());
+        for (RentalRecordDTO rental : rentals) {
+            eventPublisher.publishEvent(new RentalChangedEvent(RentalChangeType.ARCHIVED, rental.rentalId(),
+                    rental.customerId(), rental.movieId(), rental.days()));
+        }
+        archivedRentals.addAndGet(moved);
+        log.debug("Archived batch of {} rentals", moved);
+        return moved;
+    }
+}
@@ -0,0 +1,169 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.catalog.MovieCatalogSnapshot;
+import com.etraveligroup.movie.rental.dto.CustomerRentalLineDTO;
+import com.etraveligroup.movie.rental.dto.CustomerRentalsDTO;
+import com.etraveligroup.movie.rental.dto.MovieRentalDTO;
+import com.etraveligroup.movie.rental.dto.RentalIngestionResultDTO;
+import com.etraveligroup.movie.rental.entity.Customer;
+import com.etraveligroup.movie.rental.entity.Movie;
+import com.etraveligroup.movie.rental.entity.MovieRental;
+import com.etraveligroup.movie.rental.exceptions.RentalIngestionFailedException;
+import com.etraveligroup.movie.rental.repository.CustomerRepository;
+import com.etraveligroup.movie.rental.util.RentalValidator;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Service inserting rentals in bulk.
+ * All rentals are validated before the first insert, so an invalid request inserts nothing.
+ * Valid rentals are then persisted in chunks of "movie-rental.ingestion.chunk-size", one transaction per chunk,
+ * so a failure while inserting rolls back only the current chunk and the chunks committed before it stay inserted;
+ * the failure reports how many rentals were committed.
+ * Rental IDs come from a pooled sequence and customers and movies are referenced without loading them, so
+ * Hibernate sends each chunk as JDBC batches of "hibernate.jdbc.batch_size" inserts.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Service
+public class RentalIngestionService {
+
+    private static final int CUSTOMER_LOOKUP_CHUNK_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    private final CustomerRepository customerRepository;
+    private final MovieCatalogService movieCatalogService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final int maxRows;
+
+    public RentalIngestionService(CustomerRepository customerRepository,
+                                  MovieCatalogService movieCatalogService,
+                                  EntityManager entityManager,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${movie-rental.ingestion.chunk-size:5000}") int chunkSize,
+                                  @Value("${movie-rental.ingestion.max-rows:100000}") int maxRows) {
+        this.customerRepository = customerRepository;
+        this.movieCatalogService = movieCatalogService;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.maxRows = maxRows;
+    }
+
+    /**
+     * Validates and inserts the given rentals.
+     *
+     * @param customers the new rentals grouped by customer
+     * @return the number of inserted rentals and the insert throughput
+     * @throws IllegalArgumentException       if a rental is invalid, a customer or movie does not exist,
+     *                                        or the request exceeds the maximum number of rentals
+     * @throws RentalIngestionFailedException if inserting a chunk fails, with the number of rentals committed before
+     */
+    public RentalIngestionResultDTO ingest(List<CustomerRentalsDTO> customers) {
+        List<CustomerRentalLineDTO> rows = validate(customers);
+
+        long started = System.nanoTime();
+        int chunks = 0;
+        for (int from = 0; from < rows.size(); from += chunkSize) {
+            List<CustomerRentalLineDTO> chunk = rows.subList(from, Math.min(rows.size(), from + chunkSize));
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertChunk(chunk));
+            } catch (RuntimeException e) {
+                log.error("Rental ingestion failed in chunk {} after committing {} of {} rentals", chunks + 1, from, rows.size(), e);
+                throw new RentalIngestionFailedException(from, rows.size(), e);
+            }
+            chunks++;
+        }
+        long elapsedNanos = System.nanoTime() - started;
+
+        double rowsPerSecond = elapsedNanos > 0 ? rows.size() * 1_000_000_000d / elapsedNanos : 0d;
+        log.info("Ingested {} rentals in {} chunks, {} rows/s", rows.size(), chunks, Math.round(rowsPerSecond));
+        return new RentalIngestionResultDTO(rows.size(), chunks, elapsedNanos / 1_000_000, rowsPerSecond);
+    }
+
+    private void insertChunk(List<CustomerRentalLineDTO> chunk) {
+        for (CustomerRentalLineDTO row : chunk) {
+            MovieRental rental = new MovieRental();
+            rental.setCustomer(entityManager.getReference(Customer.class, row.customerId()));
+            rental.setMovie(entityManager.getReference(Movie.class, row.movieId()));
+            rental.setDays(row.days());
+            entityManager.persist(rental);
+        }
+    }
+
+    /**
+     * Validates every rental and flattens them into insert rows.
+     *
+     * @throws IllegalArgumentException listing the first invalid rentals
+     */
+    private List<CustomerRentalLineDTO> validate(List<CustomerRentalsDTO> customers) {
+        if (customers == null || customers.isEmpty()) {
+            throw new IllegalArgumentException("Customers must not be empty");
+        }
+        int rowCount = customers.stream().mapToInt(customer -> customer.rentals() != null ? customer.rentals().size() : 0).sum();
+        if (rowCount > maxRows) {
+            throw new IllegalArgumentException("At most " + maxRows + " rentals are allowed per request, got " + rowCount);
+        }
+
+        List<String> errors = new ArrayList<>();
+        List<CustomerRentalLineDTO> rows = new ArrayList<>(rowCount);
+        Set<Long> customerIds = new LinkedHashSet<>();
+        MovieCatalogSnapshot catalog = movieCatalogService.current();
+        boolean catalogReloaded = false;
+        for (CustomerRentalsDTO customer : customers) {
+            customerIds.add(customer.customerId());
+            for (MovieRentalDTO rental : customer.rentals()) {
+                try {
+                    RentalValidator.validateRental(rental);
+                    if (catalog.movieIndex(rental.movieId()) == MovieCatalogSnapshot.NOT_FOUND && !catalogReloaded) {
+                        log.warn("Movie {} not found in catalog version {}, reloading catalog", rental.movieId(), catalog.version());
+                        catalog = movieCatalogService.reloadForMissingMovie(rental.movieId());
+                        catalogReloaded = true;
+                    }
+                    if (catalog.movieIndex(rental.movieId()) == MovieCatalogSnapshot.NOT_FOUND) {
+                        throw new IllegalArgumentException("Unknown movie ID: " + rental.movieId());
+                    }
+                    rows.add(new CustomerRentalLineDTO(customer.customerId(), rental.movieId(), rental.days()));
+                } catch (IllegalArgumentException e) {
+                    errors.add("customer " + customer.customerId() + ": " + e.getMessage());
+                }
+            }
+        }
+        for (Long missing : missingCustomerIds(customerIds)) {
+            errors.add("customer " + missing + ": Customer not found");
+        }
+
+        if (!errors.isEmpty()) {
+            log.warn("Rejected rental ingestion with {} invalid rentals", errors.size());
+            String reported = String.join("; ", errors.subList(0, Math.min(errors.size(), MAX_REPORTED_ERRORS)));
+            String more = errors.size() > MAX_REPORTED_ERRORS ? " and " + (errors.size() - MAX_REPORTED_ERRORS) + " more" : "";
+            throw new IllegalArgumentException("Invalid rentals: " + reported + more);
+        }
+        return rows;
+    }
+
+    private Set<Long> missingCustomerIds(Set<Long> customerIds) {
+        Set<Long> missing = new LinkedHashSet<>(customerIds);
+        List<Long> ids = new ArrayList<>(customerIds);
+        for (int from = 0; from < ids.size(); from += CUSTOMER_LOOKUP_CHUNK_SIZE) {
+            new HashSet<>(customerRepository.findIdsByIdIn(ids.subList(from, Math.min(ids.size(), from + CUSTOMER_LOOKUP_CHUNK_SIZE))))
+                    .forEach(missing::remove);
+        }
+        return missing;
+    }
+}
@@ -1,6 +1,19 @@
 package com.etraveligroup.movie.rental.service.impl;
 
+import com.etraveligroup.movie.rental.catalog.MovieCatalogSnapshot;
+import com.etraveligroup.movie.rental.constants.InvoiceReadPath;
+import com.etraveligroup.movie.rental.datasource.ReadOnlyTransactionExecutor;
+import com.etraveligroup.movie.rental.datasource.ReadYourWrites;
+import com.etraveligroup.movie.rental.dto.BatchInvoiceResultDTO;
+import com.etraveligroup.movie.rental.dto.CustomerNameDTO;
+import com.etraveligroup.movie.rental.dto.CustomerRentalLineDTO;
 import com.etraveligroup.movie.rental.dto.GenerateInvoiceByNameRequestDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceItemDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import com.etraveligroup.movie.rental.dto.RentalInvoiceLineDTO;
+import com.etraveligroup.movie.rental.dto.RentalLineDTO;
+import com.etraveligroup.movie.rental.dto.RentalPeriodDTO;
+import com.etraveligroup.movie.rental.dto.RentalRecordDTO;
 import com.etraveligroup.movie.rental.entity.Customer;
 import com.etraveligroup.movie.rental.entity.Movie;
 import com.etraveligroup.movie.rental.entity.MovieRental;
@@ -8,27 +21,42 @@ import com.etraveligroup.movie.rental.exceptions.CustomerNotFoundException;
 import com.etraveligroup.movie.rental.exceptions.RentalProcessingException;
 import com.etraveligroup.movie.rental.exceptions.RentalsNotFoundException;
 import com.etraveligroup.movie.rental.repository.CustomerRepository;
+import com.etraveligroup.movie.rental.repository.MovieRentalArchiveRepository;
+import com.etraveligroup.movie.rental.repository.MovieRentalRepository;
 import com.etraveligroup.movie.rental.service.RentalInfoService;
-import com.etraveligroup.movie.rental.util.InvoiceFormatter;
+import com.etraveligroup.movie.rental.util.MoneyUtil;
 import com.etraveligroup.movie.rental.util.PointsCalculator;
 import com.etraveligroup.movie.rental.util.PriceCalculator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
-import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.context.Context;
 import reactor.util.retry.Retry;
 
 import java.math.BigDecimal;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * RentalServiceImpl provides the implementation for generating invoices based on customer rentals.
  * It retrieves customer data from the repository and processes their rentals to generate an invoice.
+ * It is the default implementation; the "r2dbc" profile replaces it with {@link R2dbcRentalServiceImpl}.
+ * All blocking repository calls and invoice computations run on the blocking scheduler, never on the subscribing thread,
+ * inside a read-only transaction so they can be served by a read replica.
+ * Invoices of the current rentals are served from the {@link InvoiceCache}; historical and batch invoices are always computed.
+ * Invoices are produced as structured InvoiceResponseDTO, which the caller renders as text, JSON or PDF.
  *
  * @author Suresh
  * @version 1.0
@@ -36,35 +64,47 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 @Slf4j
 @Service
+@Profile("!r2dbc")
 @RequiredArgsConstructor
 public class RentalServiceImpl implements RentalInfoService {
 
     private final CustomerRepository customerRepository;
+    private final CustomerNameResolver customerNameResolver;
+    private final MovieRentalRepository movieRentalRepository;
+    private final MovieRentalArchiveRepository movieRentalArchiveRepository;
+    private final MovieCatalogService movieCatalogService;
+    private final Scheduler blockingScheduler;
+    private final ReadOnlyTransactionExecutor readOnlyTransactions;
+    private final InvoiceCache invoiceCache;
+
+    @Value("${movie-rental.invoice.read-path:ENTITY}")
+    private InvoiceReadPath readPath = InvoiceReadPath.ENTITY;
+
+    @Value("${movie-rental.invoice.batch-chunk-size:500}")
+    private int batchChunkSize = 500;
 
     /**
      * Generates an invoice for a customer based on their name.
-     * It retrieves the customer by name, processes their rentals, and generates an invoice.
+     * It resolves the customer name to a customer ID and then continues on the by-ID path.
      *
      * @param generateInvoiceRequestDTO DTO containing the customer name for invoice generation
-     * @return Mono<String> containing the generated invoice as a string
+     * @return Mono<InvoiceResponseDTO> containing the generated invoice
      * @throws CustomerNotFoundException if the customer with the given name does not exist
      * @throws RentalsNotFoundException  if the customer has no rentals
      * @throws RentalProcessingException if there is an error during the rental processing
      */
     @Override
-    @Transactional(readOnly = true, propagation = Propagation.REQUIRED)
-    @Cacheable(value = "invoices", key = "#generateInvoiceRequestDTO.customerName()")
-    public Mono<String> generateInvoiceByName(final GenerateInvoiceByNameRequestDTO generateInvoiceRequestDTO) {
-        return Mono.fromCallable(() -> {
+    public Mono<InvoiceResponseDTO> generateInvoiceByName(final GenerateInvoiceByNameRequestDTO generateInvoiceRequestDTO) {
+        return read(() -> {
                     log.info("Starting invoice generation for customer: {}", generateInvoiceRequestDTO.customerName());
-                    final Customer customer = customerRepository.findByName(generateInvoiceRequestDTO.customerName())
+                    return customerNameResolver.resolveCustomerId(generateInvoiceRequestDTO.customerName())
                             .orElseThrow(() -> {
                                 log.error("Customer not found: {}", generateInvoiceRequestDTO.customerName());
                                 return new CustomerNotFoundException("Customer not found");
                             });
-                    return customer;
                 })
-                .flatMap(customer -> generateInvoiceForCustomerWithRetry(customer, generateInvoiceRequestDTO.customerName()));
+                .flatMap(this::invoiceById)
+                .contextWrite(readYourWritesContext());
     }
 
 
@@ -73,51 +113,230 @@ public class RentalServiceImpl implements RentalInfoService {
      * It retrieves the customer by ID, processes their rentals, and generates an invoice.
      *
      * @param customerId the ID of the customer for whom the invoice is to be generated
-     * @return Mono<String> containing the generated invoice as a string
+     * @return Mono<InvoiceResponseDTO> containing the generated invoice
      * @throws CustomerNotFoundException if the customer with the given ID does not exist
      * @throws RentalsNotFoundException  if the customer has no rentals
      * @throws RentalProcessingException if there is an error during the rental processing
      */
     @Override
-    @Transactional(readOnly = true, propagation = Propagation.REQUIRED)
-    @Cacheable(value = "invoices", key = "#customerId")
-    public Mono<String> generateInvoiceById(final Long customerId) {
-        return Mono.fromCallable(() -> {
+    public Mono<InvoiceResponseDTO> generateInvoiceById(final Long customerId) {
+        return invoiceById(customerId).contextWrite(readYourWritesContext());
+    }
+
+    /**
+     * Returns the invoice of a customer from the invoice cache, computing it on a miss.
+     * @param customerId the ID of the customer for whom the invoice is to be generated
+     * @return Mono<InvoiceResponseDTO> containing the generated invoice
+     */
+    private Mono<InvoiceResponseDTO> invoiceById(final Long customerId) {
+        return invoiceCache.get(customerId, computeInvoiceById(customerId));
+    }
+
+    /**
+     * Generates an invoice for a customer based on their ID, on the configured read path.
+     * @param customerId the ID of the customer for whom the invoice is to be generated
+     * @return Mono<InvoiceResponseDTO> containing the generated invoice
+     */
+    private Mono<InvoiceResponseDTO> computeInvoiceById(final Long customerId) {
+        if (readPath == InvoiceReadPath.PROJECTION) {
+            return generateInvoiceFromProjection(customerId);
+        }
+        if (readPath == InvoiceReadPath.CATALOG) {
+            return generateInvoiceFromCatalog(customerId);
+        }
+        return read(() -> {
                     log.info("Starting invoice generation for customer ID: {}", customerId);
-                    final Customer customer = customerRepository.findById(customerId)
+                    return customerRepository.findWithRentalsById(customerId)
+                            .orElseThrow(() -> {
+                                log.error("Customer not found with ID: {}", customerId);
+                                return new CustomerNotFoundException("Customer not found");
+                            });
+                })
+                .flatMap(customer -> generateInvoiceWithRetry(() -> generateInvoiceForCustomer(customer, customer.getName()), customer.getName()));
+    }
+
+    /**
+     * Generates an invoice for a customer from the rentals rented within a period.
+     * Unlike the other invoices it also reads the archive table; hot and archived rentals are merged in rental order
+     * and priced from the in-memory movie catalog.
+     *
+     * @param customerId the ID of the customer for whom the invoice is to be generated
+     * @param period     the rental times to include
+     * @return Mono<InvoiceResponseDTO> containing the generated invoice
+     * @throws CustomerNotFoundException if the customer with the given ID does not exist
+     * @throws RentalsNotFoundException  if the customer has no rentals in the period
+     */
+    @Override
+    public Mono<InvoiceResponseDTO> generateInvoiceById(final Long customerId, final RentalPeriodDTO period) {
+        return read(() -> {
+                    log.info("Starting historical invoice generation for customer ID: {} from {} to {}", customerId, period.from(), period.to());
+                    return customerRepository.findNameById(customerId)
+                            .orElseThrow(() -> {
+                                log.error("Customer not found with ID: {}", customerId);
+                                return new CustomerNotFoundException("Customer not found");
+                            });
+                })
+                .flatMap(customerName -> generateInvoiceWithRetry(
+                        () -> generateInvoiceFromCatalogLines(rentalHistory(customerId, period), customerName),
+                        customerName))
+                .contextWrite(readYourWritesContext());
+    }
+
+    /**
+     * Reads the hot and archived rentals of a customer within a period, merged in rental order.
+     * @param customerId the ID of the customer
+     * @param period     the rental times to include
+     * @return the movie IDs and days of the rentals
+     */
+    private List<RentalLineDTO> rentalHistory(final Long customerId, final RentalPeriodDTO period) {
+        final List<RentalRecordDTO> rentals = new ArrayList<>(
+                movieRentalArchiveRepository.findByCustomerIdRentedBetween(customerId, period.from(), period.to()));
+        rentals.addAll(movieRentalRepository.findByCustomerIdRentedBetween(customerId, period.from(), period.to()));
+        rentals.sort(Comparator.comparing(RentalRecordDTO::rentalId));
+        return rentals.stream().map(rental -> new RentalLineDTO(rental.movieId(), rental.days())).toList();
+    }
+
+    /**
+     * Generates invoices for many customers.
+     * The distinct customer IDs are processed in chunks; each chunk loads the customer names and rentals
+     * with one IN query each and prices the rentals from the movie catalog. A chunk is only loaded once
+     * the subscriber has requested its results, so slow consumers apply backpressure to the database reads.
+     *
+     * @param customerIds the IDs of the customers for whom to generate invoices
+     * @return Flux emitting the invoice or error of each distinct customer ID, in request order
+     */
+    @Override
+    public Flux<BatchInvoiceResultDTO> generateInvoicesByIds(final List<Long> customerIds) {
+        final List<Long> distinctCustomerIds = List.copyOf(new LinkedHashSet<>(customerIds));
+        log.info("Starting batch invoice generation for {} customers", distinctCustomerIds.size());
+        return Flux.fromIterable(distinctCustomerIds)
+                .buffer(batchChunkSize)
+                .concatMap(chunk -> read(() -> generateInvoiceChunk(chunk)).flatMapIterable(results -> results), 1)
+                .contextWrite(readYourWritesContext());
+    }
+
+    /**
+     * Runs blocking reads in a read-only transaction on the blocking scheduler.
+     * The reads run on another thread than the request, so the read-your-writes override travels in the Reactor context.
+     * @param reads the blocking reads
+     * @return Mono emitting the result of the reads
+     */
+    private <T> Mono<T> read(final Callable<T> reads) {
+        return Mono.deferContextual(context -> Mono.fromCallable(() ->
+                        readOnlyTransactions.call(context.getOrDefault(ReadYourWrites.CONTEXT_KEY, false), reads)))
+                .subscribeOn(blockingScheduler);
+    }
+
+    /**
+     * Captures the read-your-writes override of the calling request thread.
+     * @return Reactor context holding the override
+     */
+    private static Context readYourWritesContext() {
+        return Context.of(ReadYourWrites.CONTEXT_KEY, ReadYourWrites.isActive());
+    }
+
+    /**
+     * Generates the invoices of one chunk of customers.
+     * @param customerIds the IDs of the customers in the chunk
+     * @return the invoice or error of each customer, in the order of the given IDs
+     */
+    private List<BatchInvoiceResultDTO> generateInvoiceChunk(final List<Long> customerIds) {
+        log.debug("Generating invoices for chunk of {} customers", customerIds.size());
+        final Map<Long, String> customerNames = new HashMap<>();
+        for (final CustomerNameDTO customer : customerRepository.findNamesByIdIn(customerIds)) {
+            customerNames.put(customer.id(), customer.name());
+        }
+        final Map<Long, List<RentalLineDTO>> rentalLinesByCustomer = new HashMap<>();
+        for (final CustomerRentalLineDTO line : movieRentalRepository.findRentalLinesByCustomerIdIn(customerIds)) {
+            rentalLinesByCustomer.computeIfAbsent(line.customerId(), id -> new ArrayList<>())
+                    .add(new RentalLineDTO(line.movieId(), line.days()));
+        }
+
+        final List<BatchInvoiceResultDTO> results = new ArrayList<>(customerIds.size());
+        for (final Long customerId : customerIds) {
+            final String customerName = customerNames.get(customerId);
+            if (customerName == null) {
+                log.warn("Customer not found with ID: {}", customerId);
+                results.add(new BatchInvoiceResultDTO(customerId, null, "Customer not found"));
+                continue;
+            }
+            try {
+                results.add(new BatchInvoiceResultDTO(customerId,
+                        generateInvoiceFromCatalogLines(rentalLinesByCustomer.get(customerId), customerName), null));
+            } catch (final RuntimeException e) {
+                log.warn("Invoice generation failed for customer ID {}: {}", customerId, e.getMessage());
+                results.add(new BatchInvoiceResultDTO(customerId, null, e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Generates an invoice for a customer from flat invoice rows instead of managed entities.
+     * Only the customer name and the projected rental rows are read from the database.
+     *
+     * @param customerId the ID of the customer for whom the invoice is to be generated
+     * @return Mono<InvoiceResponseDTO> containing the generated invoice
+     * @throws CustomerNotFoundException if the customer with the given ID does not exist
+     */
+    private Mono<InvoiceResponseDTO> generateInvoiceFromProjection(final Long customerId) {
+        return read(() -> {
+                    log.info("Starting projected invoice generation for customer ID: {}", customerId);
+                    return customerRepository.findNameById(customerId)
                             .orElseThrow(() -> {
                                 log.error("Customer not found with ID: {}", customerId);
                                 return new CustomerNotFoundException("Customer not found");
                             });
-                    return customer;
                 })
-                .flatMap(customer -> generateInvoiceForCustomerWithRetry(customer, customer.getName()));
+                .flatMap(customerName -> generateInvoiceWithRetry(
+                        () -> generateInvoiceFromLines(movieRentalRepository.findInvoiceLinesByCustomerId(customerId), customerName),
+                        customerName));
+    }
+
+    /**
+     * Generates an invoice for a customer from their rented movie IDs and days.
+     * Titles and pricing are resolved from the in-memory movie catalog instead of the database.
+     *
+     * @param customerId the ID of the customer for whom the invoice is to be generated
+     * @return Mono<InvoiceResponseDTO> containing the generated invoice
+     * @throws CustomerNotFoundException if the customer with the given ID does not exist
+     */
+    private Mono<InvoiceResponseDTO> generateInvoiceFromCatalog(final Long customerId) {
+        return read(() -> {
+                    log.info("Starting catalog invoice generation for customer ID: {}", customerId);
+                    return customerRepository.findNameById(customerId)
+                            .orElseThrow(() -> {
+                                log.error("Customer not found with ID: {}", customerId);
+                                return new CustomerNotFoundException("Customer not found");
+                            });
+                })
+                .flatMap(customerName -> generateInvoiceWithRetry(
+                        () -> generateInvoiceFromCatalogLines(movieRentalRepository.findRentalLinesByCustomerId(customerId), customerName),
+                        customerName));
     }
 
 
     /**
      * Generates an invoice for a customer with retry logic in case of rental processing errors.
      * It attempts to generate the invoice up to 2 times with a backoff strategy.
-     * @param customer     the customer for whom the invoice is to be generated
-     * @param customerName the name of the customer for logging purposes
-     * @return Mono<String> containing the generated invoice as a string
+     * The backoff only waits on Reactor's timer; every attempt is resubscribed on the blocking scheduler.
+     * @param invoiceGenerator the computation producing the invoice
+     * @param customerName     the name of the customer for logging purposes
+     * @return Mono<InvoiceResponseDTO> containing the generated invoice
      * @throws RentalProcessingException if all retry attempts fail
      */
-    private Mono<String> generateInvoiceForCustomerWithRetry(final Customer customer, final String customerName) {
+    private Mono<InvoiceResponseDTO> generateInvoiceWithRetry(final Callable<InvoiceResponseDTO> invoiceGenerator, final String customerName) {
         final AtomicInteger attempt = new AtomicInteger(1);
-        return Mono.fromCallable(() -> {
+        return read(() -> {
                     log.info("Trying to generate invoice for customer: {} (attempt #{})", customerName, attempt.getAndIncrement());
-                    return generateInvoiceForCustomer(customer, customerName);
+                    return invoiceGenerator.call();
                 })
                 .retryWhen(
                         Retry.backoff(2, Duration.ofSeconds(1))
                                 .filter(throwable -> throwable instanceof RentalProcessingException)
                                 .onRetryExhaustedThrow((spec, signal) -> signal.failure())
                 )
-                .onErrorResume(RentalProcessingException.class, ex -> {
-                    log.error("All retry attempts failed for customer: {}. Returning error message.", customerName, ex);
-                    return Mono.just("Invoice generation failed after retries: " + ex.getMessage());
-                });
+                .doOnError(RentalProcessingException.class, ex -> log.error("All retry attempts failed for customer: {}", customerName, ex));
     }
 
     /**
@@ -125,32 +344,32 @@ public class RentalServiceImpl implements RentalInfoService {
      * It calculates the total amount and frequent renter points based on the rentals.
      * @param customer the customer for whom the invoice is to be generated
      * @param customerName the name of the customer for logging purposes
-     * @return String containing the formatted invoice
+     * @return the structured invoice
      * @throws RentalsNotFoundException if the customer has no rentals
      * @throws IllegalArgumentException if there is an error in rental data validation
      */
-    private String generateInvoiceForCustomer(final Customer customer, final String customerName) {
+    private InvoiceResponseDTO generateInvoiceForCustomer(final Customer customer, final String customerName) {
         final List<MovieRental> customerRentals = customer.getRentals();
         if (customerRentals == null || customerRentals.isEmpty()) {
             log.warn("No rentals found for customer: {}", customerName);
             throw new RentalsNotFoundException("No rentals found for customer");
         }
 
-        BigDecimal totalAmount = BigDecimal.ZERO;
+        long totalCents = 0;
         int frequentRenterPoints = 0;
-        final StringBuilder invoice = new StringBuilder(InvoiceFormatter.formatHeader(customerName));
+        final List<InvoiceItemDTO> items = new ArrayList<>();
 
         for (final MovieRental rental : customerRentals) {
             try {
                 final Movie movie = rental.getMovie();
                 final var pricing = movie.getPricing();
-                final BigDecimal rentalAmount = PriceCalculator.calculateRentalAmount(pricing, rental.getDays());
+                final long rentalCents = PriceCalculator.calculateRentalAmountCents(pricing, rental.getDays());
                 frequentRenterPoints += PointsCalculator.calculateFrequentRenterPoints(pricing.getCode(), rental.getDays());
 
-                invoice.append(InvoiceFormatter.formatLine(movie.getTitle(), rentalAmount));
-                totalAmount = totalAmount.add(rentalAmount);
+                items.add(new InvoiceItemDTO(movie.getTitle(), MoneyUtil.toAmount(rentalCents)));
+                totalCents = MoneyUtil.add(totalCents, rentalCents);
 
-                log.info("Processed rental: {} | Amount: {} | Points: {}", movie.getTitle(), rentalAmount, frequentRenterPoints);
+                log.debug("Processed rental: {} | Amount: {} cents | Points: {}", movie.getTitle(), rentalCents, frequentRenterPoints);
 
             } catch (final IllegalArgumentException e) {
                 log.error("Validation failed for rental with movie ID {}: {}", rental.getMovie().getId(), e.getMessage());
@@ -161,9 +380,109 @@ public class RentalServiceImpl implements RentalInfoService {
             }
         }
 
-        invoice.append(InvoiceFormatter.formatFooter(totalAmount, frequentRenterPoints));
+        final BigDecimal totalAmount = MoneyUtil.toAmount(totalCents);
+        log.info("Invoice generation completed for customer: {} | Total: {} | Points: {}", customerName, totalAmount, frequentRenterPoints);
+
+        return new InvoiceResponseDTO(customerName, items, totalAmount, frequentRenterPoints);
+    }
+
+    /**
+     * Generates an invoice from flat invoice rows.
+     * It calculates the total amount and frequent renter points directly from the projected pricing values.
+     * @param invoiceLines the projected rental rows of the customer
+     * @param customerName the name of the customer
+     * @return the structured invoice
+     * @throws RentalsNotFoundException if the customer has no rentals
+     * @throws IllegalArgumentException if there is an error in rental data validation
+     */
+    private InvoiceResponseDTO generateInvoiceFromLines(final List<RentalInvoiceLineDTO> invoiceLines, final String customerName) {
+        if (invoiceLines == null || invoiceLines.isEmpty()) {
+            log.warn("No rentals found for customer: {}", customerName);
+            throw new RentalsNotFoundException("No rentals found for customer");
+        }
+
+        long totalCents = 0;
+        int frequentRenterPoints = 0;
+        final List<InvoiceItemDTO> items = new ArrayList<>();
+
+        for (final RentalInvoiceLineDTO line : invoiceLines) {
+            try {
+                final long rentalCents = PriceCalculator.calculateRentalAmountCents(
+                        line.baseDays(), MoneyUtil.toCents(line.basePrice()), MoneyUtil.toCents(line.extraPricePerDay()), line.days());
+                frequentRenterPoints += PointsCalculator.calculateFrequentRenterPoints(line.pricingCode(), line.days());
+
+                items.add(new InvoiceItemDTO(line.title(), MoneyUtil.toAmount(rentalCents)));
+                totalCents = MoneyUtil.add(totalCents, rentalCents);
+
+                log.debug("Processed rental: {} | Amount: {} cents | Points: {}", line.title(), rentalCents, frequentRenterPoints);
+
+            } catch (final IllegalArgumentException e) {
+                log.error("Validation failed for rental of movie {}: {}", line.title(), e.getMessage());
+                throw new IllegalArgumentException("Invalid rental data: " + e.getMessage(), e);
+            } catch (final Exception e) {
+                log.error("Unexpected error during invoice generation for customer: {}", customerName, e);
+                throw new RentalProcessingException("Unexpected error during invoice generation: " + e.getMessage(), List.of(e.getMessage()));
+            }
+        }
+
+        final BigDecimal totalAmount = MoneyUtil.toAmount(totalCents);
+        log.info("Invoice generation completed for customer: {} | Total: {} | Points: {}", customerName, totalAmount, frequentRenterPoints);
+
+        return new InvoiceResponseDTO(customerName, items, totalAmount, frequentRenterPoints);
+    }
+
+    /**
+     * Generates an invoice from rented movie IDs and days, pricing them with the movie catalog.
+     * If a movie is missing from the catalog, the catalog is asked to reload before failing.
+     * @param rentalLines  the rented movie IDs and days of the customer
+     * @param customerName the name of the customer
+     * @return the structured invoice
+     * @throws RentalsNotFoundException if the customer has no rentals
+     * @throws IllegalArgumentException if a rented movie is not part of the catalog
+     */
+    private InvoiceResponseDTO generateInvoiceFromCatalogLines(final List<RentalLineDTO> rentalLines, final String customerName) {
+        if (rentalLines == null || rentalLines.isEmpty()) {
+            log.warn("No rentals found for customer: {}", customerName);
+            throw new RentalsNotFoundException("No rentals found for customer");
+        }
+
+        MovieCatalogSnapshot catalog = movieCatalogService.current();
+        long totalCents = 0;
+        int frequentRenterPoints = 0;
+        final List<InvoiceItemDTO> items = new ArrayList<>();
+
+        for (final RentalLineDTO line : rentalLines) {
+            try {
+                int movieIdx = catalog.movieIndex(line.movieId());
+                if (movieIdx == MovieCatalogSnapshot.NOT_FOUND) {
+                    log.warn("Movie {} not found in catalog version {}, reloading catalog", line.movieId(), catalog.version());
+                    catalog = movieCatalogService.reloadForMissingMovie(line.movieId());
+                    movieIdx = catalog.movieIndex(line.movieId());
+                    if (movieIdx == MovieCatalogSnapshot.NOT_FOUND) {
+                        throw new IllegalArgumentException(catalog.isSkipped(line.movieId())
+                                ? "Movie " + line.movieId() + " has no valid pricing" : "Unknown movie ID: " + line.movieId());
+                    }
+                }
+                final long rentalCents = catalog.rentalAmountCents(movieIdx, line.days());
+                frequentRenterPoints += catalog.frequentRenterPoints(movieIdx, line.days());
+
+                items.add(new InvoiceItemDTO(catalog.title(movieIdx), MoneyUtil.toAmount(rentalCents)));
+                totalCents = MoneyUtil.add(totalCents, rentalCents);
+
+                log.debug("Processed rental: {} | Amount: {} cents | Points: {}", catalog.title(movieIdx), rentalCents, frequentRenterPoints);
+
+            } catch (final IllegalArgumentException e) {
+                log.error("Validation failed for rental with movie ID {}: {}", line.movieId(), e.getMessage());
+                throw new IllegalArgumentException("Invalid rental data: " + e.getMessage(), e);
+            } catch (final Exception e) {
+                log.error("Unexpected error during invoice generation for customer: {}", customerName, e);
+                throw new RentalProcessingException("Unexpected error during invoice generation: " + e.getMessage(), List.of(e.getMessage()));
+            }
+        }
+
+        final BigDecimal totalAmount = MoneyUtil.toAmount(totalCents);
         log.info("Invoice generation completed for customer: {} | Total: {} | Points: {}", customerName, totalAmount, frequentRenterPoints);
 
-        return invoice.toString();
+        return new InvoiceResponseDTO(customerName, items, totalAmount, frequentRenterPoints);
     }
-}
\ No newline at end of file
+}
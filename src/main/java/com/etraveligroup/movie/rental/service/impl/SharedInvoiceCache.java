@@ -0,0 +1,346 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.datasource.ReadOnlyTransactionExecutor;
+import com.etraveligroup.movie.rental.datasource.TransactionCompletionBuffer;
+import com.etraveligroup.movie.rental.dto.InvoiceChangeDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import com.etraveligroup.movie.rental.event.RentalChangedEvent;
+import com.etraveligroup.movie.rental.repository.InvoiceChangeLogRepository;
+import com.etraveligroup.movie.rental.repository.SharedInvoiceCacheRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Invoice cache tier shared by all instances, and the change log that keeps the per-instance tiers coherent.
+ * Every transaction that changes rentals logs the affected customers in the InvoiceChangeLog table before it
+ * commits. Each instance tails that table and drops the invoices of the logged customers from its own
+ * {@link InvoiceCache}, so no message broker is needed. Shared entries remember the latest logged change of their
+ * customer and are ignored once a later change is logged, so they never need to be deleted by the writer.
+ * Shared entries and log entries older than their retention are purged periodically.
+ * Shared entries hold the invoice as JSON, so a hit is deserialized rather than parsed from the formatted text.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+@Service
+public class SharedInvoiceCache implements MeterBinder {
+
+    // Upper bound of skipped change IDs looked up again, which also bounds the IN list of that lookup
+    private static final int MAX_MISSING_CHANGES = 1000;
+
+    private final SharedInvoiceCacheRepository sharedInvoiceCacheRepository;
+    private final InvoiceChangeLogRepository invoiceChangeLogRepository;
+    private final ReadOnlyTransactionExecutor readOnlyTransactions;
+    private final ObjectMapper objectMapper;
+    private final Scheduler blockingScheduler;
+    private final boolean enabled;
+    private final Duration expireAfterWrite;
+    private final Duration gapTimeout;
+    private final Duration changeLogRetention;
+    private final int pollLimit;
+    private final TransactionCompletionBuffer<Long> pendingCustomerIds;
+
+    // Change IDs skipped by earlier polls, with the time they were first missed
+    private final Map<Long, Instant> missingChanges = new ConcurrentHashMap<>();
+    private final AtomicLong lastChangeId = new AtomicLong(-1);
+    private final AtomicLong lastLagMillis = new AtomicLong();
+    private final AtomicLong sharedHits = new AtomicLong();
+    private final AtomicLong sharedMisses = new AtomicLong();
+    private Timer invalidationLag;
+    private Counter invalidations;
+
+    public SharedInvoiceCache(SharedInvoiceCacheRepository sharedInvoiceCacheRepository,
+                              InvoiceChangeLogRepository invoiceChangeLogRepository,
+                              EntityManager entityManager,
+                              ReadOnlyTransactionExecutor readOnlyTransactions,
+                              ObjectMapper objectMapper,
+                              Scheduler blockingScheduler,
+                              @Value("${movie-rental.invoice-cache.shared.enabled:true}") boolean enabled,
+                              @Value("${movie-rental.invoice-cache.expire-after-write:PT10M}") Duration expireAfterWrite,
+                              @Value("${movie-rental.invoice-cache.shared.gap-timeout:PT30S}") Duration gapTimeout,
+                              @Value("${movie-rental.invoice-cache.shared.change-log-retention:PT1H}") Duration changeLogRetention,
+                              @Value("${movie-rental.invoice-cache.shared.poll-limit:10000}") int pollLimit) {
+        this.sharedInvoiceCacheRepository = sharedInvoiceCacheRepository;
+        this.invoiceChangeLogRepository = invoiceChangeLogRepository;
+        this.readOnlyTransactions = readOnlyTransactions;
+        this.objectMapper = objectMapper;
+        this.blockingScheduler = blockingScheduler;
+        this.enabled = enabled;
+        this.expireAfterWrite = expireAfterWrite;
+        this.gapTimeout = gapTimeout;
+        this.changeLogRetention = changeLogRetention.compareTo(expireAfterWrite.plus(gapTimeout)) > 0
+                ? changeLogRetention : expireAfterWrite.plus(gapTimeout);
+        this.pollLimit = pollLimit;
+        this.pendingCustomerIds = new TransactionCompletionBuffer<>(entityManager,
+                customerIds -> invoiceChangeLogRepository.append(List.copyOf(new LinkedHashSet<>(customerIds))));
+        log.info("Shared invoice cache {} (gap timeout {}, change log retention {})",
+                enabled ? "enabled" : "disabled", gapTimeout, this.changeLogRetention);
+    }
+
+    /**
+     * Returns whether the shared tier and the change log are used at all.
+     *
+     * @return true if the shared invoice cache is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the shared invoice of a customer, computing and sharing it with the given publisher on a miss.
+     * Failures of the shared tier fall back to computing the invoice, they never fail the request.
+     *
+     * @param customerId the ID of the customer
+     * @param loader     the publisher computing the invoice
+     * @return Mono emitting the invoice
+     */
+    public Mono<InvoiceResponseDTO> get(Long customerId, Mono<InvoiceResponseDTO> loader) {
+        if (!enabled) {
+            return loader;
+        }
+        return Mono.fromCallable(() -> sharedInvoiceCacheRepository.findValid(customerId, Instant.now().minus(expireAfterWrite))
+                        .map(this::readInvoice))
+                .subscribeOn(blockingScheduler)
+                .onErrorResume(e -> {
+                    log.warn("Shared invoice cache lookup failed for customer ID {}: {}", customerId, e.getMessage());
+                    return Mono.just(Optional.empty());
+                })
+                .flatMap(shared -> {
+                    if (shared.isPresent()) {
+                        sharedHits.incrementAndGet();
+                        return Mono.just(shared.get());
+                    }
+                    sharedMisses.incrementAndGet();
+                    return computeAndShare(customerId, loader);
+                });
+    }
+
+    /**
+     * Collects the customer of a rental change for the change log of the current transaction.
+     * Changes made outside a transaction are logged at once.
+     *
+     * @param event the rental change
+     */
+    @EventListener
+    public void onRentalChanged(RentalChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (!pendingCustomerIds.add(event.customerId())) {
+            invoiceChangeLogRepository.append(List.of(event.customerId()));
+        }
+    }
+
+    /**
+     * Reads the changes logged since the previous poll and returns the customers whose invoices are outdated.
+     * The first poll starts at the end of the log, since an instance that just started holds no invoices.
+     * Change IDs skipped by a poll belong to transactions that were still running or rolled back; they are looked
+     * up again on each poll until they appear or the gap timeout passes.
+     *
+     * @return the IDs of the customers whose rentals changed, without duplicates
+     */
+    public Set<Long> pollChanges() {
+        if (!enabled) {
+            return Set.of();
+        }
+        if (lastChangeId.get() < 0) {
+            lastChangeId.set(invoiceChangeLogRepository.findLatestChangeId());
+            log.info("Tailing the invoice change log from change {}", lastChangeId.get());
+            return Set.of();
+        }
+        Instant now = Instant.now();
+        missingChanges.values().removeIf(missingSince -> missingSince.isBefore(now.minus(gapTimeout)));
+
+        List<InvoiceChangeDTO> changes = new ArrayList<>(invoiceChangeLogRepository.findChanges(Set.copyOf(missingChanges.keySet())));
+        changes.addAll(invoiceChangeLogRepository.findChangesAfter(lastChangeId.get(), pollLimit));
+
+        Set<Long> customerIds = new LinkedHashSet<>();
+        for (InvoiceChangeDTO change : changes) {
+            missingChanges.remove(change.changeId());
+            for (long skipped = Math.max(lastChangeId.get() + 1, change.changeId() - MAX_MISSING_CHANGES);
+                 skipped < change.changeId(); skipped++) {
+                if (missingChanges.size() < MAX_MISSING_CHANGES) {
+                    missingChanges.put(skipped, now);
+                }
+            }
+            lastChangeId.accumulateAndGet(change.changeId(), Math::max);
+            customerIds.add(change.customerId());
+            recordLag(Duration.between(change.changedAt(), change.readAt()));
+        }
+        if (!customerIds.isEmpty()) {
+            log.debug("Invoice change log names {} changed customers, up to change {}", customerIds.size(), lastChangeId.get());
+        }
+        return customerIds;
+    }
+
+    /**
+     * Returns the ID of the last change applied to the invoices of this instance. Skipped change IDs still looked up
+     * again are not applied yet, so the result stays below them.
+     *
+     * @return the change ID, or -1 if this instance does not tail the change log yet
+     */
+    public long appliedChangeId() {
+        if (!enabled) {
+            return -1;
+        }
+        long changeId = lastChangeId.get();
+        for (Long missing : missingChanges.keySet()) {
+            changeId = Math.min(changeId, missing - 1);
+        }
+        return changeId;
+    }
+
+    /**
+     * Returns the customers whose rentals changed after a change ID, as far as the change log can tell.
+     * Used to check invoices cached before this instance started, e.g. restored from a snapshot.
+     *
+     * @param changeId  the last change applied to the invoices, see {@link #appliedChangeId()}
+     * @param appliedAt the time the change ID was read
+     * @return the IDs of the changed customers, or empty if the change log is disabled, the change ID is unknown or
+     * the log may have been purged past it
+     */
+    public Optional<Set<Long>> customersChangedAfter(long changeId, Instant appliedAt) {
+        // Changes committing after the change ID was read may have been logged up to the gap timeout before
+        if (!enabled || changeId < 0 || appliedAt.minus(gapTimeout).isBefore(Instant.now().minus(changeLogRetention))) {
+            return Optional.empty();
+        }
+        return Optional.of(invoiceChangeLogRepository.findCustomerIdsChangedAfter(changeId));
+    }
+
+    /**
+     * Returns the customers whose invoices were requested most recently on any instance.
+     *
+     * @param limit the maximum number of customer IDs returned
+     * @return the customer IDs, most recent first
+     */
+    public List<Long> recentCustomerIds(int limit) {
+        if (!enabled) {
+            return List.of();
+        }
+        return sharedInvoiceCacheRepository.findRecentCustomerIds(Instant.now().minus(expireAfterWrite), limit);
+    }
+
+    /**
+     * Deletes expired shared invoices and change log entries that no shared invoice can depend on anymore.
+     */
+    @Scheduled(initialDelayString = "${movie-rental.invoice-cache.shared.purge-interval:PT5M}",
+            fixedDelayString = "${movie-rental.invoice-cache.shared.purge-interval:PT5M}")
+    public void purge() {
+        if (!enabled) {
+            return;
+        }
+        Instant now = Instant.now();
+        int invoices = sharedInvoiceCacheRepository.deleteComputedBefore(now.minus(expireAfterWrite));
+        int changes = invoiceChangeLogRepository.deleteChangedBefore(now.minus(changeLogRetention));
+        log.info("Purged {} expired shared invoices and {} invoice change log entries", invoices, changes);
+    }
+
+    private void recordLag(Duration lag) {
+        lastLagMillis.set(lag.toMillis());
+        if (invalidationLag != null) {
+            invalidationLag.record(lag.isNegative() ? Duration.ZERO : lag);
+            invalidations.increment();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        invalidationLag = Timer.builder("movie.rental.invoice-cache.invalidation.lag")
+                .description("Time from logging a rental change to dropping the cached invoice on this instance")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        invalidations = Counter.builder("movie.rental.invoice-cache.invalidations")
+                .description("Rental changes read from the invoice change log")
+                .register(registry);
+        Gauge.builder("movie.rental.invoice-cache.invalidation.last-lag", lastLagMillis, AtomicLong::get)
+                .description("Lag of the most recently applied rental change")
+                .baseUnit("milliseconds")
+                .register(registry);
+        FunctionCounter.builder("movie.rental.invoice-cache.shared.requests", sharedHits, AtomicLong::doubleValue)
+                .description("Shared invoice cache lookups")
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("movie.rental.invoice-cache.shared.requests", sharedMisses, AtomicLong::doubleValue)
+                .description("Shared invoice cache lookups")
+                .tag("result", "miss")
+                .register(registry);
+    }
+
+    /**
+     * Computes an invoice and stores it in the shared tier, tagged with the latest change logged before computing.
+     * The invoice is computed wherever the loader reads, usually a read replica, so it is only shared if a replica
+     * has already applied the tagged change; otherwise the stale invoice would be shared as current.
+     */
+    private Mono<InvoiceResponseDTO> computeAndShare(Long customerId, Mono<InvoiceResponseDTO> loader) {
+        return Mono.fromCallable(() -> replicatedChangeId(customerId))
+                .subscribeOn(blockingScheduler)
+                .onErrorResume(e -> {
+                    log.warn("Failed to read the change log of customer ID {}: {}", customerId, e.getMessage());
+                    return Mono.just(Optional.empty());
+                })
+                .flatMap(changeId -> changeId.isEmpty() ? loader : loader
+                        .flatMap(invoice -> Mono.fromCallable(() -> {
+                                    sharedInvoiceCacheRepository.save(customerId, objectMapper.writeValueAsString(invoice), changeId.get(), Instant.now());
+                                    return invoice;
+                                })
+                                .subscribeOn(blockingScheduler)
+                                .onErrorResume(e -> {
+                                    log.warn("Failed to share the invoice of customer ID {}: {}", customerId, e.getMessage());
+                                    return Mono.just(invoice);
+                                })));
+    }
+
+    /**
+     * Reads the latest change of a customer from the primary database and then from a read replica. A replica is
+     * only ever ahead of what the primary returned before, so if it reached that change, the invoice computed after
+     * this check includes it. With several replicas the check and the computation may be served by different ones,
+     * so a lagging replica can still share a stale invoice until it expires.
+     *
+     * @return the latest change ID, or empty if the replica has not applied it yet
+     */
+    private Optional<Long> replicatedChangeId(Long customerId) throws Exception {
+        long changeId = invoiceChangeLogRepository.findLatestChangeId(customerId);
+        long replicaChangeId = readOnlyTransactions.call(false, () -> invoiceChangeLogRepository.findLatestChangeId(customerId));
+        if (replicaChangeId < changeId) {
+            log.debug("Read replica lags change {} of customer ID {}, not sharing its invoice", changeId, customerId);
+            return Optional.empty();
+        }
+        return Optional.of(changeId);
+    }
+
+    private InvoiceResponseDTO readInvoice(String json) {
+        try {
+            return objectMapper.readValue(json, InvoiceResponseDTO.class);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Malformed shared invoice", e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.etraveligroup.movie.rental.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over long and string keys.
+ * A negative answer is definite; a positive answer is wrong with roughly the configured probability once the
+ * expected number of keys has been added. Keys cannot be removed, so a filter is rebuilt to drop deleted keys.
+ * Each key sets a fixed number of bits chosen by double hashing of a 64-bit hash; long and string keys are hashed
+ * with different seeds, so a customer ID and a name with equal hash codes do not share bits.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public final class BloomFilter {
+
+    private static final long LONG_SEED = 0x9E3779B97F4A7C15L;
+    private static final long STRING_SEED = 0xC2B2AE3D27D4EB4FL;
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final AtomicLong setBits = new AtomicLong();
+
+    private BloomFilter(long bitCount, int hashCount) {
+        this.words = new AtomicLongArray(Math.toIntExact((bitCount + 63) / 64));
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Creates a filter sized for a number of keys and a false-positive rate.
+     *
+     * @param expectedKeys      the number of keys the filter is sized for, at least 1 is assumed
+     * @param falsePositiveRate the false-positive rate at that number of keys, between 0 and 1 exclusive
+     * @return an empty filter
+     */
+    public static BloomFilter create(long expectedKeys, double falsePositiveRate) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False-positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        long keys = Math.max(1, expectedKeys);
+        long bits = Math.max(64, (long) Math.ceil(-keys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2))));
+        int hashes = Math.max(1, (int) Math.round((double) bits / keys * Math.log(2)));
+        return new BloomFilter(bits, hashes);
+    }
+
+    public void put(long key) {
+        set(mix(key ^ LONG_SEED));
+    }
+
+    public void put(String key) {
+        set(mix(hash(key) ^ STRING_SEED));
+    }
+
+    public boolean mightContain(long key) {
+        return test(mix(key ^ LONG_SEED));
+    }
+
+    public boolean mightContain(String key) {
+        return test(mix(hash(key) ^ STRING_SEED));
+    }
+
+    /**
+     * Estimates the current false-positive rate from the share of bits set.
+     *
+     * @return the probability that an absent key is reported as present
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow((double) setBits.get() / bitCount, hashCount);
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    private void set(long hash) {
+        long hash1 = hash;
+        long hash2 = mix(hash);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if ((words.getAndAccumulate(word, mask, (current, add) -> current | add) & mask) == 0) {
+                setBits.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean test(long hash) {
+        long hash1 = hash;
+        long hash2 = mix(hash);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the characters of a string.
+     */
+    private static long hash(String key) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    /**
+     * SplitMix64 finalizer, spreading every input bit over the whole hash.
+     */
+    private static long mix(long value) {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,32 @@
+package com.etraveligroup.movie.rental.util;
+
+import java.util.Locale;
+
+/**
+ * Utility class for normalizing customer names into lookup keys.
+ * The key is the trimmed, case-folded name and is stored in the indexed "name_key" column,
+ * so name lookups can use an index instead of scanning the Customer table.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public final class CustomerNameNormalizer {
+
+    private CustomerNameNormalizer() {
+        throw new UnsupportedOperationException("Utility class should not be instantiated");
+    }
+
+    /**
+     * Normalizes a customer name into its lookup key.
+     *
+     * @param name the customer name as entered or stored
+     * @return the trimmed, lower-cased name, or null if the name is null
+     */
+    public static String normalize(String name) {
+        if (name == null) {
+            return null;
+        }
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,106 @@
+package com.etraveligroup.movie.rental.util;
+
+import com.etraveligroup.movie.rental.dto.CachedInvoiceDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceCacheSnapshotDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Utility class for reading and writing invoice cache snapshots.
+ * A snapshot is a gzip-compressed binary file: a format header, the snapshot time and the last applied change ID, then per invoice the
+ * customer ID, the time it was cached and the invoice as UTF-8 JSON prefixed with its length. Invoices of one
+ * customer repeat most of their JSON, so they compress well.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public final class InvoiceCacheSnapshotUtil {
+
+    // "INVC" followed by the format version
+    private static final int MAGIC = 0x494E5643;
+    private static final int FORMAT_VERSION = 3;
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private InvoiceCacheSnapshotUtil() {
+        throw new UnsupportedOperationException("Utility class should not be instantiated");
+    }
+
+    /**
+     * Writes a snapshot to a temporary file and moves it into place, so a crash never leaves a partial snapshot.
+     *
+     * @param file     the snapshot file
+     * @param snapshot the snapshot to write
+     */
+    public static void write(Path file, InvoiceCacheSnapshotDTO snapshot) {
+        Path temporaryFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(temporaryFile))))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(snapshot.createdAt().toEpochMilli());
+                out.writeLong(snapshot.changeId());
+                out.writeInt(snapshot.invoices().size());
+                for (CachedInvoiceDTO invoice : snapshot.invoices()) {
+                    byte[] json = OBJECT_MAPPER.writeValueAsBytes(invoice.invoice());
+                    out.writeLong(invoice.customerId());
+                    out.writeLong(invoice.cachedAt().toEpochMilli());
+                    out.writeInt(json.length);
+                    out.write(json);
+                }
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write invoice cache snapshot " + file, e);
+        }
+    }
+
+    /**
+     * Reads a snapshot written by {@link #write(Path, InvoiceCacheSnapshotDTO)}.
+     *
+     * @param file the snapshot file
+     * @return the snapshot
+     * @throws UncheckedIOException if the file cannot be read, is not a snapshot of this format or holds a malformed
+     *                              invoice
+     */
+    public static InvoiceCacheSnapshotDTO read(Path file) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported invoice cache snapshot format");
+            }
+            Instant createdAt = Instant.ofEpochMilli(in.readLong());
+            long changeId = in.readLong();
+            int count = in.readInt();
+            List<CachedInvoiceDTO> invoices = new ArrayList<>(Math.min(count, 10_000));
+            for (int i = 0; i < count; i++) {
+                long customerId = in.readLong();
+                Instant cachedAt = Instant.ofEpochMilli(in.readLong());
+                byte[] json = new byte[in.readInt()];
+                in.readFully(json);
+                invoices.add(new CachedInvoiceDTO(customerId, OBJECT_MAPPER.readValue(json, InvoiceResponseDTO.class), cachedAt));
+            }
+            return new InvoiceCacheSnapshotDTO(createdAt, changeId, invoices);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read invoice cache snapshot " + file, e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.etraveligroup.movie.rental.util;
+
+import com.etraveligroup.movie.rental.dto.InvoiceItemDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import org.springframework.http.ETag;
+import org.springframework.http.MediaType;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Utility class for the entity tags of invoice responses.
+ * The tag is derived from the fields of the invoice and the response format, so a client can revalidate a previously
+ * received invoice before any text, PDF or JSON body is rendered. Missing fields are hashed as a marker of their own.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public final class InvoiceETagUtil {
+
+    // Hex digits of the SHA-256 digest used in the tag
+    private static final int DIGEST_HEX_LENGTH = 32;
+    // Separates the fields in the digest input, so shifting text between fields changes the tag
+    private static final byte FIELD_SEPARATOR = 0;
+    // Stands in for a missing field; never part of UTF-8 text, so a missing field differs from any text
+    private static final byte NULL_FIELD = (byte) 0xFF;
+
+    private InvoiceETagUtil() {
+        throw new UnsupportedOperationException("Utility class should not be instantiated");
+    }
+
+    /**
+     * Creates the strong entity tag of an invoice in a response format.
+     *
+     * @param invoice the invoice
+     * @param format  the content type of the response
+     * @return the quoted entity tag, e.g. "pdf-3a7bd3e2360a3d29eea436fcfb7e44c7"
+     */
+    public static String eTag(InvoiceResponseDTO invoice, MediaType format) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            update(sha256, invoice.customer());
+            if (invoice.items() != null) {
+                for (InvoiceItemDTO item : invoice.items()) {
+                    update(sha256, item.title());
+                    update(sha256, item.price());
+                }
+            }
+            update(sha256, invoice.total());
+            update(sha256, Integer.toString(invoice.frequentPoints()));
+            byte[] digest = sha256.digest();
+            return "\"" + format.getSubtype() + "-" + HexFormat.of().formatHex(digest).substring(0, DIGEST_HEX_LENGTH) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String field) {
+        if (field != null) {
+            digest.update(field.getBytes(StandardCharsets.UTF_8));
+        } else {
+            digest.update(NULL_FIELD);
+        }
+        digest.update(FIELD_SEPARATOR);
+    }
+
+    private static void update(MessageDigest digest, BigDecimal amount) {
+        update(digest, amount != null ? amount.toPlainString() : null);
+    }
+
+    /**
+     * Checks whether an If-None-Match header matches an entity tag.
+     * As required for If-None-Match, weak tags in the header match their strong counterpart.
+     *
+     * @param ifNoneMatch the If-None-Match header value, may be null
+     * @param eTag        the quoted entity tag of the current response
+     * @return true if the client already holds the current response
+     */
+    public static boolean matches(String ifNoneMatch, String eTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        ETag current = ETag.create(eTag);
+        return ETag.parse(ifNoneMatch).stream().anyMatch(candidate -> candidate.isWildcard() || candidate.compare(current, false));
+    }
+}
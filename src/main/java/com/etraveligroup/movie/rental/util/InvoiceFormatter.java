@@ -1,13 +1,15 @@
 package com.etraveligroup.movie.rental.util;
 
+import com.etraveligroup.movie.rental.dto.InvoiceItemDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
 import lombok.extern.slf4j.Slf4j;
 
 import java.math.BigDecimal;
 
 /**
  * Utility class for formatting invoice details.
- * Provides methods to format the header, line items, and footer of an invoice.
- * This class is designed to be used in conjunction with the RentalInfoService
+ * Provides methods to format the header, line items, and footer of an invoice, and the text of a whole invoice.
+ * The text is one rendering of the structured invoice produced by the RentalInfoService, like the JSON and PDF ones.
  *
  * @author Suresh
  * @version 1.0
@@ -20,6 +22,20 @@ public final class InvoiceFormatter {
         throw new UnsupportedOperationException("Utility class should not be instantiated");
     }
 
+    /**
+     * Formats the plain text of an invoice.
+     *
+     * @param invoice the structured invoice
+     * @return the invoice text, readable by {@link InvoiceParserUtil#parseInvoiceText(String)}
+     */
+    public static String format(InvoiceResponseDTO invoice) {
+        StringBuilder text = new StringBuilder(formatHeader(invoice.customer()));
+        for (InvoiceItemDTO item : invoice.items()) {
+            text.append(formatLine(item.title(), item.price()));
+        }
+        return text.append(formatFooter(invoice.total(), invoice.frequentPoints())).toString();
+    }
+
     public static String formatHeader(String customerName) {
         String header = String.format("Rental Record for %s%n", customerName);
         log.debug("Formatted invoice header for customer: {}", customerName);
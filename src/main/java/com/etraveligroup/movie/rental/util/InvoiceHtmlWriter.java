@@ -0,0 +1,172 @@
+package com.etraveligroup.movie.rental.util;
+
+import com.etraveligroup.movie.rental.dto.InvoiceItemDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Utility class writing the HTML of an invoice for PDF rendering without running a template engine.
+ * The markup is the one Thymeleaf renders from templates/invoice-template.html, held as static fragments with the
+ * escaped customer, titles, amounts and points appended in between. The HTML is built in a buffer reused by the
+ * thread, so only the returned String is allocated per invoice.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public final class InvoiceHtmlWriter {
+
+    // Everything before the customer name, including the stylesheet
+    private static final String HEAD = """
+            <!DOCTYPE html>
+            <html>
+            <head>
+                <meta charset="UTF-8"/>
+                <title>Invoice</title>
+                <style>
+                    body {
+                        font-family: 'Segoe UI', Arial, sans-serif;
+                        background: #f7f7f7;
+                        margin: 0;
+                        padding: 40px;
+                    }
+                    .invoice-box {
+                        background: #fff;
+                        max-width: 600px;
+                        margin: auto;
+                        padding: 32px 40px 24px 40px;
+                        border-radius: 8px;
+                        box-shadow: 0 2px 12px rgba(0,0,0,0.08);
+                    }
+                    h1 {
+                        color: #333;
+                        font-size: 2em;
+                        margin-bottom: 8px;
+                    }
+                    .customer {
+                        color: #555;
+                        margin-bottom: 24px;
+                    }
+                    table {
+                        width: 100%;
+                        border-collapse: collapse;
+                        margin-bottom: 24px;
+                    }
+                    th, td {
+                        padding: 10px 8px;
+                        text-align: left;
+                    }
+                    th {
+                        background: #f0f0f0;
+                        color: #222;
+                        font-weight: 600;
+                        border-bottom: 2px solid #e0e0e0;
+                    }
+                    tr:nth-child(even) td {
+                        background: #fafafa;
+                    }
+                    .total-row td {
+                        font-weight: bold;
+                        border-top: 2px solid #e0e0e0;
+                    }
+                    .summary {
+                        font-size: 1.1em;
+                        margin-bottom: 6px;
+                    }
+                </style>
+            </head>
+            <body>
+            <div class="invoice-box">
+                <h1>Invoice</h1>
+                <div class="customer">
+                    <strong>Customer:</strong>\s""";
+    private static final String TABLE_HEAD = "\n    </div>\n    <table>\n        <thead>\n        <tr>\n"
+            + "            <th>Movie Title</th>\n            <th>Price</th>\n        </tr>\n        </thead>\n"
+            + "        <tbody>\n        ";
+    private static final String ITEM_TITLE = "<tr>\n            <td>";
+    private static final String ITEM_PRICE = "</td>\n            <td>";
+    private static final String ITEM_END = "</td>\n        </tr>";
+    // Thymeleaf repeats the whitespace before the row between iterations
+    private static final String ITEM_SEPARATOR = "\n        ";
+    private static final String TOTAL = "\n        </tbody>\n        <tfoot>\n        <tr class=\"total-row\">\n"
+            + "            <td>Total</td>\n            <td>";
+    private static final String FREQUENT_POINTS = "</td>\n        </tr>\n        </tfoot>\n    </table>\n"
+            + "    <div class=\"summary\">\n        <strong>Frequent Points:</strong> ";
+    private static final String TAIL = "\n    </div>\n</div>\n</body>\n</html>";
+
+    private static final int ITEM_SIZE = 96;
+    // Larger buffers, grown for unusually long invoices, are not kept for the next invoice
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private static final ThreadLocal<StringBuilder> BUFFER =
+            ThreadLocal.withInitial(() -> new StringBuilder(HEAD.length() + 1024));
+
+    private InvoiceHtmlWriter() {
+        throw new UnsupportedOperationException("Utility class should not be instantiated");
+    }
+
+    /**
+     * Writes the HTML of an invoice.
+     *
+     * @param invoice the structured invoice
+     * @return the HTML, as Thymeleaf renders it from the invoice template
+     */
+    public static String toHtml(InvoiceResponseDTO invoice) {
+        StringBuilder html = BUFFER.get();
+        List<InvoiceItemDTO> items = invoice.items() != null ? invoice.items() : List.of();
+        html.setLength(0);
+        html.ensureCapacity(HEAD.length() + 1024 + ITEM_SIZE * items.size());
+
+        html.append(HEAD);
+        appendEscaped(html, invoice.customer());
+        html.append(TABLE_HEAD);
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) {
+                html.append(ITEM_SEPARATOR);
+            }
+            InvoiceItemDTO item = items.get(i);
+            html.append(ITEM_TITLE);
+            appendEscaped(html, item.title());
+            html.append(ITEM_PRICE);
+            appendAmount(html, item.price());
+            html.append(ITEM_END);
+        }
+        html.append(TOTAL);
+        appendAmount(html, invoice.total());
+        html.append(FREQUENT_POINTS).append(invoice.frequentPoints()).append(TAIL);
+
+        String result = html.toString();
+        if (html.capacity() > MAX_RETAINED_CAPACITY) {
+            BUFFER.remove();
+        }
+        return result;
+    }
+
+    // Amounts are printed like the inlined expressions print them: null as nothing, otherwise with toString
+    private static void appendAmount(StringBuilder html, BigDecimal amount) {
+        if (amount != null) {
+            html.append(amount);
+        }
+    }
+
+    /**
+     * Appends text with the markup-significant characters escaped as Thymeleaf escapes inlined text.
+     */
+    private static void appendEscaped(StringBuilder html, String text) {
+        if (text == null) {
+            return;
+        }
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> html.append("&amp;");
+                case '<' -> html.append("&lt;");
+                case '>' -> html.append("&gt;");
+                case '"' -> html.append("&quot;");
+                case '\'' -> html.append("&#39;");
+                default -> html.append(c);
+            }
+        }
+    }
+}
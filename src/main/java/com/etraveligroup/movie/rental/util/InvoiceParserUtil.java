@@ -14,6 +14,8 @@ import static com.etraveligroup.movie.rental.constants.MovieRentalConstants.*;
 
 /**
  * Utility class for parsing invoice text into an InvoiceResponse object.
+ * Invoices are produced as InvoiceResponseDTO; the parser only reads invoice text stored earlier, such as the
+ * shared invoice cache and cache snapshots.
  * This class is designed to be stateless and should not be instantiated.
  */
 @Slf4j
@@ -0,0 +1,302 @@
+package com.etraveligroup.movie.rental.util;
+
+import com.etraveligroup.movie.rental.dto.InvoiceItemDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.text.DecimalFormatSymbols;
+import java.util.Locale;
+
+/**
+ * Utility class writing the plain text of an invoice as UTF-8 straight into an output stream, e.g. the response
+ * buffer of the servlet container. The text is byte for byte the one {@link InvoiceFormatter#format(InvoiceResponseDTO)}
+ * produces, but header, lines and footer are encoded into one chunk buffer with hand-rolled amount formatting instead
+ * of building strings with String.format and copying them. String.format localizes digits and the decimal separator,
+ * so under a default locale that does not print amounts with ASCII digits and a '.', the text is formatted by
+ * InvoiceFormatter instead.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public final class InvoiceTextWriter {
+
+    private static final int MAX_CHUNK_SIZE = 8192;
+    private static final byte[] HEADER = "Rental Record for ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] AMOUNT_OWED = "Amount owed is ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] YOU_EARNED = "You earned ".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FREQUENT_POINTS = " frequent points".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    // "%.2f" prints null as "null" cut to the precision
+    private static final byte[] NULL_AMOUNT = "nu".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+
+    // The last default format locale found to print amounts like Locale.ROOT
+    private static volatile Locale plainLocale;
+
+    private InvoiceTextWriter() {
+        throw new UnsupportedOperationException("Utility class should not be instantiated");
+    }
+
+    /**
+     * Writes the plain text of an invoice. The stream is neither flushed nor closed.
+     *
+     * @param invoice the structured invoice
+     * @param out     the stream receiving the UTF-8 encoded text
+     * @throws IOException if writing to the stream fails
+     */
+    public static void write(InvoiceResponseDTO invoice, OutputStream out) throws IOException {
+        if (!formatsPlainNumbers()) {
+            out.write(InvoiceFormatter.format(invoice).getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        Chunk chunk = new Chunk(out, chunkSize(invoice));
+        chunk.bytes(HEADER);
+        chunk.text(invoice.customer());
+        chunk.bytes(LINE_SEPARATOR);
+        for (InvoiceItemDTO item : invoice.items()) {
+            chunk.ascii('\t');
+            chunk.text(item.title());
+            chunk.ascii('\t');
+            chunk.amount(item.price());
+            chunk.bytes(LINE_SEPARATOR);
+        }
+        chunk.bytes(AMOUNT_OWED);
+        chunk.amount(invoice.total());
+        chunk.bytes(LINE_SEPARATOR);
+        chunk.bytes(YOU_EARNED);
+        chunk.integer(invoice.frequentPoints());
+        chunk.bytes(FREQUENT_POINTS);
+        chunk.bytes(LINE_SEPARATOR);
+        chunk.flush();
+    }
+
+    /**
+     * Writes the plain text of an invoice into a byte array.
+     *
+     * @param invoice the structured invoice
+     * @return the UTF-8 encoded text
+     */
+    public static byte[] toBytes(InvoiceResponseDTO invoice) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(chunkSize(invoice));
+        try {
+            write(invoice, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Calculates the number of bytes {@link #write(InvoiceResponseDTO, OutputStream)} writes for an invoice, without
+     * encoding it, e.g. for the Content-Length of a response.
+     *
+     * @param invoice the structured invoice
+     * @return the length of the UTF-8 encoded text
+     */
+    public static long encodedLength(InvoiceResponseDTO invoice) {
+        if (!formatsPlainNumbers()) {
+            return InvoiceFormatter.format(invoice).getBytes(StandardCharsets.UTF_8).length;
+        }
+        long length = HEADER.length + textLength(invoice.customer()) + LINE_SEPARATOR.length;
+        for (InvoiceItemDTO item : invoice.items()) {
+            length += 2 + textLength(item.title()) + amountLength(item.price()) + LINE_SEPARATOR.length;
+        }
+        length += AMOUNT_OWED.length + amountLength(invoice.total()) + LINE_SEPARATOR.length;
+        length += YOU_EARNED.length + (invoice.frequentPoints() < 0 ? 1 : 0) + digitCount(Math.abs((long) invoice.frequentPoints()))
+                + FREQUENT_POINTS.length + LINE_SEPARATOR.length;
+        return length;
+    }
+
+    /**
+     * Checks whether String.format prints numbers under the current default format locale as under Locale.ROOT.
+     */
+    private static boolean formatsPlainNumbers() {
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        if (locale.equals(plainLocale)) {
+            return true;
+        }
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(locale);
+        if (symbols.getZeroDigit() != '0' || symbols.getDecimalSeparator() != '.') {
+            return false;
+        }
+        plainLocale = locale;
+        return true;
+    }
+
+    private static int textLength(String text) {
+        if (text == null) {
+            return NULL.length;
+        }
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static int amountLength(BigDecimal amount) {
+        if (amount == null) {
+            return NULL_AMOUNT.length;
+        }
+        int sign = amount.signum() < 0 ? 1 : 0;
+        BigDecimal rounded = amount.abs().setScale(MoneyUtil.SCALE, MoneyUtil.ROUNDING);
+        if (rounded.precision() > 18) {
+            return sign + rounded.toPlainString().length();
+        }
+        return sign + digitCount(rounded.unscaledValue().longValue() / 100) + 3;
+    }
+
+    // Counts the decimal digits of a non-negative value.
+    private static int digitCount(long value) {
+        int count = 1;
+        for (long rest = value / 10; rest > 0; rest /= 10) {
+            count++;
+        }
+        return count;
+    }
+
+    // Estimates the encoded size from the number of lines, so small invoices do not allocate the maximum chunk.
+    private static int chunkSize(InvoiceResponseDTO invoice) {
+        return (int) Math.min(MAX_CHUNK_SIZE, 128L + 48L * invoice.items().size());
+    }
+
+    /**
+     * A buffer encoding text into bytes and handing them to the stream whenever it is full.
+     */
+    private static final class Chunk {
+
+        private final OutputStream out;
+        private final byte[] buffer;
+        private int position;
+
+        private Chunk(OutputStream out, int size) {
+            this.out = out;
+            this.buffer = new byte[size];
+        }
+
+        void bytes(byte[] bytes) throws IOException {
+            if (bytes.length > buffer.length - position) {
+                flush();
+                if (bytes.length > buffer.length) {
+                    out.write(bytes);
+                    return;
+                }
+            }
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void ascii(char c) throws IOException {
+            ensure(1);
+            buffer[position++] = (byte) c;
+        }
+
+        // Encodes text as UTF-8, with unpaired surrogates replaced by '?' as String.getBytes does.
+        void text(String text) throws IOException {
+            if (text == null) {
+                bytes(NULL);
+                return;
+            }
+            int length = text.length();
+            for (int i = 0; i < length; i++) {
+                char c = text.charAt(i);
+                if (c < 0x80) {
+                    ensure(1);
+                    buffer[position++] = (byte) c;
+                } else if (c < 0x800) {
+                    ensure(2);
+                    buffer[position++] = (byte) (0xC0 | c >> 6);
+                    buffer[position++] = (byte) (0x80 | c & 0x3F);
+                } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    ensure(4);
+                    buffer[position++] = (byte) (0xF0 | codePoint >> 18);
+                    buffer[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                    buffer[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                    buffer[position++] = (byte) (0x80 | codePoint & 0x3F);
+                } else if (Character.isSurrogate(c)) {
+                    ascii('?');
+                } else {
+                    ensure(3);
+                    buffer[position++] = (byte) (0xE0 | c >> 12);
+                    buffer[position++] = (byte) (0x80 | c >> 6 & 0x3F);
+                    buffer[position++] = (byte) (0x80 | c & 0x3F);
+                }
+            }
+        }
+
+        /**
+         * Writes an amount as "%.2f" does: rounded half up to two decimals, signed by the sign of the unrounded amount.
+         */
+        void amount(BigDecimal amount) throws IOException {
+            if (amount == null) {
+                bytes(NULL_AMOUNT);
+                return;
+            }
+            if (amount.signum() < 0) {
+                ascii('-');
+            }
+            BigDecimal rounded = amount.abs().setScale(MoneyUtil.SCALE, MoneyUtil.ROUNDING);
+            if (rounded.precision() > 18) {
+                bytes(rounded.toPlainString().getBytes(StandardCharsets.US_ASCII));
+                return;
+            }
+            long cents = rounded.unscaledValue().longValue();
+            digits(cents / 100);
+            ascii('.');
+            long fraction = cents % 100;
+            ascii((char) ('0' + fraction / 10));
+            ascii((char) ('0' + fraction % 10));
+        }
+
+        void integer(int value) throws IOException {
+            if (value < 0) {
+                ascii('-');
+            }
+            digits(Math.abs((long) value));
+        }
+
+        // Writes the decimal digits of a non-negative value.
+        private void digits(long value) throws IOException {
+            int count = digitCount(value);
+            ensure(count);
+            long rest = value;
+            for (int i = position + count - 1; i >= position; i--) {
+                buffer[i] = (byte) ('0' + rest % 10);
+                rest /= 10;
+            }
+            position += count;
+        }
+
+        private void ensure(int length) throws IOException {
+            if (length > buffer.length - position) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            if (position > 0) {
+                out.write(buffer, 0, position);
+                position = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.etraveligroup.movie.rental.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Utility class for amounts held as a long number of cents.
+ * Prices and invoice totals always have two decimals, so they are calculated in cents and converted to
+ * BigDecimal only where they leave the pricing code, e.g. in invoice DTOs. Amounts with more than two decimals
+ * are rounded half up when converted to cents, the rounding invoices apply when printing amounts; prices stored
+ * in the database have two decimals, so for them the conversion is exact. Sums and products fail with an
+ * ArithmeticException instead of overflowing.
+ *
+ * @author Suresh
+ * @version 1.0
+ * @since 1.0
+ */
+public final class MoneyUtil {
+
+    public static final int SCALE = 2;
+    public static final RoundingMode ROUNDING = RoundingMode.HALF_UP;
+
+    private MoneyUtil() {
+        throw new UnsupportedOperationException("Utility class should not be instantiated");
+    }
+
+    /**
+     * Converts an amount to cents.
+     *
+     * @param amount the amount (must not be null)
+     * @return the amount in cents, rounded half up
+     * @throws IllegalArgumentException if the amount is null
+     * @throws ArithmeticException      if the amount does not fit in a long number of cents
+     */
+    public static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("Amount must not be null");
+        }
+        try {
+            return amount.setScale(SCALE, ROUNDING).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException("Amount out of range: " + amount);
+        }
+    }
+
+    /**
+     * Converts cents to an amount with two decimals.
+     *
+     * @param cents the amount in cents
+     * @return the amount
+     */
+    public static BigDecimal toAmount(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * @throws ArithmeticException if the sum overflows
+     */
+    public static long add(long cents, long otherCents) {
+        try {
+            return Math.addExact(cents, otherCents);
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException("Amount out of range: " + cents + " + " + otherCents + " cents");
+        }
+    }
+
+    /**
+     * @throws ArithmeticException if the product overflows
+     */
+    public static long multiply(long cents, long factor) {
+        try {
+            return Math.multiplyExact(cents, factor);
+        } catch (ArithmeticException e) {
+            throw new ArithmeticException("Amount out of range: " + cents + " cents * " + factor);
+        }
+    }
+}
@@ -20,12 +20,35 @@ public final class PointsCalculator {
     }
 
     public static int calculateFrequentRenterPoints(String pricingCode, int daysRented) {
+        int points = calculateFrequentRenterPoints(isNewRelease(pricingCode), daysRented);
+        log.debug("Calculated frequent renter points: pricingCode={}, daysRented={}, points={}", pricingCode, daysRented, points);
+        return points;
+    }
+
+    /**
+     * Calculates the frequent renter points of a rental whose pricing code was classified beforehand,
+     * e.g. when the movie catalog is loaded.
+     *
+     * @param newRelease whether the pricing code is the new release code, see {@link #isNewRelease(String)}
+     * @param daysRented the number of days rented
+     * @return the frequent renter points
+     */
+    public static int calculateFrequentRenterPoints(boolean newRelease, int daysRented) {
+        return (newRelease && daysRented >= DAYS_RENTED_2) ? DAYS_RENTED_2 : DAYS_RENTED_1;
+    }
+
+    /**
+     * Tells whether a pricing code earns the new release bonus; codes are compared ignoring case.
+     *
+     * @param pricingCode the pricing code (must not be null)
+     * @return true for the new release code
+     * @throws IllegalArgumentException if the pricing code is null
+     */
+    public static boolean isNewRelease(String pricingCode) {
         if (pricingCode == null) {
             log.error("Pricing code must not be null");
             throw new IllegalArgumentException("Pricing code must not be null");
         }
-        int points = (NEW.equalsIgnoreCase(pricingCode) && daysRented >= DAYS_RENTED_2) ? DAYS_RENTED_2 : DAYS_RENTED_1;
-        log.debug("Calculated frequent renter points: pricingCode={}, daysRented={}, points={}", pricingCode, daysRented, points);
-        return points;
+        return NEW.equalsIgnoreCase(pricingCode);
     }
 }
\ No newline at end of file
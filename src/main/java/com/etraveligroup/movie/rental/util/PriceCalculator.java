@@ -8,6 +8,8 @@ import java.util.Objects;
 
 /**
  * Utility class for calculating the rental amount based on pricing and rental days.
+ * Amounts are calculated in cents by the *Cents methods, which invoices use; the BigDecimal methods return the
+ * same amounts as BigDecimal.
  */
 @Slf4j
 public final class PriceCalculator {
@@ -36,9 +38,28 @@ public final class PriceCalculator {
             throw new IllegalArgumentException("Days must be positive");
         }
 
-        int baseDays = pricing.getBaseDays();
-        BigDecimal basePrice = pricing.getBasePrice();
-        BigDecimal extraPricePerDay = pricing.getExtraPricePerDay();
+        return calculateRentalAmount(pricing.getBaseDays(), pricing.getBasePrice(), pricing.getExtraPricePerDay(), days);
+    }
+
+    /**
+     * Calculates the rental amount from flat pricing values and number of days.
+     *
+     * @param baseDays         the number of days covered by the base price
+     * @param basePrice        the base price of the rental (must not be null)
+     * @param extraPricePerDay the price for each day beyond the base days (must not be null)
+     * @param days             the number of days rented (must be positive)
+     * @return the total rental amount
+     * @throws IllegalArgumentException if a price is null or days is not positive
+     */
+    public static BigDecimal calculateRentalAmount(int baseDays, BigDecimal basePrice, BigDecimal extraPricePerDay, int days) {
+        if (Objects.isNull(basePrice) || Objects.isNull(extraPricePerDay)) {
+            log.error("Base price and extra price per day must not be null");
+            throw new IllegalArgumentException("Pricing must not be null");
+        }
+        if (days <= 0) {
+            log.error("Days must be positive, got: {}", days);
+            throw new IllegalArgumentException("Days must be positive");
+        }
 
         log.debug("Base days: {}, Base price: {}, Extra price per day: {}", baseDays, basePrice, extraPricePerDay);
 
@@ -51,4 +72,48 @@ public final class PriceCalculator {
         log.debug("Extra days: {}, Total amount: {}", extraDays, total);
         return total;
     }
-}
\ No newline at end of file
+
+    /**
+     * Calculates the rental amount in cents for a given pricing and number of days.
+     *
+     * @param pricing the movie pricing details (must not be null)
+     * @param days    the number of days rented (must be positive)
+     * @return the total rental amount in cents
+     * @throws IllegalArgumentException if pricing or one of its prices is null or days is not positive
+     * @throws ArithmeticException      if the amount does not fit in a long number of cents
+     */
+    public static long calculateRentalAmountCents(MoviePricing pricing, int days) {
+        if (Objects.isNull(pricing)) {
+            log.error("Pricing must not be null");
+            throw new IllegalArgumentException("Pricing must not be null");
+        }
+        if (Objects.isNull(pricing.getBasePrice()) || Objects.isNull(pricing.getExtraPricePerDay())) {
+            log.error("Base price and extra price per day must not be null");
+            throw new IllegalArgumentException("Pricing must not be null");
+        }
+        return calculateRentalAmountCents(pricing.getBaseDays(), MoneyUtil.toCents(pricing.getBasePrice()),
+                MoneyUtil.toCents(pricing.getExtraPricePerDay()), days);
+    }
+
+    /**
+     * Calculates the rental amount in cents from pricing values in cents and number of days.
+     *
+     * @param baseDays              the number of days covered by the base price
+     * @param basePriceCents        the base price of the rental in cents
+     * @param extraPricePerDayCents the price for each day beyond the base days in cents
+     * @param days                  the number of days rented (must be positive)
+     * @return the total rental amount in cents
+     * @throws IllegalArgumentException if days is not positive
+     * @throws ArithmeticException      if the amount does not fit in a long number of cents
+     */
+    public static long calculateRentalAmountCents(int baseDays, long basePriceCents, long extraPricePerDayCents, int days) {
+        if (days <= 0) {
+            log.error("Days must be positive, got: {}", days);
+            throw new IllegalArgumentException("Days must be positive");
+        }
+        if (days <= baseDays) {
+            return basePriceCents;
+        }
+        return MoneyUtil.add(basePriceCents, MoneyUtil.multiply(extraPricePerDayCents, days - baseDays));
+    }
+}
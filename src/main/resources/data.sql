@@ -10,10 +10,10 @@ INSERT INTO Movie (id, title, code) VALUES ('F003', 'Cars', 'childrens');
 INSERT INTO Movie (id, title, code) VALUES ('F004', 'Fast & Furious X', 'new');
 
 -- Insert into Customer
-INSERT INTO Customer (name) VALUES ('John Doe');
-INSERT INTO Customer (name) VALUES ('Jane Smith');
-INSERT INTO Customer (name) VALUES ('Alice Johnson');
-INSERT INTO Customer (name) VALUES ('Bob Brown');
+INSERT INTO Customer (name, name_key) VALUES ('John Doe', 'john doe');
+INSERT INTO Customer (name, name_key) VALUES ('Jane Smith', 'jane smith');
+INSERT INTO Customer (name, name_key) VALUES ('Alice Johnson', 'alice johnson');
+INSERT INTO Customer (name, name_key) VALUES ('Bob Brown', 'bob brown');
 
 -- Insert into MovieRental
 INSERT INTO MovieRental (days, customer_id, movie_id) VALUES (3, 1, 'F001');
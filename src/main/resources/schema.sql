@@ -12,13 +12,72 @@ CREATE TABLE Movie (
 );
 CREATE TABLE Customer (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
-    name VARCHAR(255)
+    name VARCHAR(255),
+    name_key VARCHAR(255)
 );
+CREATE INDEX idx_customer_name_key ON Customer (name_key);
+-- Hibernate allocates rental IDs in blocks of 50 from this sequence, which lets it batch inserts
+CREATE SEQUENCE movie_rental_seq START WITH 1 INCREMENT BY 50;
 CREATE TABLE MovieRental (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT DEFAULT NEXT VALUE FOR movie_rental_seq PRIMARY KEY,
     days INT,
     customer_id BIGINT,
     movie_id VARCHAR(255),
+    rented_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP NOT NULL,
+    returned_at TIMESTAMP WITH TIME ZONE,
     FOREIGN KEY (customer_id) REFERENCES Customer(id),
     FOREIGN KEY (movie_id) REFERENCES Movie(id)
-);
\ No newline at end of file
+);
+CREATE INDEX idx_movie_rental_returned_at ON MovieRental (returned_at);
+-- Closed rentals older than the archive horizon, moved out of MovieRental in batches
+CREATE TABLE MovieRentalArchive (
+    id BIGINT PRIMARY KEY,
+    days INT,
+    customer_id BIGINT,
+    movie_id VARCHAR(255),
+    rented_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    returned_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    archived_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+CREATE INDEX idx_movie_rental_archive_customer ON MovieRentalArchive (customer_id, rented_at);
+CREATE TABLE CustomerInvoiceSummary (
+    customer_id BIGINT PRIMARY KEY,
+    total_amount DECIMAL(12,2) NOT NULL,
+    frequent_points INT NOT NULL,
+    rental_count INT NOT NULL,
+    version BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+-- Append-only frequent renter point entries, one per rental change; compaction folds old entries into one per customer
+CREATE TABLE FrequentPointsLedger (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    customer_id BIGINT NOT NULL,
+    rental_id BIGINT,
+    entry_type VARCHAR(32) NOT NULL,
+    points BIGINT NOT NULL,
+    recorded_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+CREATE INDEX idx_points_ledger_customer ON FrequentPointsLedger (customer_id, recorded_at);
+-- Running sum of the ledger entries of each customer, updated in the transaction appending the entries
+CREATE TABLE CustomerPointsBalance (
+    customer_id BIGINT PRIMARY KEY,
+    balance BIGINT NOT NULL,
+    version BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+-- Customers whose rentals changed, tailed by every instance to drop its cached invoices
+CREATE TABLE InvoiceChangeLog (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    customer_id BIGINT NOT NULL,
+    changed_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP NOT NULL
+);
+CREATE INDEX idx_invoice_change_log_customer ON InvoiceChangeLog (customer_id, id);
+CREATE INDEX idx_invoice_change_log_changed_at ON InvoiceChangeLog (changed_at);
+-- Invoices shared by all instances as JSON; an entry is valid until a change is logged after change_id
+CREATE TABLE SharedInvoiceCache (
+    customer_id BIGINT PRIMARY KEY,
+    invoice_json CLOB NOT NULL,
+    change_id BIGINT NOT NULL,
+    computed_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+CREATE INDEX idx_shared_invoice_cache_computed_at ON SharedInvoiceCache (computed_at);
@@ -0,0 +1,74 @@
+package com.etraveligroup.movie.rental.benchmark;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.IntFunction;
+
+/**
+ * Minimal timing helper shared by the benchmark-tagged tests.
+ * Runs a task through warm-up and measured iterations and prints the mean and median time per run,
+ * or fires many requests concurrently and prints the throughput and latency percentiles, or prints the bytes a task
+ * allocates per run.
+ */
+final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+        throw new UnsupportedOperationException("Utility class should not be instantiated");
+    }
+
+    static double measureMillis(String label, int warmupIterations, int measuredIterations, Runnable task) {
+        for (int i = 0; i < warmupIterations; i++) {
+            task.run();
+        }
+        long[] samples = new long[measuredIterations];
+        for (int i = 0; i < measuredIterations; i++) {
+            long start = System.nanoTime();
+            task.run();
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        double meanMillis = Arrays.stream(samples).average().orElse(0) / 1_000_000d;
+        double medianMillis = samples[samples.length / 2] / 1_000_000d;
+        System.out.printf(Locale.ROOT, "[benchmark] %-48s mean %10.3f ms  median %10.3f ms  (%d runs)%n",
+                label, meanMillis, medianMillis, measuredIterations);
+        return meanMillis;
+    }
+
+    static double measureThroughput(String label, int requests, int concurrency, IntFunction<Mono<?>> request) {
+        long[] latencies = new long[requests];
+        long start = System.nanoTime();
+        Flux.range(0, requests)
+                .flatMap(i -> Mono.defer(() -> {
+                    long requestStart = System.nanoTime();
+                    return request.apply(i).doOnTerminate(() -> latencies[i] = System.nanoTime() - requestStart);
+                }), concurrency)
+                .blockLast();
+        double seconds = (System.nanoTime() - start) / 1_000_000_000d;
+        Arrays.sort(latencies);
+        double throughput = requests / seconds;
+        System.out.printf(Locale.ROOT, "[benchmark] %-48s %10.0f req/s  p50 %8.3f ms  p99 %8.3f ms  (%d requests, concurrency %d)%n",
+                label, throughput, latencies[requests / 2] / 1_000_000d, latencies[(int) (requests * 0.99)] / 1_000_000d,
+                requests, concurrency);
+        return throughput;
+    }
+
+    static long measureAllocatedBytes(String label, int warmupIterations, int measuredIterations, Runnable task) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < warmupIterations; i++) {
+            task.run();
+        }
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < measuredIterations; i++) {
+            task.run();
+        }
+        long bytesPerRun = (threads.getThreadAllocatedBytes(threadId) - before) / measuredIterations;
+        System.out.printf(Locale.ROOT, "[benchmark] %-48s %10d bytes allocated per run  (%d runs)%n",
+                label, bytesPerRun, measuredIterations);
+        return bytesPerRun;
+    }
+}
@@ -0,0 +1,126 @@
+package com.etraveligroup.movie.rental.benchmark;
+
+import com.etraveligroup.movie.rental.config.BlockingTaskExecutor;
+import com.etraveligroup.movie.rental.constants.BlockingExecutionMode;
+import com.etraveligroup.movie.rental.constants.InvoiceReadPath;
+import com.etraveligroup.movie.rental.datasource.ReadOnlyTransactionExecutor;
+import com.etraveligroup.movie.rental.repository.CustomerRepository;
+import com.etraveligroup.movie.rental.repository.MovieRentalRepository;
+import com.etraveligroup.movie.rental.service.impl.CustomerNameResolver;
+import com.etraveligroup.movie.rental.service.impl.InvoiceCache;
+import com.etraveligroup.movie.rental.service.impl.MovieCatalogService;
+import com.etraveligroup.movie.rental.service.impl.RentalServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Compares invoice latency under concurrent load when blocking work runs on the subscribing thread,
+ * on a bounded pool of platform threads and on virtual threads.
+ * Requests are subscribed on a small pool standing in for the request-handling threads, and latency includes
+ * the time a request waits for one of them.
+ * Run with: gradle benchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "logging.level.com.etraveligroup.movie.rental=WARN",
+        "movie-rental.invoice-cache.enabled=false",
+        "spring.datasource.hikari.maximum-pool-size=20"})
+class BlockingSchedulerBenchmark {
+
+    private static final String[] MOVIE_IDS = {"F001", "F002", "F003", "F004"};
+    private static final int CUSTOMERS = 1_000;
+    private static final int RENTALS_PER_CUSTOMER = 10;
+    private static final int REQUESTS = 20_000;
+    private static final int REQUEST_THREADS = 8;
+    private static final List<Long> CUSTOMER_IDS = new ArrayList<>();
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerNameResolver customerNameResolver;
+
+    @Autowired
+    private MovieRentalRepository movieRentalRepository;
+
+    @Autowired
+    private MovieCatalogService movieCatalogService;
+
+    @Autowired
+    private ReadOnlyTransactionExecutor readOnlyTransactions;
+
+    @Autowired
+    private InvoiceCache invoiceCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void insertCustomers() {
+        if (CUSTOMER_IDS.isEmpty()) {
+            for (int i = 0; i < CUSTOMERS; i++) {
+                CUSTOMER_IDS.add(insertCustomerWithRentals("Load Renter " + i, RENTALS_PER_CUSTOMER));
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "concurrency {0}")
+    @ValueSource(ints = {64, 256, 1024})
+    void compareBlockingExecution(int concurrency) {
+        measure("subscribing thread", Schedulers.immediate(), concurrency);
+
+        BlockingTaskExecutor pool = new BlockingTaskExecutor(BlockingExecutionMode.BOUNDED_POOL, 32, 100_000, null);
+        measure("bounded pool (32 threads)", Schedulers.fromExecutorService(pool), concurrency);
+        pool.shutdown();
+
+        BlockingTaskExecutor virtualThreads = new BlockingTaskExecutor(BlockingExecutionMode.VIRTUAL_THREADS, 0, 0, Duration.ofMillis(20));
+        measure("virtual threads", Schedulers.fromExecutorService(virtualThreads), concurrency);
+        System.out.printf(Locale.ROOT, "[benchmark] virtual thread pinning events (>= 20 ms): %d%n", virtualThreads.getPinnedEvents());
+        virtualThreads.shutdown();
+    }
+
+    private void measure(String label, Scheduler scheduler, int concurrency) {
+        RentalServiceImpl rentalService = new RentalServiceImpl(customerRepository, customerNameResolver, movieRentalRepository, null,
+                movieCatalogService, scheduler, readOnlyTransactions, invoiceCache);
+        ReflectionTestUtils.setField(rentalService, "readPath", InvoiceReadPath.PROJECTION);
+        Scheduler requestThreads = Schedulers.newParallel("request", REQUEST_THREADS);
+        try {
+            BenchmarkSupport.measureThroughput(label + " warm-up, concurrency " + concurrency, REQUESTS / 4, concurrency,
+                    i -> Mono.defer(() -> rentalService.generateInvoiceById(customerId(i))).subscribeOn(requestThreads));
+            BenchmarkSupport.measureThroughput(label + ", concurrency " + concurrency, REQUESTS, concurrency,
+                    i -> Mono.defer(() -> rentalService.generateInvoiceById(customerId(i))).subscribeOn(requestThreads));
+        } finally {
+            requestThreads.dispose();
+        }
+    }
+
+    private static Long customerId(int request) {
+        return CUSTOMER_IDS.get(request % CUSTOMER_IDS.size());
+    }
+
+    private long insertCustomerWithRentals(String name, int rentalCount) {
+        jdbcTemplate.update("INSERT INTO Customer (name, name_key) VALUES (?, ?)", name, name.toLowerCase());
+        Long customerId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM Customer", Long.class);
+
+        List<Object[]> rentals = new ArrayList<>(rentalCount);
+        for (int i = 0; i < rentalCount; i++) {
+            rentals.add(new Object[]{i % 7 + 1, customerId, MOVIE_IDS[i % MOVIE_IDS.length]});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO MovieRental (days, customer_id, movie_id) VALUES (?, ?, ?)", rentals);
+        return customerId;
+    }
+}
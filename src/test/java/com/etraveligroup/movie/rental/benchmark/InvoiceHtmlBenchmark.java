@@ -0,0 +1,84 @@
+package com.etraveligroup.movie.rental.benchmark;
+
+import com.etraveligroup.movie.rental.dto.InvoiceItemDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import com.etraveligroup.movie.rental.service.impl.PdfGenerateService;
+import com.etraveligroup.movie.rental.util.InvoiceHtmlWriter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures rendering the HTML of invoice PDFs: processing the invoice template with Thymeleaf against writing it
+ * with InvoiceHtmlWriter, and the whole PDF generation with either.
+ * Run with: gradle benchmark
+ */
+@Tag("benchmark")
+class InvoiceHtmlBenchmark {
+
+    private static final int INVOICES_PER_RUN = 1_000;
+    private static final int PDFS_PER_RUN = 20;
+
+    @ParameterizedTest(name = "{0} rentals")
+    @ValueSource(ints = {3, 30, 300})
+    void compareThymeleafAndHtmlWriter(int rentals) {
+        List<InvoiceItemDTO> items = new ArrayList<>();
+        for (int i = 0; i < rentals; i++) {
+            items.add(new InvoiceItemDTO("Movie Title " + i, new BigDecimal("2.00").add(new BigDecimal("1.50").multiply(BigDecimal.valueOf(i % 4)))));
+        }
+        InvoiceResponseDTO invoice = new InvoiceResponseDTO("John Doe", items,
+                items.stream().map(InvoiceItemDTO::price).reduce(BigDecimal.ZERO, BigDecimal::add), rentals);
+        SpringTemplateEngine templateEngine = templateEngine();
+        Context context = new Context();
+        context.setVariable("invoice", invoice);
+        assertEquals(templateEngine.process("invoice-template", context), InvoiceHtmlWriter.toHtml(invoice));
+        String label = ", " + rentals + " rentals";
+
+        Runnable thymeleaf = () -> {
+            for (int i = 0; i < INVOICES_PER_RUN; i++) {
+                templateEngine.process("invoice-template", context);
+            }
+        };
+        Runnable writer = () -> {
+            for (int i = 0; i < INVOICES_PER_RUN; i++) {
+                InvoiceHtmlWriter.toHtml(invoice);
+            }
+        };
+        BenchmarkSupport.measureMillis("HTML with Thymeleaf" + label, 5, 20, thymeleaf);
+        BenchmarkSupport.measureMillis("HTML with InvoiceHtmlWriter" + label, 5, 20, writer);
+        BenchmarkSupport.measureAllocatedBytes("HTML with Thymeleaf" + label, 5, 20, thymeleaf);
+        BenchmarkSupport.measureAllocatedBytes("HTML with InvoiceHtmlWriter" + label, 5, 20, writer);
+
+        PdfGenerateService thymeleafPdfs = new PdfGenerateService(templateEngine, "invoice-template");
+        PdfGenerateService writerPdfs = new PdfGenerateService(templateEngine, "");
+        BenchmarkSupport.measureMillis("PDF with Thymeleaf" + label, 2, 5, () -> {
+            for (int i = 0; i < PDFS_PER_RUN; i++) {
+                thymeleafPdfs.generatePdfFromHtmlTemplate(invoice);
+            }
+        });
+        BenchmarkSupport.measureMillis("PDF with InvoiceHtmlWriter" + label, 2, 5, () -> {
+            for (int i = 0; i < PDFS_PER_RUN; i++) {
+                writerPdfs.generatePdfFromHtmlTemplate(invoice);
+            }
+        });
+    }
+
+    private static SpringTemplateEngine templateEngine() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        return engine;
+    }
+}
@@ -0,0 +1,83 @@
+package com.etraveligroup.movie.rental.benchmark;
+
+import com.etraveligroup.movie.rental.config.BlockingSchedulerConfig;
+import com.etraveligroup.movie.rental.constants.InvoiceReadPath;
+import com.etraveligroup.movie.rental.datasource.ReadOnlyTransactionExecutor;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import com.etraveligroup.movie.rental.repository.MovieRentalArchiveRepository;
+import com.etraveligroup.movie.rental.service.impl.CustomerNameResolver;
+import com.etraveligroup.movie.rental.service.impl.InvoiceCache;
+import com.etraveligroup.movie.rental.service.impl.MovieCatalogService;
+import com.etraveligroup.movie.rental.service.impl.RentalServiceImpl;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the entity, projection and catalog invoice read paths for customers with growing rental histories.
+ * Run with: gradle benchmark
+ */
+@Tag("benchmark")
+@DataJpaTest(properties = "movie-rental.invoice-cache.enabled=false")
+@Import({RentalServiceImpl.class, CustomerNameResolver.class, MovieCatalogService.class, BlockingSchedulerConfig.class,
+        ReadOnlyTransactionExecutor.class, MovieRentalArchiveRepository.class, InvoiceCache.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InvoiceReadPathBenchmark {
+
+    private static final String[] MOVIE_IDS = {"F001", "F002", "F003", "F004"};
+
+    @Autowired
+    private RentalServiceImpl rentalService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @ParameterizedTest(name = "{0} rentals")
+    @ValueSource(ints = {10, 1_000, 100_000})
+    void compareReadPaths(int rentalCount) {
+        long customerId = insertCustomerWithRentals("Benchmark Renter " + rentalCount, rentalCount);
+        int iterations = rentalCount >= 100_000 ? 5 : 50;
+
+        ReflectionTestUtils.setField(rentalService, "readPath", InvoiceReadPath.ENTITY);
+        InvoiceResponseDTO entityInvoice = rentalService.generateInvoiceById(customerId).block();
+        BenchmarkSupport.measureMillis("entity path, " + rentalCount + " rentals", 2, iterations,
+                () -> rentalService.generateInvoiceById(customerId).block());
+
+        ReflectionTestUtils.setField(rentalService, "readPath", InvoiceReadPath.PROJECTION);
+        InvoiceResponseDTO projectionInvoice = rentalService.generateInvoiceById(customerId).block();
+        BenchmarkSupport.measureMillis("projection path, " + rentalCount + " rentals", 2, iterations,
+                () -> rentalService.generateInvoiceById(customerId).block());
+
+        ReflectionTestUtils.setField(rentalService, "readPath", InvoiceReadPath.CATALOG);
+        InvoiceResponseDTO catalogInvoice = rentalService.generateInvoiceById(customerId).block();
+        BenchmarkSupport.measureMillis("catalog path, " + rentalCount + " rentals", 2, iterations,
+                () -> rentalService.generateInvoiceById(customerId).block());
+
+        assertEquals(entityInvoice, projectionInvoice);
+        assertEquals(entityInvoice, catalogInvoice);
+    }
+
+    private long insertCustomerWithRentals(String name, int rentalCount) {
+        jdbcTemplate.update("INSERT INTO Customer (name, name_key) VALUES (?, ?)", name, name.toLowerCase());
+        Long customerId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM Customer", Long.class);
+
+        List<Object[]> rentals = new ArrayList<>(rentalCount);
+        for (int i = 0; i < rentalCount; i++) {
+            rentals.add(new Object[]{i % 7 + 1, customerId, MOVIE_IDS[i % MOVIE_IDS.length]});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO MovieRental (days, customer_id, movie_id) VALUES (?, ?, ?)", rentals);
+        return customerId;
+    }
+}
@@ -0,0 +1,72 @@
+package com.etraveligroup.movie.rental.benchmark;
+
+import com.etraveligroup.movie.rental.dto.InvoiceItemDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import com.etraveligroup.movie.rental.util.InvoiceFormatter;
+import com.etraveligroup.movie.rental.util.InvoiceParserUtil;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures producing the invoice model a JSON or PDF response is rendered from: formatting the invoice text and
+ * parsing it back, as the service and controller used to, against building the model directly.
+ * Run with: gradle benchmark
+ */
+@Tag("benchmark")
+class InvoiceRenderingBenchmark {
+
+    private static final int INVOICES_PER_RUN = 1_000;
+
+    @ParameterizedTest(name = "{0} rentals")
+    @ValueSource(ints = {3, 30, 300})
+    void compareTextRoundTripAndModel(int rentals) {
+        String customer = "John Doe";
+        List<String> titles = new ArrayList<>();
+        List<BigDecimal> amounts = new ArrayList<>();
+        for (int i = 0; i < rentals; i++) {
+            titles.add("Movie Title " + i);
+            amounts.add(new BigDecimal("2.00").add(new BigDecimal("1.50").multiply(BigDecimal.valueOf(i % 4))));
+        }
+        assertEquals(textRoundTrip(customer, titles, amounts), model(customer, titles, amounts));
+        String label = ", " + rentals + " rentals";
+
+        BenchmarkSupport.measureMillis("format and parse text" + label, 5, 20, () -> {
+            for (int i = 0; i < INVOICES_PER_RUN; i++) {
+                textRoundTrip(customer, titles, amounts);
+            }
+        });
+        BenchmarkSupport.measureMillis("build model" + label, 5, 20, () -> {
+            for (int i = 0; i < INVOICES_PER_RUN; i++) {
+                model(customer, titles, amounts);
+            }
+        });
+    }
+
+    private static InvoiceResponseDTO textRoundTrip(String customer, List<String> titles, List<BigDecimal> amounts) {
+        BigDecimal total = BigDecimal.ZERO;
+        StringBuilder invoice = new StringBuilder(InvoiceFormatter.formatHeader(customer));
+        for (int i = 0; i < titles.size(); i++) {
+            invoice.append(InvoiceFormatter.formatLine(titles.get(i), amounts.get(i)));
+            total = total.add(amounts.get(i));
+        }
+        invoice.append(InvoiceFormatter.formatFooter(total, titles.size()));
+        return InvoiceParserUtil.parseInvoiceText(invoice.toString());
+    }
+
+    private static InvoiceResponseDTO model(String customer, List<String> titles, List<BigDecimal> amounts) {
+        BigDecimal total = BigDecimal.ZERO;
+        List<InvoiceItemDTO> items = new ArrayList<>(titles.size());
+        for (int i = 0; i < titles.size(); i++) {
+            items.add(new InvoiceItemDTO(titles.get(i), amounts.get(i)));
+            total = total.add(amounts.get(i));
+        }
+        return new InvoiceResponseDTO(customer, items, total, titles.size());
+    }
+}
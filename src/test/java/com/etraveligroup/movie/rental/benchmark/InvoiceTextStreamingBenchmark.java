@@ -0,0 +1,72 @@
+package com.etraveligroup.movie.rental.benchmark;
+
+import com.etraveligroup.movie.rental.dto.InvoiceItemDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import com.etraveligroup.movie.rental.util.InvoiceFormatter;
+import com.etraveligroup.movie.rental.util.InvoiceTextWriter;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Measures writing plain-text invoices to a response stream: formatting a String with InvoiceFormatter and encoding it,
+ * as the String message converter does, against writing the invoice with InvoiceTextWriter.
+ * Prints the time and the bytes allocated per batch of invoices.
+ * Run with: gradle benchmark
+ */
+@Tag("benchmark")
+class InvoiceTextStreamingBenchmark {
+
+    private static final int INVOICES_PER_RUN = 1_000;
+
+    @ParameterizedTest(name = "{0} rentals")
+    @ValueSource(ints = {3, 30, 300})
+    void compareFormatterAndStreamingWriter(int rentals) {
+        List<InvoiceItemDTO> items = new ArrayList<>();
+        for (int i = 0; i < rentals; i++) {
+            items.add(new InvoiceItemDTO("Movie Title " + i, new BigDecimal("2.00").add(new BigDecimal("1.50").multiply(BigDecimal.valueOf(i % 4)))));
+        }
+        InvoiceResponseDTO invoice = new InvoiceResponseDTO("John Doe", items,
+                items.stream().map(InvoiceItemDTO::price).reduce(BigDecimal.ZERO, BigDecimal::add), rentals);
+        assertArrayEquals(InvoiceFormatter.format(invoice).getBytes(StandardCharsets.UTF_8), InvoiceTextWriter.toBytes(invoice));
+        OutputStream response = OutputStream.nullOutputStream();
+        Runnable formatter = () -> {
+            for (int i = 0; i < INVOICES_PER_RUN; i++) {
+                write(response, InvoiceFormatter.format(invoice).getBytes(StandardCharsets.UTF_8));
+            }
+        };
+        Runnable streaming = () -> {
+            for (int i = 0; i < INVOICES_PER_RUN; i++) {
+                try {
+                    InvoiceTextWriter.write(invoice, response);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        String label = ", " + rentals + " rentals";
+
+        BenchmarkSupport.measureMillis("String.format and encode" + label, 5, 20, formatter);
+        BenchmarkSupport.measureMillis("stream with InvoiceTextWriter" + label, 5, 20, streaming);
+        BenchmarkSupport.measureAllocatedBytes("String.format and encode" + label, 5, 20, formatter);
+        BenchmarkSupport.measureAllocatedBytes("stream with InvoiceTextWriter" + label, 5, 20, streaming);
+    }
+
+    private static void write(OutputStream response, byte[] bytes) {
+        try {
+            response.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
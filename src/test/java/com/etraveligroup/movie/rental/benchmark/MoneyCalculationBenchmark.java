@@ -0,0 +1,60 @@
+package com.etraveligroup.movie.rental.benchmark;
+
+import com.etraveligroup.movie.rental.util.MoneyUtil;
+import com.etraveligroup.movie.rental.util.PriceCalculator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures pricing rentals and summing the invoice total with BigDecimal arithmetic against long cents.
+ * Run with: gradle benchmark
+ */
+@Tag("benchmark")
+class MoneyCalculationBenchmark {
+
+    private static final int RENTALS = 1_000_000;
+
+    @Test
+    void compareBigDecimalAndCents() {
+        SplittableRandom random = new SplittableRandom(42);
+        int[] baseDays = new int[RENTALS];
+        BigDecimal[] basePrices = new BigDecimal[RENTALS];
+        BigDecimal[] extraPricesPerDay = new BigDecimal[RENTALS];
+        long[] basePriceCents = new long[RENTALS];
+        long[] extraPricePerDayCents = new long[RENTALS];
+        int[] days = new int[RENTALS];
+        for (int i = 0; i < RENTALS; i++) {
+            baseDays[i] = random.nextInt(1, 4);
+            basePrices[i] = BigDecimal.valueOf(random.nextLong(100, 500), 2);
+            extraPricesPerDay[i] = BigDecimal.valueOf(random.nextLong(0, 300), 2);
+            basePriceCents[i] = MoneyUtil.toCents(basePrices[i]);
+            extraPricePerDayCents[i] = MoneyUtil.toCents(extraPricesPerDay[i]);
+            days[i] = random.nextInt(1, 15);
+        }
+        BigDecimal[] bigDecimalTotal = new BigDecimal[1];
+        long[] centsTotal = new long[1];
+
+        BenchmarkSupport.measureMillis("BigDecimal, 1M rentals", 5, 20, () -> {
+            BigDecimal total = BigDecimal.ZERO;
+            for (int i = 0; i < RENTALS; i++) {
+                total = total.add(PriceCalculator.calculateRentalAmount(baseDays[i], basePrices[i], extraPricesPerDay[i], days[i]));
+            }
+            bigDecimalTotal[0] = total;
+        });
+        BenchmarkSupport.measureMillis("long cents, 1M rentals", 5, 20, () -> {
+            long total = 0;
+            for (int i = 0; i < RENTALS; i++) {
+                total = MoneyUtil.add(total, PriceCalculator.calculateRentalAmountCents(
+                        baseDays[i], basePriceCents[i], extraPricePerDayCents[i], days[i]));
+            }
+            centsTotal[0] = total;
+        });
+
+        assertEquals(0, bigDecimalTotal[0].compareTo(MoneyUtil.toAmount(centsTotal[0])));
+    }
+}
@@ -0,0 +1,83 @@
+package com.etraveligroup.movie.rental.benchmark;
+
+import com.etraveligroup.movie.rental.catalog.MovieCatalogSnapshot;
+import com.etraveligroup.movie.rental.entity.Movie;
+import com.etraveligroup.movie.rental.entity.MoviePricing;
+import com.etraveligroup.movie.rental.util.MoneyUtil;
+import com.etraveligroup.movie.rental.util.PointsCalculator;
+import com.etraveligroup.movie.rental.util.PriceCalculator;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures pricing rentals and their frequent renter points from pricing entities, one rental at a time, against
+ * the catalog's precomputed tables, one bulk call over arrays of pricing indexes and days.
+ * Run with: gradle benchmark
+ */
+@Tag("benchmark")
+class PricingTableBenchmark {
+
+    private static final int RENTALS = 1_000_000;
+
+    @Test
+    void compareEntityPricingAndTables() {
+        List<MoviePricing> pricings = List.of(pricing("regular", 2, "2.00", "1.50"), pricing("childrens", 3, "1.50", "1.50"),
+                pricing("new", 1, "3.00", "3.00"));
+        List<Movie> movies = pricings.stream().map(PricingTableBenchmark::movie).toList();
+        MovieCatalogSnapshot catalog = MovieCatalogSnapshot.of(1, pricings, movies);
+        SplittableRandom random = new SplittableRandom(42);
+        MoviePricing[] rentalPricings = new MoviePricing[RENTALS];
+        int[] pricingIdx = new int[RENTALS];
+        int[] days = new int[RENTALS];
+        for (int i = 0; i < RENTALS; i++) {
+            int movieIdx = random.nextInt(movies.size());
+            rentalPricings[i] = movies.get(movieIdx).getPricing();
+            pricingIdx[i] = catalog.pricingIndex(catalog.movieIndex(movies.get(movieIdx).getId()));
+            // Mostly short rentals, some beyond the tabulated days
+            days[i] = random.nextInt(100) < 95 ? random.nextInt(1, 8) : random.nextInt(8, 60);
+        }
+        long[] entityTotals = new long[2];
+        long[] tableTotals = new long[2];
+
+        BenchmarkSupport.measureMillis("pricing entities, 1M rentals", 5, 20, () -> {
+            long totalCents = 0;
+            int totalPoints = 0;
+            for (int i = 0; i < RENTALS; i++) {
+                totalCents = MoneyUtil.add(totalCents, PriceCalculator.calculateRentalAmountCents(rentalPricings[i], days[i]));
+                totalPoints += PointsCalculator.calculateFrequentRenterPoints(rentalPricings[i].getCode(), days[i]);
+            }
+            entityTotals[0] = totalCents;
+            entityTotals[1] = totalPoints;
+        });
+        BenchmarkSupport.measureMillis("catalog tables, 1M rentals", 5, 20, () -> {
+            tableTotals[0] = catalog.totalAmountCents(pricingIdx, days, RENTALS);
+            tableTotals[1] = catalog.totalFrequentRenterPoints(pricingIdx, days, RENTALS);
+        });
+
+        assertEquals(entityTotals[0], tableTotals[0]);
+        assertEquals(entityTotals[1], tableTotals[1]);
+    }
+
+    private static MoviePricing pricing(String code, int baseDays, String basePrice, String extraPricePerDay) {
+        MoviePricing pricing = new MoviePricing();
+        pricing.setCode(code);
+        pricing.setBaseDays(baseDays);
+        pricing.setBasePrice(new BigDecimal(basePrice));
+        pricing.setExtraPricePerDay(new BigDecimal(extraPricePerDay));
+        return pricing;
+    }
+
+    private static Movie movie(MoviePricing pricing) {
+        Movie movie = new Movie();
+        movie.setId("M-" + pricing.getCode());
+        movie.setTitle("Movie " + pricing.getCode());
+        movie.setPricing(pricing);
+        return movie;
+    }
+}
@@ -0,0 +1,132 @@
+package com.etraveligroup.movie.rental.benchmark;
+
+import com.etraveligroup.movie.rental.constants.InvoiceReadPath;
+import com.etraveligroup.movie.rental.datasource.ReadOnlyTransactionExecutor;
+import com.etraveligroup.movie.rental.repository.CustomerRepository;
+import com.etraveligroup.movie.rental.repository.MovieRentalRepository;
+import com.etraveligroup.movie.rental.service.RentalInfoService;
+import com.etraveligroup.movie.rental.service.impl.CustomerNameResolver;
+import com.etraveligroup.movie.rental.service.impl.InvoiceCache;
+import com.etraveligroup.movie.rental.service.impl.MovieCatalogService;
+import com.etraveligroup.movie.rental.service.impl.R2dbcRentalServiceImpl;
+import com.etraveligroup.movie.rental.service.impl.RentalServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+/**
+ * Compares the throughput and latency of the JPA and R2DBC invoice data paths under concurrent load.
+ * The JPA path runs its blocking calls on the blocking scheduler; the R2DBC calls run on the driver threads.
+ * Both paths use a pool of 10 connections.
+ * Run with: gradle benchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "logging.level.com.etraveligroup.movie.rental=WARN",
+        "movie-rental.invoice-cache.enabled=false",
+        "spring.datasource.hikari.maximum-pool-size=10",
+        "movie-rental.r2dbc.pool.max-size=10"})
+@ActiveProfiles("r2dbc")
+class R2dbcDataPathBenchmark {
+
+    private static final String[] MOVIE_IDS = {"F001", "F002", "F003", "F004"};
+    private static final int CUSTOMERS = 1_000;
+    private static final int RENTALS_PER_CUSTOMER = 10;
+    private static final int REQUESTS = 20_000;
+
+    @Autowired
+    private RentalInfoService r2dbcRentalService;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private CustomerNameResolver customerNameResolver;
+
+    @Autowired
+    private MovieRentalRepository movieRentalRepository;
+
+    @Autowired
+    private MovieCatalogService movieCatalogService;
+
+    @Autowired
+    private Scheduler blockingScheduler;
+
+    @Autowired
+    private ReadOnlyTransactionExecutor readOnlyTransactions;
+
+    @Autowired
+    private InvoiceCache invoiceCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static final List<Long> CUSTOMER_IDS = new ArrayList<>();
+
+    @BeforeEach
+    void insertCustomers() {
+        if (CUSTOMER_IDS.isEmpty()) {
+            for (int i = 0; i < CUSTOMERS; i++) {
+                CUSTOMER_IDS.add(insertCustomerWithRentals("Load Renter " + i, RENTALS_PER_CUSTOMER));
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "concurrency {0}")
+    @ValueSource(ints = {16, 64, 256})
+    void compareDataPaths(int concurrency) {
+        assertInstanceOf(R2dbcRentalServiceImpl.class, r2dbcRentalService);
+        RentalServiceImpl jpaEntityService = jpaService(InvoiceReadPath.ENTITY);
+        RentalServiceImpl jpaCatalogService = jpaService(InvoiceReadPath.CATALOG);
+
+        Long sampleId = CUSTOMER_IDS.get(0);
+        assertEquals(jpaEntityService.generateInvoiceById(sampleId).block(), r2dbcRentalService.generateInvoiceById(sampleId).block());
+
+        for (int round = 0; round < 2; round++) {
+            boolean warmup = round == 0;
+            int requests = warmup ? REQUESTS / 4 : REQUESTS;
+            String suffix = (warmup ? " warm-up" : "") + ", concurrency " + concurrency;
+            BenchmarkSupport.measureThroughput("JPA entity path" + suffix, requests, concurrency,
+                    i -> jpaEntityService.generateInvoiceById(customerId(i)));
+            BenchmarkSupport.measureThroughput("JPA catalog path" + suffix, requests, concurrency,
+                    i -> jpaCatalogService.generateInvoiceById(customerId(i)));
+            BenchmarkSupport.measureThroughput("R2DBC path" + suffix, requests, concurrency,
+                    i -> r2dbcRentalService.generateInvoiceById(customerId(i)));
+        }
+    }
+
+    private Long customerId(int request) {
+        return CUSTOMER_IDS.get(request % CUSTOMER_IDS.size());
+    }
+
+    private RentalServiceImpl jpaService(InvoiceReadPath readPath) {
+        RentalServiceImpl service = new RentalServiceImpl(customerRepository, customerNameResolver, movieRentalRepository, null, movieCatalogService, blockingScheduler, readOnlyTransactions, invoiceCache);
+        ReflectionTestUtils.setField(service, "readPath", readPath);
+        return service;
+    }
+
+    private long insertCustomerWithRentals(String name, int rentalCount) {
+        jdbcTemplate.update("INSERT INTO Customer (name, name_key) VALUES (?, ?)", name, name.toLowerCase());
+        Long customerId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM Customer", Long.class);
+
+        List<Object[]> rentals = new ArrayList<>(rentalCount);
+        for (int i = 0; i < rentalCount; i++) {
+            rentals.add(new Object[]{i % 7 + 1, customerId, MOVIE_IDS[i % MOVIE_IDS.length]});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO MovieRental (days, customer_id, movie_id) VALUES (?, ?, ?)", rentals);
+        return customerId;
+    }
+}
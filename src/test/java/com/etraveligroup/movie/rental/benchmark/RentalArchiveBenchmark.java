@@ -0,0 +1,90 @@
+package com.etraveligroup.movie.rental.benchmark;
+
+import com.etraveligroup.movie.rental.dto.RentalArchiveResultDTO;
+import com.etraveligroup.movie.rental.dto.RentalPeriodDTO;
+import com.etraveligroup.movie.rental.service.RentalInfoService;
+import com.etraveligroup.movie.rental.service.impl.RentalArchiveService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures the current-period invoice for a customer with a long rental history before and after the closed
+ * rentals are moved to the archive table, and the historical invoice that reads both tables.
+ * Run with: gradle benchmark
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "logging.level.com.etraveligroup.movie.rental=WARN",
+        "movie-rental.invoice-cache.enabled=false",
+        "spring.datasource.url=jdbc:h2:mem:rental-archive-benchmark;DB_CLOSE_DELAY=-1",
+        "movie-rental.archive.batch-size=5000"})
+class RentalArchiveBenchmark {
+
+    private static final String[] MOVIE_IDS = {"F001", "F002", "F003", "F004"};
+    private static final int RECENT_RENTALS = 10;
+
+    @Autowired
+    private RentalInfoService rentalInfoService;
+
+    @Autowired
+    private RentalArchiveService rentalArchiveService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @ParameterizedTest(name = "history {0}")
+    @ValueSource(ints = {1_000, 10_000, 100_000})
+    void compareHotAndArchivedHistory(int historyRentals) {
+        Long customerId = insertCustomerWithHistory("History Renter " + historyRentals, historyRentals);
+        String label = ", history " + historyRentals;
+        int iterations = historyRentals >= 100_000 ? 5 : 20;
+
+        BenchmarkSupport.measureMillis("current invoice, unarchived" + label, 3, iterations,
+                () -> rentalInfoService.generateInvoiceById(customerId).block());
+
+        RentalArchiveResultDTO result = rentalArchiveService.archive();
+        assertEquals(historyRentals, result.archived());
+        System.out.printf(Locale.ROOT, "[benchmark] %-48s %10d ms  (%d rentals in %d batches)%n",
+                "archive run" + label, result.elapsedMillis(), result.archived(), result.batches());
+
+        BenchmarkSupport.measureMillis("current invoice, archived" + label, 3, iterations,
+                () -> rentalInfoService.generateInvoiceById(customerId).block());
+        BenchmarkSupport.measureMillis("full history invoice, archived" + label, 1, iterations,
+                () -> rentalInfoService.generateInvoiceById(customerId, RentalPeriodDTO.ofDates(null, null)).block());
+    }
+
+    private Long insertCustomerWithHistory(String name, int historyRentals) {
+        jdbcTemplate.update("INSERT INTO Customer (name, name_key) VALUES (?, ?)", name, name.toLowerCase());
+        Long customerId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM Customer", Long.class);
+
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        List<Object[]> rentals = new ArrayList<>(historyRentals + RECENT_RENTALS);
+        for (int i = 0; i < historyRentals; i++) {
+            int days = i % 7 + 1;
+            Instant rentedAt = now.minus(Duration.ofDays(400 + i % 2_000));
+            rentals.add(new Object[]{days, customerId, MOVIE_IDS[i % MOVIE_IDS.length],
+                    Timestamp.from(rentedAt), Timestamp.from(rentedAt.plus(Duration.ofDays(days)))});
+        }
+        for (int i = 0; i < RECENT_RENTALS; i++) {
+            rentals.add(new Object[]{i % 7 + 1, customerId, MOVIE_IDS[i % MOVIE_IDS.length],
+                    Timestamp.from(now.minus(Duration.ofDays(i))), null});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO MovieRental (days, customer_id, movie_id, rented_at, returned_at) "
+                + "VALUES (?, ?, ?, ?, ?)", rentals);
+        return customerId;
+    }
+}
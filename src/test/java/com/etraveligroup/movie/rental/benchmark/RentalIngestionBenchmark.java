@@ -0,0 +1,100 @@
+package com.etraveligroup.movie.rental.benchmark;
+
+import com.etraveligroup.movie.rental.dto.CustomerRentalsDTO;
+import com.etraveligroup.movie.rental.dto.MovieRentalDTO;
+import com.etraveligroup.movie.rental.dto.RentalIngestionResultDTO;
+import com.etraveligroup.movie.rental.entity.Customer;
+import com.etraveligroup.movie.rental.entity.Movie;
+import com.etraveligroup.movie.rental.entity.MovieRental;
+import com.etraveligroup.movie.rental.repository.CustomerInvoiceSummaryRepository;
+import com.etraveligroup.movie.rental.repository.CustomerRepository;
+import com.etraveligroup.movie.rental.repository.MovieRentalRepository;
+import com.etraveligroup.movie.rental.repository.MovieRepository;
+import com.etraveligroup.movie.rental.service.impl.CustomerInvoiceSummaryService;
+import com.etraveligroup.movie.rental.service.impl.MovieCatalogService;
+import com.etraveligroup.movie.rental.service.impl.RentalIngestionService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the chunked, batched rental ingestion with saving one rental per repository call.
+ * Run with: gradle benchmark
+ */
+@Tag("benchmark")
+@DataJpaTest
+@Import({RentalIngestionService.class, MovieCatalogService.class, CustomerInvoiceSummaryService.class,
+        CustomerInvoiceSummaryRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RentalIngestionBenchmark {
+
+    private static final String[] MOVIE_IDS = {"F001", "F002", "F003", "F004"};
+    private static final int ROWS = 20_000;
+
+    @Autowired
+    private RentalIngestionService rentalIngestionService;
+
+    @Autowired
+    private MovieRentalRepository movieRentalRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Test
+    void compareIngestion() {
+        List<CustomerRentalsDTO> request = request(ROWS);
+        rentalIngestionService.ingest(request(2_000));
+        naiveSave(request(2_000));
+
+        long before = movieRentalRepository.count();
+        long start = System.nanoTime();
+        naiveSave(request);
+        double naiveSeconds = (System.nanoTime() - start) / 1_000_000_000d;
+        System.out.printf(Locale.ROOT, "[benchmark] %-48s %10.0f rows/s%n", "per-row save(), " + ROWS + " rows", ROWS / naiveSeconds);
+
+        RentalIngestionResultDTO result = rentalIngestionService.ingest(request);
+        System.out.printf(Locale.ROOT, "[benchmark] %-48s %10.0f rows/s  (%d chunks)%n",
+                "chunked batch ingestion, " + ROWS + " rows", result.rowsPerSecond(), result.chunksCommitted());
+
+        assertEquals(before + 2L * ROWS, movieRentalRepository.count());
+    }
+
+    private void naiveSave(List<CustomerRentalsDTO> request) {
+        for (CustomerRentalsDTO customerRentals : request) {
+            Customer customer = customerRepository.findById(customerRentals.customerId()).orElseThrow();
+            for (MovieRentalDTO rentalDTO : customerRentals.rentals()) {
+                Movie movie = movieRepository.findById(rentalDTO.movieId()).orElseThrow();
+                MovieRental rental = new MovieRental();
+                rental.setCustomer(customer);
+                rental.setMovie(movie);
+                rental.setDays(rentalDTO.days());
+                movieRentalRepository.save(rental);
+            }
+        }
+    }
+
+    private static List<CustomerRentalsDTO> request(int rows) {
+        List<CustomerRentalsDTO> customers = new ArrayList<>();
+        for (long customerId = 1; customerId <= 4; customerId++) {
+            List<MovieRentalDTO> rentals = new ArrayList<>();
+            for (int i = 0; i < rows / 4; i++) {
+                rentals.add(new MovieRentalDTO(MOVIE_IDS[i % MOVIE_IDS.length], i % 7 + 1));
+            }
+            customers.add(new CustomerRentalsDTO(customerId, rentals));
+        }
+        return customers;
+    }
+}
@@ -0,0 +1,180 @@
+package com.etraveligroup.movie.rental.catalog;
+
+import com.etraveligroup.movie.rental.entity.Movie;
+import com.etraveligroup.movie.rental.entity.MoviePricing;
+import com.etraveligroup.movie.rental.util.PointsCalculator;
+import com.etraveligroup.movie.rental.util.PriceCalculator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovieCatalogSnapshotTest {
+
+    static MoviePricing pricing(String code, int baseDays, String basePrice, String extraPricePerDay) {
+        MoviePricing pricing = new MoviePricing();
+        pricing.setCode(code);
+        pricing.setBaseDays(baseDays);
+        pricing.setBasePrice(new BigDecimal(basePrice));
+        pricing.setExtraPricePerDay(new BigDecimal(extraPricePerDay));
+        return pricing;
+    }
+
+    static Movie movie(String id, String title, MoviePricing pricing) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setTitle(title);
+        movie.setPricing(pricing);
+        return movie;
+    }
+
+    static MovieCatalogSnapshot sampleSnapshot() {
+        MoviePricing regular = pricing("regular", 2, "2.00", "1.50");
+        MoviePricing childrens = pricing("childrens", 3, "1.50", "1.50");
+        MoviePricing fresh = pricing("new", 2, "3.00", "0.00");
+        return MovieCatalogSnapshot.of(1, List.of(regular, childrens, fresh), List.of(
+                movie("F001", "You've Got Mail", regular),
+                movie("F003", "Cars", childrens),
+                movie("F004", "Fast & Furious X", fresh)));
+    }
+
+    @Test
+    void of_resolvesTitlesAndPricing() {
+        MovieCatalogSnapshot snapshot = sampleSnapshot();
+
+        int movieIdx = snapshot.movieIndex("F003");
+        assertEquals("Cars", snapshot.title(movieIdx));
+        assertEquals("childrens", snapshot.pricingCode(snapshot.pricingIndex(movieIdx)));
+        assertEquals(3, snapshot.movieCount());
+        assertEquals(3, snapshot.pricingCount());
+        assertEquals(1, snapshot.version());
+        assertNotNull(snapshot.loadedAt());
+    }
+
+    @Test
+    void rentalAmount_matchesPriceCalculation() {
+        MovieCatalogSnapshot snapshot = sampleSnapshot();
+
+        assertEquals(new BigDecimal("3.50"), snapshot.rentalAmount(snapshot.movieIndex("F001"), 3));
+        assertEquals(new BigDecimal("9.00"), snapshot.rentalAmount(snapshot.movieIndex("F003"), 8));
+        assertEquals(new BigDecimal("3.00"), snapshot.rentalAmount(snapshot.movieIndex("F004"), 3));
+    }
+
+    @Test
+    void rentalAmountCents_matchesRentalAmount() {
+        MovieCatalogSnapshot snapshot = sampleSnapshot();
+
+        assertEquals(350, snapshot.rentalAmountCents(snapshot.movieIndex("F001"), 3));
+        assertEquals(900, snapshot.rentalAmountCents(snapshot.movieIndex("F003"), 8));
+    }
+
+    @Test
+    void rentalAmountAndPoints_tabulatedAndLongerRentals_matchCalculators() {
+        List<MoviePricing> pricings = List.of(
+                pricing("regular", 2, "2.00", "1.50"), pricing("childrens", 3, "1.50", "1.50"), pricing("NEW", 2, "3.00", "0.75"));
+        MovieCatalogSnapshot snapshot = MovieCatalogSnapshot.of(1, pricings, List.of(
+                movie("F001", "You've Got Mail", pricings.get(0)),
+                movie("F003", "Cars", pricings.get(1)),
+                movie("F004", "Fast & Furious X", pricings.get(2))));
+
+        List<String> movieIds = List.of("F001", "F003", "F004");
+        for (int i = 0; i < movieIds.size(); i++) {
+            MoviePricing pricing = pricings.get(i);
+            int movieIdx = snapshot.movieIndex(movieIds.get(i));
+            for (int days = 1; days <= 2 * MovieCatalogSnapshot.TABULATED_DAYS; days++) {
+                assertEquals(PriceCalculator.calculateRentalAmountCents(pricing, days), snapshot.rentalAmountCents(movieIdx, days));
+                assertEquals(PointsCalculator.calculateFrequentRenterPoints(pricing.getCode(), days), snapshot.frequentRenterPoints(movieIdx, days));
+            }
+        }
+    }
+
+    @Test
+    void rentalAmountCents_nonPositiveDays_throwsException() {
+        MovieCatalogSnapshot snapshot = sampleSnapshot();
+
+        assertThrows(IllegalArgumentException.class, () -> snapshot.rentalAmountCents(snapshot.movieIndex("F001"), 0));
+    }
+
+    @Test
+    void totals_sumRentalsGivenAsArrays() {
+        MovieCatalogSnapshot snapshot = sampleSnapshot();
+        int[] pricingIdx = {
+                snapshot.pricingIndex(snapshot.movieIndex("F001")),
+                snapshot.pricingIndex(snapshot.movieIndex("F004")),
+                snapshot.pricingIndex(snapshot.movieIndex("F003")),
+                snapshot.pricingIndex(snapshot.movieIndex("F001"))};
+        int[] days = {3, 3, 40, 1};
+
+        assertEquals(350 + 300 + 5700, snapshot.totalAmountCents(pricingIdx, days, 3));
+        assertEquals(1 + 2 + 1, snapshot.totalFrequentRenterPoints(pricingIdx, days, 3));
+    }
+
+    @Test
+    void of_pricingWithoutPrices_skipsPricingAndItsMovies() {
+        MoviePricing regular = pricing("regular", 2, "2.00", "1.50");
+        MoviePricing broken = pricing("broken", 2, "2.00", "1.50");
+        broken.setExtraPricePerDay(null);
+
+        MovieCatalogSnapshot snapshot = MovieCatalogSnapshot.of(1, List.of(broken, regular),
+                List.of(movie("F001", "You've Got Mail", regular), movie("F002", "Matrix", broken)));
+
+        assertEquals(1, snapshot.pricingCount());
+        assertEquals(1, snapshot.movieCount());
+        assertEquals(350, snapshot.rentalAmountCents(snapshot.movieIndex("F001"), 3));
+        assertEquals(MovieCatalogSnapshot.NOT_FOUND, snapshot.movieIndex("F002"));
+        assertTrue(snapshot.isSkipped("F002"));
+        assertFalse(snapshot.isSkipped("F001"));
+    }
+
+    @Test
+    void frequentRenterPoints_newReleaseEarnsBonus() {
+        MovieCatalogSnapshot snapshot = sampleSnapshot();
+
+        assertEquals(2, snapshot.frequentRenterPoints(snapshot.movieIndex("F004"), 3));
+        assertEquals(1, snapshot.frequentRenterPoints(snapshot.movieIndex("F004"), 1));
+        assertEquals(1, snapshot.frequentRenterPoints(snapshot.movieIndex("F001"), 3));
+    }
+
+    @Test
+    void movieIndex_unknownMovie_returnsNotFound() {
+        MovieCatalogSnapshot snapshot = sampleSnapshot();
+
+        assertEquals(MovieCatalogSnapshot.NOT_FOUND, snapshot.movieIndex("F999"));
+        assertEquals(MovieCatalogSnapshot.NOT_FOUND, snapshot.movieIndex(null));
+    }
+
+    @Test
+    void of_movieWithUnknownOrMissingPricingCode_isSkipped() {
+        MoviePricing orphan = pricing("orphan", 1, "1.00", "1.00");
+        MoviePricing regular = pricing("regular", 2, "2.00", "1.50");
+        List<Movie> movies = List.of(movie("F005", "Orphan", orphan), movie("F006", "No Pricing", null),
+                movie("F001", "You've Got Mail", regular));
+
+        MovieCatalogSnapshot snapshot = MovieCatalogSnapshot.of(1, List.of(regular), movies);
+
+        assertEquals(1, snapshot.movieCount());
+        assertEquals(2, snapshot.skippedMovieCount());
+        assertEquals("You've Got Mail", snapshot.title(snapshot.movieIndex("F001")));
+        assertTrue(snapshot.isSkipped("F005"));
+        assertTrue(snapshot.isSkipped("F006"));
+    }
+
+    @Test
+    void repricedMovieIds_returnsMoviesWithChangedCodeOrPrices() {
+        MovieCatalogSnapshot previous = sampleSnapshot();
+        MoviePricing regular = pricing("regular", 2, "2.00", "1.50");
+        MoviePricing childrens = pricing("childrens", 3, "1.75", "1.50");
+        MoviePricing fresh = pricing("new", 2, "3.00", "0.00");
+        MovieCatalogSnapshot reloaded = MovieCatalogSnapshot.of(2, List.of(regular, childrens, fresh), List.of(
+                movie("F001", "You've Got Mail", regular),
+                movie("F003", "Cars", childrens),
+                movie("F004", "Fast & Furious X", regular),
+                movie("F005", "Barbie", fresh)));
+
+        assertEquals(Set.of("F003", "F004"), reloaded.repricedMovieIds(previous));
+        assertEquals(Set.of(), previous.repricedMovieIds(sampleSnapshot()));
+    }
+}
@@ -0,0 +1,98 @@
+package com.etraveligroup.movie.rental.config;
+
+import com.etraveligroup.movie.rental.constants.BlockingExecutionMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockingTaskExecutorTest {
+
+    private BlockingTaskExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void boundedPool_tracksQueuedAndActiveTasks() throws Exception {
+        executor = new BlockingTaskExecutor(BlockingExecutionMode.BOUNDED_POOL, 1, 10, null);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<?> running = executor.submit(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        Future<?> queued = executor.submit(() -> { });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertEquals(1, executor.getActiveTasks());
+        assertEquals(1, executor.getQueueDepth());
+
+        release.countDown();
+        running.get(5, TimeUnit.SECONDS);
+        queued.get(5, TimeUnit.SECONDS);
+        // the future completes just before the wrapper leaves the task, so give the counter a moment to settle
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.getActiveTasks() > 0 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertEquals(0, executor.getActiveTasks());
+        assertEquals(0, executor.getQueueDepth());
+    }
+
+    @Test
+    void boundedPool_rejectsTasksBeyondQueueCapacity() throws Exception {
+        executor = new BlockingTaskExecutor(BlockingExecutionMode.BOUNDED_POOL, 1, 1, null);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute(() -> { });
+
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> { }));
+        assertEquals(1, executor.getQueueDepth());
+        release.countDown();
+    }
+
+    @Test
+    void virtualThreads_runTasksOnVirtualThreads() throws Exception {
+        executor = new BlockingTaskExecutor(BlockingExecutionMode.VIRTUAL_THREADS, 0, 0, null);
+
+        Boolean virtual = executor.submit(() -> Thread.currentThread().isVirtual()).get(5, TimeUnit.SECONDS);
+
+        assertTrue(virtual);
+        assertEquals(BlockingExecutionMode.VIRTUAL_THREADS, executor.getMode());
+    }
+
+    @Test
+    void bindTo_registersMetrics() {
+        executor = new BlockingTaskExecutor(BlockingExecutionMode.BOUNDED_POOL, 1, 1, null);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        executor.bindTo(registry);
+
+        assertEquals(0, registry.get("movie.rental.blocking.queue.depth").tag("mode", "bounded_pool").gauge().value());
+        assertEquals(0, registry.get("movie.rental.blocking.active.tasks").gauge().value());
+        assertEquals(0, registry.get("movie.rental.blocking.virtual.threads.pinned").functionCounter().count());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.etraveligroup.movie.rental.config;
+
+import com.etraveligroup.movie.rental.dto.InvoiceItemDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import com.etraveligroup.movie.rental.util.InvoiceFormatter;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvoiceTextHttpMessageConverterTest {
+
+    private static final InvoiceResponseDTO INVOICE = new InvoiceResponseDTO("John Doe",
+            List.of(new InvoiceItemDTO("Matrix", new BigDecimal("3.50"))), new BigDecimal("3.50"), 1);
+
+    private final InvoiceTextHttpMessageConverter converter = new InvoiceTextHttpMessageConverter();
+
+    @Test
+    void write_textPlain_writesFormattedInvoiceAsUtf8() throws IOException {
+        MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+
+        converter.write(INVOICE, MediaType.TEXT_PLAIN, outputMessage);
+
+        byte[] expected = InvoiceFormatter.format(INVOICE).getBytes(StandardCharsets.UTF_8);
+        assertArrayEquals(expected, outputMessage.getBodyAsBytes());
+        assertEquals(expected.length, outputMessage.getHeaders().getContentLength());
+        assertEquals(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8), outputMessage.getHeaders().getContentType());
+    }
+
+    @Test
+    void canWrite_onlyInvoicesAsText() {
+        assertTrue(converter.canWrite(InvoiceResponseDTO.class, MediaType.TEXT_PLAIN));
+        assertFalse(converter.canWrite(InvoiceResponseDTO.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(String.class, MediaType.TEXT_PLAIN));
+    }
+
+    @Test
+    void canRead_isFalse() {
+        assertFalse(converter.canRead(InvoiceResponseDTO.class, MediaType.TEXT_PLAIN));
+    }
+}
@@ -0,0 +1,65 @@
+package com.etraveligroup.movie.rental.config;
+
+import com.etraveligroup.movie.rental.datasource.ReadYourWrites;
+import com.etraveligroup.movie.rental.datasource.ReplicaRoutingDataSource;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import com.etraveligroup.movie.rental.exceptions.CustomerNotFoundException;
+import com.etraveligroup.movie.rental.service.RentalInfoService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:replica-test-primary;DB_CLOSE_DELAY=-1",
+        "movie-rental.invoice.read-path=PROJECTION",
+        "movie-rental.read-replicas.enabled=true",
+        "movie-rental.read-replicas.initialize-schema=true",
+        "movie-rental.read-replicas.replicas[0].url=jdbc:h2:mem:replica-test-one;DB_CLOSE_DELAY=-1",
+        "movie-rental.read-replicas.replicas[0].username=sa",
+        "movie-rental.read-replicas.replicas[1].url=jdbc:h2:mem:replica-test-two;DB_CLOSE_DELAY=-1",
+        "movie-rental.read-replicas.replicas[1].username=sa"})
+class ReadReplicaConfigTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ReplicaRoutingDataSource replicaRoutingDataSource;
+
+    @Autowired
+    private RentalInfoService rentalInfoService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void applicationDataSource_isLazyProxyWithReplicas() {
+        assertInstanceOf(LazyConnectionDataSourceProxy.class, dataSource);
+        assertEquals(2, replicaRoutingDataSource.getHealthyReplicaCount());
+    }
+
+    @Test
+    void invoiceReads_areServedByReplicas_unlessReadYourWritesIsRequested() throws Exception {
+        jdbcTemplate.update("INSERT INTO Customer (name, name_key) VALUES ('Fresh Renter', 'fresh renter')");
+        Long customerId = jdbcTemplate.queryForObject("SELECT id FROM Customer WHERE name_key = 'fresh renter'", Long.class);
+        jdbcTemplate.update("INSERT INTO MovieRental (days, customer_id, movie_id) VALUES (3, ?, 'F001')", customerId);
+
+        assertThrows(CustomerNotFoundException.class, () -> rentalInfoService.generateInvoiceById(customerId).block());
+
+        InvoiceResponseDTO invoice = ReadYourWrites.call(true, () -> rentalInfoService.generateInvoiceById(customerId).block());
+        assertEquals("Fresh Renter", invoice.customer());
+    }
+
+    @Test
+    void seededCustomers_areReadFromReplicas() {
+        InvoiceResponseDTO invoice = rentalInfoService.generateInvoiceById(1L).block();
+
+        assertEquals("John Doe", invoice.customer());
+    }
+}
@@ -0,0 +1,70 @@
+package com.etraveligroup.movie.rental.config;
+
+import com.etraveligroup.movie.rental.entity.Movie;
+import com.etraveligroup.movie.rental.entity.MoviePricing;
+import com.etraveligroup.movie.rental.repository.MovieRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.cache.CacheManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:second-level-cache-test;DB_CLOSE_DELAY=-1",
+        "movie-rental.invoice-cache.enabled=false"})
+class SecondLevelCacheConfigTest {
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager secondLevelCacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @Test
+    void regions_areCreatedFromProperties() {
+        assertTrue(statistics.isStatisticsEnabled());
+        assertNotNull(secondLevelCacheManager.getCache("movie"));
+        assertNotNull(secondLevelCacheManager.getCache("movie-pricing"));
+    }
+
+    @Test
+    void repeatedMovieLookups_readMoviesAndPricingFromTheCache() {
+        Movie first = movieRepository.findById("F001").orElseThrow();
+        assertEquals(1, statistics.getEntityStatistics(Movie.class.getName()).getLoadCount());
+        statistics.clear();
+
+        Movie second = movieRepository.findById("F001").orElseThrow();
+        Movie third = movieRepository.findById("F001").orElseThrow();
+
+        assertEquals(first.getTitle(), second.getTitle());
+        assertEquals(first.getPricing().getCode(), third.getPricing().getCode());
+        assertEquals(0, statistics.getEntityStatistics(Movie.class.getName()).getLoadCount());
+        assertEquals(0, statistics.getEntityStatistics(MoviePricing.class.getName()).getLoadCount());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(2, statistics.getCacheRegionStatistics("movie").getHitCount());
+        assertEquals(0, statistics.getCacheRegionStatistics("movie").getMissCount());
+        assertEquals(2, meterRegistry.get("movie.rental.second-level-cache.hits").tag("region", "movie").functionCounter().count());
+    }
+}
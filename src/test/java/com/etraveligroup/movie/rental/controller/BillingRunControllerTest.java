@@ -0,0 +1,64 @@
+package com.etraveligroup.movie.rental.controller;
+
+import com.etraveligroup.movie.rental.constants.BillingRunState;
+import com.etraveligroup.movie.rental.dto.BillingRunStatusDTO;
+import com.etraveligroup.movie.rental.service.impl.BillingRunService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BillingRunControllerTest {
+
+    @Mock
+    BillingRunService billingRunService;
+
+    @InjectMocks
+    BillingRunController billingRunController;
+
+    @Test
+    void startBillingRun_returnsAccepted() {
+        BillingRunStatusDTO status = status("run-1", BillingRunState.RUNNING);
+        when(billingRunService.start()).thenReturn(status);
+
+        ResponseEntity<BillingRunStatusDTO> response = billingRunController.startBillingRun();
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(status, response.getBody());
+    }
+
+    @Test
+    void getBillingRun_returnsStatus() {
+        BillingRunStatusDTO status = status("run-1", BillingRunState.COMPLETED);
+        when(billingRunService.status("run-1")).thenReturn(status);
+
+        ResponseEntity<BillingRunStatusDTO> response = billingRunController.getBillingRun("run-1");
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(status, response.getBody());
+    }
+
+    @Test
+    void resumeBillingRun_returnsAccepted() {
+        BillingRunStatusDTO status = status("run-1", BillingRunState.RUNNING);
+        when(billingRunService.resume("run-1")).thenReturn(status);
+
+        ResponseEntity<BillingRunStatusDTO> response = billingRunController.resumeBillingRun("run-1");
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(status, response.getBody());
+    }
+
+    private static BillingRunStatusDTO status(String runId, BillingRunState state) {
+        return new BillingRunStatusDTO(runId, state, 4, 2, 0, 1, 2, 10d, Instant.now(), null, "billing-runs/" + runId);
+    }
+}
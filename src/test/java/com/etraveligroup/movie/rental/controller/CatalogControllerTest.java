@@ -0,0 +1,48 @@
+package com.etraveligroup.movie.rental.controller;
+
+import com.etraveligroup.movie.rental.dto.CatalogStatusDTO;
+import com.etraveligroup.movie.rental.service.impl.MovieCatalogService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogControllerTest {
+
+    @Mock
+    MovieCatalogService movieCatalogService;
+
+    @InjectMocks
+    CatalogController catalogController;
+
+    @Test
+    void getCatalogStatus_returnsCurrentStatus() {
+        CatalogStatusDTO status = new CatalogStatusDTO(3, 4, 3, Instant.now());
+        when(movieCatalogService.status()).thenReturn(status);
+
+        ResponseEntity<CatalogStatusDTO> response = catalogController.getCatalogStatus();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(status, response.getBody());
+    }
+
+    @Test
+    void reloadCatalog_reloadsAndReturnsStatus() {
+        CatalogStatusDTO status = new CatalogStatusDTO(4, 4, 3, Instant.now());
+        when(movieCatalogService.status()).thenReturn(status);
+
+        ResponseEntity<CatalogStatusDTO> response = catalogController.reloadCatalog();
+
+        verify(movieCatalogService).reload();
+        assertEquals(status, response.getBody());
+    }
+}
@@ -126,4 +126,34 @@ class GlobalExceptionHandlerTest {
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertEquals("pdf error", response.getBody());
     }
-}
\ No newline at end of file
+
+    @Test
+    void handleBillingRunNotFound_returnsNotFound() {
+        ResponseEntity<String> response = handler.handleBillingRunNotFound(new BillingRunNotFoundException("Billing run not found: x"));
+
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("Billing run not found: x", response.getBody());
+    }
+
+    @Test
+    void handleRentalIngestionFailed_returnsInternalServerErrorWithCommittedRows() {
+        RentalIngestionFailedException ex = new RentalIngestionFailedException(5000, 12000, new IllegalStateException("connection lost"));
+
+        ResponseEntity<Map<String, Object>> response = handler.handleRentalIngestionFailed(ex);
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        Map<String, Object> body = response.getBody();
+        assertNotNull(body);
+        assertEquals("Rental ingestion failed after committing 5000 of 12000 rentals: connection lost", body.get("error"));
+        assertEquals(5000, body.get("rowsCommitted"));
+        assertEquals(12000, body.get("rowsRequested"));
+    }
+
+    @Test
+    void handleBillingRunInProgress_returnsConflict() {
+        ResponseEntity<String> response = handler.handleBillingRunInProgress(new BillingRunInProgressException("Billing run x is still running"));
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals("Billing run x is still running", response.getBody());
+    }
+}
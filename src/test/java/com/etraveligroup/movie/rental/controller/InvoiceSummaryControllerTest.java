@@ -0,0 +1,51 @@
+package com.etraveligroup.movie.rental.controller;
+
+import com.etraveligroup.movie.rental.dto.CustomerInvoiceSummaryDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceSummaryVerificationDTO;
+import com.etraveligroup.movie.rental.service.impl.CustomerInvoiceSummaryService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceSummaryControllerTest {
+
+    @Mock
+    CustomerInvoiceSummaryService customerInvoiceSummaryService;
+
+    @InjectMocks
+    InvoiceSummaryController invoiceSummaryController;
+
+    @Test
+    void getSummary_returnsSummary() {
+        CustomerInvoiceSummaryDTO summary = new CustomerInvoiceSummaryDTO(1L, new BigDecimal("5.50"), 2, 2, 3L, Instant.now());
+        when(customerInvoiceSummaryService.getSummary(1L)).thenReturn(summary);
+
+        ResponseEntity<CustomerInvoiceSummaryDTO> response = invoiceSummaryController.getSummary(1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(summary, response.getBody());
+    }
+
+    @Test
+    void verify_returnsReport() {
+        InvoiceSummaryVerificationDTO report = new InvoiceSummaryVerificationDTO(50, 1, List.of(7L), false, Instant.now());
+        when(customerInvoiceSummaryService.verify(50)).thenReturn(report);
+
+        ResponseEntity<InvoiceSummaryVerificationDTO> response = invoiceSummaryController.verify(50);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(report, response.getBody());
+    }
+}
@@ -0,0 +1,62 @@
+package com.etraveligroup.movie.rental.controller;
+
+import com.etraveligroup.movie.rental.dto.CustomerPointsBalanceDTO;
+import com.etraveligroup.movie.rental.dto.PointsLedgerCompactionDTO;
+import com.etraveligroup.movie.rental.dto.PointsLedgerVerificationDTO;
+import com.etraveligroup.movie.rental.service.impl.FrequentPointsLedgerService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PointsLedgerControllerTest {
+
+    @Mock
+    FrequentPointsLedgerService frequentPointsLedgerService;
+
+    @InjectMocks
+    PointsLedgerController pointsLedgerController;
+
+    @Test
+    void getBalance_returnsBalance() {
+        CustomerPointsBalanceDTO balance = new CustomerPointsBalanceDTO(1L, 12, 5L, Instant.now());
+        when(frequentPointsLedgerService.getBalance(1L)).thenReturn(balance);
+
+        ResponseEntity<CustomerPointsBalanceDTO> response = pointsLedgerController.getBalance(1L);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(balance, response.getBody());
+    }
+
+    @Test
+    void compact_returnsReport() {
+        PointsLedgerCompactionDTO report = new PointsLedgerCompactionDTO(3, 40, Instant.now(), 12L);
+        when(frequentPointsLedgerService.compact()).thenReturn(report);
+
+        ResponseEntity<PointsLedgerCompactionDTO> response = pointsLedgerController.compact();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(report, response.getBody());
+    }
+
+    @Test
+    void verify_returnsReport() {
+        PointsLedgerVerificationDTO report = new PointsLedgerVerificationDTO(50, 1, List.of(7L), false, Instant.now());
+        when(frequentPointsLedgerService.verify(50)).thenReturn(report);
+
+        ResponseEntity<PointsLedgerVerificationDTO> response = pointsLedgerController.verify(50);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(report, response.getBody());
+    }
+}
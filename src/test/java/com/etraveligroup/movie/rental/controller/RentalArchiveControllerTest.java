@@ -0,0 +1,45 @@
+package com.etraveligroup.movie.rental.controller;
+
+import com.etraveligroup.movie.rental.dto.RentalArchiveResultDTO;
+import com.etraveligroup.movie.rental.service.impl.RentalArchiveService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RentalArchiveControllerTest {
+
+    @Mock
+    RentalArchiveService rentalArchiveService;
+
+    @InjectMocks
+    RentalArchiveController rentalArchiveController;
+
+    @Test
+    void returnRental_returnsNoContent() {
+        ResponseEntity<Void> response = rentalArchiveController.returnRental(5L);
+
+        assertEquals(HttpStatus.NO_CONTENT, response.getStatusCode());
+        verify(rentalArchiveService).markReturned(5L);
+    }
+
+    @Test
+    void archive_returnsRunReport() {
+        RentalArchiveResultDTO result = new RentalArchiveResultDTO(3, 1, Instant.parse("2024-01-01T00:00:00Z"), 12L);
+        when(rentalArchiveService.archive()).thenReturn(result);
+
+        ResponseEntity<RentalArchiveResultDTO> response = rentalArchiveController.archive();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(result, response.getBody());
+    }
+}
@@ -1,18 +1,38 @@
 
 package com.etraveligroup.movie.rental.controller;
 
+import com.etraveligroup.movie.rental.dto.BatchInvoiceResultDTO;
 import com.etraveligroup.movie.rental.dto.GenerateInvoiceByNameRequestDTO;
+import com.etraveligroup.movie.rental.dto.GenerateInvoicesByIdsRequestDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceItemDTO;
 import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import com.etraveligroup.movie.rental.dto.RentalPeriodDTO;
+import com.etraveligroup.movie.rental.exceptions.CustomerNotFoundException;
 import com.etraveligroup.movie.rental.service.RentalInfoService;
+import com.etraveligroup.movie.rental.service.impl.CustomerExistenceGuard;
+import com.etraveligroup.movie.rental.service.impl.InvoiceRequestCoalescer;
 import com.etraveligroup.movie.rental.service.impl.PdfGenerateService;
-import com.etraveligroup.movie.rental.util.InvoiceParserUtil;
+import com.etraveligroup.movie.rental.util.InvoiceETagUtil;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -20,63 +40,61 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class RentalControllerTest {
 
+    private static final InvoiceResponseDTO INVOICE = new InvoiceResponseDTO("John Doe",
+            List.of(new InvoiceItemDTO("Matrix", new BigDecimal("3.50"))), new BigDecimal("3.50"), 1);
+
     @Mock
     RentalInfoService rentalInfoService;
 
     @Mock
     PdfGenerateService pdfGenerateService;
 
+    @Spy
+    InvoiceRequestCoalescer invoiceRequestCoalescer = new InvoiceRequestCoalescer();
+
+    @Mock
+    CustomerExistenceGuard customerExistenceGuard;
+
     @InjectMocks
     RentalController rentalController;
 
     @Test
     void generateInvoice_returnsPdfResponse() {
         GenerateInvoiceByNameRequestDTO request = mock(GenerateInvoiceByNameRequestDTO.class);
-        String invoiceText = "invoice text";
-        InvoiceResponseDTO invoiceDTO = mock(InvoiceResponseDTO.class);
         byte[] pdfBytes = new byte[]{1, 2, 3};
 
-        when(rentalInfoService.generateInvoiceByName(request)).thenReturn(Mono.just(invoiceText));
-        try (MockedStatic<InvoiceParserUtil> utilMock = mockStatic(InvoiceParserUtil.class)) {
-            utilMock.when(() -> InvoiceParserUtil.parseInvoiceText(invoiceText)).thenReturn(invoiceDTO);
-            when(pdfGenerateService.generatePdfFromHtmlTemplate(invoiceDTO)).thenReturn(pdfBytes);
+        when(rentalInfoService.generateInvoiceByName(request)).thenReturn(Mono.just(INVOICE));
+        when(pdfGenerateService.generatePdfFromHtmlTemplate(INVOICE)).thenReturn(pdfBytes);
 
-            ResponseEntity<Object> response = rentalController
-                    .generateInvoice(request, MediaType.APPLICATION_PDF_VALUE)
-                    .block();
+        ResponseEntity<Object> response = rentalController
+                .generateInvoice(request, MediaType.APPLICATION_PDF_VALUE)
+                .block();
 
-            assertNotNull(response);
-            assertEquals(MediaType.APPLICATION_PDF, response.getHeaders().getContentType());
-            assertArrayEquals(pdfBytes, (byte[]) response.getBody());
-        }
+        assertNotNull(response);
+        assertEquals(MediaType.APPLICATION_PDF, response.getHeaders().getContentType());
+        assertArrayEquals(pdfBytes, (byte[]) response.getBody());
     }
 
     @Test
     void generateInvoice_returnsJsonResponse() {
         GenerateInvoiceByNameRequestDTO request = mock(GenerateInvoiceByNameRequestDTO.class);
-        String invoiceText = "invoice text";
-        InvoiceResponseDTO invoiceDTO = mock(InvoiceResponseDTO.class);
 
-        when(rentalInfoService.generateInvoiceByName(request)).thenReturn(Mono.just(invoiceText));
-        try (MockedStatic<InvoiceParserUtil> utilMock = mockStatic(InvoiceParserUtil.class)) {
-            utilMock.when(() -> InvoiceParserUtil.parseInvoiceText(invoiceText)).thenReturn(invoiceDTO);
+        when(rentalInfoService.generateInvoiceByName(request)).thenReturn(Mono.just(INVOICE));
 
-            ResponseEntity<Object> response = rentalController
-                    .generateInvoice(request, MediaType.APPLICATION_JSON_VALUE)
-                    .block();
+        ResponseEntity<Object> response = rentalController
+                .generateInvoice(request, MediaType.APPLICATION_JSON_VALUE)
+                .block();
 
-            assertNotNull(response);
-            assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
-            assertEquals(invoiceDTO, response.getBody());
-        }
+        assertNotNull(response);
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals(INVOICE, response.getBody());
     }
 
     @Test
     void generateInvoice_returnsTextResponse() {
         GenerateInvoiceByNameRequestDTO request = mock(GenerateInvoiceByNameRequestDTO.class);
-        String invoiceText = "plain text invoice";
 
-        when(rentalInfoService.generateInvoiceByName(request)).thenReturn(Mono.just(invoiceText));
+        when(rentalInfoService.generateInvoiceByName(request)).thenReturn(Mono.just(INVOICE));
 
         ResponseEntity<Object> response = rentalController
                 .generateInvoice(request, MediaType.TEXT_PLAIN_VALUE)
@@ -84,65 +102,198 @@ class RentalControllerTest {
 
         assertNotNull(response);
         assertEquals(MediaType.TEXT_PLAIN, response.getHeaders().getContentType());
-        assertEquals(invoiceText, response.getBody());
+        assertEquals(INVOICE, response.getBody());
     }
 
     @Test
     void generateInvoiceById_returnsPdfResponse() {
         Long customerId = 1L;
-        String invoiceText = "invoice text";
-        InvoiceResponseDTO invoiceDTO = mock(InvoiceResponseDTO.class);
         byte[] pdfBytes = new byte[]{1, 2, 3};
 
-        when(rentalInfoService.generateInvoiceById(customerId)).thenReturn(Mono.just(invoiceText));
-        try (MockedStatic<InvoiceParserUtil> utilMock = mockStatic(InvoiceParserUtil.class)) {
-            utilMock.when(() -> InvoiceParserUtil.parseInvoiceText(invoiceText)).thenReturn(invoiceDTO);
-            when(pdfGenerateService.generatePdfFromHtmlTemplate(invoiceDTO)).thenReturn(pdfBytes);
+        when(rentalInfoService.generateInvoiceById(customerId)).thenReturn(Mono.just(INVOICE));
+        when(pdfGenerateService.generatePdfFromHtmlTemplate(INVOICE)).thenReturn(pdfBytes);
 
-            ResponseEntity<Object> response = rentalController
-                    .generateInvoiceById(customerId, MediaType.APPLICATION_PDF_VALUE)
-                    .block();
+        ResponseEntity<Object> response = rentalController
+                .generateInvoiceById(customerId, null, null, MediaType.APPLICATION_PDF_VALUE, null)
+                .block();
 
-            assertNotNull(response);
-            assertEquals(MediaType.APPLICATION_PDF, response.getHeaders().getContentType());
-            assertArrayEquals(pdfBytes, (byte[]) response.getBody());
-        }
+        assertNotNull(response);
+        assertEquals(MediaType.APPLICATION_PDF, response.getHeaders().getContentType());
+        assertArrayEquals(pdfBytes, (byte[]) response.getBody());
     }
 
     @Test
     void generateInvoiceById_returnsJsonResponse() {
         Long customerId = 1L;
-        String invoiceText = "invoice text";
-        InvoiceResponseDTO invoiceDTO = mock(InvoiceResponseDTO.class);
 
-        when(rentalInfoService.generateInvoiceById(customerId)).thenReturn(Mono.just(invoiceText));
-        try (MockedStatic<InvoiceParserUtil> utilMock = mockStatic(InvoiceParserUtil.class)) {
-            utilMock.when(() -> InvoiceParserUtil.parseInvoiceText(invoiceText)).thenReturn(invoiceDTO);
+        when(rentalInfoService.generateInvoiceById(customerId)).thenReturn(Mono.just(INVOICE));
 
-            ResponseEntity<Object> response = rentalController
-                    .generateInvoiceById(customerId, MediaType.APPLICATION_JSON_VALUE)
-                    .block();
+        ResponseEntity<Object> response = rentalController
+                .generateInvoiceById(customerId, null, null, MediaType.APPLICATION_JSON_VALUE, null)
+                .block();
 
-            assertNotNull(response);
-            assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
-            assertEquals(invoiceDTO, response.getBody());
-        }
+        assertNotNull(response);
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertEquals(INVOICE, response.getBody());
     }
 
     @Test
     void generateInvoiceById_returnsTextResponse() {
         Long customerId = 1L;
-        String invoiceText = "plain text invoice";
 
-        when(rentalInfoService.generateInvoiceById(customerId)).thenReturn(Mono.just(invoiceText));
+        when(rentalInfoService.generateInvoiceById(customerId)).thenReturn(Mono.just(INVOICE));
 
         ResponseEntity<Object> response = rentalController
-                .generateInvoiceById(customerId, MediaType.TEXT_PLAIN_VALUE)
+                .generateInvoiceById(customerId, null, null, MediaType.TEXT_PLAIN_VALUE, null)
                 .block();
 
         assertNotNull(response);
         assertEquals(MediaType.TEXT_PLAIN, response.getHeaders().getContentType());
-        assertEquals(invoiceText, response.getBody());
+        assertEquals(INVOICE, response.getBody());
+    }
+
+    @Test
+    void generateInvoiceById_carriesETagAndCacheControl() {
+        Long customerId = 1L;
+        when(rentalInfoService.generateInvoiceById(customerId)).thenReturn(Mono.just(INVOICE));
+
+        ResponseEntity<Object> response = rentalController
+                .generateInvoiceById(customerId, null, null, MediaType.TEXT_PLAIN_VALUE, "\"plain-outdated\"")
+                .block();
+
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(InvoiceETagUtil.eTag(INVOICE, MediaType.TEXT_PLAIN), response.getHeaders().getETag());
+        assertEquals("no-cache, private", response.getHeaders().getCacheControl());
+        assertEquals(List.of(HttpHeaders.ACCEPT), response.getHeaders().getVary());
     }
 
-}
\ No newline at end of file
+    @Test
+    void generateInvoiceById_matchingIfNoneMatch_returnsNotModifiedWithoutRendering() {
+        Long customerId = 1L;
+        String eTag = InvoiceETagUtil.eTag(INVOICE, MediaType.APPLICATION_PDF);
+        when(rentalInfoService.generateInvoiceById(customerId)).thenReturn(Mono.just(INVOICE));
+
+        ResponseEntity<Object> response = rentalController
+                .generateInvoiceById(customerId, null, null, MediaType.APPLICATION_PDF_VALUE, "\"other\", " + eTag)
+                .block();
+
+        assertNotNull(response);
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertEquals(eTag, response.getHeaders().getETag());
+        assertNull(response.getBody());
+        verifyNoInteractions(pdfGenerateService);
+    }
+
+    @Test
+    void generateInvoiceById_knownMissingCustomer_returnsBadRequestWithoutServiceCall() {
+        when(customerExistenceGuard.isKnownMissing(99L)).thenReturn(true);
+
+        ResponseEntity<Object> response = rentalController
+                .generateInvoiceById(99L, null, null, MediaType.TEXT_PLAIN_VALUE, null)
+                .block();
+
+        assertNotNull(response);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Customer not found", response.getBody());
+        verifyNoInteractions(rentalInfoService);
+    }
+
+    @Test
+    void generateInvoiceById_customerNotFound_recordsMissingCustomer() {
+        when(rentalInfoService.generateInvoiceById(99L)).thenReturn(Mono.error(new CustomerNotFoundException("Customer not found")));
+
+        assertThrows(CustomerNotFoundException.class, () -> rentalController
+                .generateInvoiceById(99L, null, null, MediaType.TEXT_PLAIN_VALUE, null)
+                .block());
+
+        verify(customerExistenceGuard).recordMissing(99L);
+    }
+
+    @Test
+    void generateInvoiceById_concurrentPdfRequests_shareOneComputationAndRendering() {
+        Long customerId = 1L;
+        byte[] pdfBytes = new byte[]{1, 2, 3};
+        Sinks.One<InvoiceResponseDTO> invoice = Sinks.one();
+        when(rentalInfoService.generateInvoiceById(customerId)).thenReturn(invoice.asMono());
+        when(pdfGenerateService.generatePdfFromHtmlTemplate(INVOICE)).thenReturn(pdfBytes);
+
+        Mono<ResponseEntity<Object>> first = rentalController
+                .generateInvoiceById(customerId, null, null, MediaType.APPLICATION_PDF_VALUE, null);
+        Mono<ResponseEntity<Object>> second = rentalController
+                .generateInvoiceById(customerId, null, null, MediaType.APPLICATION_PDF_VALUE, null);
+        invoice.tryEmitValue(INVOICE);
+
+        assertArrayEquals(pdfBytes, (byte[]) first.block().getBody());
+        assertArrayEquals(pdfBytes, (byte[]) second.block().getBody());
+        verify(rentalInfoService, times(1)).generateInvoiceById(customerId);
+        verify(pdfGenerateService, times(1)).generatePdfFromHtmlTemplate(INVOICE);
+    }
+
+    @Test
+    void generateInvoiceById_pdfRequestDuringRendering_joinsRunningRendering() throws Exception {
+        Long customerId = 1L;
+        byte[] pdfBytes = new byte[]{1, 2, 3};
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(rentalInfoService.generateInvoiceById(customerId)).thenReturn(Mono.just(INVOICE));
+        when(pdfGenerateService.generatePdfFromHtmlTemplate(INVOICE)).thenAnswer(invocation -> {
+            rendering.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return pdfBytes;
+        });
+
+        CompletableFuture<ResponseEntity<Object>> first = rentalController
+                .generateInvoiceById(customerId, null, null, MediaType.APPLICATION_PDF_VALUE, null)
+                .subscribeOn(Schedulers.boundedElastic())
+                .toFuture();
+        assertTrue(rendering.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ResponseEntity<Object>> second = rentalController
+                .generateInvoiceById(customerId, null, null, MediaType.APPLICATION_PDF_VALUE, null)
+                .toFuture();
+        release.countDown();
+
+        assertArrayEquals(pdfBytes, (byte[]) first.get(5, TimeUnit.SECONDS).getBody());
+        assertArrayEquals(pdfBytes, (byte[]) second.get(5, TimeUnit.SECONDS).getBody());
+        verify(rentalInfoService, times(2)).generateInvoiceById(customerId);
+        verify(pdfGenerateService, times(1)).generatePdfFromHtmlTemplate(INVOICE);
+    }
+
+    @Test
+    void generateInvoiceById_withDateRange_generatesHistoricalInvoice() {
+        Long customerId = 1L;
+        RentalPeriodDTO period = new RentalPeriodDTO(Instant.parse("2024-01-01T00:00:00Z"), Instant.parse("2024-04-01T00:00:00Z"));
+        when(rentalInfoService.generateInvoiceById(customerId, period)).thenReturn(Mono.just(INVOICE));
+
+        ResponseEntity<Object> response = rentalController
+                .generateInvoiceById(customerId, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 31), MediaType.TEXT_PLAIN_VALUE, null)
+                .block();
+
+        assertNotNull(response);
+        assertEquals(INVOICE, response.getBody());
+        verify(rentalInfoService, never()).generateInvoiceById(customerId);
+    }
+
+    @Test
+    void generateInvoiceById_rangeEndingBeforeItStarts_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> rentalController
+                .generateInvoiceById(1L, LocalDate.of(2024, 3, 1), LocalDate.of(2024, 1, 31), MediaType.TEXT_PLAIN_VALUE, null));
+        verifyNoInteractions(rentalInfoService);
+    }
+
+
+    @Test
+    void generateInvoices_streamsServiceResults() {
+        List<Long> customerIds = List.of(1L, 99L);
+        BatchInvoiceResultDTO success = new BatchInvoiceResultDTO(1L, mock(InvoiceResponseDTO.class), null);
+        BatchInvoiceResultDTO failure = new BatchInvoiceResultDTO(99L, null, "Customer not found");
+        when(rentalInfoService.generateInvoicesByIds(customerIds)).thenReturn(Flux.just(success, failure));
+
+        List<BatchInvoiceResultDTO> results = rentalController
+                .generateInvoices(new GenerateInvoicesByIdsRequestDTO(customerIds))
+                .collectList()
+                .block();
+
+        assertEquals(List.of(success, failure), results);
+    }
+}
@@ -0,0 +1,41 @@
+package com.etraveligroup.movie.rental.controller;
+
+import com.etraveligroup.movie.rental.dto.CustomerRentalsDTO;
+import com.etraveligroup.movie.rental.dto.IngestRentalsRequestDTO;
+import com.etraveligroup.movie.rental.dto.MovieRentalDTO;
+import com.etraveligroup.movie.rental.dto.RentalIngestionResultDTO;
+import com.etraveligroup.movie.rental.service.impl.RentalIngestionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RentalIngestionControllerTest {
+
+    @Mock
+    RentalIngestionService rentalIngestionService;
+
+    @InjectMocks
+    RentalIngestionController rentalIngestionController;
+
+    @Test
+    void ingestRentals_returnsCreatedWithResult() {
+        List<CustomerRentalsDTO> customers = List.of(new CustomerRentalsDTO(1L, List.of(new MovieRentalDTO("F001", 3))));
+        RentalIngestionResultDTO result = new RentalIngestionResultDTO(1, 1, 5L, 200d);
+        when(rentalIngestionService.ingest(customers)).thenReturn(result);
+
+        ResponseEntity<RentalIngestionResultDTO> response = rentalIngestionController.ingestRentals(new IngestRentalsRequestDTO(customers));
+
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        assertEquals(result, response.getBody());
+    }
+}
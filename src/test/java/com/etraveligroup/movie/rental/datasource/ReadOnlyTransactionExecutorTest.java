@@ -0,0 +1,48 @@
+package com.etraveligroup.movie.rental.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReadOnlyTransactionExecutorTest {
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void call_runsTaskInReadOnlyTransaction() throws Exception {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        ReadOnlyTransactionExecutor executor = new ReadOnlyTransactionExecutor(transactionManager);
+
+        boolean readYourWrites = executor.call(true, ReadYourWrites::isActive);
+
+        ArgumentCaptor<TransactionDefinition> definition = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definition.capture());
+        assertTrue(definition.getValue().isReadOnly());
+        assertTrue(readYourWrites);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void call_rethrowsCheckedExceptionAndRollsBack() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        ReadOnlyTransactionExecutor executor = new ReadOnlyTransactionExecutor(transactionManager);
+
+        assertThrows(IOException.class, () -> executor.call(false, () -> {
+            throw new IOException("read failed");
+        }));
+        verify(transactionManager).rollback(any());
+    }
+}
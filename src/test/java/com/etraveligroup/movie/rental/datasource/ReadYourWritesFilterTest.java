@@ -0,0 +1,35 @@
+package com.etraveligroup.movie.rental.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter();
+
+    @Test
+    void headerTrue_activatesOverrideDuringRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(ReadYourWrites.HEADER, "true");
+        AtomicBoolean active = new AtomicBoolean();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> active.set(ReadYourWrites.isActive()));
+
+        assertTrue(active.get());
+        assertFalse(ReadYourWrites.isActive());
+    }
+
+    @Test
+    void missingHeader_keepsReplicaReads() throws Exception {
+        AtomicBoolean active = new AtomicBoolean(true);
+
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (req, res) -> active.set(ReadYourWrites.isActive()));
+
+        assertFalse(active.get());
+    }
+}
@@ -0,0 +1,33 @@
+package com.etraveligroup.movie.rental.datasource;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadYourWritesTest {
+
+    @Test
+    void call_activatesOverrideOnlyWhileTaskRuns() throws Exception {
+        assertFalse(ReadYourWrites.isActive());
+
+        assertTrue(ReadYourWrites.call(true, ReadYourWrites::isActive));
+
+        assertFalse(ReadYourWrites.isActive());
+    }
+
+    @Test
+    void call_restoresOuterState() throws Exception {
+        boolean inner = ReadYourWrites.call(true, () -> ReadYourWrites.call(false, ReadYourWrites::isActive) || !ReadYourWrites.isActive());
+
+        assertFalse(inner);
+    }
+
+    @Test
+    void call_restoresStateWhenTaskFails() {
+        assertThrows(IllegalStateException.class, () -> ReadYourWrites.call(true, () -> {
+            throw new IllegalStateException("failed");
+        }));
+
+        assertFalse(ReadYourWrites.isActive());
+    }
+}
@@ -0,0 +1,133 @@
+package com.etraveligroup.movie.rental.datasource;
+
+import com.etraveligroup.movie.rental.constants.ReplicaSelectionStrategy;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final List<HikariDataSource> pools = new ArrayList<>();
+    private DataSource primary;
+    private DataSource replicaOne;
+    private DataSource replicaTwo;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replicaOne = database("replica-one");
+        replicaTwo = database("replica-two");
+    }
+
+    @AfterEach
+    void tearDown() {
+        pools.forEach(HikariDataSource::close);
+    }
+
+    @Test
+    void roundRobin_alternatesBetweenReplicas() throws Exception {
+        ReplicaRoutingDataSource routing = routing(ReplicaSelectionStrategy.ROUND_ROBIN, replicaOne, replicaTwo);
+
+        assertEquals(List.of("replica-one", "replica-two", "replica-one", "replica-two"),
+                List.of(serverName(routing), serverName(routing), serverName(routing), serverName(routing)));
+    }
+
+    @Test
+    void leastConnections_prefersIdleReplica() throws Exception {
+        ReplicaRoutingDataSource routing = routing(ReplicaSelectionStrategy.LEAST_CONNECTIONS, replicaOne, replicaTwo);
+
+        try (Connection busy = replicaOne.getConnection()) {
+            assertEquals("replica-two", serverName(routing));
+            assertEquals("replica-two", serverName(routing));
+        }
+    }
+
+    @Test
+    void readYourWrites_readsFromPrimary() throws Exception {
+        ReplicaRoutingDataSource routing = routing(ReplicaSelectionStrategy.ROUND_ROBIN, replicaOne, replicaTwo);
+
+        assertEquals("primary", ReadYourWrites.call(true, () -> serverName(routing)));
+        assertEquals("replica-one", serverName(routing));
+    }
+
+    @Test
+    void unhealthyReplicas_fallBackToPrimary() throws Exception {
+        ReplicaRoutingDataSource routing = routing(ReplicaSelectionStrategy.ROUND_ROBIN, missingDatabase());
+
+        routing.checkHealth();
+
+        assertEquals(0, routing.getHealthyReplicaCount());
+        assertEquals("primary", serverName(routing));
+    }
+
+    @Test
+    void refusedConnection_marksReplicaUnhealthyAndUsesPrimary() throws Exception {
+        ReplicaRoutingDataSource routing = routing(ReplicaSelectionStrategy.ROUND_ROBIN, missingDatabase(), replicaTwo);
+
+        assertEquals("primary", serverName(routing));
+        assertEquals(1, routing.getHealthyReplicaCount());
+        assertEquals("replica-two", serverName(routing));
+    }
+
+    @Test
+    void checkHealth_restoresRecoveredReplica() throws Exception {
+        ReplicaRoutingDataSource routing = routing(ReplicaSelectionStrategy.ROUND_ROBIN, replicaOne);
+        ReplicaRoutingDataSource.Replica replica = new ReplicaRoutingDataSource.Replica("replica-one", replicaOne);
+        replica.markHealthy(false);
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica), ReplicaSelectionStrategy.ROUND_ROBIN, Duration.ofSeconds(1));
+        assertEquals("primary", serverName(routing));
+
+        routing.checkHealth();
+
+        assertTrue(replica.isHealthy());
+        assertEquals("replica-one", serverName(routing));
+    }
+
+    private ReplicaRoutingDataSource routing(ReplicaSelectionStrategy strategy, DataSource... replicas) {
+        List<ReplicaRoutingDataSource.Replica> configured = new ArrayList<>();
+        for (int i = 0; i < replicas.length; i++) {
+            configured.add(new ReplicaRoutingDataSource.Replica("replica-" + i, replicas[i]));
+        }
+        return new ReplicaRoutingDataSource(primary, configured, strategy, Duration.ofSeconds(1));
+    }
+
+    private DataSource database(String name) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUsername("sa");
+        dataSource.setMaximumPoolSize(4);
+        pools.add(dataSource);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS server (name VARCHAR(32))");
+        jdbcTemplate.execute("DELETE FROM server");
+        jdbcTemplate.update("INSERT INTO server (name) VALUES (?)", name);
+        return dataSource;
+    }
+
+    private static DataSource missingDatabase() {
+        return new DriverManagerDataSource("jdbc:h2:mem:routing-missing;IFEXISTS=TRUE", "sa", "");
+    }
+
+    private static String serverName(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT name FROM server")) {
+            resultSet.next();
+            return resultSet.getString(1);
+        }
+    }
+}
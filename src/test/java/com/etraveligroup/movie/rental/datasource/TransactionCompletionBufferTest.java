@@ -0,0 +1,93 @@
+package com.etraveligroup.movie.rental.datasource;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.ActionQueue;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransactionCompletionBufferTest {
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private SessionImplementor session;
+
+    @Mock
+    private ActionQueue actionQueue;
+
+    private final List<List<String>> completed = new ArrayList<>();
+    private TransactionCompletionBuffer<String> buffer;
+
+    @BeforeEach
+    void setUp() {
+        buffer = new TransactionCompletionBuffer<>(entityManager, items -> completed.add(List.copyOf(items)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    void add_outsideTransaction_isNotBuffered() {
+        assertFalse(buffer.add("a"));
+
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    void add_inTransaction_handsOverItemsBeforeCompletion() {
+        stubSession();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+
+        assertTrue(buffer.add("a"));
+        assertTrue(buffer.add("b"));
+
+        ArgumentCaptor<BeforeTransactionCompletionProcess> beforeCompletion = ArgumentCaptor.forClass(BeforeTransactionCompletionProcess.class);
+        verify(actionQueue).registerProcess(beforeCompletion.capture());
+        assertTrue(completed.isEmpty());
+        beforeCompletion.getValue().doBeforeTransactionCompletion(session);
+        assertEquals(List.of(List.of("a", "b")), completed);
+    }
+
+    @Test
+    void add_afterRollback_startsNewItems() {
+        stubSession();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        buffer.add("a");
+        ArgumentCaptor<AfterTransactionCompletionProcess> afterCompletion = ArgumentCaptor.forClass(AfterTransactionCompletionProcess.class);
+        verify(actionQueue).registerProcess(afterCompletion.capture());
+        afterCompletion.getValue().doAfterTransactionCompletion(false, session);
+
+        buffer.add("b");
+
+        ArgumentCaptor<BeforeTransactionCompletionProcess> beforeCompletion = ArgumentCaptor.forClass(BeforeTransactionCompletionProcess.class);
+        verify(actionQueue, times(2)).registerProcess(beforeCompletion.capture());
+        beforeCompletion.getValue().doBeforeTransactionCompletion(session);
+        assertEquals(List.of(List.of("b")), completed);
+        verify(actionQueue, times(2)).registerProcess(any(AfterTransactionCompletionProcess.class));
+    }
+
+    private void stubSession() {
+        when(entityManager.unwrap(SessionImplementor.class)).thenReturn(session);
+        when(session.getActionQueue()).thenReturn(actionQueue);
+    }
+}
@@ -0,0 +1,28 @@
+package com.etraveligroup.movie.rental.dto;
+
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchInvoiceResultDTOTest {
+
+    @Test
+    void testConstructorAndAccessors() {
+        InvoiceResponseDTO invoice = new InvoiceResponseDTO("John Doe", List.of(), BigDecimal.ONE, 1);
+        BatchInvoiceResultDTO dto = new BatchInvoiceResultDTO(1L, invoice, null);
+        assertEquals(1L, dto.customerId());
+        assertEquals(invoice, dto.invoice());
+        assertNull(dto.error());
+    }
+
+    @Test
+    void testJsonOmitsNullFields() throws Exception {
+        String json = new ObjectMapper().writeValueAsString(new BatchInvoiceResultDTO(7L, null, "Customer not found"));
+        assertEquals("{\"customerId\":7,\"error\":\"Customer not found\"}", json);
+    }
+}
@@ -0,0 +1,34 @@
+package com.etraveligroup.movie.rental.dto;
+
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerateInvoicesByIdsRequestDTOTest {
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    void testConstructorAndAccessor() {
+        GenerateInvoicesByIdsRequestDTO dto = new GenerateInvoicesByIdsRequestDTO(List.of(1L, 2L));
+        assertEquals(List.of(1L, 2L), dto.customerIds());
+    }
+
+    @Test
+    void testValidIds_passValidation() {
+        assertTrue(validator.validate(new GenerateInvoicesByIdsRequestDTO(List.of(1L, 2L))).isEmpty());
+    }
+
+    @Test
+    void testEmptyNullOrNonPositiveIds_failValidation() {
+        assertFalse(validator.validate(new GenerateInvoicesByIdsRequestDTO(List.of())).isEmpty());
+        assertFalse(validator.validate(new GenerateInvoicesByIdsRequestDTO(Arrays.asList(1L, null))).isEmpty());
+        assertFalse(validator.validate(new GenerateInvoicesByIdsRequestDTO(List.of(0L))).isEmpty());
+    }
+}
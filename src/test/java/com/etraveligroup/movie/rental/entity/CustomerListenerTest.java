@@ -0,0 +1,47 @@
+package com.etraveligroup.movie.rental.entity;
+
+import com.etraveligroup.movie.rental.event.CustomerSavedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerListenerTest {
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private CustomerListener listener;
+
+    @Test
+    void saved_publishesIdAndNameKey() {
+        Customer customer = new Customer();
+        customer.setId(7L);
+        customer.setName(" New Renter ");
+        customer.updateNameKey();
+
+        listener.saved(customer);
+
+        verify(eventPublisher).publishEvent(new CustomerSavedEvent(7L, "new renter", null));
+    }
+
+    @Test
+    void saved_renamedCustomer_publishesPreviousNameKey() {
+        Customer customer = new Customer();
+        customer.setId(7L);
+        customer.setName("Old Name");
+        customer.updateNameKey();
+        customer.setName("New Name");
+        customer.updateNameKey();
+
+        listener.saved(customer);
+
+        verify(eventPublisher).publishEvent(new CustomerSavedEvent(7L, "new name", "old name"));
+    }
+}
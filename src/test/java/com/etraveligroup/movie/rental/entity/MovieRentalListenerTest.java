@@ -0,0 +1,84 @@
+package com.etraveligroup.movie.rental.entity;
+
+import com.etraveligroup.movie.rental.constants.RentalChangeType;
+import com.etraveligroup.movie.rental.event.RentalChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MovieRentalListenerTest {
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private MovieRentalListener listener;
+
+    @Test
+    void added_publishesAddedEvent() {
+        MovieRental rental = rental(10L, 1L, "F001", 3);
+
+        listener.added(rental);
+
+        verify(eventPublisher).publishEvent(new RentalChangedEvent(RentalChangeType.ADDED, 10L, 1L, "F001", 3));
+    }
+
+    @Test
+    void updated_publishesRemovalOfLoadedStateAndAdditionOfNewState() {
+        MovieRental rental = rental(10L, 1L, "F001", 3);
+        listener.loaded(rental);
+        rental.setDays(5);
+
+        listener.updated(rental);
+
+        ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(List.of(
+                new RentalChangedEvent(RentalChangeType.REMOVED, 10L, 1L, "F001", 3),
+                new RentalChangedEvent(RentalChangeType.ADDED, 10L, 1L, "F001", 5)), events.getAllValues());
+    }
+
+    @Test
+    void updated_withoutRelevantChange_publishesNothing() {
+        MovieRental rental = rental(10L, 1L, "F001", 3);
+        listener.loaded(rental);
+
+        listener.updated(rental);
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void removed_publishesLastPersistedState() {
+        MovieRental rental = rental(10L, 1L, "F001", 3);
+        listener.added(rental);
+        rental.setDays(7);
+
+        listener.removed(rental);
+
+        verify(eventPublisher).publishEvent(new RentalChangedEvent(RentalChangeType.REMOVED, 10L, 1L, "F001", 3));
+    }
+
+    private static MovieRental rental(Long id, Long customerId, String movieId, int days) {
+        Customer customer = new Customer();
+        customer.setId(customerId);
+        Movie movie = new Movie();
+        movie.setId(movieId);
+        MovieRental rental = new MovieRental();
+        rental.setId(id);
+        rental.setCustomer(customer);
+        rental.setMovie(movie);
+        rental.setDays(days);
+        return rental;
+    }
+}
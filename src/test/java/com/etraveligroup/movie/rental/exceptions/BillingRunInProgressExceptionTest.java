@@ -0,0 +1,21 @@
+package com.etraveligroup.movie.rental.exceptions;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BillingRunInProgressExceptionTest {
+
+    @Test
+    void testMessageConstructor() {
+        String message = "Billing run run-1";
+        BillingRunInProgressException ex = new BillingRunInProgressException(message);
+        assertEquals(message, ex.getMessage());
+        assertNull(ex.getCause());
+    }
+
+    @Test
+    void testIsRuntimeException() {
+        BillingRunInProgressException ex = new BillingRunInProgressException("Test");
+        assertTrue(ex instanceof RuntimeException);
+    }
+}
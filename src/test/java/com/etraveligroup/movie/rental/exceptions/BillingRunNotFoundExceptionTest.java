@@ -0,0 +1,21 @@
+package com.etraveligroup.movie.rental.exceptions;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BillingRunNotFoundExceptionTest {
+
+    @Test
+    void testMessageConstructor() {
+        String message = "Billing run run-1";
+        BillingRunNotFoundException ex = new BillingRunNotFoundException(message);
+        assertEquals(message, ex.getMessage());
+        assertNull(ex.getCause());
+    }
+
+    @Test
+    void testIsRuntimeException() {
+        BillingRunNotFoundException ex = new BillingRunNotFoundException("Test");
+        assertTrue(ex instanceof RuntimeException);
+    }
+}
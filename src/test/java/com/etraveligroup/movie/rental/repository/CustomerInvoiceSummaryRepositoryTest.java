@@ -0,0 +1,189 @@
+package com.etraveligroup.movie.rental.repository;
+
+import com.etraveligroup.movie.rental.dto.CustomerInvoiceSummaryDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceSummaryVerificationDTO;
+import com.etraveligroup.movie.rental.entity.Customer;
+import com.etraveligroup.movie.rental.entity.Movie;
+import com.etraveligroup.movie.rental.entity.MoviePricing;
+import com.etraveligroup.movie.rental.entity.MovieRental;
+import com.etraveligroup.movie.rental.service.impl.CustomerInvoiceSummaryService;
+import com.etraveligroup.movie.rental.service.impl.MovieCatalogService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({CustomerInvoiceSummaryRepository.class, CustomerInvoiceSummaryService.class, MovieCatalogService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CustomerInvoiceSummaryRepositoryTest {
+
+    @Autowired
+    private CustomerInvoiceSummaryRepository summaryRepository;
+
+    @Autowired
+    private CustomerInvoiceSummaryService summaryService;
+
+    @Autowired
+    private MovieCatalogService movieCatalogService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void backfill_createsSummariesOfSeededCustomersOnStartup() {
+        CustomerInvoiceSummaryDTO johnDoe = summaryRepository.findByCustomerId(1L).orElseThrow();
+        CustomerInvoiceSummaryDTO janeSmith = summaryRepository.findByCustomerId(2L).orElseThrow();
+
+        assertEquals(0, new BigDecimal("5.50").compareTo(johnDoe.totalAmount()));
+        assertEquals(2, johnDoe.frequentPoints());
+        assertEquals(2, johnDoe.rentalCount());
+        assertEquals(0, BigDecimal.ZERO.compareTo(janeSmith.totalAmount()));
+        assertEquals(0, janeSmith.rentalCount());
+        assertEquals(0, summaryService.backfill());
+    }
+
+    @Test
+    void persistedRentals_areAddedToSummaryOnceOnCommit() {
+        Customer customer = inTransaction(() -> persistCustomer("Summary Renter"));
+        inTransaction(() -> persistRental(customer, "F001", 3));
+
+        inTransaction(() -> {
+            persistRental(customer, "F004", 2);
+            persistRental(customer, "F002", 1);
+            return null;
+        });
+
+        CustomerInvoiceSummaryDTO summary = summaryRepository.findByCustomerId(customer.getId()).orElseThrow();
+        assertEquals(0, new BigDecimal("8.50").compareTo(summary.totalAmount()));
+        assertEquals(4, summary.frequentPoints());
+        assertEquals(3, summary.rentalCount());
+        assertEquals(2, summary.version());
+    }
+
+    @Test
+    void rolledBackRentals_leaveSummaryUnchanged() {
+        Customer customer = inTransaction(() -> persistCustomer("Undecided Renter"));
+        inTransaction(() -> persistRental(customer, "F001", 3));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            persistRental(customer, "F004", 2);
+            status.setRollbackOnly();
+        });
+
+        assertEquals(1, summaryRepository.findByCustomerId(customer.getId()).orElseThrow().rentalCount());
+    }
+
+    @Test
+    void updatedAndRemovedRentals_applyDeltas() {
+        Customer customer = inTransaction(() -> persistCustomer("Changing Renter"));
+        MovieRental kept = inTransaction(() -> persistRental(customer, "F001", 1));
+        MovieRental removed = inTransaction(() -> persistRental(customer, "F003", 4));
+
+        inTransaction(() -> {
+            entityManager.find(MovieRental.class, kept.getId()).setDays(4);
+            entityManager.remove(entityManager.find(MovieRental.class, removed.getId()));
+            return null;
+        });
+
+        CustomerInvoiceSummaryDTO summary = summaryRepository.findByCustomerId(customer.getId()).orElseThrow();
+        assertEquals(0, new BigDecimal("5.00").compareTo(summary.totalAmount()));
+        assertEquals(1, summary.frequentPoints());
+        assertEquals(1, summary.rentalCount());
+    }
+
+    @Test
+    void changedMovie_publishesChangeFromLoadedState() {
+        Customer customer = inTransaction(() -> persistCustomer("Reloaded Renter"));
+        MovieRental rental = inTransaction(() -> persistRental(customer, "F002", 2));
+
+        inTransaction(() -> {
+            entityManager.find(MovieRental.class, rental.getId()).setMovie(entityManager.find(Movie.class, "F004"));
+            return null;
+        });
+
+        CustomerInvoiceSummaryDTO summary = summaryRepository.findByCustomerId(customer.getId()).orElseThrow();
+        assertEquals(0, new BigDecimal("3.00").compareTo(summary.totalAmount()));
+        assertEquals(2, summary.frequentPoints());
+        assertEquals(1, summary.rentalCount());
+    }
+
+    @Test
+    void verify_reportsRentalsWrittenAroundTheListener() {
+        Customer customer = inTransaction(() -> persistCustomer("Bypassing Renter"));
+        inTransaction(() -> persistRental(customer, "F001", 1));
+        inTransaction(() -> entityManager.getEntityManager()
+                .createNativeQuery("INSERT INTO MovieRental (days, customer_id, movie_id) VALUES (2, ?, 'F002')")
+                .setParameter(1, customer.getId())
+                .executeUpdate());
+
+        InvoiceSummaryVerificationDTO report = summaryService.verify(1000);
+
+        assertEquals(List.of(customer.getId()), report.driftedCustomerIds());
+        assertFalse(report.repaired());
+        assertEquals(1, summaryRepository.findByCustomerId(customer.getId()).orElseThrow().rentalCount());
+    }
+
+    @Test
+    void catalogReload_rebuildsSummariesOfRepricedMovies() {
+        inTransaction(() -> {
+            MoviePricing pricing = new MoviePricing();
+            pricing.setCode("summary-reprice");
+            pricing.setBaseDays(2);
+            pricing.setBasePrice(new BigDecimal("2.00"));
+            pricing.setExtraPricePerDay(new BigDecimal("1.00"));
+            Movie movie = new Movie();
+            movie.setId("R001");
+            movie.setTitle("Repriced");
+            movie.setPricing(entityManager.persist(pricing));
+            return entityManager.persist(movie);
+        });
+        movieCatalogService.reload();
+        Customer customer = inTransaction(() -> persistCustomer("Repriced Renter"));
+        inTransaction(() -> persistRental(customer, "R001", 3));
+        assertEquals(0, new BigDecimal("3.00").compareTo(summaryRepository.findByCustomerId(customer.getId()).orElseThrow().totalAmount()));
+
+        inTransaction(() -> {
+            entityManager.find(MoviePricing.class, "summary-reprice").setBasePrice(new BigDecimal("4.00"));
+            return null;
+        });
+        movieCatalogService.reload();
+
+        assertEquals(1, summaryService.rebuildRepriced());
+        CustomerInvoiceSummaryDTO summary = summaryRepository.findByCustomerId(customer.getId()).orElseThrow();
+        assertEquals(0, new BigDecimal("5.00").compareTo(summary.totalAmount()));
+        assertEquals(1, summary.rentalCount());
+        assertEquals(0, summaryService.rebuildRepriced());
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return transactionTemplate.execute(status -> work.get());
+    }
+
+    private Customer persistCustomer(String name) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        return entityManager.persist(customer);
+    }
+
+    private MovieRental persistRental(Customer customer, String movieId, int days) {
+        MovieRental rental = new MovieRental();
+        rental.setCustomer(entityManager.find(Customer.class, customer.getId()));
+        rental.setMovie(entityManager.find(Movie.class, movieId));
+        rental.setDays(days);
+        return entityManager.persist(rental);
+    }
+}
@@ -0,0 +1,155 @@
+package com.etraveligroup.movie.rental.repository;
+
+import com.etraveligroup.movie.rental.config.SecondLevelCacheConfig;
+import com.etraveligroup.movie.rental.dto.CustomerNameDTO;
+import com.etraveligroup.movie.rental.dto.CustomerNameKeyDTO;
+import com.etraveligroup.movie.rental.entity.Customer;
+import com.etraveligroup.movie.rental.entity.Movie;
+import com.etraveligroup.movie.rental.entity.MovieRental;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(SecondLevelCacheConfig.class)
+class CustomerRepositoryTest {
+
+    private static final List<String> MOVIE_IDS = List.of("F001", "F002", "F003", "F004");
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void findWithRentalsById_loadsWholeInvoiceGraph() {
+        Customer customer = persistCustomerWithRentals("Graph Customer", 3);
+
+        Customer loaded = customerRepository.findWithRentalsById(customer.getId()).orElseThrow();
+
+        assertEquals(3, loaded.getRentals().size());
+        loaded.getRentals().forEach(rental -> {
+            assertNotNull(rental.getMovie().getTitle());
+            assertNotNull(rental.getMovie().getPricing().getCode());
+        });
+    }
+
+    @Test
+    void findWithRentalsById_statementCountDoesNotGrowWithRentals() {
+        Customer small = persistCustomerWithRentals("Small Renter", 1);
+        Customer large = persistCustomerWithRentals("Heavy Renter", 40);
+
+        long smallStatements = countStatementsForInvoiceGraph(() -> customerRepository.findWithRentalsById(small.getId()).orElseThrow());
+        long largeStatements = countStatementsForInvoiceGraph(() -> customerRepository.findWithRentalsById(large.getId()).orElseThrow());
+
+        assertEquals(1, smallStatements);
+        assertEquals(smallStatements, largeStatements);
+    }
+
+    @Test
+    void findWithRentalsById_coldCache_stillLoadsGraphInOneStatement() {
+        Customer customer = persistCustomerWithRentals("Cold Cache Renter", 40);
+        entityManagerFactory.getCache().evictAll();
+
+        long statements = countStatementsForInvoiceGraph(() -> customerRepository.findWithRentalsById(customer.getId()).orElseThrow());
+
+        assertEquals(1, statements);
+    }
+
+    @Test
+    void findIdsByNameKey_matchesNormalizedName() {
+        Customer customer = persistCustomerWithRentals("  Mixed Case Renter ", 1);
+
+        assertEquals("mixed case renter", entityManager.find(Customer.class, customer.getId()).getNameKey());
+        assertEquals(List.of(customer.getId()), customerRepository.findIdsByNameKey("mixed case renter"));
+        assertTrue(customerRepository.findIdsByNameKey("Mixed Case Renter").isEmpty());
+    }
+
+    @Test
+    void findIdsAfter_pagesCustomerIdsByKeyset() {
+        Customer first = persistCustomerWithRentals("Keyset One", 0);
+        Customer second = persistCustomerWithRentals("Keyset Two", 0);
+        Customer third = persistCustomerWithRentals("Keyset Three", 0);
+
+        assertEquals(List.of(first.getId(), second.getId()), customerRepository.findIdsAfter(first.getId() - 1, PageRequest.of(0, 2)));
+        assertEquals(List.of(third.getId()), customerRepository.findIdsAfter(second.getId(), PageRequest.of(0, 2)));
+        assertTrue(customerRepository.findIdsAfter(third.getId(), PageRequest.of(0, 2)).isEmpty());
+    }
+
+    @Test
+    void findNameKeysAfter_pagesIdsAndNameKeysByKeyset() {
+        Customer first = persistCustomerWithRentals("Key Page One", 0);
+        Customer second = persistCustomerWithRentals("Key Page Two", 0);
+
+        assertEquals(List.of(new CustomerNameKeyDTO(first.getId(), "key page one")),
+                customerRepository.findNameKeysAfter(first.getId() - 1, PageRequest.of(0, 1)));
+        assertEquals(List.of(new CustomerNameKeyDTO(second.getId(), "key page two")),
+                customerRepository.findNameKeysAfter(first.getId(), PageRequest.of(0, 1)));
+        assertTrue(customerRepository.findNameKeysAfter(second.getId(), PageRequest.of(0, 1)).isEmpty());
+    }
+
+    @Test
+    void findNamesWithoutNameKeyAfter_andUpdateMissingNameKey_backfillPlainSqlCustomers() {
+        Customer withKey = persistCustomerWithRentals("Has A Key", 0);
+        entityManager.getEntityManager().createNativeQuery("insert into Customer (name) values ('Plain SQL Renter')").executeUpdate();
+        Long plainId = customerRepository.findIdsAfter(withKey.getId(), PageRequest.of(0, 1)).get(0);
+
+        assertEquals(List.of(new CustomerNameDTO(plainId, "Plain SQL Renter")),
+                customerRepository.findNamesWithoutNameKeyAfter(0L, PageRequest.of(0, 10)));
+        assertEquals(1, customerRepository.updateMissingNameKey(plainId, "plain sql renter"));
+        assertEquals(0, customerRepository.updateMissingNameKey(plainId, "other"));
+        assertEquals(List.of(plainId), customerRepository.findIdsByNameKey("plain sql renter"));
+        assertTrue(customerRepository.findNamesWithoutNameKeyAfter(0L, PageRequest.of(0, 10)).isEmpty());
+    }
+
+    private long countStatementsForInvoiceGraph(Supplier<Customer> loader) {
+        entityManager.clear();
+        statistics.clear();
+
+        Customer customer = loader.get();
+        for (MovieRental rental : customer.getRentals()) {
+            rental.getMovie().getPricing().getBasePrice();
+        }
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Customer persistCustomerWithRentals(String name, int rentalCount) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        entityManager.persist(customer);
+
+        for (int i = 0; i < rentalCount; i++) {
+            MovieRental rental = new MovieRental();
+            rental.setCustomer(customer);
+            rental.setMovie(entityManager.find(Movie.class, MOVIE_IDS.get(i % MOVIE_IDS.size())));
+            rental.setDays(i % 5 + 1);
+            entityManager.persist(rental);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return customer;
+    }
+}
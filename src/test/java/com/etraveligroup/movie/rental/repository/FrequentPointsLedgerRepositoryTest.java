@@ -0,0 +1,178 @@
+package com.etraveligroup.movie.rental.repository;
+
+import com.etraveligroup.movie.rental.dto.PointsLedgerCompactionDTO;
+import com.etraveligroup.movie.rental.dto.PointsLedgerVerificationDTO;
+import com.etraveligroup.movie.rental.entity.Customer;
+import com.etraveligroup.movie.rental.entity.Movie;
+import com.etraveligroup.movie.rental.entity.MovieRental;
+import com.etraveligroup.movie.rental.service.impl.FrequentPointsLedgerService;
+import com.etraveligroup.movie.rental.service.impl.MovieCatalogService;
+import com.etraveligroup.movie.rental.service.impl.RentalArchiveService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({FrequentPointsLedgerRepository.class, FrequentPointsLedgerService.class, MovieCatalogService.class,
+        MovieRentalArchiveRepository.class, RentalArchiveService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class FrequentPointsLedgerRepositoryTest {
+
+    @Autowired
+    private FrequentPointsLedgerRepository ledgerRepository;
+
+    @Autowired
+    private FrequentPointsLedgerService ledgerService;
+
+    @Autowired
+    private RentalArchiveService rentalArchiveService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void backfill_carriesForwardPointsOfSeededCustomersOnStartup() {
+        assertEquals(2, ledgerRepository.findBalance(1L).orElseThrow().balance());
+        assertEquals(2, ledgerRepository.sumEntries(1L));
+        assertEquals(0, ledgerRepository.findBalance(2L).orElseThrow().balance());
+        assertEquals(0, ledgerService.backfill());
+    }
+
+    @Test
+    void persistedRentals_appendEntriesAndUpdateBalanceOnCommit() {
+        Customer customer = inTransaction(() -> persistCustomer("Points Renter"));
+        inTransaction(() -> persistRental(customer, "F001", 3));
+
+        inTransaction(() -> {
+            persistRental(customer, "F004", 3);
+            persistRental(customer, "F002", 1);
+            return null;
+        });
+
+        assertEquals(4, ledgerRepository.findBalance(customer.getId()).orElseThrow().balance());
+        assertEquals(2, ledgerRepository.findBalance(customer.getId()).orElseThrow().version());
+        assertEquals(4, ledgerRepository.sumEntries(customer.getId()));
+        assertEquals(3, countEntries(customer.getId()));
+    }
+
+    @Test
+    void rolledBackRentals_leaveLedgerUnchanged() {
+        Customer customer = inTransaction(() -> persistCustomer("Undecided Points Renter"));
+        inTransaction(() -> persistRental(customer, "F001", 3));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            persistRental(customer, "F004", 3);
+            status.setRollbackOnly();
+        });
+
+        assertEquals(1, ledgerRepository.findBalance(customer.getId()).orElseThrow().balance());
+        assertEquals(1, countEntries(customer.getId()));
+    }
+
+    @Test
+    void changedAndRemovedRentals_appendReversals() {
+        Customer customer = inTransaction(() -> persistCustomer("Changing Points Renter"));
+        MovieRental changed = inTransaction(() -> persistRental(customer, "F002", 2));
+        MovieRental removed = inTransaction(() -> persistRental(customer, "F003", 4));
+
+        inTransaction(() -> {
+            entityManager.find(MovieRental.class, changed.getId()).setMovie(entityManager.find(Movie.class, "F004"));
+            entityManager.remove(entityManager.find(MovieRental.class, removed.getId()));
+            return null;
+        });
+
+        assertEquals(2, ledgerRepository.findBalance(customer.getId()).orElseThrow().balance());
+        assertEquals(5, countEntries(customer.getId()));
+    }
+
+    @Test
+    void archivedRentals_keepTheirPoints() {
+        Customer customer = inTransaction(() -> persistCustomer("Archived Points Renter"));
+        MovieRental rental = inTransaction(() -> persistRental(customer, "F004", 3));
+        jdbcTemplate.update("UPDATE MovieRental SET returned_at = ? WHERE id = ?",
+                Instant.now().minus(400, ChronoUnit.DAYS).atOffset(ZoneOffset.UTC), rental.getId());
+
+        rentalArchiveService.archive();
+
+        assertEquals(2, ledgerRepository.findBalance(customer.getId()).orElseThrow().balance());
+        assertEquals(1, countEntries(customer.getId()));
+        assertFalse(ledgerService.verify(1000).driftedCustomerIds().contains(customer.getId()));
+    }
+
+    @Test
+    void compact_foldsOldEntriesWithoutChangingTheBalance() {
+        Customer customer = inTransaction(() -> persistCustomer("Long-Time Points Renter"));
+        inTransaction(() -> persistRental(customer, "F001", 3));
+        inTransaction(() -> persistRental(customer, "F004", 3));
+        inTransaction(() -> persistRental(customer, "F002", 1));
+        jdbcTemplate.update("UPDATE FrequentPointsLedger SET recorded_at = ? WHERE customer_id = ? AND points < 2",
+                Instant.now().minus(100, ChronoUnit.DAYS).atOffset(ZoneOffset.UTC), customer.getId());
+
+        PointsLedgerCompactionDTO report = ledgerService.compact();
+
+        assertTrue(report.customers() >= 1);
+        assertEquals(2, countEntries(customer.getId()));
+        assertEquals(4, ledgerRepository.sumEntries(customer.getId()));
+        assertEquals(4, ledgerRepository.findBalance(customer.getId()).orElseThrow().balance());
+        assertEquals(List.of("CARRIED_FORWARD", "EARNED"), jdbcTemplate.queryForList(
+                "SELECT entry_type FROM FrequentPointsLedger WHERE customer_id = ? ORDER BY entry_type", String.class, customer.getId()));
+    }
+
+    @Test
+    void verify_reportsRentalsWrittenAroundTheListener() {
+        Customer customer = inTransaction(() -> persistCustomer("Bypassing Points Renter"));
+        inTransaction(() -> persistRental(customer, "F001", 1));
+        inTransaction(() -> entityManager.getEntityManager()
+                .createNativeQuery("INSERT INTO MovieRental (days, customer_id, movie_id) VALUES (2, ?, 'F004')")
+                .setParameter(1, customer.getId())
+                .executeUpdate());
+
+        PointsLedgerVerificationDTO report = ledgerService.verify(1000);
+
+        assertTrue(report.driftedCustomerIds().contains(customer.getId()));
+        assertFalse(report.repaired());
+        assertEquals(1, ledgerRepository.findBalance(customer.getId()).orElseThrow().balance());
+    }
+
+    private long countEntries(Long customerId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM FrequentPointsLedger WHERE customer_id = ?", Long.class, customerId);
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return transactionTemplate.execute(status -> work.get());
+    }
+
+    private Customer persistCustomer(String name) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        return entityManager.persist(customer);
+    }
+
+    private MovieRental persistRental(Customer customer, String movieId, int days) {
+        MovieRental rental = new MovieRental();
+        rental.setCustomer(entityManager.find(Customer.class, customer.getId()));
+        rental.setMovie(entityManager.find(Movie.class, movieId));
+        rental.setDays(days);
+        return entityManager.persist(rental);
+    }
+}
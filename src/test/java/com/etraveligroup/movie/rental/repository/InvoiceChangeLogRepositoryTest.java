@@ -0,0 +1,79 @@
+package com.etraveligroup.movie.rental.repository;
+
+import com.etraveligroup.movie.rental.dto.InvoiceChangeDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import(InvoiceChangeLogRepository.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InvoiceChangeLogRepositoryTest {
+
+    @Autowired
+    private InvoiceChangeLogRepository changeLogRepository;
+
+    @Test
+    void append_logsOneChangePerCustomerInIdOrder() {
+        long before = changeLogRepository.findLatestChangeId();
+
+        changeLogRepository.append(List.of(101L, 102L));
+
+        List<InvoiceChangeDTO> changes = changeLogRepository.findChangesAfter(before, 10);
+        assertEquals(List.of(101L, 102L), changes.stream().map(InvoiceChangeDTO::customerId).toList());
+        assertTrue(changes.get(0).changeId() < changes.get(1).changeId());
+        assertFalse(changes.get(0).readAt().isBefore(changes.get(0).changedAt()));
+        assertEquals(changes.get(1).changeId(), changeLogRepository.findLatestChangeId());
+        assertEquals(changes.get(1).changeId(), changeLogRepository.findLatestChangeId(102L));
+        assertEquals(0, changeLogRepository.findLatestChangeId(103L));
+    }
+
+    @Test
+    void findChangesAfter_respectsLimit() {
+        long before = changeLogRepository.findLatestChangeId();
+        changeLogRepository.append(List.of(201L, 202L, 203L));
+
+        assertEquals(List.of(201L, 202L), changeLogRepository.findChangesAfter(before, 2).stream()
+                .map(InvoiceChangeDTO::customerId).toList());
+    }
+
+    @Test
+    void findChanges_returnsOnlyExistingIds() {
+        long before = changeLogRepository.findLatestChangeId();
+        changeLogRepository.append(List.of(301L));
+
+        List<InvoiceChangeDTO> changes = changeLogRepository.findChanges(List.of(before + 1, before + 100));
+
+        assertEquals(1, changes.size());
+        assertEquals(301L, changes.get(0).customerId());
+        assertEquals(List.of(), changeLogRepository.findChanges(List.of()));
+    }
+
+    @Test
+    void findCustomerIdsChangedAfter_returnsEachLaterChangedCustomerOnce() {
+        changeLogRepository.append(List.of(351L));
+        long before = changeLogRepository.findLatestChangeId();
+        changeLogRepository.append(List.of(352L, 353L, 352L));
+
+        assertEquals(Set.of(352L, 353L), changeLogRepository.findCustomerIdsChangedAfter(before));
+    }
+
+    @Test
+    void deleteChangedBefore_keepsRecentChanges() {
+        changeLogRepository.append(List.of(401L));
+
+        assertEquals(0, changeLogRepository.deleteChangedBefore(Instant.now().minus(Duration.ofHours(1))));
+        assertTrue(changeLogRepository.deleteChangedBefore(Instant.now().plus(Duration.ofMinutes(1))) >= 1);
+        assertEquals(0, changeLogRepository.findLatestChangeId(401L));
+    }
+}
@@ -0,0 +1,130 @@
+package com.etraveligroup.movie.rental.repository;
+
+import com.etraveligroup.movie.rental.dto.CustomerInvoiceSummaryDTO;
+import com.etraveligroup.movie.rental.dto.RentalArchiveResultDTO;
+import com.etraveligroup.movie.rental.dto.RentalRecordDTO;
+import com.etraveligroup.movie.rental.entity.Customer;
+import com.etraveligroup.movie.rental.entity.Movie;
+import com.etraveligroup.movie.rental.entity.MovieRental;
+import com.etraveligroup.movie.rental.service.impl.CustomerInvoiceSummaryService;
+import com.etraveligroup.movie.rental.service.impl.MovieCatalogService;
+import com.etraveligroup.movie.rental.service.impl.RentalArchiveService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {"movie-rental.archive.horizon=30d", "movie-rental.archive.batch-size=2"})
+@Import({MovieRentalArchiveRepository.class, RentalArchiveService.class, CustomerInvoiceSummaryRepository.class,
+        CustomerInvoiceSummaryService.class, MovieCatalogService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MovieRentalArchiveRepositoryTest {
+
+    private static final Instant NOW = Instant.now();
+
+    @Autowired
+    private MovieRentalArchiveRepository archiveRepository;
+
+    @Autowired
+    private MovieRentalRepository movieRentalRepository;
+
+    @Autowired
+    private RentalArchiveService rentalArchiveService;
+
+    @Autowired
+    private CustomerInvoiceSummaryRepository summaryRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void archive_movesClosedRentalsOlderThanHorizonInBatches() {
+        Customer customer = inTransaction(() -> persistCustomer("Long Time Renter"));
+        MovieRental oldest = inTransaction(() -> persistRental(customer, "F001", 3, days(400), days(397)));
+        MovieRental old = inTransaction(() -> persistRental(customer, "F003", 4, days(200), days(196)));
+        MovieRental older = inTransaction(() -> persistRental(customer, "F002", 1, days(100), days(99)));
+        MovieRental recentlyReturned = inTransaction(() -> persistRental(customer, "F004", 2, days(10), days(8)));
+        MovieRental open = inTransaction(() -> persistRental(customer, "F002", 2, days(90), null));
+
+        RentalArchiveResultDTO result = rentalArchiveService.archive();
+
+        assertEquals(3, result.archived());
+        assertEquals(2, result.batches());
+        assertEquals(List.of(recentlyReturned.getId(), open.getId()),
+                movieRentalRepository.findByCustomerIdRentedBetween(customer.getId(), Instant.EPOCH, NOW.plusSeconds(60))
+                        .stream().map(RentalRecordDTO::rentalId).toList());
+        assertEquals(List.of(oldest.getId(), old.getId(), older.getId()),
+                archiveRepository.findByCustomerIdRentedBetween(customer.getId(), Instant.EPOCH, NOW)
+                        .stream().map(RentalRecordDTO::rentalId).toList());
+        assertEquals(List.of(old.getId()),
+                archiveRepository.findByCustomerIdRentedBetween(customer.getId(), days(250), days(150))
+                        .stream().map(RentalRecordDTO::rentalId).toList());
+        assertEquals(0, rentalArchiveService.archive().archived());
+    }
+
+    @Test
+    void archive_removesArchivedRentalsFromInvoiceSummary() {
+        Customer customer = inTransaction(() -> persistCustomer("Summarized Renter"));
+        inTransaction(() -> persistRental(customer, "F001", 3, days(400), days(397)));
+        inTransaction(() -> persistRental(customer, "F003", 4, days(5), null));
+
+        rentalArchiveService.archive();
+
+        CustomerInvoiceSummaryDTO summary = summaryRepository.findByCustomerId(customer.getId()).orElseThrow();
+        assertEquals(0, new BigDecimal("3.00").compareTo(summary.totalAmount()));
+        assertEquals(1, summary.frequentPoints());
+        assertEquals(1, summary.rentalCount());
+    }
+
+    @Test
+    void markReturned_closesOpenRentalOnce() {
+        Customer customer = inTransaction(() -> persistCustomer("Returning Renter"));
+        MovieRental rental = inTransaction(() -> persistRental(customer, "F001", 3, days(3), null));
+
+        rentalArchiveService.markReturned(rental.getId());
+
+        assertNotNull(movieRentalRepository.findById(rental.getId()).orElseThrow().getReturnedAt());
+        assertThrows(IllegalArgumentException.class, () -> rentalArchiveService.markReturned(rental.getId()));
+        assertThrows(IllegalArgumentException.class, () -> rentalArchiveService.markReturned(Long.MAX_VALUE));
+        assertEquals(1, summaryRepository.findByCustomerId(customer.getId()).orElseThrow().rentalCount());
+    }
+
+    private static Instant days(int daysAgo) {
+        return NOW.minus(Duration.ofDays(daysAgo));
+    }
+
+    private <T> T inTransaction(Supplier<T> work) {
+        return transactionTemplate.execute(status -> work.get());
+    }
+
+    private Customer persistCustomer(String name) {
+        Customer customer = new Customer();
+        customer.setName(name);
+        return entityManager.persist(customer);
+    }
+
+    private MovieRental persistRental(Customer customer, String movieId, int days, Instant rentedAt, Instant returnedAt) {
+        MovieRental rental = new MovieRental();
+        rental.setCustomer(entityManager.find(Customer.class, customer.getId()));
+        rental.setMovie(entityManager.find(Movie.class, movieId));
+        rental.setDays(days);
+        rental.setRentedAt(rentedAt);
+        rental.setReturnedAt(returnedAt);
+        return entityManager.persist(rental);
+    }
+}
@@ -0,0 +1,70 @@
+package com.etraveligroup.movie.rental.repository;
+
+import com.etraveligroup.movie.rental.dto.RentalInvoiceLineDTO;
+import com.etraveligroup.movie.rental.entity.Customer;
+import com.etraveligroup.movie.rental.entity.Movie;
+import com.etraveligroup.movie.rental.entity.MovieRental;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class MovieRentalRepositoryTest {
+
+    @Autowired
+    private MovieRentalRepository movieRentalRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void findInvoiceLinesByCustomerId_returnsFlatRowsInRentalOrder() {
+        List<RentalInvoiceLineDTO> lines = movieRentalRepository.findInvoiceLinesByCustomerId(1L);
+
+        assertEquals(List.of(
+                new RentalInvoiceLineDTO("You've Got Mail", 3, "regular", 2, new BigDecimal("2.00"), new BigDecimal("1.50")),
+                new RentalInvoiceLineDTO("Matrix", 1, "regular", 2, new BigDecimal("2.00"), new BigDecimal("1.50"))
+        ), lines);
+    }
+
+    @Test
+    void findInvoiceLinesByCustomerId_customerWithoutRentals_returnsEmptyList() {
+        assertTrue(movieRentalRepository.findInvoiceLinesByCustomerId(2L).isEmpty());
+    }
+
+    @Test
+    void persistingRentals_allocatesPooledIdsAndBatchesInserts() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManager.flush();
+        statistics.clear();
+
+        List<MovieRental> rentals = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            MovieRental rental = new MovieRental();
+            rental.setCustomer(entityManager.getEntityManager().getReference(Customer.class, 2L));
+            rental.setMovie(entityManager.getEntityManager().getReference(Movie.class, "F002"));
+            rental.setDays(i % 5 + 1);
+            entityManager.persist(rental);
+            rentals.add(rental);
+        }
+        entityManager.flush();
+
+        assertEquals(200, statistics.getEntityInsertCount());
+        // 200 inserts sent as 4 batches of 50, plus at most 5 sequence calls for the ID blocks
+        assertTrue(statistics.getPrepareStatementCount() <= 9, "statements: " + statistics.getPrepareStatementCount());
+        assertEquals(199, rentals.getLast().getId() - rentals.getFirst().getId());
+    }
+}
@@ -0,0 +1,73 @@
+package com.etraveligroup.movie.rental.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@Import({SharedInvoiceCacheRepository.class, InvoiceChangeLogRepository.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SharedInvoiceCacheRepositoryTest {
+
+    private static final Instant NOW = Instant.now();
+    private static final Instant HOUR_AGO = NOW.minus(Duration.ofHours(1));
+
+    @Autowired
+    private SharedInvoiceCacheRepository sharedInvoiceCacheRepository;
+
+    @Autowired
+    private InvoiceChangeLogRepository changeLogRepository;
+
+    @Test
+    void findValid_returnsInvoiceUntilLaterChangeIsLogged() {
+        long changeId = changeLogRepository.findLatestChangeId(501L);
+        sharedInvoiceCacheRepository.save(501L, "invoice 501", changeId, NOW);
+
+        assertEquals(Optional.of("invoice 501"), sharedInvoiceCacheRepository.findValid(501L, HOUR_AGO));
+
+        changeLogRepository.append(List.of(501L));
+
+        assertEquals(Optional.empty(), sharedInvoiceCacheRepository.findValid(501L, HOUR_AGO));
+    }
+
+    @Test
+    void findValid_ignoresExpiredInvoice() {
+        sharedInvoiceCacheRepository.save(502L, "invoice 502", 0, HOUR_AGO);
+
+        assertEquals(Optional.empty(), sharedInvoiceCacheRepository.findValid(502L, NOW.minus(Duration.ofMinutes(10))));
+    }
+
+    @Test
+    void save_replacesInvoiceOnlyWithOneComputedAfterSameOrLaterChange() {
+        changeLogRepository.append(List.of(503L));
+        long changeId = changeLogRepository.findLatestChangeId(503L);
+        sharedInvoiceCacheRepository.save(503L, "after change", changeId, NOW);
+
+        sharedInvoiceCacheRepository.save(503L, "before change", changeId - 1, NOW);
+        assertEquals(Optional.of("after change"), sharedInvoiceCacheRepository.findValid(503L, HOUR_AGO));
+
+        sharedInvoiceCacheRepository.save(503L, "recomputed", changeId, NOW);
+        assertEquals(Optional.of("recomputed"), sharedInvoiceCacheRepository.findValid(503L, HOUR_AGO));
+    }
+
+    @Test
+    void deleteComputedBefore_removesExpiredInvoices() {
+        sharedInvoiceCacheRepository.save(504L, "old invoice", 0, HOUR_AGO);
+        sharedInvoiceCacheRepository.save(505L, "new invoice", 0, NOW);
+
+        assertTrue(sharedInvoiceCacheRepository.deleteComputedBefore(NOW.minus(Duration.ofMinutes(10))) >= 1);
+
+        assertEquals(Optional.empty(), sharedInvoiceCacheRepository.findValid(504L, Instant.EPOCH));
+        assertEquals(Optional.of("new invoice"), sharedInvoiceCacheRepository.findValid(505L, Instant.EPOCH));
+    }
+}
@@ -0,0 +1,218 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.constants.BillingRunState;
+import com.etraveligroup.movie.rental.dto.BatchInvoiceResultDTO;
+import com.etraveligroup.movie.rental.dto.BillingRunStatusDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceItemDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import com.etraveligroup.movie.rental.exceptions.BillingRunInProgressException;
+import com.etraveligroup.movie.rental.exceptions.BillingRunNotFoundException;
+import com.etraveligroup.movie.rental.repository.CustomerRepository;
+import com.etraveligroup.movie.rental.service.RentalInfoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BillingRunServiceTest {
+
+    private static final List<Long> CUSTOMER_IDS = List.of(1L, 2L, 3L, 4L, 5L);
+
+    @Mock
+    CustomerRepository customerRepository;
+
+    @Mock
+    RentalInfoService rentalInfoService;
+
+    @TempDir
+    Path outputDirectory;
+
+    private BillingRunService billingRunService;
+
+    @BeforeEach
+    void setUp() {
+        billingRunService = newService();
+        lenient().when(customerRepository.count()).thenReturn((long) CUSTOMER_IDS.size());
+        lenient().when(customerRepository.findIdsAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            Pageable pageable = invocation.getArgument(1);
+            return CUSTOMER_IDS.stream().filter(id -> id > afterId).limit(pageable.getPageSize()).toList();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        billingRunService.shutdown();
+    }
+
+    @Test
+    void start_writesEveryPageAndCompletesCheckpoint() throws Exception {
+        when(rentalInfoService.generateInvoicesByIds(anyList())).thenAnswer(invocation -> invoices(invocation.getArgument(0)));
+
+        BillingRunStatusDTO started = billingRunService.start();
+        BillingRunStatusDTO finished = awaitFinished(started.runId());
+
+        assertEquals(BillingRunState.COMPLETED, finished.state());
+        assertEquals(5, finished.customersProcessed());
+        assertEquals(0, finished.customersFailed());
+        assertEquals(3, finished.pagesCompleted());
+        assertEquals(5, finished.checkpointCustomerId());
+
+        Path runDirectory = outputDirectory.resolve(started.runId());
+        for (int page = 1; page <= 3; page++) {
+            assertTrue(Files.exists(runDirectory.resolve(String.format("page-%06d.json", page))));
+            assertTrue(Files.exists(runDirectory.resolve(String.format("page-%06d.txt", page))));
+        }
+        assertTrue(Files.readString(runDirectory.resolve("page-000001.txt")).contains("Rental Record for Customer 2"));
+        assertTrue(Files.readString(runDirectory.resolve("checkpoint.properties")).contains("completed=true"));
+    }
+
+    @Test
+    void start_countsCustomersWithErrors() throws Exception {
+        when(rentalInfoService.generateInvoicesByIds(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return Flux.fromIterable(ids).map(id -> id == 3L
+                    ? new BatchInvoiceResultDTO(id, null, "Customer not found")
+                    : new BatchInvoiceResultDTO(id, invoice(id), null));
+        });
+
+        BillingRunStatusDTO finished = awaitFinished(billingRunService.start().runId());
+
+        assertEquals(BillingRunState.COMPLETED, finished.state());
+        assertEquals(1, finished.customersFailed());
+    }
+
+    @Test
+    void resume_continuesFailedRunFromCheckpoint() throws Exception {
+        AtomicBoolean failing = new AtomicBoolean(true);
+        when(rentalInfoService.generateInvoicesByIds(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            if (failing.get() && ids.contains(3L)) {
+                throw new IllegalStateException("database unavailable");
+            }
+            return invoices(ids);
+        });
+
+        String runId = billingRunService.start().runId();
+        BillingRunStatusDTO failed = awaitFinished(runId);
+        assertEquals(BillingRunState.FAILED, failed.state());
+        assertEquals(2, failed.checkpointCustomerId());
+
+        failing.set(false);
+        billingRunService.shutdown();
+        billingRunService = newService();
+        assertEquals(BillingRunState.INTERRUPTED, billingRunService.status(runId).state());
+
+        billingRunService.resume(runId);
+        BillingRunStatusDTO resumed = awaitFinished(runId);
+
+        assertEquals(BillingRunState.COMPLETED, resumed.state());
+        assertEquals(5, resumed.customersProcessed());
+        assertEquals(5, resumed.checkpointCustomerId());
+        verify(rentalInfoService, times(1)).generateInvoicesByIds(List.of(1L, 2L));
+    }
+
+    @Test
+    void start_rejectsSecondRunWhileRunning() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(rentalInfoService.generateInvoicesByIds(anyList())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return invoices(invocation.getArgument(0));
+        });
+
+        String runId = billingRunService.start().runId();
+        try {
+            assertThrows(BillingRunInProgressException.class, () -> billingRunService.start());
+        } finally {
+            release.countDown();
+        }
+        assertEquals(BillingRunState.COMPLETED, awaitFinished(runId).state());
+    }
+
+    @Test
+    void shutdown_whileRunning_failsRunInsteadOfHanging() throws Exception {
+        CountDownLatch started = new CountDownLatch(2);
+        when(rentalInfoService.generateInvoicesByIds(anyList())).thenAnswer(invocation -> {
+            started.countDown();
+            return Flux.never();
+        });
+
+        String runId = billingRunService.start().runId();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        billingRunService.shutdown();
+
+        BillingRunStatusDTO finished = awaitFinished(runId);
+        assertEquals(BillingRunState.FAILED, finished.state());
+        assertEquals(0, finished.checkpointCustomerId());
+    }
+
+    @Test
+    void start_prunesOldestFinishedRuns() throws Exception {
+        billingRunService.shutdown();
+        billingRunService = new BillingRunService(customerRepository, rentalInfoService, new ObjectMapper(), outputDirectory.toString(), 2, 2, 1);
+        when(rentalInfoService.generateInvoicesByIds(anyList())).thenAnswer(invocation -> invoices(invocation.getArgument(0)));
+
+        String first = billingRunService.start().runId();
+        awaitFinished(first);
+        Thread.sleep(5);
+        String second = billingRunService.start().runId();
+        awaitFinished(second);
+        Thread.sleep(5);
+        String third = billingRunService.start().runId();
+        awaitFinished(third);
+
+        assertNull(billingRunService.status(first).startedAt());
+        assertEquals(BillingRunState.COMPLETED, billingRunService.status(first).state());
+        assertNotNull(billingRunService.status(second).startedAt());
+        assertNotNull(billingRunService.status(third).startedAt());
+    }
+
+    @Test
+    void status_unknownOrInvalidRun_throwsNotFound() {
+        assertThrows(BillingRunNotFoundException.class, () -> billingRunService.status("run-missing"));
+        assertThrows(BillingRunNotFoundException.class, () -> billingRunService.status("../etc"));
+        assertThrows(BillingRunNotFoundException.class, () -> billingRunService.resume("run-missing"));
+    }
+
+    private BillingRunService newService() {
+        return new BillingRunService(customerRepository, rentalInfoService, new ObjectMapper(), outputDirectory.toString(), 2, 2, 20);
+    }
+
+    private BillingRunStatusDTO awaitFinished(String runId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        BillingRunStatusDTO status = billingRunService.status(runId);
+        while (status.state() == BillingRunState.RUNNING && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            status = billingRunService.status(runId);
+        }
+        return status;
+    }
+
+    private static Flux<BatchInvoiceResultDTO> invoices(List<Long> customerIds) {
+        return Flux.fromIterable(customerIds).map(id -> new BatchInvoiceResultDTO(id, invoice(id), null));
+    }
+
+    private static InvoiceResponseDTO invoice(long customerId) {
+        return new InvoiceResponseDTO("Customer " + customerId,
+                List.of(new InvoiceItemDTO("You've Got Mail", new BigDecimal("3.5"))), new BigDecimal("3.5"), 1);
+    }
+}
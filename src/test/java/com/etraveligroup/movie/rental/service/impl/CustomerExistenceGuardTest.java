@@ -0,0 +1,159 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.dto.CustomerNameKeyDTO;
+import com.etraveligroup.movie.rental.event.CustomerSavedEvent;
+import com.etraveligroup.movie.rental.repository.CustomerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerExistenceGuardTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    private CustomerExistenceGuard guard;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        guard = new CustomerExistenceGuard(customerRepository, true, 0.01, 2, Duration.ZERO, 1_000, Duration.ofMinutes(1));
+        registry = new SimpleMeterRegistry();
+        guard.bindTo(registry);
+    }
+
+    @Test
+    void isKnownMissing_beforeBuild_passesEveryLookup() {
+        assertFalse(guard.isKnownMissing(99L));
+        assertFalse(guard.isKnownMissingName("nobody"));
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    void rebuild_loadsCustomersPageByPage() {
+        build();
+
+        assertFalse(guard.isKnownMissing(1L));
+        assertFalse(guard.isKnownMissing(3L));
+        assertFalse(guard.isKnownMissingName("jane smith"));
+        assertTrue(guard.isKnownMissing(2L));
+        assertTrue(guard.isKnownMissingName("nobody"));
+        verify(customerRepository).findNameKeysAfter(0L, PageRequest.of(0, 2));
+        verify(customerRepository).findNameKeysAfter(3L, PageRequest.of(0, 2));
+        verify(customerRepository).findNameKeysAfter(4L, PageRequest.of(0, 2));
+        assertEquals(2.0, lookups("rejected-by-filter"));
+        assertEquals(3.0, lookups("passed"));
+    }
+
+    @Test
+    void isKnownMissing_idAboveWatermark_passes() {
+        build();
+
+        assertFalse(guard.isKnownMissing(5L));
+    }
+
+    @Test
+    void refresh_addsCustomersAboveWatermark() {
+        build();
+        when(customerRepository.findNameKeysAfter(4L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(new CustomerNameKeyDTO(6L, "new renter"))).thenReturn(List.of());
+        when(customerRepository.findNameKeysAfter(6L, PageRequest.of(0, 2))).thenReturn(List.of());
+
+        guard.refresh();
+
+        assertFalse(guard.isKnownMissingName("new renter"));
+        assertFalse(guard.isKnownMissing(6L));
+        assertTrue(guard.isKnownMissing(5L));
+    }
+
+    @Test
+    void refresh_customerCommittedAfterHigherId_isLoadedBeforeItsIdIsRejected() {
+        guard = new CustomerExistenceGuard(customerRepository, true, 0.01, 2, Duration.ofHours(1), 1_000, Duration.ofMinutes(1));
+        build();
+        assertFalse(guard.isKnownMissing(2L));
+
+        when(customerRepository.findNameKeysAfter(eq(0L), any())).thenReturn(List.of(
+                new CustomerNameKeyDTO(1L, "john doe"), new CustomerNameKeyDTO(2L, "late renter")));
+        when(customerRepository.findNameKeysAfter(eq(2L), any())).thenReturn(List.of(
+                new CustomerNameKeyDTO(3L, "jane smith"), new CustomerNameKeyDTO(4L, "alice johnson")));
+        guard.refresh();
+
+        assertFalse(guard.isKnownMissing(2L));
+        assertFalse(guard.isKnownMissingName("late renter"));
+        verify(customerRepository, times(2)).findNameKeysAfter(0L, PageRequest.of(0, 2));
+    }
+
+    @Test
+    void onCustomerSaved_addsCustomerAndClearsNegativeCache() {
+        build();
+        guard.recordMissingName("new renter");
+        assertTrue(guard.isKnownMissingName("new renter"));
+
+        guard.onCustomerSaved(new CustomerSavedEvent(2L, "new renter", null));
+
+        assertFalse(guard.isKnownMissingName("new renter"));
+        assertFalse(guard.isKnownMissing(2L));
+    }
+
+    @Test
+    void recordMissing_cachesMissAndCountsFalsePositive() {
+        build();
+
+        assertFalse(guard.isKnownMissing(3L));
+        guard.recordMissing(3L);
+        assertTrue(guard.isKnownMissing(3L));
+        assertTrue(guard.isKnownMissing(2L));
+
+        assertEquals(1.0, registry.get("movie.rental.customer-guard.false-positives").functionCounter().count());
+        assertEquals(1.0, lookups("rejected-by-negative-cache"));
+        assertEquals(0.5, registry.get("movie.rental.customer-guard.false-positive-rate").gauge().value());
+        assertTrue(registry.get("movie.rental.customer-guard.expected-false-positive-rate").gauge().value() > 0);
+    }
+
+    @Test
+    void rebuild_failure_keepsPassingLookups() {
+        when(customerRepository.count()).thenThrow(new IllegalStateException("database down"));
+
+        guard.rebuild();
+
+        assertFalse(guard.isKnownMissing(2L));
+    }
+
+    @Test
+    void disabled_passesEveryLookupWithoutLoading() {
+        CustomerExistenceGuard disabled = new CustomerExistenceGuard(customerRepository, false, 0.01, 2, Duration.ZERO, 1_000,
+                Duration.ofMinutes(1));
+
+        disabled.rebuild();
+        disabled.recordMissing(2L);
+
+        assertFalse(disabled.isKnownMissing(2L));
+        verifyNoInteractions(customerRepository);
+    }
+
+    private void build() {
+        when(customerRepository.count()).thenReturn(3L);
+        when(customerRepository.findNameKeysAfter(eq(0L), any())).thenReturn(List.of(
+                new CustomerNameKeyDTO(1L, "john doe"), new CustomerNameKeyDTO(3L, "jane smith")));
+        when(customerRepository.findNameKeysAfter(eq(3L), any())).thenReturn(List.of(new CustomerNameKeyDTO(4L, "alice johnson")));
+        when(customerRepository.findNameKeysAfter(eq(4L), any())).thenReturn(List.of());
+        guard.rebuild();
+    }
+
+    private double lookups(String result) {
+        return registry.get("movie.rental.customer-guard.lookups").tag("result", result).functionCounter().count();
+    }
+}
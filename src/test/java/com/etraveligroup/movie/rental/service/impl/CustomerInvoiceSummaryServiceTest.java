@@ -0,0 +1,379 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.catalog.MovieCatalogSnapshot;
+import com.etraveligroup.movie.rental.constants.RentalChangeType;
+import com.etraveligroup.movie.rental.dto.CustomerInvoiceSummaryDTO;
+import com.etraveligroup.movie.rental.dto.CustomerRentalLineDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceSummaryVerificationDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceTotalsDTO;
+import com.etraveligroup.movie.rental.dto.RentalLineDTO;
+import com.etraveligroup.movie.rental.entity.Movie;
+import com.etraveligroup.movie.rental.entity.MoviePricing;
+import com.etraveligroup.movie.rental.event.MovieCatalogReloadedEvent;
+import com.etraveligroup.movie.rental.event.RentalChangedEvent;
+import com.etraveligroup.movie.rental.exceptions.CustomerNotFoundException;
+import com.etraveligroup.movie.rental.repository.CustomerInvoiceSummaryRepository;
+import com.etraveligroup.movie.rental.repository.CustomerRepository;
+import com.etraveligroup.movie.rental.repository.MovieRentalRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.ActionQueue;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerInvoiceSummaryServiceTest {
+
+    @Mock
+    private CustomerInvoiceSummaryRepository summaryRepository;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private MovieRentalRepository movieRentalRepository;
+
+    @Mock
+    private MovieCatalogService movieCatalogService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private CustomerInvoiceSummaryService summaryService;
+
+    @BeforeEach
+    void setUp() {
+        summaryService = service(false);
+        lenient().when(movieCatalogService.current()).thenReturn(catalog());
+    }
+
+    @Test
+    void onRentalChanged_addsDeltaToExistingSummary() {
+        when(summaryRepository.addDelta(1L, totals("3.50", 1, 1))).thenReturn(true);
+
+        summaryService.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 10L, 1L, "F001", 3));
+
+        verify(summaryRepository, never()).insert(any(), any());
+    }
+
+    @Test
+    void onRentalChanged_removalSubtractsDelta() {
+        when(summaryRepository.addDelta(1L, totals("-3.00", -2, -1))).thenReturn(true);
+
+        summaryService.onRentalChanged(new RentalChangedEvent(RentalChangeType.REMOVED, 10L, 1L, "F004", 2));
+
+        verify(summaryRepository).addDelta(1L, totals("-3.00", -2, -1));
+    }
+
+    @Test
+    void onRentalChanged_missingSummary_isBuiltFromOtherRentalsPlusChange() {
+        when(summaryRepository.addDelta(eq(1L), any())).thenReturn(false);
+        when(summaryRepository.findRentalLinesExcept(1L, 10L)).thenReturn(List.of(new RentalLineDTO("F004", 1)));
+
+        summaryService.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 10L, 1L, "F001", 3));
+
+        verify(summaryRepository).insert(1L, totals("6.50", 2, 2));
+    }
+
+    @Test
+    void onRentalChanged_summaryCreatedConcurrently_retriesDelta() {
+        when(summaryRepository.addDelta(1L, totals("2.00", 1, 1))).thenReturn(false, true);
+        when(summaryRepository.findRentalLinesExcept(1L, 10L)).thenReturn(List.of());
+        doThrow(new DuplicateKeyException("duplicate")).when(summaryRepository).insert(any(), any());
+
+        summaryService.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 10L, 1L, "F001", 1));
+
+        verify(summaryRepository, times(2)).addDelta(1L, totals("2.00", 1, 1));
+    }
+
+    @Test
+    void onRentalChanged_unknownMovie_leavesCustomerToRebuildInsteadOfFailing() {
+        when(movieCatalogService.reloadForMissingMovie(anyString())).thenReturn(catalog());
+
+        summaryService.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 10L, 1L, "F999", 1));
+
+        verify(movieCatalogService).reloadForMissingMovie("F999");
+        verifyNoInteractions(summaryRepository);
+
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(summaryRepository.findByCustomerIdForUpdate(1L)).thenReturn(Optional.of(summary(1L, "2.00", 1, 1)));
+        when(summaryRepository.findRentalLines(1L)).thenReturn(List.of(new RentalLineDTO("F001", 3)));
+        when(summaryRepository.replace(1L, totals("3.50", 1, 1))).thenReturn(true);
+
+        assertEquals(1, summaryService.rebuildRepriced());
+        assertEquals(0, summaryService.rebuildRepriced());
+        verify(summaryRepository).replace(1L, totals("3.50", 1, 1));
+    }
+
+    @Test
+    void onRentalChanged_inTransaction_appliesSummedDeltasWhenTransactionCompletes() {
+        ActionQueue actionQueue = stubSession();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            summaryService.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 10L, 1L, "F001", 3));
+            summaryService.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 11L, 1L, "F004", 2));
+            summaryService.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 12L, 2L, "F001", 1));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        verifyNoInteractions(summaryRepository);
+        verify(movieCatalogService, never()).current();
+        ArgumentCaptor<BeforeTransactionCompletionProcess> beforeCompletion = ArgumentCaptor.forClass(BeforeTransactionCompletionProcess.class);
+        verify(actionQueue).registerProcess(beforeCompletion.capture());
+        when(summaryRepository.addDeltas(Map.of(1L, totals("6.50", 3, 2), 2L, totals("2.00", 1, 1)))).thenReturn(Set.of(2L));
+        when(summaryRepository.findRentalLines(2L)).thenReturn(List.of(new RentalLineDTO("F001", 1)));
+
+        beforeCompletion.getValue().doBeforeTransactionCompletion(null);
+
+        verify(summaryRepository).insert(2L, totals("2.00", 1, 1));
+        verify(summaryRepository, never()).addDelta(any(), any());
+    }
+
+    @Test
+    void onRentalChanged_inTransaction_unpricedCustomerDoesNotFailCompletion() {
+        ActionQueue actionQueue = stubSession();
+        when(movieCatalogService.reloadForMissingMovie("F999")).thenReturn(catalog());
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            summaryService.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 10L, 1L, "F999", 3));
+            summaryService.onRentalChanged(new RentalChangedEvent(RentalChangeType.REMOVED, 11L, 2L, "F004", 2));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        ArgumentCaptor<BeforeTransactionCompletionProcess> beforeCompletion = ArgumentCaptor.forClass(BeforeTransactionCompletionProcess.class);
+        verify(actionQueue).registerProcess(beforeCompletion.capture());
+        when(summaryRepository.addDeltas(Map.of(2L, totals("-3.00", -2, -1)))).thenReturn(Set.of());
+
+        assertDoesNotThrow(() -> beforeCompletion.getValue().doBeforeTransactionCompletion(null));
+
+        verify(summaryRepository).addDeltas(Map.of(2L, totals("-3.00", -2, -1)));
+    }
+
+    @Test
+    void onRentalChanged_rolledBackTransaction_discardsDeltas() {
+        ActionQueue actionQueue = stubSession();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            summaryService.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 10L, 1L, "F001", 3));
+            ArgumentCaptor<AfterTransactionCompletionProcess> afterCompletion = ArgumentCaptor.forClass(AfterTransactionCompletionProcess.class);
+            verify(actionQueue).registerProcess(afterCompletion.capture());
+            afterCompletion.getValue().doAfterTransactionCompletion(false, null);
+
+            summaryService.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 11L, 1L, "F001", 1));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        verify(actionQueue, times(2)).registerProcess(any(BeforeTransactionCompletionProcess.class));
+        verifyNoInteractions(summaryRepository);
+    }
+
+    @Test
+    void getSummary_returnsStoredSummary() {
+        CustomerInvoiceSummaryDTO stored = new CustomerInvoiceSummaryDTO(1L, new BigDecimal("5.50"), 2, 2, 4L, Instant.now());
+        when(summaryRepository.findByCustomerId(1L)).thenReturn(Optional.of(stored));
+
+        assertEquals(stored, summaryService.getSummary(1L));
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    void getSummary_customerWithoutSummary_returnsZeroSummary() {
+        when(summaryRepository.findByCustomerId(2L)).thenReturn(Optional.empty());
+        when(customerRepository.existsById(2L)).thenReturn(true);
+
+        CustomerInvoiceSummaryDTO summary = summaryService.getSummary(2L);
+
+        assertEquals(BigDecimal.ZERO, summary.totalAmount());
+        assertEquals(0, summary.version());
+    }
+
+    @Test
+    void getSummary_unknownCustomer_throwsCustomerNotFound() {
+        when(summaryRepository.findByCustomerId(9L)).thenReturn(Optional.empty());
+        when(customerRepository.existsById(9L)).thenReturn(false);
+
+        assertThrows(CustomerNotFoundException.class, () -> summaryService.getSummary(9L));
+    }
+
+    @Test
+    void backfill_insertsSummariesPageByPage() {
+        when(summaryRepository.findCustomerIdsWithoutSummary(0L, 1000)).thenReturn(List.of(1L, 2L));
+        when(summaryRepository.findCustomerIdsWithoutSummary(2L, 1000)).thenReturn(List.of());
+        when(movieRentalRepository.findRentalLinesByCustomerIdIn(List.of(1L, 2L))).thenReturn(List.of(
+                new CustomerRentalLineDTO(1L, "F001", 3), new CustomerRentalLineDTO(1L, "F004", 2)));
+
+        assertEquals(2, summaryService.backfill());
+
+        verify(summaryRepository).insert(1L, totals("6.50", 3, 2));
+        verify(summaryRepository).insert(2L, InvoiceTotalsDTO.ZERO);
+    }
+
+    @Test
+    void verify_reportsDriftConfirmedUnderLock() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        summaryService.bindTo(registry);
+        stubSample(List.of(1L, 2L));
+        when(movieRentalRepository.findRentalLinesByCustomerIdIn(List.of(1L, 2L))).thenReturn(List.of(
+                new CustomerRentalLineDTO(1L, "F001", 3), new CustomerRentalLineDTO(2L, "F004", 2)));
+        when(summaryRepository.findByCustomerIdIn(List.of(1L, 2L))).thenReturn(Map.of(
+                1L, summary(1L, "3.50", 1, 1), 2L, summary(2L, "0.00", 0, 0)));
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(summaryRepository.findByCustomerIdForUpdate(2L)).thenReturn(Optional.of(summary(2L, "0.00", 0, 0)));
+        when(summaryRepository.findRentalLines(2L)).thenReturn(List.of(new RentalLineDTO("F004", 2)));
+
+        InvoiceSummaryVerificationDTO report = summaryService.verify(10);
+
+        assertEquals(2, report.sampled());
+        assertEquals(List.of(2L), report.driftedCustomerIds());
+        assertFalse(report.repaired());
+        verify(summaryRepository, never()).replace(any(), any());
+        assertEquals(1.0, registry.get("movie.rental.invoice.summary.drift").functionCounter().count());
+    }
+
+    @Test
+    void verify_driftThatResolvedUnderLock_isNotReported() {
+        stubSample(List.of(1L));
+        when(movieRentalRepository.findRentalLinesByCustomerIdIn(List.of(1L))).thenReturn(List.of(new CustomerRentalLineDTO(1L, "F001", 3)));
+        when(summaryRepository.findByCustomerIdIn(List.of(1L))).thenReturn(Map.of());
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(summaryRepository.findByCustomerIdForUpdate(1L)).thenReturn(Optional.of(summary(1L, "3.50", 1, 1)));
+        when(summaryRepository.findRentalLines(1L)).thenReturn(List.of(new RentalLineDTO("F001", 3)));
+
+        InvoiceSummaryVerificationDTO report = summaryService.verify(10);
+
+        assertEquals(0, report.drifted());
+    }
+
+    @Test
+    void verify_repairDrift_overwritesDriftedSummary() {
+        summaryService = service(true);
+        stubSample(List.of(1L));
+        when(movieRentalRepository.findRentalLinesByCustomerIdIn(List.of(1L))).thenReturn(List.of(new CustomerRentalLineDTO(1L, "F001", 3)));
+        when(summaryRepository.findByCustomerIdIn(List.of(1L))).thenReturn(Map.of(1L, summary(1L, "1.00", 1, 1)));
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(summaryRepository.findByCustomerIdForUpdate(1L)).thenReturn(Optional.of(summary(1L, "1.00", 1, 1)));
+        when(summaryRepository.findRentalLines(1L)).thenReturn(List.of(new RentalLineDTO("F001", 3)));
+
+        InvoiceSummaryVerificationDTO report = summaryService.verify(10);
+
+        assertTrue(report.repaired());
+        verify(summaryRepository).replace(1L, totals("3.50", 1, 1));
+    }
+
+    @Test
+    void rebuildRepriced_rewritesChangedSummariesOfCustomersRentingRepricedMovies() {
+        summaryService.onCatalogReloaded(new MovieCatalogReloadedEvent(1L, 2L, Set.of("F001")));
+        when(summaryRepository.findCustomerIdsRentingAny(Set.of("F001"), 0L, 1000)).thenReturn(List.of(1L, 2L));
+        when(summaryRepository.findCustomerIdsRentingAny(Set.of("F001"), 2L, 1000)).thenReturn(List.of());
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(summaryRepository.findByCustomerIdForUpdate(1L)).thenReturn(Optional.of(summary(1L, "2.00", 1, 1)));
+        when(summaryRepository.findRentalLines(1L)).thenReturn(List.of(new RentalLineDTO("F001", 3)));
+        when(summaryRepository.replace(1L, totals("3.50", 1, 1))).thenReturn(true);
+        when(summaryRepository.findByCustomerIdForUpdate(2L)).thenReturn(Optional.empty());
+
+        assertEquals(1, summaryService.rebuildRepriced());
+        assertEquals(0, summaryService.rebuildRepriced());
+
+        verify(summaryRepository, never()).insert(any(), any());
+        verify(summaryRepository, times(2)).findCustomerIdsRentingAny(any(), any(), anyInt());
+    }
+
+    @Test
+    void rebuildRepriced_failedLookup_keepsMoviesForNextRun() {
+        summaryService.onCatalogReloaded(new MovieCatalogReloadedEvent(1L, 2L, Set.of("F001")));
+        when(summaryRepository.findCustomerIdsRentingAny(Set.of("F001"), 0L, 1000))
+                .thenThrow(new IllegalStateException("database unavailable"))
+                .thenReturn(List.of());
+
+        assertThrows(IllegalStateException.class, () -> summaryService.rebuildRepriced());
+        assertEquals(0, summaryService.rebuildRepriced());
+
+        verify(summaryRepository, times(2)).findCustomerIdsRentingAny(Set.of("F001"), 0L, 1000);
+    }
+
+    @Test
+    void verify_noCustomers_returnsEmptyReport() {
+        when(customerRepository.findMaxId()).thenReturn(null);
+
+        InvoiceSummaryVerificationDTO report = summaryService.verify(10);
+
+        assertEquals(0, report.sampled());
+        verify(summaryRepository, never()).findByCustomerIdForUpdate(any());
+    }
+
+    private ActionQueue stubSession() {
+        SessionImplementor session = mock(SessionImplementor.class);
+        ActionQueue actionQueue = mock(ActionQueue.class);
+        when(entityManager.unwrap(SessionImplementor.class)).thenReturn(session);
+        when(session.getActionQueue()).thenReturn(actionQueue);
+        return actionQueue;
+    }
+
+    private CustomerInvoiceSummaryService service(boolean repairDrift) {
+        return new CustomerInvoiceSummaryService(summaryRepository, customerRepository, movieRentalRepository,
+                movieCatalogService, entityManager, transactionManager, 100, repairDrift, 1000);
+    }
+
+    private void stubSample(List<Long> customerIds) {
+        // A single customer ID makes the random sample start before the first customer.
+        when(customerRepository.findMaxId()).thenReturn(1L);
+        when(customerRepository.findIdsAfter(eq(0L), any())).thenReturn(customerIds);
+    }
+
+    private static InvoiceTotalsDTO totals(String amount, int points, int rentals) {
+        return new InvoiceTotalsDTO(new BigDecimal(amount), points, rentals);
+    }
+
+    private static CustomerInvoiceSummaryDTO summary(Long customerId, String amount, int points, int rentals) {
+        return new CustomerInvoiceSummaryDTO(customerId, new BigDecimal(amount), points, rentals, 1L, Instant.now());
+    }
+
+    private static MovieCatalogSnapshot catalog() {
+        MoviePricing regular = pricing("regular", 2, "2.0", "1.5");
+        MoviePricing newRelease = pricing("new", 2, "3.0", "0.0");
+        return MovieCatalogSnapshot.of(1L, List.of(regular, newRelease), List.of(movie("F001", regular), movie("F004", newRelease)));
+    }
+
+    private static MoviePricing pricing(String code, int baseDays, String basePrice, String extraPricePerDay) {
+        MoviePricing pricing = new MoviePricing();
+        pricing.setCode(code);
+        pricing.setBaseDays(baseDays);
+        pricing.setBasePrice(new BigDecimal(basePrice));
+        pricing.setExtraPricePerDay(new BigDecimal(extraPricePerDay));
+        return pricing;
+    }
+
+    private static Movie movie(String id, MoviePricing pricing) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setTitle(id);
+        movie.setPricing(pricing);
+        return movie;
+    }
+}
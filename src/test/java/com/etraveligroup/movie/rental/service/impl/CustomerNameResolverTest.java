@@ -0,0 +1,136 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.dto.CustomerNameDTO;
+import com.etraveligroup.movie.rental.event.CustomerSavedEvent;
+import com.etraveligroup.movie.rental.repository.CustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CustomerNameResolverTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private CustomerExistenceGuard customerExistenceGuard;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private CustomerNameResolver customerNameResolver;
+
+    @BeforeEach
+    void setUp() {
+        customerNameResolver = new CustomerNameResolver(customerRepository, customerExistenceGuard, eventPublisher, 100,
+                Duration.ofMinutes(5), 2);
+    }
+
+    @Test
+    void resolveCustomerId_usesNormalizedKeyAndCachesResult() {
+        when(customerRepository.findIdsByNameKey("john doe")).thenReturn(List.of(1L));
+
+        assertEquals(Optional.of(1L), customerNameResolver.resolveCustomerId(" John Doe"));
+        assertEquals(Optional.of(1L), customerNameResolver.resolveCustomerId("JOHN DOE"));
+
+        verify(customerRepository, times(1)).findIdsByNameKey("john doe");
+    }
+
+    @Test
+    void resolveCustomerId_unknownName_isNotCached() {
+        when(customerRepository.findIdsByNameKey("unknown")).thenReturn(List.of());
+
+        assertTrue(customerNameResolver.resolveCustomerId("Unknown").isEmpty());
+        assertTrue(customerNameResolver.resolveCustomerId("Unknown").isEmpty());
+
+        verify(customerRepository, times(2)).findIdsByNameKey("unknown");
+        verify(customerExistenceGuard, times(2)).recordMissingName("unknown");
+    }
+
+    @Test
+    void resolveCustomerId_knownMissingName_skipsDatabase() {
+        when(customerExistenceGuard.isKnownMissingName("unknown")).thenReturn(true);
+
+        assertTrue(customerNameResolver.resolveCustomerId("Unknown").isEmpty());
+
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    void resolveCustomerId_duplicateNames_returnsLowestId() {
+        when(customerRepository.findIdsByNameKey("jane smith")).thenReturn(List.of(2L, 7L));
+
+        assertEquals(Optional.of(2L), customerNameResolver.resolveCustomerId("Jane Smith"));
+    }
+
+    @Test
+    void resolveCustomerId_blankName_returnsEmpty() {
+        assertTrue(customerNameResolver.resolveCustomerId("   ").isEmpty());
+        assertTrue(customerNameResolver.resolveCustomerId(null).isEmpty());
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    void evict_forcesRepositoryLookup() {
+        when(customerRepository.findIdsByNameKey("john doe")).thenReturn(List.of(1L));
+
+        customerNameResolver.resolveCustomerId("John Doe");
+        customerNameResolver.evict("John Doe");
+        customerNameResolver.resolveCustomerId("John Doe");
+
+        verify(customerRepository, times(2)).findIdsByNameKey("john doe");
+    }
+
+    @Test
+    void onCustomerSaved_rename_dropsResolutionOfPreviousName() {
+        when(customerRepository.findIdsByNameKey("old name")).thenReturn(List.of(1L)).thenReturn(List.of());
+        assertEquals(Optional.of(1L), customerNameResolver.resolveCustomerId("Old Name"));
+
+        customerNameResolver.onCustomerSaved(new CustomerSavedEvent(1L, "new name", "old name"));
+
+        assertTrue(customerNameResolver.resolveCustomerId("Old Name").isEmpty());
+        verify(customerRepository, times(2)).findIdsByNameKey("old name");
+    }
+
+    @Test
+    void onCustomerSaved_sameNameKey_keepsResolution() {
+        when(customerRepository.findIdsByNameKey("john doe")).thenReturn(List.of(1L));
+        customerNameResolver.resolveCustomerId("John Doe");
+
+        customerNameResolver.onCustomerSaved(new CustomerSavedEvent(1L, "john doe", "john doe"));
+        customerNameResolver.resolveCustomerId("John Doe");
+
+        verify(customerRepository, times(1)).findIdsByNameKey("john doe");
+    }
+
+    @Test
+    void backfillNameKeys_setsMissingKeysPageByPageAndPublishesThem() {
+        when(customerRepository.findNamesWithoutNameKeyAfter(0L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(new CustomerNameDTO(3L, " Plain SQL "), new CustomerNameDTO(5L, "Other")));
+        when(customerRepository.findNamesWithoutNameKeyAfter(5L, PageRequest.of(0, 2)))
+                .thenReturn(List.of(new CustomerNameDTO(8L, "Raced")));
+        when(customerRepository.findNamesWithoutNameKeyAfter(8L, PageRequest.of(0, 2))).thenReturn(List.of());
+        when(customerRepository.updateMissingNameKey(3L, "plain sql")).thenReturn(1);
+        when(customerRepository.updateMissingNameKey(5L, "other")).thenReturn(1);
+        // Set by a concurrent save in the meantime
+        when(customerRepository.updateMissingNameKey(8L, "raced")).thenReturn(0);
+
+        assertEquals(2, customerNameResolver.backfillNameKeys());
+
+        verify(eventPublisher).publishEvent(new CustomerSavedEvent(3L, "plain sql", null));
+        verify(eventPublisher).publishEvent(new CustomerSavedEvent(5L, "other", null));
+        verifyNoMoreInteractions(eventPublisher);
+    }
+}
@@ -0,0 +1,378 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.catalog.MovieCatalogSnapshot;
+import com.etraveligroup.movie.rental.constants.PointsEntryType;
+import com.etraveligroup.movie.rental.constants.RentalChangeType;
+import com.etraveligroup.movie.rental.dto.CustomerPointsBalanceDTO;
+import com.etraveligroup.movie.rental.dto.CustomerRentalLineDTO;
+import com.etraveligroup.movie.rental.dto.PointsLedgerCompactionDTO;
+import com.etraveligroup.movie.rental.dto.PointsLedgerEntryDTO;
+import com.etraveligroup.movie.rental.dto.PointsLedgerVerificationDTO;
+import com.etraveligroup.movie.rental.entity.Movie;
+import com.etraveligroup.movie.rental.entity.MoviePricing;
+import com.etraveligroup.movie.rental.event.RentalChangedEvent;
+import com.etraveligroup.movie.rental.exceptions.CustomerNotFoundException;
+import com.etraveligroup.movie.rental.repository.CustomerRepository;
+import com.etraveligroup.movie.rental.repository.FrequentPointsLedgerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.ActionQueue;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FrequentPointsLedgerServiceTest {
+
+    @Mock
+    private FrequentPointsLedgerRepository ledgerRepository;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private MovieCatalogService movieCatalogService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private FrequentPointsLedgerService ledgerService;
+
+    @BeforeEach
+    void setUp() {
+        ledgerService = service(false);
+        lenient().when(movieCatalogService.current()).thenReturn(catalog());
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @Test
+    void onRentalChanged_appendsEarnedEntryAndAddsToBalance() {
+        when(ledgerRepository.addToBalances(Map.of(1L, 2L))).thenReturn(Set.of());
+
+        ledgerService.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 10L, 1L, "F004", 2));
+
+        verify(ledgerRepository).appendEntries(eq(List.of(entry(1L, 10L, PointsEntryType.EARNED, 2))), any());
+        verify(ledgerRepository, never()).insertBalance(any(), anyLong());
+    }
+
+    @Test
+    void onRentalChanged_removalAppendsReversedEntry() {
+        when(ledgerRepository.addToBalances(Map.of(1L, -1L))).thenReturn(Set.of());
+
+        ledgerService.onRentalChanged(new RentalChangedEvent(RentalChangeType.REMOVED, 10L, 1L, "F001", 3));
+
+        verify(ledgerRepository).appendEntries(eq(List.of(entry(1L, 10L, PointsEntryType.REVERSED, -1))), any());
+    }
+
+    @Test
+    void onRentalChanged_archivedRental_keepsItsPoints() {
+        ledgerService.onRentalChanged(new RentalChangedEvent(RentalChangeType.ARCHIVED, 10L, 1L, "F001", 3));
+
+        verifyNoInteractions(ledgerRepository, movieCatalogService);
+    }
+
+    @Test
+    void onRentalChanged_missingBalance_carriesForwardPointsOfOtherRentals() {
+        when(ledgerRepository.addToBalances(Map.of(1L, 1L))).thenReturn(Set.of(1L));
+        when(ledgerRepository.findRentalLines(List.of(1L))).thenReturn(List.of(
+                new CustomerRentalLineDTO(1L, "F004", 2), new CustomerRentalLineDTO(1L, "F001", 3)));
+        when(ledgerRepository.sumEntries(1L)).thenReturn(1L);
+
+        ledgerService.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 10L, 1L, "F001", 3));
+
+        verify(ledgerRepository).insertBalance(1L, 3L);
+        verify(ledgerRepository).appendEntries(eq(List.of(entry(1L, null, PointsEntryType.CARRIED_FORWARD, 2))), any());
+    }
+
+    @Test
+    void onRentalChanged_balanceCreatedConcurrently_addsEntryPoints() {
+        when(ledgerRepository.addToBalances(Map.of(1L, 1L))).thenReturn(Set.of(1L));
+        when(ledgerRepository.findRentalLines(List.of(1L))).thenReturn(List.of(new CustomerRentalLineDTO(1L, "F001", 3)));
+        doThrow(new DuplicateKeyException("duplicate")).when(ledgerRepository).insertBalance(any(), anyLong());
+
+        ledgerService.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 10L, 1L, "F001", 3));
+
+        verify(ledgerRepository).addToBalance(1L, 1L);
+        verify(ledgerRepository, never()).sumEntries(anyLong());
+    }
+
+    @Test
+    void onRentalChanged_unknownMovie_skipsEntryInsteadOfFailing() {
+        when(movieCatalogService.reloadForMissingMovie(anyString())).thenReturn(catalog());
+
+        ledgerService.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 10L, 1L, "F999", 1));
+
+        verify(movieCatalogService).reloadForMissingMovie("F999");
+        verifyNoInteractions(ledgerRepository);
+    }
+
+    @Test
+    void onRentalChanged_unscorableRentalsOfMissingBalance_leavesBalanceToBackfill() {
+        when(movieCatalogService.reloadForMissingMovie(anyString())).thenReturn(catalog());
+        when(ledgerRepository.addToBalances(Map.of(1L, 1L))).thenReturn(Set.of(1L));
+        when(ledgerRepository.findRentalLines(List.of(1L))).thenReturn(List.of(
+                new CustomerRentalLineDTO(1L, "F001", 3), new CustomerRentalLineDTO(1L, "F999", 1)));
+
+        ledgerService.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 10L, 1L, "F001", 3));
+
+        verify(ledgerRepository, never()).insertBalance(any(), anyLong());
+    }
+
+    @Test
+    void onRentalChanged_inTransaction_appendsEntriesWhenTransactionCompletes() {
+        ActionQueue actionQueue = stubSession();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            ledgerService.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 10L, 1L, "F001", 3));
+            ledgerService.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 11L, 1L, "F004", 2));
+            ledgerService.onRentalChanged(new RentalChangedEvent(RentalChangeType.REMOVED, 12L, 2L, "F001", 1));
+            ledgerService.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 13L, 2L, "F999", 1));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        verifyNoInteractions(ledgerRepository, movieCatalogService);
+        when(movieCatalogService.reloadForMissingMovie("F999")).thenReturn(catalog());
+        ArgumentCaptor<BeforeTransactionCompletionProcess> beforeCompletion = ArgumentCaptor.forClass(BeforeTransactionCompletionProcess.class);
+        verify(actionQueue).registerProcess(beforeCompletion.capture());
+        when(ledgerRepository.addToBalances(Map.of(1L, 3L, 2L, -1L))).thenReturn(Set.of());
+
+        beforeCompletion.getValue().doBeforeTransactionCompletion(null);
+
+        verify(ledgerRepository).appendEntries(eq(List.of(
+                entry(1L, 10L, PointsEntryType.EARNED, 1),
+                entry(1L, 11L, PointsEntryType.EARNED, 2),
+                entry(2L, 12L, PointsEntryType.REVERSED, -1))), any());
+        verify(ledgerRepository, never()).insertBalance(any(), anyLong());
+    }
+
+    @Test
+    void onRentalChanged_rolledBackTransaction_discardsEntries() {
+        ActionQueue actionQueue = stubSession();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            ledgerService.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 10L, 1L, "F001", 3));
+            ArgumentCaptor<AfterTransactionCompletionProcess> afterCompletion = ArgumentCaptor.forClass(AfterTransactionCompletionProcess.class);
+            verify(actionQueue).registerProcess(afterCompletion.capture());
+            afterCompletion.getValue().doAfterTransactionCompletion(false, null);
+
+            ledgerService.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 11L, 1L, "F001", 1));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+
+        verify(actionQueue, times(2)).registerProcess(any(BeforeTransactionCompletionProcess.class));
+        verifyNoInteractions(ledgerRepository);
+    }
+
+    @Test
+    void getBalance_returnsStoredBalance() {
+        CustomerPointsBalanceDTO stored = new CustomerPointsBalanceDTO(1L, 7, 4L, Instant.now());
+        when(ledgerRepository.findBalance(1L)).thenReturn(Optional.of(stored));
+
+        assertEquals(stored, ledgerService.getBalance(1L));
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    void getBalance_customerWithoutBalance_returnsZeroBalance() {
+        when(ledgerRepository.findBalance(2L)).thenReturn(Optional.empty());
+        when(customerRepository.existsById(2L)).thenReturn(true);
+
+        CustomerPointsBalanceDTO balance = ledgerService.getBalance(2L);
+
+        assertEquals(0, balance.balance());
+        assertEquals(0, balance.version());
+    }
+
+    @Test
+    void getBalance_unknownCustomer_throwsCustomerNotFound() {
+        when(ledgerRepository.findBalance(9L)).thenReturn(Optional.empty());
+        when(customerRepository.existsById(9L)).thenReturn(false);
+
+        assertThrows(CustomerNotFoundException.class, () -> ledgerService.getBalance(9L));
+    }
+
+    @Test
+    void backfill_opensBalancesPageByPage() {
+        when(ledgerRepository.findCustomerIdsWithoutBalance(0L, 1000)).thenReturn(List.of(1L, 2L));
+        when(ledgerRepository.findCustomerIdsWithoutBalance(2L, 1000)).thenReturn(List.of());
+        when(ledgerRepository.findRentalLines(List.of(1L, 2L))).thenReturn(List.of(
+                new CustomerRentalLineDTO(1L, "F001", 3), new CustomerRentalLineDTO(1L, "F004", 2)));
+
+        assertEquals(2, ledgerService.backfill());
+
+        verify(ledgerRepository).insertBalance(1L, 3L);
+        verify(ledgerRepository).insertBalance(2L, 0L);
+        verify(ledgerRepository).appendEntries(eq(List.of(entry(1L, null, PointsEntryType.CARRIED_FORWARD, 3))), any());
+        verify(ledgerRepository, times(1)).appendEntries(any(), any());
+    }
+
+    @Test
+    void compact_foldsEntriesPageByPage() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ledgerService.bindTo(registry);
+        when(ledgerRepository.findCustomerIdsToCompact(any(), eq(0L), eq(1000))).thenReturn(List.of(1L, 3L));
+        when(ledgerRepository.findCustomerIdsToCompact(any(), eq(3L), eq(1000))).thenReturn(List.of());
+        when(ledgerRepository.compact(eq(List.of(1L, 3L)), any())).thenReturn(5);
+
+        Instant before = Instant.now();
+        PointsLedgerCompactionDTO report = ledgerService.compact();
+
+        assertEquals(2, report.customers());
+        assertEquals(5, report.removed());
+        assertFalse(report.cutoff().isBefore(before.minus(Duration.ofDays(90))));
+        assertEquals(5.0, registry.get("movie.rental.points.ledger.compacted").functionCounter().count());
+    }
+
+    @Test
+    void verify_reportsDriftConfirmedUnderLock() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ledgerService.bindTo(registry);
+        stubSample(List.of(1L, 2L));
+        when(ledgerRepository.findRentalLines(List.of(1L, 2L))).thenReturn(List.of(
+                new CustomerRentalLineDTO(1L, "F001", 3), new CustomerRentalLineDTO(2L, "F004", 2)));
+        when(ledgerRepository.sumEntries(List.of(1L, 2L))).thenReturn(Map.of(1L, 1L));
+        when(ledgerRepository.findBalances(List.of(1L, 2L))).thenReturn(Map.of(1L, balance(1L, 1), 2L, balance(2L, 0)));
+        when(ledgerRepository.findBalanceForUpdate(2L)).thenReturn(Optional.of(balance(2L, 0)));
+        when(ledgerRepository.findRentalLines(List.of(2L))).thenReturn(List.of(new CustomerRentalLineDTO(2L, "F004", 2)));
+
+        PointsLedgerVerificationDTO report = ledgerService.verify(10);
+
+        assertEquals(2, report.sampled());
+        assertEquals(List.of(2L), report.driftedCustomerIds());
+        assertFalse(report.repaired());
+        verify(ledgerRepository, never()).addToBalance(any(), anyLong());
+        assertEquals(1.0, registry.get("movie.rental.points.ledger.drift").functionCounter().count());
+    }
+
+    @Test
+    void verify_balanceNotMatchingEntries_isReported() {
+        stubSample(List.of(1L));
+        when(ledgerRepository.findRentalLines(List.of(1L))).thenReturn(List.of(new CustomerRentalLineDTO(1L, "F001", 3)));
+        when(ledgerRepository.sumEntries(List.of(1L))).thenReturn(Map.of(1L, 4L));
+        when(ledgerRepository.findBalances(List.of(1L))).thenReturn(Map.of(1L, balance(1L, 1)));
+        when(ledgerRepository.findBalanceForUpdate(1L)).thenReturn(Optional.of(balance(1L, 1)));
+        when(ledgerRepository.sumEntries(1L)).thenReturn(4L);
+
+        PointsLedgerVerificationDTO report = ledgerService.verify(10);
+
+        assertEquals(List.of(1L), report.driftedCustomerIds());
+    }
+
+    @Test
+    void verify_driftThatResolvedUnderLock_isNotReported() {
+        stubSample(List.of(1L));
+        when(ledgerRepository.findRentalLines(List.of(1L))).thenReturn(List.of(new CustomerRentalLineDTO(1L, "F001", 3)));
+        when(ledgerRepository.sumEntries(List.of(1L))).thenReturn(Map.of());
+        when(ledgerRepository.findBalances(List.of(1L))).thenReturn(Map.of());
+        when(ledgerRepository.findBalanceForUpdate(1L)).thenReturn(Optional.of(balance(1L, 1)));
+        when(ledgerRepository.sumEntries(1L)).thenReturn(1L);
+
+        PointsLedgerVerificationDTO report = ledgerService.verify(10);
+
+        assertEquals(0, report.drifted());
+    }
+
+    @Test
+    void verify_repairDrift_appendsCorrectionEntry() {
+        ledgerService = service(true);
+        stubSample(List.of(1L));
+        when(ledgerRepository.findRentalLines(List.of(1L))).thenReturn(List.of(
+                new CustomerRentalLineDTO(1L, "F001", 3), new CustomerRentalLineDTO(1L, "F004", 2)));
+        when(ledgerRepository.sumEntries(List.of(1L))).thenReturn(Map.of(1L, 1L));
+        when(ledgerRepository.findBalances(List.of(1L))).thenReturn(Map.of(1L, balance(1L, 1)));
+        when(ledgerRepository.findBalanceForUpdate(1L)).thenReturn(Optional.of(balance(1L, 1)));
+        when(ledgerRepository.sumEntries(1L)).thenReturn(1L);
+
+        PointsLedgerVerificationDTO report = ledgerService.verify(10);
+
+        assertTrue(report.repaired());
+        verify(ledgerRepository).appendEntries(eq(List.of(entry(1L, null, PointsEntryType.CORRECTION, 2))), any());
+        verify(ledgerRepository).addToBalance(1L, 2L);
+    }
+
+    @Test
+    void verify_noCustomers_returnsEmptyReport() {
+        when(customerRepository.findMaxId()).thenReturn(null);
+
+        PointsLedgerVerificationDTO report = ledgerService.verify(10);
+
+        assertEquals(0, report.sampled());
+        verify(ledgerRepository, never()).findBalanceForUpdate(any());
+    }
+
+    private ActionQueue stubSession() {
+        SessionImplementor session = mock(SessionImplementor.class);
+        ActionQueue actionQueue = mock(ActionQueue.class);
+        when(entityManager.unwrap(SessionImplementor.class)).thenReturn(session);
+        when(session.getActionQueue()).thenReturn(actionQueue);
+        return actionQueue;
+    }
+
+    private FrequentPointsLedgerService service(boolean repairDrift) {
+        return new FrequentPointsLedgerService(ledgerRepository, customerRepository, movieCatalogService, entityManager,
+                transactionManager, Duration.ofDays(90), 1000, 100, repairDrift, 1000);
+    }
+
+    private void stubSample(List<Long> customerIds) {
+        // A single customer ID makes the random sample start before the first customer.
+        when(customerRepository.findMaxId()).thenReturn(1L);
+        when(customerRepository.findIdsAfter(eq(0L), any())).thenReturn(customerIds);
+    }
+
+    private static PointsLedgerEntryDTO entry(Long customerId, Long rentalId, PointsEntryType type, long points) {
+        return new PointsLedgerEntryDTO(customerId, rentalId, type, points);
+    }
+
+    private static CustomerPointsBalanceDTO balance(Long customerId, long points) {
+        return new CustomerPointsBalanceDTO(customerId, points, 1L, Instant.now());
+    }
+
+    private static MovieCatalogSnapshot catalog() {
+        MoviePricing regular = pricing("regular", 2, "2.0", "1.5");
+        MoviePricing newRelease = pricing("new", 2, "3.0", "0.0");
+        return MovieCatalogSnapshot.of(1L, List.of(regular, newRelease), List.of(movie("F001", regular), movie("F004", newRelease)));
+    }
+
+    private static MoviePricing pricing(String code, int baseDays, String basePrice, String extraPricePerDay) {
+        MoviePricing pricing = new MoviePricing();
+        pricing.setCode(code);
+        pricing.setBaseDays(baseDays);
+        pricing.setBasePrice(new BigDecimal(basePrice));
+        pricing.setExtraPricePerDay(new BigDecimal(extraPricePerDay));
+        return pricing;
+    }
+
+    private static Movie movie(String id, MoviePricing pricing) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setTitle(id);
+        movie.setPricing(pricing);
+        return movie;
+    }
+}
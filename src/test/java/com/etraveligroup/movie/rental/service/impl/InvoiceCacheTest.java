@@ -0,0 +1,225 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.constants.RentalChangeType;
+import com.etraveligroup.movie.rental.datasource.ReadYourWrites;
+import com.etraveligroup.movie.rental.dto.CachedInvoiceDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceItemDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import com.etraveligroup.movie.rental.event.RentalChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class InvoiceCacheTest {
+
+    private SharedInvoiceCache sharedInvoiceCache;
+    private InvoiceCache invoiceCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        sharedInvoiceCache = mock(SharedInvoiceCache.class);
+        when(sharedInvoiceCache.get(any(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+        invoiceCache = new InvoiceCache(sharedInvoiceCache, true, 1_000, Duration.ofMinutes(10));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void get_loadsOnceAndServesLaterRequestsFromCache() {
+        assertEquals(invoice("invoice 1"), invoiceCache.get(1L, load("invoice 1")).block());
+        assertEquals(invoice("invoice 1"), invoiceCache.get(1L, load("other")).block());
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_failedLoad_isNotCached() {
+        Mono<InvoiceResponseDTO> failing = Mono.defer(() -> {
+            loads.incrementAndGet();
+            return Mono.error(new IllegalStateException("DB error"));
+        });
+
+        assertThrows(IllegalStateException.class, () -> invoiceCache.get(1L, failing).block());
+        assertEquals(invoice("invoice 1"), invoiceCache.get(1L, load("invoice 1")).block());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_concurrentRequests_shareOneLoad() {
+        Sinks.One<InvoiceResponseDTO> invoice = Sinks.one();
+        Mono<InvoiceResponseDTO> pending = Mono.defer(() -> {
+            loads.incrementAndGet();
+            return invoice.asMono();
+        });
+
+        Mono<InvoiceResponseDTO> first = invoiceCache.get(1L, pending).cache();
+        Mono<InvoiceResponseDTO> second = invoiceCache.get(1L, pending).cache();
+        first.subscribe();
+        second.subscribe();
+        invoice.tryEmitValue(invoice("invoice 1"));
+
+        assertEquals(invoice("invoice 1"), first.block());
+        assertEquals(invoice("invoice 1"), second.block());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_readYourWrites_bypassesCache() {
+        invoiceCache.get(1L, load("before write")).block();
+
+        InvoiceResponseDTO invoice = invoiceCache.get(1L, load("after write"))
+                .contextWrite(context -> context.put(ReadYourWrites.CONTEXT_KEY, true))
+                .block();
+
+        assertEquals(invoice("after write"), invoice);
+        assertEquals(invoice("before write"), invoiceCache.get(1L, load("other")).block());
+    }
+
+    @Test
+    void get_miss_loadsWithTheRequestContext() {
+        Mono<InvoiceResponseDTO> loader = Mono.deferContextual(context -> Mono.just(invoice(context.get("request"))));
+
+        InvoiceResponseDTO invoice = invoiceCache.get(1L, loader)
+                .contextWrite(context -> context.put("request", "invoice 1"))
+                .block();
+
+        assertEquals(invoice("invoice 1"), invoice);
+    }
+
+    @Test
+    void get_disabled_alwaysLoads() {
+        InvoiceCache disabled = new InvoiceCache(sharedInvoiceCache, false, 1_000, Duration.ofMinutes(10));
+
+        disabled.get(1L, load("invoice 1")).block();
+        disabled.get(1L, load("invoice 1")).block();
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void onRentalChanged_dropsInvoiceOfThatCustomerOnly() {
+        invoiceCache.get(1L, load("invoice 1")).block();
+        invoiceCache.get(2L, load("invoice 2")).block();
+
+        invoiceCache.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 10L, 1L, "F001", 3));
+
+        assertEquals(invoice("invoice 1 updated"), invoiceCache.get(1L, load("invoice 1 updated")).block());
+        assertEquals(invoice("invoice 2"), invoiceCache.get(2L, load("other")).block());
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void get_miss_isServedThroughSharedTier() {
+        when(sharedInvoiceCache.get(eq(1L), any())).thenReturn(Mono.just(invoice("shared invoice 1")));
+
+        assertEquals(invoice("shared invoice 1"), invoiceCache.get(1L, load("invoice 1")).block());
+        assertEquals(invoice("shared invoice 1"), invoiceCache.get(1L, load("other")).block());
+
+        verify(sharedInvoiceCache, times(1)).get(eq(1L), any());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void pollSharedChanges_dropsInvoicesOfCustomersChangedElsewhere() {
+        invoiceCache.get(1L, load("invoice 1")).block();
+        invoiceCache.get(2L, load("invoice 2")).block();
+        when(sharedInvoiceCache.pollChanges()).thenReturn(Set.of(2L));
+
+        invoiceCache.pollSharedChanges();
+
+        assertEquals(invoice("invoice 1"), invoiceCache.get(1L, load("other")).block());
+        assertEquals(invoice("invoice 2 updated"), invoiceCache.get(2L, load("invoice 2 updated")).block());
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void hottest_returnsCompletedInvoicesWithCacheTime() {
+        Instant before = Instant.now();
+        invoiceCache.get(1L, load("invoice 1")).block();
+        invoiceCache.get(2L, Sinks.<InvoiceResponseDTO>one().asMono()).subscribe();
+
+        List<CachedInvoiceDTO> hottest = invoiceCache.hottest(10);
+
+        assertEquals(1, hottest.size());
+        assertEquals(1L, hottest.get(0).customerId());
+        assertEquals(invoice("invoice 1"), hottest.get(0).invoice());
+        assertFalse(hottest.get(0).cachedAt().isBefore(before.minusSeconds(1)));
+    }
+
+    @Test
+    void put_servesRestoredInvoiceWithoutLoading() {
+        invoiceCache.put(1L, invoice("restored invoice"));
+
+        assertEquals(invoice("restored invoice"), invoiceCache.get(1L, load("other")).block());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void bindTo_exposesHitsMissesAndLoadTime() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        invoiceCache.bindTo(registry);
+
+        invoiceCache.get(1L, load("invoice 1")).block();
+        invoiceCache.get(1L, load("invoice 1")).block();
+
+        assertEquals(1.0, registry.get("movie.rental.invoice-cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("movie.rental.invoice-cache.requests").tag("result", "miss").functionCounter().count());
+        assertEquals(0.5, registry.get("movie.rental.invoice-cache.hit-ratio").gauge().value());
+        assertEquals(1.0, registry.get("movie.rental.invoice-cache.loads").functionTimer().count());
+        assertNotNull(registry.find("movie.rental.invoice-cache.weight").gauge());
+    }
+
+    @Test
+    void weight_isTheApproximateLengthOfTheInvoiceText() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        invoiceCache.bindTo(registry);
+
+        invoiceCache.put(1L, new InvoiceResponseDTO("John Doe",
+                List.of(new InvoiceItemDTO("The Matrix", new BigDecimal("3.5"))), new BigDecimal("3.5"), 1));
+
+        // The weight is recorded by Caffeine's asynchronous maintenance
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> registry.get("movie.rental.invoice-cache.weight").gauge().value() > 0);
+        assertEquals(96.0, registry.get("movie.rental.invoice-cache.weight").gauge().value());
+    }
+
+    @Test
+    void weight_missingCustomerAndTitle_countAsEmpty() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        invoiceCache.bindTo(registry);
+
+        invoiceCache.put(1L, new InvoiceResponseDTO(null,
+                List.of(new InvoiceItemDTO(null, new BigDecimal("3.5"))), new BigDecimal("3.5"), 1));
+
+        await().atMost(Duration.ofSeconds(5))
+                .until(() -> registry.get("movie.rental.invoice-cache.weight").gauge().value() > 0);
+        assertEquals(78.0, registry.get("movie.rental.invoice-cache.weight").gauge().value());
+    }
+
+    private Mono<InvoiceResponseDTO> load(String customer) {
+        return Mono.fromCallable(() -> {
+            loads.incrementAndGet();
+            return invoice(customer);
+        });
+    }
+
+    private static InvoiceResponseDTO invoice(String customer) {
+        return new InvoiceResponseDTO(customer, List.of(), BigDecimal.ZERO, 0);
+    }
+}
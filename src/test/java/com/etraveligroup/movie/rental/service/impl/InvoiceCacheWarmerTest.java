@@ -0,0 +1,162 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.dto.CachedInvoiceDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceCacheSnapshotDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceItemDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import com.etraveligroup.movie.rental.exceptions.CustomerNotFoundException;
+import com.etraveligroup.movie.rental.service.RentalInfoService;
+import com.etraveligroup.movie.rental.util.InvoiceCacheSnapshotUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvoiceCacheWarmerTest {
+
+    @Mock
+    private SharedInvoiceCache sharedInvoiceCache;
+
+    @Mock
+    private RentalInfoService rentalInfoService;
+
+    @TempDir
+    Path directory;
+
+    private InvoiceCache invoiceCache;
+    private Path snapshotFile;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(sharedInvoiceCache.get(any(), any())).thenAnswer(invocation -> invocation.getArgument(1));
+        invoiceCache = new InvoiceCache(sharedInvoiceCache, true, 100_000, Duration.ofMinutes(10));
+        snapshotFile = directory.resolve("invoice-cache.snapshot");
+    }
+
+    @Test
+    void warmUp_computesRecentlyRequestedCustomersAndSkipsFailures() {
+        when(sharedInvoiceCache.recentCustomerIds(1000)).thenReturn(List.of(1L, 2L, 3L));
+        when(rentalInfoService.generateInvoiceById(1L)).thenReturn(Mono.just(invoice("invoice 1")));
+        when(rentalInfoService.generateInvoiceById(2L)).thenReturn(Mono.error(new CustomerNotFoundException("Customer not found")));
+        when(rentalInfoService.generateInvoiceById(3L)).thenReturn(Mono.just(invoice("invoice 3")));
+        InvoiceCacheWarmer warmer = warmer(true, Duration.ofSeconds(5));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        warmer.bindTo(registry);
+
+        warmer.warmUp();
+
+        assertEquals(2.0, registry.get("movie.rental.invoice-cache.warm-up.invoices").tag("source", "computed").gauge().value());
+        assertEquals(0.0, registry.get("movie.rental.invoice-cache.warm-up.invoices").tag("source", "snapshot").gauge().value());
+    }
+
+    @Test
+    void warmUp_stopsAtTimeout() {
+        when(sharedInvoiceCache.recentCustomerIds(1000)).thenReturn(List.of(1L, 2L));
+        when(rentalInfoService.generateInvoiceById(1L)).thenReturn(Mono.just(invoice("invoice 1")));
+        when(rentalInfoService.generateInvoiceById(2L)).thenReturn(Mono.never());
+        InvoiceCacheWarmer warmer = warmer(true, Duration.ofMillis(200));
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), warmer::warmUp);
+    }
+
+    @Test
+    void writeSnapshotThenWarmUp_restoresUnchangedInvoicesAndRecomputesChangedOnes() {
+        invoiceCache.put(1L, invoice("invoice 1"));
+        invoiceCache.put(2L, invoice("invoice 2"));
+        when(sharedInvoiceCache.appliedChangeId()).thenReturn(42L);
+        warmer(true, Duration.ofSeconds(5)).writeSnapshot();
+        assertTrue(Files.isRegularFile(snapshotFile));
+
+        invoiceCache = new InvoiceCache(sharedInvoiceCache, true, 100_000, Duration.ofMinutes(10));
+        when(sharedInvoiceCache.customersChangedAfter(eq(42L), any())).thenReturn(Optional.of(Set.of(2L)));
+        when(sharedInvoiceCache.recentCustomerIds(1000)).thenReturn(List.of());
+        when(rentalInfoService.generateInvoiceById(2L)).thenReturn(Mono.just(invoice("invoice 2 updated")));
+        InvoiceCacheWarmer restarted = warmer(true, Duration.ofSeconds(5));
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        restarted.bindTo(registry);
+
+        restarted.warmUp();
+
+        assertEquals(invoice("invoice 1"), invoiceCache.get(1L, Mono.just(invoice("recomputed"))).block());
+        verify(rentalInfoService, never()).generateInvoiceById(1L);
+        assertEquals(1.0, registry.get("movie.rental.invoice-cache.warm-up.invoices").tag("source", "snapshot").gauge().value());
+        assertEquals(1.0, registry.get("movie.rental.invoice-cache.warm-up.invoices").tag("source", "computed").gauge().value());
+    }
+
+    @Test
+    void warmUp_snapshotBeyondChangeLog_isRecomputed() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        InvoiceCacheSnapshotUtil.write(snapshotFile, new InvoiceCacheSnapshotDTO(now, 7L, List.of(
+                new CachedInvoiceDTO(1L, invoice("invoice 1"), now),
+                new CachedInvoiceDTO(2L, invoice("expired invoice 2"), now.minus(Duration.ofHours(1))))));
+        when(sharedInvoiceCache.customersChangedAfter(7L, now)).thenReturn(Optional.empty());
+        when(sharedInvoiceCache.recentCustomerIds(1000)).thenReturn(List.of());
+        when(rentalInfoService.generateInvoiceById(any())).thenReturn(Mono.just(invoice("recomputed")));
+
+        warmer(true, Duration.ofSeconds(5)).warmUp();
+
+        verify(rentalInfoService).generateInvoiceById(1L);
+        verify(rentalInfoService).generateInvoiceById(2L);
+    }
+
+    @Test
+    void warmUp_sharedTierDisabled_computesSnapshotCustomers() {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        InvoiceCacheSnapshotUtil.write(snapshotFile, new InvoiceCacheSnapshotDTO(now, -1L, List.of(
+                new CachedInvoiceDTO(1L, invoice("invoice 1"), now))));
+        when(sharedInvoiceCache.isEnabled()).thenReturn(false);
+        when(sharedInvoiceCache.customersChangedAfter(-1L, now)).thenReturn(Optional.empty());
+        when(rentalInfoService.generateInvoiceById(1L)).thenReturn(Mono.just(invoice("recomputed")));
+
+        warmer(true, Duration.ofSeconds(5)).warmUp();
+
+        verify(rentalInfoService).generateInvoiceById(1L);
+    }
+
+    @Test
+    void writeSnapshot_disabled_writesNothing() {
+        invoiceCache.put(1L, invoice("invoice 1"));
+
+        warmer(false, Duration.ofSeconds(5)).writeSnapshot();
+
+        assertFalse(Files.exists(snapshotFile));
+    }
+
+    @Test
+    void warmUp_cacheDisabled_doesNothing() {
+        invoiceCache = new InvoiceCache(sharedInvoiceCache, false, 100_000, Duration.ofMinutes(10));
+
+        warmer(true, Duration.ofSeconds(5)).warmUp();
+
+        verifyNoInteractions(rentalInfoService);
+    }
+
+    private InvoiceCacheWarmer warmer(boolean snapshotEnabled, Duration timeout) {
+        return new InvoiceCacheWarmer(invoiceCache, sharedInvoiceCache, rentalInfoService, true, 1000, 4, timeout,
+                snapshotEnabled, snapshotFile.toString(), 100, Duration.ofMinutes(10));
+    }
+
+    private static InvoiceResponseDTO invoice(String title) {
+        return new InvoiceResponseDTO("John Doe", List.of(new InvoiceItemDTO(title, BigDecimal.ONE)), BigDecimal.ONE, 1);
+    }
+}
@@ -0,0 +1,160 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.constants.RentalChangeType;
+import com.etraveligroup.movie.rental.datasource.ReadYourWrites;
+import com.etraveligroup.movie.rental.event.RentalChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvoiceRequestCoalescerTest {
+
+    private InvoiceRequestCoalescer coalescer;
+    private SimpleMeterRegistry registry;
+    private AtomicInteger computations;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new InvoiceRequestCoalescer();
+        registry = new SimpleMeterRegistry();
+        coalescer.bindTo(registry);
+        computations = new AtomicInteger();
+    }
+
+    @Test
+    void execute_stampede_runsOneComputationForAllConcurrentRequests() throws Exception {
+        int requests = 50;
+        Sinks.One<String> invoice = Sinks.one();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+        try {
+            List<Future<Mono<String>>> responses = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                responses.add(executor.submit(() -> {
+                    start.await();
+                    return coalescer.execute(1L, MediaType.APPLICATION_PDF, () -> compute(invoice.asMono()));
+                }));
+            }
+            start.countDown();
+            List<Mono<String>> results = new ArrayList<>();
+            for (Future<Mono<String>> response : responses) {
+                results.add(response.get(10, TimeUnit.SECONDS));
+            }
+            invoice.tryEmitValue("rendered invoice");
+
+            for (Mono<String> result : results) {
+                assertEquals("rendered invoice", result.block());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, computations.get());
+        assertEquals(1.0, registry.get("movie.rental.invoice-requests.coalescing").tag("role", "leader").counter().count());
+        assertEquals(requests - 1, registry.get("movie.rental.invoice-requests.coalescing").tag("role", "waiter").counter().count());
+        assertEquals(requests - 1, registry.get("movie.rental.invoice-requests.coalesced-waiters").summary().max());
+        assertEquals(0.0, registry.get("movie.rental.invoice-requests.in-flight").gauge().value());
+    }
+
+    @Test
+    void execute_sharesErrorWithWaitersAndStartsOverAfterwards() {
+        Sinks.One<String> invoice = Sinks.one();
+        Mono<String> first = coalescer.execute(1L, MediaType.TEXT_PLAIN, () -> compute(invoice.asMono()));
+        Mono<String> second = coalescer.execute(1L, MediaType.TEXT_PLAIN, () -> compute(invoice.asMono()));
+
+        invoice.tryEmitError(new IllegalStateException("DB error"));
+
+        assertThrows(IllegalStateException.class, first::block);
+        assertThrows(IllegalStateException.class, second::block);
+        assertEquals("invoice", coalescer.execute(1L, MediaType.TEXT_PLAIN, () -> compute(Mono.just("invoice"))).block());
+        assertEquals(2, computations.get());
+    }
+
+    @Test
+    void execute_differentFormatsOrCustomers_computeSeparately() {
+        Sinks.One<String> invoice = Sinks.one();
+
+        coalescer.execute(1L, MediaType.TEXT_PLAIN, () -> compute(invoice.asMono()));
+        coalescer.execute(1L, MediaType.APPLICATION_PDF, () -> compute(invoice.asMono()));
+        coalescer.execute(2L, MediaType.TEXT_PLAIN, () -> compute(invoice.asMono()));
+
+        assertEquals(3, computations.get());
+        assertEquals(3.0, registry.get("movie.rental.invoice-requests.in-flight").gauge().value());
+    }
+
+    @Test
+    void execute_cancelledRequest_doesNotCancelComputationOfOthers() {
+        Sinks.One<String> invoice = Sinks.one();
+        Disposable cancelled = coalescer.execute(1L, MediaType.TEXT_PLAIN, () -> compute(invoice.asMono())).subscribe();
+        Mono<String> waiting = coalescer.execute(1L, MediaType.TEXT_PLAIN, () -> compute(invoice.asMono()));
+
+        cancelled.dispose();
+        invoice.tryEmitValue("invoice");
+
+        assertEquals("invoice", waiting.block());
+        assertEquals(1, computations.get());
+    }
+
+    @Test
+    void execute_readYourWrites_computesOwnResult() throws Exception {
+        Sinks.One<String> invoice = Sinks.one();
+        coalescer.execute(1L, MediaType.TEXT_PLAIN, () -> compute(invoice.asMono()));
+
+        String own = ReadYourWrites.call(true, () ->
+                coalescer.execute(1L, MediaType.TEXT_PLAIN, () -> compute(Mono.just("after write"))).block());
+
+        assertEquals("after write", own);
+        assertEquals(2, computations.get());
+    }
+
+    @Test
+    void render_outlastingComputation_isSharedPerInvoiceVersion() {
+        Sinks.One<String> pdf = Sinks.one();
+        assertEquals("invoice", coalescer.execute(1L, MediaType.APPLICATION_PDF, () -> compute(Mono.just("invoice"))).block());
+        Mono<String> first = coalescer.render(1L, MediaType.APPLICATION_PDF, "\"v1\"", () -> compute(pdf.asMono()));
+
+        assertEquals("invoice", coalescer.execute(1L, MediaType.APPLICATION_PDF, () -> compute(Mono.just("invoice"))).block());
+        Mono<String> second = coalescer.render(1L, MediaType.APPLICATION_PDF, "\"v1\"", () -> compute(Mono.just("second pdf")));
+        Mono<String> otherVersion = coalescer.render(1L, MediaType.APPLICATION_PDF, "\"v2\"", () -> compute(Mono.just("v2 pdf")));
+        pdf.tryEmitValue("pdf");
+
+        assertEquals("pdf", first.block());
+        assertEquals("pdf", second.block());
+        assertEquals("v2 pdf", otherVersion.block());
+        assertEquals(4, computations.get());
+    }
+
+    @Test
+    void onRentalChanged_laterRequestsStartNewComputation() {
+        Sinks.One<String> before = Sinks.one();
+        Mono<String> waiting = coalescer.execute(1L, MediaType.TEXT_PLAIN, () -> compute(before.asMono()));
+
+        coalescer.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 10L, 1L, "F001", 3));
+        Mono<String> after = coalescer.execute(1L, MediaType.TEXT_PLAIN, () -> compute(Mono.just("after change")));
+        before.tryEmitValue("before change");
+
+        assertEquals("before change", waiting.block());
+        assertEquals("after change", after.block());
+        assertEquals(2, computations.get());
+    }
+
+    private Mono<String> compute(Mono<String> result) {
+        computations.incrementAndGet();
+        return result;
+    }
+}
@@ -0,0 +1,223 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.catalog.MovieCatalogSnapshot;
+import com.etraveligroup.movie.rental.dto.CatalogStatusDTO;
+import com.etraveligroup.movie.rental.entity.Movie;
+import com.etraveligroup.movie.rental.entity.MoviePricing;
+import com.etraveligroup.movie.rental.event.MovieCatalogReloadedEvent;
+import com.etraveligroup.movie.rental.repository.MoviePricingRepository;
+import com.etraveligroup.movie.rental.repository.MovieRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MovieCatalogServiceTest {
+
+    @Mock
+    private MovieRepository movieRepository;
+
+    @Mock
+    private MoviePricingRepository moviePricingRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private MovieCatalogService movieCatalogService;
+
+    @BeforeEach
+    void setUp() {
+        movieCatalogService = new MovieCatalogService(movieRepository, moviePricingRepository, eventPublisher, Duration.ofMinutes(1));
+    }
+
+    private static MoviePricing regularPricing(String basePrice) {
+        MoviePricing pricing = new MoviePricing();
+        pricing.setCode("regular");
+        pricing.setBaseDays(2);
+        pricing.setBasePrice(new BigDecimal(basePrice));
+        pricing.setExtraPricePerDay(new BigDecimal("1.50"));
+        return pricing;
+    }
+
+    private static Movie movie(MoviePricing pricing) {
+        return movie("F001", pricing);
+    }
+
+    private static Movie movie(String id, MoviePricing pricing) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setTitle("You've Got Mail");
+        movie.setPricing(pricing);
+        return movie;
+    }
+
+    @Test
+    void current_loadsCatalogOnFirstAccessOnly() {
+        MoviePricing pricing = regularPricing("2.00");
+        when(moviePricingRepository.findAll()).thenReturn(List.of(pricing));
+        when(movieRepository.findAll()).thenReturn(List.of(movie(pricing)));
+
+        MovieCatalogSnapshot first = movieCatalogService.current();
+        MovieCatalogSnapshot second = movieCatalogService.current();
+
+        assertSame(first, second);
+        verify(movieRepository, times(1)).findAll();
+    }
+
+    @Test
+    void reload_swapsInNewSnapshotWithNewPricing() {
+        MoviePricing oldPricing = regularPricing("2.00");
+        MoviePricing newPricing = regularPricing("2.50");
+        when(moviePricingRepository.findAll()).thenReturn(List.of(oldPricing)).thenReturn(List.of(newPricing));
+        when(movieRepository.findAll()).thenReturn(List.of(movie(oldPricing))).thenReturn(List.of(movie(newPricing)));
+
+        MovieCatalogSnapshot before = movieCatalogService.current();
+        MovieCatalogSnapshot after = movieCatalogService.reload();
+
+        assertEquals(new BigDecimal("2.00"), before.rentalAmount(before.movieIndex("F001"), 1));
+        assertEquals(new BigDecimal("2.50"), after.rentalAmount(after.movieIndex("F001"), 1));
+        assertEquals(before.version() + 1, after.version());
+        assertSame(after, movieCatalogService.current());
+        verify(eventPublisher).publishEvent(new MovieCatalogReloadedEvent(before.version(), after.version(), Set.of("F001")));
+    }
+
+    @Test
+    void reload_unchangedPricing_publishesNoEvent() {
+        MoviePricing pricing = regularPricing("2.00");
+        when(moviePricingRepository.findAll()).thenReturn(List.of(pricing));
+        when(movieRepository.findAll()).thenReturn(List.of(movie(pricing)));
+
+        movieCatalogService.current();
+        movieCatalogService.reload();
+
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void status_describesCurrentSnapshot() {
+        MoviePricing pricing = regularPricing("2.00");
+        when(moviePricingRepository.findAll()).thenReturn(List.of(pricing));
+        when(movieRepository.findAll()).thenReturn(List.of(movie(pricing)));
+
+        CatalogStatusDTO status = movieCatalogService.status();
+
+        assertEquals(1, status.version());
+        assertEquals(1, status.movies());
+        assertEquals(1, status.pricingCodes());
+        assertNotNull(status.loadedAt());
+    }
+
+    @Test
+    void current_badRows_areSkippedInsteadOfFailingTheCatalog() {
+        MoviePricing pricing = regularPricing("2.00");
+        MoviePricing withoutPrices = regularPricing("2.00");
+        withoutPrices.setCode("broken");
+        withoutPrices.setBasePrice(null);
+        when(moviePricingRepository.findAll()).thenReturn(List.of(pricing, withoutPrices));
+        when(movieRepository.findAll()).thenReturn(List.of(movie(pricing), movie("F002", withoutPrices), movie("F003", null)));
+
+        MovieCatalogSnapshot catalog = movieCatalogService.current();
+
+        assertEquals(1, catalog.movieCount());
+        assertEquals(1, catalog.pricingCount());
+        assertNotEquals(MovieCatalogSnapshot.NOT_FOUND, catalog.movieIndex("F001"));
+        assertTrue(catalog.isSkipped("F002"));
+        assertTrue(catalog.isSkipped("F003"));
+    }
+
+    @Test
+    void reloadForMissingMovie_remembersUnknownMovieUntilNextReload() {
+        MoviePricing pricing = regularPricing("2.00");
+        when(moviePricingRepository.findAll()).thenReturn(List.of(pricing));
+        when(movieRepository.findAll()).thenReturn(List.of(movie(pricing)));
+        MovieCatalogService service = new MovieCatalogService(movieRepository, moviePricingRepository, eventPublisher, Duration.ZERO);
+        service.current();
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(MovieCatalogSnapshot.NOT_FOUND, service.reloadForMissingMovie("F999").movieIndex("F999"));
+        }
+        verify(movieRepository, times(2)).findAll();
+
+        service.reload();
+        service.reloadForMissingMovie("F999");
+        verify(movieRepository, times(4)).findAll();
+    }
+
+    @Test
+    void reloadForMissingMovie_withinMinimumInterval_doesNotReload() {
+        MoviePricing pricing = regularPricing("2.00");
+        when(moviePricingRepository.findAll()).thenReturn(List.of(pricing));
+        when(movieRepository.findAll()).thenReturn(List.of(movie(pricing)));
+        movieCatalogService.current();
+
+        for (int i = 0; i < 10; i++) {
+            movieCatalogService.reloadForMissingMovie("F" + (100 + i));
+        }
+
+        verify(movieRepository, times(1)).findAll();
+    }
+
+    @Test
+    void reloadForMissingMovie_newMovie_isFoundAfterReload() {
+        MoviePricing pricing = regularPricing("2.00");
+        when(moviePricingRepository.findAll()).thenReturn(List.of(pricing));
+        when(movieRepository.findAll()).thenReturn(List.of(movie(pricing))).thenReturn(List.of(movie(pricing), movie("F005", pricing)));
+        MovieCatalogService service = new MovieCatalogService(movieRepository, moviePricingRepository, eventPublisher, Duration.ZERO);
+        service.current();
+
+        MovieCatalogSnapshot reloaded = service.reloadForMissingMovie("F005");
+
+        assertNotEquals(MovieCatalogSnapshot.NOT_FOUND, reloaded.movieIndex("F005"));
+        assertSame(reloaded, service.reloadForMissingMovie("F005"));
+        verify(movieRepository, times(2)).findAll();
+    }
+
+    @Test
+    void reloadForMissingMovie_concurrentMisses_shareOneReload() throws Exception {
+        MoviePricing pricing = regularPricing("2.00");
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(moviePricingRepository.findAll()).thenReturn(List.of(pricing));
+        when(movieRepository.findAll()).thenReturn(List.of(movie(pricing))).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(movie(pricing));
+        });
+        MovieCatalogService service = new MovieCatalogService(movieRepository, moviePricingRepository, eventPublisher, Duration.ZERO);
+        service.current();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<MovieCatalogSnapshot>> misses = new ArrayList<>();
+            misses.add(executor.submit(() -> service.reloadForMissingMovie("F999")));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 7; i++) {
+                misses.add(executor.submit(() -> service.reloadForMissingMovie("F999")));
+            }
+            release.countDown();
+            for (Future<MovieCatalogSnapshot> miss : misses) {
+                assertEquals(2, miss.get(5, TimeUnit.SECONDS).version());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(movieRepository, times(2)).findAll();
+    }
+}
@@ -1,15 +1,25 @@
 package com.etraveligroup.movie.rental.service.impl;
 
+import com.etraveligroup.movie.rental.dto.InvoiceItemDTO;
 import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
 import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -17,12 +27,43 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class PdfGenerateServiceTest {
 
+    private static final InvoiceResponseDTO INVOICE = new InvoiceResponseDTO("Jane \"JJ\" O'Neil", List.of(
+            new InvoiceItemDTO("You've Got Mail", new BigDecimal("3.50")),
+            new InvoiceItemDTO("Fast & Furious <Tokyo Drift>", new BigDecimal("2.00")),
+            new InvoiceItemDTO("Amélie", new BigDecimal("1.50"))), new BigDecimal("7.00"), 3);
+
     @Mock
     private TemplateEngine templateEngine;
 
-    @InjectMocks
     private PdfGenerateService pdfGenerateService;
 
+    @BeforeEach
+    void setUp() {
+        // Custom template, processed by the template engine
+        pdfGenerateService = new PdfGenerateService(templateEngine, "invoice-template");
+    }
+
+    @Test
+    void generatePdfFromHtmlTemplate_builtInHtml_doesNotUseTemplateEngine() throws IOException {
+        byte[] pdfBytes = new PdfGenerateService(templateEngine, "").generatePdfFromHtmlTemplate(INVOICE);
+
+        assertTrue(text(pdfBytes).contains("Fast & Furious <Tokyo Drift>"));
+        verifyNoInteractions(templateEngine);
+    }
+
+    @Test
+    void generatePdfFromHtmlTemplate_builtInHtmlAndThymeleaf_produceEquivalentPdfs() throws IOException {
+        byte[] builtIn = new PdfGenerateService(templateEngine, "").generatePdfFromHtmlTemplate(INVOICE);
+        byte[] thymeleaf = new PdfGenerateService(springTemplateEngine(), "invoice-template").generatePdfFromHtmlTemplate(INVOICE);
+        byte[] golden = renderGoldenHtml();
+
+        // The documents differ only in their ID, so pages are compared by their content streams
+        assertPagesEqual(golden, builtIn);
+        assertPagesEqual(golden, thymeleaf);
+        assertEquals(text(golden), text(builtIn));
+        assertEquals(text(golden), text(thymeleaf));
+    }
+
     @Test
     void generatePdfFromHtmlTemplate_successful() {
         InvoiceResponseDTO invoice = mock(InvoiceResponseDTO.class);
@@ -63,4 +104,43 @@ class PdfGenerateServiceTest {
             assertTrue(ex.getMessage().contains("Failed to generate PDF from HTML"));
         }
     }
-}
\ No newline at end of file
+
+    private static SpringTemplateEngine springTemplateEngine() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        return engine;
+    }
+
+    // Renders the golden HTML, the markup of the invoice template for INVOICE
+    private static byte[] renderGoldenHtml() throws IOException {
+        TemplateEngine goldenEngine = mock(TemplateEngine.class);
+        try (InputStream in = PdfGenerateServiceTest.class.getResourceAsStream("/golden/invoice.html")) {
+            assertNotNull(in, "golden/invoice.html is missing");
+            String html = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            when(goldenEngine.process(eq("golden"), any(Context.class))).thenReturn(html);
+        }
+        return new PdfGenerateService(goldenEngine, "golden").generatePdfFromHtmlTemplate(INVOICE);
+    }
+
+    private static void assertPagesEqual(byte[] expected, byte[] actual) throws IOException {
+        try (PDDocument expectedDocument = PDDocument.load(expected); PDDocument actualDocument = PDDocument.load(actual)) {
+            assertEquals(expectedDocument.getNumberOfPages(), actualDocument.getNumberOfPages());
+            for (int i = 0; i < expectedDocument.getNumberOfPages(); i++) {
+                try (InputStream expectedContents = expectedDocument.getPage(i).getContents();
+                     InputStream actualContents = actualDocument.getPage(i).getContents()) {
+                    assertArrayEquals(expectedContents.readAllBytes(), actualContents.readAllBytes(), "page " + (i + 1));
+                }
+            }
+        }
+    }
+
+    private static String text(byte[] pdfBytes) throws IOException {
+        try (PDDocument document = PDDocument.load(pdfBytes)) {
+            return new PDFTextStripper().getText(document);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.dto.BatchInvoiceResultDTO;
+import com.etraveligroup.movie.rental.dto.GenerateInvoiceByNameRequestDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceItemDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import com.etraveligroup.movie.rental.dto.RentalPeriodDTO;
+import com.etraveligroup.movie.rental.entity.reactive.CustomerRow;
+import com.etraveligroup.movie.rental.entity.reactive.MoviePricingRow;
+import com.etraveligroup.movie.rental.entity.reactive.MovieRentalRow;
+import com.etraveligroup.movie.rental.entity.reactive.MovieRow;
+import com.etraveligroup.movie.rental.exceptions.CustomerNotFoundException;
+import com.etraveligroup.movie.rental.exceptions.RentalsNotFoundException;
+import com.etraveligroup.movie.rental.repository.reactive.ReactiveCustomerRepository;
+import com.etraveligroup.movie.rental.repository.reactive.ReactiveMoviePricingRepository;
+import com.etraveligroup.movie.rental.repository.reactive.ReactiveMovieRentalRepository;
+import com.etraveligroup.movie.rental.repository.reactive.ReactiveMovieRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class R2dbcRentalServiceImplTest {
+
+    private static final MovieRow YOUVE_GOT_MAIL = new MovieRow("F001", "You've Got Mail", "REGULAR");
+    private static final MovieRow CARS = new MovieRow("F003", "Cars", "CHILDRENS");
+    private static final MoviePricingRow REGULAR = new MoviePricingRow("REGULAR", 2, new BigDecimal("2.0"), new BigDecimal("1.5"));
+    private static final MoviePricingRow CHILDRENS = new MoviePricingRow("CHILDRENS", 3, new BigDecimal("1.5"), new BigDecimal("1.5"));
+
+    @Mock
+    private ReactiveCustomerRepository customerRepository;
+
+    @Mock
+    private ReactiveMovieRentalRepository movieRentalRepository;
+
+    @Mock
+    private ReactiveMovieRepository movieRepository;
+
+    @Mock
+    private ReactiveMoviePricingRepository moviePricingRepository;
+
+    @Spy
+    private InvoiceCache invoiceCache = new InvoiceCache(
+            new SharedInvoiceCache(null, null, null, null, null, null, false, Duration.ofMinutes(10), Duration.ofSeconds(30), Duration.ofHours(1), 10_000),
+            true, 100_000, Duration.ofMinutes(10));
+
+    @InjectMocks
+    private R2dbcRentalServiceImpl rentalService;
+
+    @Test
+    void generateInvoiceById_rendersInvoice() {
+        when(customerRepository.findById(1L)).thenReturn(Mono.just(new CustomerRow(1L, "John Doe", "john doe")));
+        when(movieRentalRepository.findByCustomerIdOrderById(1L)).thenReturn(Flux.just(
+                new MovieRentalRow(1L, 1L, "F001", 3), new MovieRentalRow(2L, 1L, "F003", 4)));
+        stubCatalog();
+
+        InvoiceResponseDTO invoice = rentalService.generateInvoiceById(1L).block();
+
+        assertEquals(new InvoiceResponseDTO("John Doe", List.of(
+                new InvoiceItemDTO("You've Got Mail", new BigDecimal("3.50")),
+                new InvoiceItemDTO("Cars", new BigDecimal("3.00"))), new BigDecimal("6.50"), 2), invoice);
+    }
+
+    @Test
+    void generateInvoiceById_servesByNameRequestFromCache() {
+        when(customerRepository.findById(1L)).thenReturn(Mono.just(new CustomerRow(1L, "John Doe", "john doe")));
+        when(customerRepository.findByNameKeyOrderById("john doe")).thenReturn(Flux.just(new CustomerRow(1L, "John Doe", "john doe")));
+        when(movieRentalRepository.findByCustomerIdOrderById(1L)).thenReturn(Flux.just(new MovieRentalRow(1L, 1L, "F001", 3)));
+        stubCatalog();
+
+        InvoiceResponseDTO invoice = rentalService.generateInvoiceById(1L).block();
+
+        assertEquals(invoice, rentalService.generateInvoiceByName(new GenerateInvoiceByNameRequestDTO("John Doe")).block());
+        verify(movieRepository, times(1)).findAllById(anyIterable());
+    }
+
+    @Test
+    void generateInvoiceById_customerNotFound() {
+        when(customerRepository.findById(9L)).thenReturn(Mono.empty());
+
+        assertThrows(CustomerNotFoundException.class, () -> rentalService.generateInvoiceById(9L).block());
+        verifyNoInteractions(movieRentalRepository);
+    }
+
+    @Test
+    void generateInvoiceById_noRentals() {
+        when(customerRepository.findById(2L)).thenReturn(Mono.just(new CustomerRow(2L, "Jane Smith", "jane smith")));
+        when(movieRentalRepository.findByCustomerIdOrderById(2L)).thenReturn(Flux.empty());
+
+        assertThrows(RentalsNotFoundException.class, () -> rentalService.generateInvoiceById(2L).block());
+        verifyNoInteractions(movieRepository);
+    }
+
+    @Test
+    void generateInvoiceById_unknownMovie_throwsIllegalArgument() {
+        when(customerRepository.findById(1L)).thenReturn(Mono.just(new CustomerRow(1L, "John Doe", "john doe")));
+        when(movieRentalRepository.findByCustomerIdOrderById(1L)).thenReturn(Flux.just(new MovieRentalRow(1L, 1L, "F999", 3)));
+        when(movieRepository.findAllById(anyIterable())).thenReturn(Flux.empty());
+        when(moviePricingRepository.findAllById(anyIterable())).thenReturn(Flux.empty());
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> rentalService.generateInvoiceById(1L).block());
+        assertEquals("Invalid rental data: Unknown movie ID: F999", ex.getMessage());
+    }
+
+    @Test
+    void generateInvoiceByName_usesNormalizedKeyAndLowestId() {
+        when(customerRepository.findByNameKeyOrderById("john doe")).thenReturn(Flux.just(
+                new CustomerRow(1L, "John Doe", "john doe"), new CustomerRow(7L, "john doe", "john doe")));
+        when(movieRentalRepository.findByCustomerIdOrderById(1L)).thenReturn(Flux.just(new MovieRentalRow(1L, 1L, "F001", 1)));
+        stubCatalog();
+
+        InvoiceResponseDTO invoice = rentalService.generateInvoiceByName(new GenerateInvoiceByNameRequestDTO("  JOHN Doe ")).block();
+
+        assertEquals("John Doe", invoice.customer());
+        verify(movieRentalRepository, never()).findByCustomerIdOrderById(7L);
+    }
+
+    @Test
+    void generateInvoiceByName_customerNotFound() {
+        when(customerRepository.findByNameKeyOrderById("unknown")).thenReturn(Flux.empty());
+
+        assertThrows(CustomerNotFoundException.class,
+                () -> rentalService.generateInvoiceByName(new GenerateInvoiceByNameRequestDTO("Unknown")).block());
+    }
+
+    @Test
+    void generateInvoicesByIds_reportsPerCustomerResults() {
+        when(customerRepository.findAllById(anyIterable())).thenReturn(Flux.just(
+                new CustomerRow(1L, "John Doe", "john doe"), new CustomerRow(2L, "Jane Smith", "jane smith")));
+        when(movieRentalRepository.findByCustomerIdInOrderByCustomerIdAscIdAsc(anyCollection())).thenReturn(Flux.just(
+                new MovieRentalRow(1L, 1L, "F001", 3)));
+        stubCatalog();
+
+        List<BatchInvoiceResultDTO> results = rentalService.generateInvoicesByIds(List.of(9L, 1L, 2L, 1L)).collectList().block();
+
+        assertEquals(List.of(9L, 1L, 2L), results.stream().map(BatchInvoiceResultDTO::customerId).toList());
+        assertEquals("Customer not found", results.get(0).error());
+        assertEquals(new BigDecimal("3.50"), results.get(1).invoice().total());
+        assertEquals("No rentals found for customer", results.get(2).error());
+    }
+
+    @Test
+    void generateInvoiceByIdWithPeriod_mergesArchivedAndHotRentalsInRentalOrder() {
+        RentalPeriodDTO period = RentalPeriodDTO.ofDates(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31));
+        OffsetDateTime from = period.from().atOffset(ZoneOffset.UTC);
+        OffsetDateTime to = period.to().atOffset(ZoneOffset.UTC);
+        when(customerRepository.findById(1L)).thenReturn(Mono.just(new CustomerRow(1L, "John Doe", "john doe")));
+        when(movieRentalRepository.findArchivedByCustomerIdRentedBetween(1L, from, to)).thenReturn(Flux.just(
+                new MovieRentalRow(1L, 1L, "F001", 3), new MovieRentalRow(7L, 1L, "F003", 4)));
+        when(movieRentalRepository.findByCustomerIdRentedBetween(1L, from, to)).thenReturn(Flux.just(new MovieRentalRow(4L, 1L, "F001", 1)));
+        stubCatalog();
+
+        InvoiceResponseDTO invoice = rentalService.generateInvoiceById(1L, period).block();
+
+        assertEquals(new InvoiceResponseDTO("John Doe", List.of(
+                new InvoiceItemDTO("You've Got Mail", new BigDecimal("3.50")),
+                new InvoiceItemDTO("You've Got Mail", new BigDecimal("2.00")),
+                new InvoiceItemDTO("Cars", new BigDecimal("3.00"))), new BigDecimal("8.50"), 3), invoice);
+        verify(movieRentalRepository, never()).findByCustomerIdOrderById(any());
+    }
+
+    private void stubCatalog() {
+        when(movieRepository.findAllById(anyIterable())).thenReturn(Flux.just(YOUVE_GOT_MAIL, CARS));
+        when(moviePricingRepository.findAllById(anyIterable())).thenReturn(Flux.just(REGULAR, CHILDRENS));
+    }
+}
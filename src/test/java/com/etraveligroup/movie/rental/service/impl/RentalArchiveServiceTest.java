@@ -0,0 +1,111 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.constants.RentalChangeType;
+import com.etraveligroup.movie.rental.dto.RentalArchiveResultDTO;
+import com.etraveligroup.movie.rental.dto.RentalRecordDTO;
+import com.etraveligroup.movie.rental.entity.MovieRental;
+import com.etraveligroup.movie.rental.event.RentalChangedEvent;
+import com.etraveligroup.movie.rental.repository.MovieRentalArchiveRepository;
+import com.etraveligroup.movie.rental.repository.MovieRentalRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RentalArchiveServiceTest {
+
+    @Mock
+    private MovieRentalArchiveRepository archiveRepository;
+
+    @Mock
+    private MovieRentalRepository movieRentalRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RentalArchiveService archiveService;
+
+    @BeforeEach
+    void setUp() {
+        archiveService = new RentalArchiveService(archiveRepository, movieRentalRepository, eventPublisher, transactionManager,
+                Duration.ofDays(30), 2);
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @Test
+    void archive_movesBatchesUntilABatchIsNotFull() {
+        List<RentalRecordDTO> first = List.of(new RentalRecordDTO(1L, 1L, "F001", 3), new RentalRecordDTO(2L, 2L, "F002", 1));
+        List<RentalRecordDTO> second = List.of(new RentalRecordDTO(5L, 1L, "F003", 4));
+        when(archiveRepository.findArchivable(any(), eq(2))).thenReturn(first).thenReturn(second);
+        when(archiveRepository.moveToArchive(eq(List.of(1L, 2L)), any())).thenReturn(2);
+        when(archiveRepository.moveToArchive(eq(List.of(5L)), any())).thenReturn(1);
+        Instant before = Instant.now();
+
+        RentalArchiveResultDTO result = archiveService.archive();
+
+        assertEquals(3, result.archived());
+        assertEquals(2, result.batches());
+        assertFalse(result.cutoff().isAfter(before.minus(Duration.ofDays(30)).plusSeconds(5)));
+        verify(transactionManager, times(2)).commit(any());
+        verify(eventPublisher).publishEvent(new RentalChangedEvent(RentalChangeType.ARCHIVED, 1L, 1L, "F001", 3));
+        verify(eventPublisher).publishEvent(new RentalChangedEvent(RentalChangeType.ARCHIVED, 5L, 1L, "F003", 4));
+        verify(eventPublisher, times(3)).publishEvent(any(RentalChangedEvent.class));
+    }
+
+    @Test
+    void archive_nothingToArchive() {
+        when(archiveRepository.findArchivable(any(), eq(2))).thenReturn(List.of());
+
+        RentalArchiveResultDTO result = archiveService.archive();
+
+        assertEquals(0, result.archived());
+        assertEquals(0, result.batches());
+        verify(archiveRepository, never()).moveToArchive(any(), any());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void markReturned_setsReturnTime() {
+        MovieRental rental = new MovieRental();
+        when(movieRentalRepository.findById(3L)).thenReturn(Optional.of(rental));
+
+        archiveService.markReturned(3L);
+
+        assertNotNull(rental.getReturnedAt());
+    }
+
+    @Test
+    void markReturned_alreadyReturned_isRejected() {
+        MovieRental rental = new MovieRental();
+        rental.setReturnedAt(Instant.parse("2024-01-01T00:00:00Z"));
+        when(movieRentalRepository.findById(3L)).thenReturn(Optional.of(rental));
+
+        assertThrows(IllegalArgumentException.class, () -> archiveService.markReturned(3L));
+        assertEquals(Instant.parse("2024-01-01T00:00:00Z"), rental.getReturnedAt());
+    }
+
+    @Test
+    void markReturned_unknownRental_isRejected() {
+        when(movieRentalRepository.findById(9L)).thenReturn(Optional.empty());
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> archiveService.markReturned(9L));
+        assertEquals("Rental not found: 9", ex.getMessage());
+    }
+}
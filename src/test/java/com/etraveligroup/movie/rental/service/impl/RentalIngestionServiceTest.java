@@ -0,0 +1,137 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.catalog.MovieCatalogSnapshot;
+import com.etraveligroup.movie.rental.dto.CustomerRentalsDTO;
+import com.etraveligroup.movie.rental.dto.MovieRentalDTO;
+import com.etraveligroup.movie.rental.dto.RentalIngestionResultDTO;
+import com.etraveligroup.movie.rental.entity.Customer;
+import com.etraveligroup.movie.rental.entity.Movie;
+import com.etraveligroup.movie.rental.entity.MoviePricing;
+import com.etraveligroup.movie.rental.entity.MovieRental;
+import com.etraveligroup.movie.rental.exceptions.RentalIngestionFailedException;
+import com.etraveligroup.movie.rental.repository.CustomerRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RentalIngestionServiceTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private MovieCatalogService movieCatalogService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RentalIngestionService ingestionService;
+
+    @BeforeEach
+    void setUp() {
+        ingestionService = new RentalIngestionService(customerRepository, movieCatalogService, entityManager, transactionManager, 2, 10);
+        lenient().when(movieCatalogService.current()).thenReturn(catalog());
+    }
+
+    @Test
+    void ingest_persistsRentalsInChunkedTransactions() {
+        when(customerRepository.findIdsByIdIn(List.of(1L, 2L))).thenReturn(List.of(1L, 2L));
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        Customer customer = new Customer();
+        Movie movie = new Movie();
+        when(entityManager.getReference(eq(Customer.class), any())).thenReturn(customer);
+        when(entityManager.getReference(eq(Movie.class), any())).thenReturn(movie);
+
+        RentalIngestionResultDTO result = ingestionService.ingest(List.of(
+                new CustomerRentalsDTO(1L, List.of(new MovieRentalDTO("F001", 3), new MovieRentalDTO("F001", 1))),
+                new CustomerRentalsDTO(2L, List.of(new MovieRentalDTO("F001", 2)))));
+
+        assertEquals(3, result.rowsInserted());
+        assertEquals(2, result.chunksCommitted());
+        verify(transactionManager, times(2)).commit(any());
+        ArgumentCaptor<MovieRental> persisted = ArgumentCaptor.forClass(MovieRental.class);
+        verify(entityManager, times(3)).persist(persisted.capture());
+        assertEquals(List.of(3, 1, 2), persisted.getAllValues().stream().map(MovieRental::getDays).toList());
+        assertSame(customer, persisted.getValue().getCustomer());
+        assertSame(movie, persisted.getValue().getMovie());
+    }
+
+    @Test
+    void ingest_invalidRentals_rejectsWholeRequestBeforeInserting() {
+        when(movieCatalogService.reloadForMissingMovie(anyString())).thenReturn(catalog());
+        when(customerRepository.findIdsByIdIn(List.of(1L, 9L))).thenReturn(List.of(1L));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> ingestionService.ingest(List.of(
+                new CustomerRentalsDTO(1L, List.of(new MovieRentalDTO("F001", 3), new MovieRentalDTO("F999", 1), new MovieRentalDTO(" ", 1))),
+                new CustomerRentalsDTO(9L, List.of(new MovieRentalDTO("F001", 2))))));
+
+        assertTrue(ex.getMessage().startsWith("Invalid rentals: customer 1: Unknown movie ID: F999; customer 1: Invalid movie ID"));
+        assertTrue(ex.getMessage().endsWith("customer 9: Customer not found"));
+        verify(movieCatalogService, times(1)).reloadForMissingMovie("F999");
+        verifyNoInteractions(transactionManager, entityManager);
+    }
+
+    @Test
+    void ingest_failingChunk_reportsRentalsCommittedBefore() {
+        when(customerRepository.findIdsByIdIn(List.of(1L))).thenReturn(List.of(1L));
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        IllegalStateException failure = new IllegalStateException("connection lost");
+        doNothing().doNothing().doThrow(failure).when(entityManager).persist(any());
+
+        RentalIngestionFailedException ex = assertThrows(RentalIngestionFailedException.class, () -> ingestionService.ingest(List.of(
+                new CustomerRentalsDTO(1L, List.of(new MovieRentalDTO("F001", 3), new MovieRentalDTO("F001", 1), new MovieRentalDTO("F001", 2))))));
+
+        assertEquals(2, ex.getRowsCommitted());
+        assertEquals(3, ex.getRowsRequested());
+        assertSame(failure, ex.getCause());
+        verify(transactionManager, times(1)).commit(any());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void ingest_tooManyRentals_isRejected() {
+        List<MovieRentalDTO> rentals = Collections.nCopies(11, new MovieRentalDTO("F001", 1));
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> ingestionService.ingest(List.of(new CustomerRentalsDTO(1L, rentals))));
+
+        assertEquals("At most 10 rentals are allowed per request, got 11", ex.getMessage());
+        verifyNoInteractions(customerRepository, transactionManager);
+    }
+
+    @Test
+    void ingest_noCustomers_isRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ingestionService.ingest(List.of()));
+    }
+
+    private static MovieCatalogSnapshot catalog() {
+        MoviePricing regular = new MoviePricing();
+        regular.setCode("regular");
+        regular.setBaseDays(2);
+        regular.setBasePrice(new BigDecimal("2.0"));
+        regular.setExtraPricePerDay(new BigDecimal("1.5"));
+        Movie movie = new Movie();
+        movie.setId("F001");
+        movie.setTitle("You've Got Mail");
+        movie.setPricing(regular);
+        return MovieCatalogSnapshot.of(1L, List.of(regular), List.of(movie));
+    }
+}
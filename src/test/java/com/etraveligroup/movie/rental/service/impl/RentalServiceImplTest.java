@@ -1,22 +1,47 @@
 package com.etraveligroup.movie.rental.service.impl;
 
+import com.etraveligroup.movie.rental.catalog.MovieCatalogSnapshot;
+import com.etraveligroup.movie.rental.constants.InvoiceReadPath;
+import com.etraveligroup.movie.rental.datasource.ReadOnlyTransactionExecutor;
+import com.etraveligroup.movie.rental.dto.BatchInvoiceResultDTO;
+import com.etraveligroup.movie.rental.dto.CustomerNameDTO;
+import com.etraveligroup.movie.rental.dto.CustomerRentalLineDTO;
 import com.etraveligroup.movie.rental.dto.GenerateInvoiceByNameRequestDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceItemDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import com.etraveligroup.movie.rental.dto.RentalInvoiceLineDTO;
+import com.etraveligroup.movie.rental.dto.RentalLineDTO;
+import com.etraveligroup.movie.rental.dto.RentalPeriodDTO;
+import com.etraveligroup.movie.rental.dto.RentalRecordDTO;
 import com.etraveligroup.movie.rental.entity.Customer;
 import com.etraveligroup.movie.rental.entity.Movie;
 import com.etraveligroup.movie.rental.entity.MoviePricing;
 import com.etraveligroup.movie.rental.entity.MovieRental;
 import com.etraveligroup.movie.rental.exceptions.CustomerNotFoundException;
+import com.etraveligroup.movie.rental.exceptions.RentalProcessingException;
+import com.etraveligroup.movie.rental.exceptions.RentalsNotFoundException;
 import com.etraveligroup.movie.rental.repository.CustomerRepository;
+import com.etraveligroup.movie.rental.repository.MovieRentalArchiveRepository;
+import com.etraveligroup.movie.rental.repository.MovieRentalRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Callable;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -27,9 +52,37 @@ class RentalServiceImplTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private CustomerNameResolver customerNameResolver;
+
+    @Mock
+    private MovieRentalRepository movieRentalRepository;
+
+    @Mock
+    private MovieRentalArchiveRepository movieRentalArchiveRepository;
+
+    @Mock
+    private MovieCatalogService movieCatalogService;
+
+    @Spy
+    private Scheduler blockingScheduler = Schedulers.immediate();
+
+    @Mock
+    private ReadOnlyTransactionExecutor readOnlyTransactions;
+
+    @Spy
+    private InvoiceCache invoiceCache = new InvoiceCache(
+            new SharedInvoiceCache(null, null, null, null, null, null, false, Duration.ofMinutes(10), Duration.ofSeconds(30), Duration.ofHours(1), 10_000),
+            true, 100_000, Duration.ofMinutes(10));
+
     @InjectMocks
     private RentalServiceImpl rentalService;
 
+    @BeforeEach
+    void runReadsDirectly() throws Exception {
+        lenient().when(readOnlyTransactions.call(anyBoolean(), any())).thenAnswer(invocation -> invocation.<Callable<?>>getArgument(1).call());
+    }
+
     @Test
     void generateInvoiceByName_successful() {
         String customerName = "John Doe";
@@ -51,26 +104,29 @@ class RentalServiceImplTest {
         rental.setDays(3);
 
         Customer customer = new Customer();
+        customer.setId(1L);
         customer.setName(customerName);
         customer.setRentals(List.of(rental));
 
-        when(customerRepository.findByName(customerName)).thenReturn(Optional.of(customer));
+        when(customerNameResolver.resolveCustomerId(customerName)).thenReturn(Optional.of(1L));
+        when(customerRepository.findWithRentalsById(1L)).thenReturn(Optional.of(customer));
 
-        String invoice = rentalService.generateInvoiceByName(dto).block();
+        InvoiceResponseDTO invoice = rentalService.generateInvoiceByName(dto).block();
 
         assertNotNull(invoice);
-        assertTrue(invoice.contains(customerName));
-        assertTrue(invoice.contains(movie.getTitle()));
+        assertEquals(customerName, invoice.customer());
+        assertEquals(List.of(new InvoiceItemDTO(movie.getTitle(), new BigDecimal("3.50"))), invoice.items());
     }
 
     @Test
     void generateInvoiceByName_customerNotFound() {
         String customerName = "Unknown";
         GenerateInvoiceByNameRequestDTO dto = new GenerateInvoiceByNameRequestDTO(customerName);
-        when(customerRepository.findByName(customerName)).thenReturn(Optional.empty());
+        when(customerNameResolver.resolveCustomerId(customerName)).thenReturn(Optional.empty());
 
-        Mono<String> result = rentalService.generateInvoiceByName(dto);
+        Mono<InvoiceResponseDTO> result = rentalService.generateInvoiceByName(dto);
         assertThrows(CustomerNotFoundException.class, result::block);
+        verifyNoInteractions(customerRepository);
     }
 
     @Test
@@ -78,12 +134,14 @@ class RentalServiceImplTest {
         String customerName = "No Rentals";
         GenerateInvoiceByNameRequestDTO dto = new GenerateInvoiceByNameRequestDTO(customerName);
         Customer customer = new Customer();
+        customer.setId(2L);
         customer.setName(customerName);
         customer.setRentals(List.of());
 
-        when(customerRepository.findByName(customerName)).thenReturn(Optional.of(customer));
+        when(customerNameResolver.resolveCustomerId(customerName)).thenReturn(Optional.of(2L));
+        when(customerRepository.findWithRentalsById(2L)).thenReturn(Optional.of(customer));
 
-        Mono<String> result = rentalService.generateInvoiceByName(dto);
+        Mono<InvoiceResponseDTO> result = rentalService.generateInvoiceByName(dto);
         assertThrows(com.etraveligroup.movie.rental.exceptions.RentalsNotFoundException.class, result::block);
     }
 
@@ -108,17 +166,18 @@ class RentalServiceImplTest {
         rental.setMovie(movie);
         rental.setDays(2);
 
-        doThrow(new RuntimeException("DB error")).when(rental).getMovie();
+        doThrow(new RuntimeException("DB error")).when(rental).getDays();
 
         Customer customer = new Customer();
+        customer.setId(3L);
         customer.setName(customerName);
         customer.setRentals(List.of(rental));
 
-        when(customerRepository.findByName(customerName)).thenReturn(Optional.of(customer));
+        when(customerNameResolver.resolveCustomerId(customerName)).thenReturn(Optional.of(3L));
+        when(customerRepository.findWithRentalsById(3L)).thenReturn(Optional.of(customer));
 
-        String result = rentalService.generateInvoiceByName(dto).block();
-        assertNotNull(result);
-        assertTrue(result.startsWith("Invoice generation failed after retries:"));
+        Mono<InvoiceResponseDTO> result = rentalService.generateInvoiceByName(dto);
+        assertThrows(RentalProcessingException.class, result::block);
     }
 
     @Test
@@ -145,21 +204,57 @@ class RentalServiceImplTest {
         customer.setName("John Doe");
         customer.setRentals(List.of(rental));
 
-        when(customerRepository.findById(customerId)).thenReturn(Optional.of(customer));
+        when(customerRepository.findWithRentalsById(customerId)).thenReturn(Optional.of(customer));
 
-        String invoice = rentalService.generateInvoiceById(customerId).block();
+        InvoiceResponseDTO invoice = rentalService.generateInvoiceById(customerId).block();
 
         assertNotNull(invoice);
-        assertTrue(invoice.contains(customer.getName()));
-        assertTrue(invoice.contains(movie.getTitle()));
+        assertEquals(customer.getName(), invoice.customer());
+        assertEquals(List.of(new InvoiceItemDTO(movie.getTitle(), new BigDecimal("3.50"))), invoice.items());
+    }
+
+    @Test
+    void generateInvoiceById_servesRepeatedAndByNameRequestsFromCache() {
+        Long customerId = 1L;
+        ReflectionTestUtils.setField(rentalService, "readPath", InvoiceReadPath.CATALOG);
+        when(customerNameResolver.resolveCustomerId("John Doe")).thenReturn(Optional.of(customerId));
+        when(customerRepository.findNameById(customerId)).thenReturn(Optional.of("John Doe"));
+        when(movieRentalRepository.findRentalLinesByCustomerId(customerId)).thenReturn(List.of(new RentalLineDTO("F001", 3)));
+        when(movieCatalogService.current()).thenReturn(catalogSnapshot(1, regularMovie("F001", "You've Got Mail")));
+
+        InvoiceResponseDTO invoice = rentalService.generateInvoiceById(customerId).block();
+
+        assertEquals(invoice, rentalService.generateInvoiceById(customerId).block());
+        assertEquals(invoice, rentalService.generateInvoiceByName(new GenerateInvoiceByNameRequestDTO("John Doe")).block());
+        verify(movieRentalRepository, times(1)).findRentalLinesByCustomerId(customerId);
+    }
+
+    @Test
+    void generateInvoiceById_failureIsNotCached() {
+        Long customerId = 1L;
+        MovieRental rental = spy(new MovieRental());
+        rental.setMovie(regularMovie("F001", "You've Got Mail"));
+        rental.setDays(3);
+        // Fails the first attempt and both retries of the first request only
+        doThrow(new RuntimeException("DB error")).doThrow(new RuntimeException("DB error")).doThrow(new RuntimeException("DB error"))
+                .doCallRealMethod().when(rental).getDays();
+
+        Customer customer = new Customer();
+        customer.setId(customerId);
+        customer.setName("John Doe");
+        customer.setRentals(List.of(rental));
+        when(customerRepository.findWithRentalsById(customerId)).thenReturn(Optional.of(customer));
+
+        assertThrows(RentalProcessingException.class, () -> rentalService.generateInvoiceById(customerId).block());
+        assertEquals(new BigDecimal("3.50"), rentalService.generateInvoiceById(customerId).block().total());
     }
 
     @Test
     void generateInvoiceById_customerNotFound() {
         Long customerId = 99L;
-        when(customerRepository.findById(customerId)).thenReturn(Optional.empty());
+        when(customerRepository.findWithRentalsById(customerId)).thenReturn(Optional.empty());
 
-        Mono<String> result = rentalService.generateInvoiceById(customerId);
+        Mono<InvoiceResponseDTO> result = rentalService.generateInvoiceById(customerId);
         assertThrows(CustomerNotFoundException.class, result::block);
     }
 
@@ -171,9 +266,190 @@ class RentalServiceImplTest {
         customer.setName("No Rentals");
         customer.setRentals(List.of());
 
-        when(customerRepository.findById(customerId)).thenReturn(Optional.of(customer));
+        when(customerRepository.findWithRentalsById(customerId)).thenReturn(Optional.of(customer));
 
-        Mono<String> result = rentalService.generateInvoiceById(customerId);
+        Mono<InvoiceResponseDTO> result = rentalService.generateInvoiceById(customerId);
         assertThrows(com.etraveligroup.movie.rental.exceptions.RentalsNotFoundException.class, result::block);
     }
-}
\ No newline at end of file
+
+    @Test
+    void generateInvoiceById_projectionReadPath_successful() {
+        Long customerId = 1L;
+        ReflectionTestUtils.setField(rentalService, "readPath", InvoiceReadPath.PROJECTION);
+
+        when(customerRepository.findNameById(customerId)).thenReturn(Optional.of("John Doe"));
+        when(movieRentalRepository.findInvoiceLinesByCustomerId(customerId)).thenReturn(List.of(
+                new RentalInvoiceLineDTO("You've Got Mail", 3, "regular", 2, new BigDecimal("2.00"), new BigDecimal("1.50")),
+                new RentalInvoiceLineDTO("Matrix", 1, "regular", 2, new BigDecimal("2.00"), new BigDecimal("1.50"))));
+
+        InvoiceResponseDTO invoice = rentalService.generateInvoiceById(customerId).block();
+
+        assertNotNull(invoice);
+        assertEquals("John Doe", invoice.customer());
+        assertEquals(new InvoiceItemDTO("You've Got Mail", new BigDecimal("3.50")), invoice.items().get(0));
+        assertEquals(new BigDecimal("5.50"), invoice.total());
+        assertEquals(2, invoice.frequentPoints());
+        verify(customerRepository, never()).findWithRentalsById(any());
+    }
+
+    @Test
+    void generateInvoiceById_projectionReadPath_customerNotFound() {
+        Long customerId = 99L;
+        ReflectionTestUtils.setField(rentalService, "readPath", InvoiceReadPath.PROJECTION);
+        when(customerRepository.findNameById(customerId)).thenReturn(Optional.empty());
+
+        Mono<InvoiceResponseDTO> result = rentalService.generateInvoiceById(customerId);
+        assertThrows(CustomerNotFoundException.class, result::block);
+        verifyNoInteractions(movieRentalRepository);
+    }
+
+    @Test
+    void generateInvoiceById_projectionReadPath_noRentals() {
+        Long customerId = 2L;
+        ReflectionTestUtils.setField(rentalService, "readPath", InvoiceReadPath.PROJECTION);
+        when(customerRepository.findNameById(customerId)).thenReturn(Optional.of("No Rentals"));
+        when(movieRentalRepository.findInvoiceLinesByCustomerId(customerId)).thenReturn(List.of());
+
+        Mono<InvoiceResponseDTO> result = rentalService.generateInvoiceById(customerId);
+        assertThrows(com.etraveligroup.movie.rental.exceptions.RentalsNotFoundException.class, result::block);
+    }
+
+    private static MovieCatalogSnapshot catalogSnapshot(long version, Movie... movies) {
+        return MovieCatalogSnapshot.of(version,
+                Arrays.stream(movies).map(Movie::getPricing).distinct().toList(), List.of(movies));
+    }
+
+    private static Movie regularMovie(String id, String title) {
+        MoviePricing pricing = new MoviePricing();
+        pricing.setCode("regular");
+        pricing.setBaseDays(2);
+        pricing.setBasePrice(new BigDecimal("2.00"));
+        pricing.setExtraPricePerDay(new BigDecimal("1.50"));
+
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setTitle(title);
+        movie.setPricing(pricing);
+        return movie;
+    }
+
+    @Test
+    void generateInvoiceById_catalogReadPath_successful() {
+        Long customerId = 1L;
+        ReflectionTestUtils.setField(rentalService, "readPath", InvoiceReadPath.CATALOG);
+
+        when(customerRepository.findNameById(customerId)).thenReturn(Optional.of("John Doe"));
+        when(movieRentalRepository.findRentalLinesByCustomerId(customerId)).thenReturn(List.of(
+                new RentalLineDTO("F001", 3), new RentalLineDTO("F002", 1)));
+        when(movieCatalogService.current()).thenReturn(
+                catalogSnapshot(1, regularMovie("F001", "You've Got Mail"), regularMovie("F002", "Matrix")));
+
+        InvoiceResponseDTO invoice = rentalService.generateInvoiceById(customerId).block();
+
+        assertNotNull(invoice);
+        assertEquals(List.of(new InvoiceItemDTO("You've Got Mail", new BigDecimal("3.50")),
+                new InvoiceItemDTO("Matrix", new BigDecimal("2.00"))), invoice.items());
+        assertEquals(new BigDecimal("5.50"), invoice.total());
+        verify(movieCatalogService, never()).reloadForMissingMovie(any());
+    }
+
+    @Test
+    void generateInvoiceById_catalogReadPath_reloadsCatalogForUnknownMovie() {
+        Long customerId = 1L;
+        ReflectionTestUtils.setField(rentalService, "readPath", InvoiceReadPath.CATALOG);
+
+        when(customerRepository.findNameById(customerId)).thenReturn(Optional.of("John Doe"));
+        when(movieRentalRepository.findRentalLinesByCustomerId(customerId)).thenReturn(List.of(new RentalLineDTO("F005", 1)));
+        when(movieCatalogService.current()).thenReturn(catalogSnapshot(1, regularMovie("F001", "You've Got Mail")));
+        when(movieCatalogService.reloadForMissingMovie(anyString())).thenReturn(catalogSnapshot(2, regularMovie("F005", "New Arrival")));
+
+        InvoiceResponseDTO invoice = rentalService.generateInvoiceById(customerId).block();
+
+        assertNotNull(invoice);
+        assertEquals(List.of(new InvoiceItemDTO("New Arrival", new BigDecimal("2.00"))), invoice.items());
+    }
+
+    @Test
+    void generateInvoiceById_catalogReadPath_unknownMovieAfterReload_throwsException() {
+        Long customerId = 1L;
+        ReflectionTestUtils.setField(rentalService, "readPath", InvoiceReadPath.CATALOG);
+
+        when(customerRepository.findNameById(customerId)).thenReturn(Optional.of("John Doe"));
+        when(movieRentalRepository.findRentalLinesByCustomerId(customerId)).thenReturn(List.of(new RentalLineDTO("F999", 1)));
+        MovieCatalogSnapshot snapshot = catalogSnapshot(1, regularMovie("F001", "You've Got Mail"));
+        when(movieCatalogService.current()).thenReturn(snapshot);
+        when(movieCatalogService.reloadForMissingMovie(anyString())).thenReturn(snapshot);
+
+        Mono<InvoiceResponseDTO> result = rentalService.generateInvoiceById(customerId);
+        assertThrows(IllegalArgumentException.class, result::block);
+    }
+
+    @Test
+    void generateInvoiceById_withPeriod_mergesArchivedAndHotRentalsInRentalOrder() {
+        Long customerId = 1L;
+        RentalPeriodDTO period = RentalPeriodDTO.ofDates(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31));
+        when(customerRepository.findNameById(customerId)).thenReturn(Optional.of("John Doe"));
+        when(movieRentalArchiveRepository.findByCustomerIdRentedBetween(customerId, period.from(), period.to())).thenReturn(List.of(
+                new RentalRecordDTO(1L, customerId, "F001", 3), new RentalRecordDTO(7L, customerId, "F001", 1)));
+        when(movieRentalRepository.findByCustomerIdRentedBetween(customerId, period.from(), period.to())).thenReturn(List.of(
+                new RentalRecordDTO(4L, customerId, "F002", 1)));
+        when(movieCatalogService.current()).thenReturn(
+                catalogSnapshot(1, regularMovie("F001", "You've Got Mail"), regularMovie("F002", "Matrix")));
+
+        InvoiceResponseDTO invoice = rentalService.generateInvoiceById(customerId, period).block();
+
+        assertEquals(new InvoiceResponseDTO("John Doe", List.of(
+                new InvoiceItemDTO("You've Got Mail", new BigDecimal("3.50")),
+                new InvoiceItemDTO("Matrix", new BigDecimal("2.00")),
+                new InvoiceItemDTO("You've Got Mail", new BigDecimal("2.00"))), new BigDecimal("7.50"), 3), invoice);
+        verify(movieRentalRepository, never()).findRentalLinesByCustomerId(any());
+    }
+
+    @Test
+    void generateInvoiceById_withPeriod_noRentalsInPeriod() {
+        Long customerId = 1L;
+        RentalPeriodDTO period = RentalPeriodDTO.ofDates(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 31));
+        when(customerRepository.findNameById(customerId)).thenReturn(Optional.of("John Doe"));
+
+        assertThrows(RentalsNotFoundException.class, () -> rentalService.generateInvoiceById(customerId, period).block());
+    }
+
+    @Test
+    void generateInvoicesByIds_reportsInvoicesAndErrorsPerCustomer() {
+        ReflectionTestUtils.setField(rentalService, "batchChunkSize", 2);
+        when(customerRepository.findNamesByIdIn(List.of(1L, 2L))).thenReturn(List.of(
+                new CustomerNameDTO(1L, "John Doe"), new CustomerNameDTO(2L, "Jane Smith")));
+        when(movieRentalRepository.findRentalLinesByCustomerIdIn(List.of(1L, 2L))).thenReturn(List.of(
+                new CustomerRentalLineDTO(1L, "F001", 3), new CustomerRentalLineDTO(1L, "F002", 1)));
+        when(customerRepository.findNamesByIdIn(List.of(99L))).thenReturn(List.of());
+        when(movieRentalRepository.findRentalLinesByCustomerIdIn(List.of(99L))).thenReturn(List.of());
+        when(movieCatalogService.current()).thenReturn(
+                catalogSnapshot(1, regularMovie("F001", "You've Got Mail"), regularMovie("F002", "Matrix")));
+
+        List<BatchInvoiceResultDTO> results = rentalService.generateInvoicesByIds(List.of(1L, 2L, 99L, 1L)).collectList().block();
+
+        assertNotNull(results);
+        assertEquals(3, results.size());
+        assertEquals(1L, results.get(0).customerId());
+        assertEquals("John Doe", results.get(0).invoice().customer());
+        assertEquals(new BigDecimal("5.50"), results.get(0).invoice().total());
+        assertNull(results.get(0).error());
+        assertEquals("No rentals found for customer", results.get(1).error());
+        assertEquals("Customer not found", results.get(2).error());
+        assertNull(results.get(2).invoice());
+    }
+
+    @Test
+    void generateInvoicesByIds_loadsChunksOnDemand() {
+        ReflectionTestUtils.setField(rentalService, "batchChunkSize", 1);
+        when(customerRepository.findNamesByIdIn(List.of(1L))).thenReturn(List.of(new CustomerNameDTO(1L, "John Doe")));
+        when(movieRentalRepository.findRentalLinesByCustomerIdIn(List.of(1L))).thenReturn(List.of(new CustomerRentalLineDTO(1L, "F001", 3)));
+        when(movieCatalogService.current()).thenReturn(catalogSnapshot(1, regularMovie("F001", "You've Got Mail")));
+
+        BatchInvoiceResultDTO first = rentalService.generateInvoicesByIds(List.of(1L, 2L, 3L)).blockFirst();
+
+        assertNotNull(first);
+        assertEquals(1L, first.customerId());
+        verify(customerRepository, never()).findNamesByIdIn(List.of(3L));
+    }
+}
@@ -0,0 +1,83 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.MovieRentalApplication;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs two application instances on one database and checks that an instance drops its cached invoice when the
+ * rentals are changed through the other one.
+ */
+class SharedInvoiceCacheClusterTest {
+
+    private static ConfigurableApplicationContext nodeA;
+    private static ConfigurableApplicationContext nodeB;
+
+    @BeforeAll
+    static void startNodes() {
+        nodeA = startNode("always");
+        nodeB = startNode("never");
+    }
+
+    @AfterAll
+    static void stopNodes() {
+        nodeB.close();
+        nodeA.close();
+    }
+
+    @Test
+    void rentalChangedOnOneNode_dropsCachedInvoiceOnOtherNode() {
+        String before = invoice(nodeA, 1L);
+        assertTrue(before.contains("Amount owed is 5.5"), before);
+
+        assertEquals(before, invoice(nodeB, 1L));
+        assertEquals(before, invoice(nodeB, 1L));
+        MeterRegistry registryB = nodeB.getBean(MeterRegistry.class);
+        assertEquals(1.0, registryB.get("movie.rental.invoice-cache.shared.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registryB.get("movie.rental.invoice-cache.requests").tag("result", "hit").functionCounter().count());
+
+        client(nodeA).post().uri("/api/rentals/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .body("""
+                        {"customers":[{"customerId":1,"rentals":[{"movieId":"F003","days":2}]}]}""")
+                .retrieve()
+                .toBodilessEntity();
+
+        await().atMost(Duration.ofSeconds(10))
+                .until(() -> invoice(nodeB, 1L).contains("Cars\t1.5"));
+        assertTrue(invoice(nodeB, 1L).contains("Amount owed is 7.0"));
+        assertTrue(registryB.get("movie.rental.invoice-cache.invalidations").counter().count() >= 1);
+        assertTrue(registryB.get("movie.rental.invoice-cache.invalidation.lag").timer().count() >= 1);
+    }
+
+    private static ConfigurableApplicationContext startNode(String sqlInitMode) {
+        return new SpringApplicationBuilder(MovieRentalApplication.class).run(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:invoice-cluster;DB_CLOSE_DELAY=-1",
+                "--spring.sql.init.mode=" + sqlInitMode,
+                "--movie-rental.invoice-cache.shared.poll-interval=100ms",
+                "--logging.level.com.etraveligroup.movie.rental=WARN");
+    }
+
+    private static String invoice(ConfigurableApplicationContext node, Long customerId) {
+        return client(node).get().uri("/api/generate/invoice/{customerId}", customerId)
+                .accept(MediaType.TEXT_PLAIN)
+                .retrieve()
+                .body(String.class);
+    }
+
+    private static RestClient client(ConfigurableApplicationContext node) {
+        return RestClient.create("http://localhost:" + node.getEnvironment().getProperty("local.server.port"));
+    }
+}
@@ -0,0 +1,258 @@
+package com.etraveligroup.movie.rental.service.impl;
+
+import com.etraveligroup.movie.rental.constants.RentalChangeType;
+import com.etraveligroup.movie.rental.datasource.ReadOnlyTransactionExecutor;
+import com.etraveligroup.movie.rental.datasource.ReadYourWrites;
+import com.etraveligroup.movie.rental.dto.InvoiceChangeDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceItemDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import com.etraveligroup.movie.rental.event.RentalChangedEvent;
+import com.etraveligroup.movie.rental.repository.InvoiceChangeLogRepository;
+import com.etraveligroup.movie.rental.repository.SharedInvoiceCacheRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.ActionQueue;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.context.Context;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SharedInvoiceCacheTest {
+
+    private static final Instant NOW = Instant.now();
+    private static final InvoiceResponseDTO INVOICE = new InvoiceResponseDTO("John Doe",
+            List.of(new InvoiceItemDTO("Matrix", new BigDecimal("3.5"))), new BigDecimal("3.5"), 1);
+    private static final String INVOICE_JSON = "{\"customer\":\"John Doe\",\"items\":[{\"title\":\"Matrix\",\"price\":3.50}],\"total\":3.50,\"frequentPoints\":1}";
+
+    @Mock
+    private SharedInvoiceCacheRepository sharedInvoiceCacheRepository;
+
+    @Mock
+    private InvoiceChangeLogRepository changeLogRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private ReadOnlyTransactionExecutor readOnlyTransactions;
+
+    private SharedInvoiceCache sharedInvoiceCache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        sharedInvoiceCache = sharedInvoiceCache(true);
+        lenient().when(readOnlyTransactions.call(eq(false), any())).thenAnswer(invocation -> invocation.<Callable<?>>getArgument(1).call());
+    }
+
+    @Test
+    void get_validSharedInvoice_isReturnedWithoutComputing() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        sharedInvoiceCache.bindTo(registry);
+        when(sharedInvoiceCacheRepository.findValid(eq(1L), any())).thenReturn(Optional.of(INVOICE_JSON));
+
+        assertEquals(INVOICE, sharedInvoiceCache.get(1L, Mono.error(new AssertionError("computed"))).block());
+
+        verifyNoInteractions(changeLogRepository);
+        assertEquals(1, registry.get("movie.rental.invoice-cache.shared.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(0, registry.get("movie.rental.invoice-cache.shared.requests").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void get_malformedSharedInvoice_isComputedAgain() {
+        when(sharedInvoiceCacheRepository.findValid(eq(1L), any())).thenReturn(Optional.of("{\"customer\":"));
+        when(changeLogRepository.findLatestChangeId(1L)).thenReturn(42L);
+
+        assertEquals(INVOICE, sharedInvoiceCache.get(1L, Mono.just(INVOICE)).block());
+
+        verify(sharedInvoiceCacheRepository).save(eq(1L), eq(INVOICE_JSON), eq(42L), any());
+    }
+
+    @Test
+    void get_miss_computesAndSharesInvoiceWithChangeIdReadBeforeComputing() {
+        when(sharedInvoiceCacheRepository.findValid(eq(1L), any())).thenReturn(Optional.empty());
+        when(changeLogRepository.findLatestChangeId(1L)).thenReturn(42L);
+        Mono<InvoiceResponseDTO> loader = Mono.fromCallable(() -> {
+            verify(changeLogRepository, times(2)).findLatestChangeId(1L);
+            return INVOICE;
+        });
+
+        assertEquals(INVOICE, sharedInvoiceCache.get(1L, loader).block());
+
+        verify(sharedInvoiceCacheRepository).save(eq(1L), eq(INVOICE_JSON), eq(42L), any());
+    }
+
+    @Test
+    void get_miss_replicaBehindPrimary_computesOnReplicaWithoutSharing() throws Exception {
+        when(sharedInvoiceCacheRepository.findValid(eq(1L), any())).thenReturn(Optional.empty());
+        when(changeLogRepository.findLatestChangeId(1L)).thenReturn(42L, 41L);
+        Mono<InvoiceResponseDTO> loader = Mono.deferContextual(context ->
+                Mono.just(new InvoiceResponseDTO(context.get(ReadYourWrites.CONTEXT_KEY).toString(), List.of(), BigDecimal.ZERO, 0)));
+
+        InvoiceResponseDTO invoice = sharedInvoiceCache.get(1L, loader).contextWrite(Context.of(ReadYourWrites.CONTEXT_KEY, false)).block();
+
+        assertEquals("false", invoice.customer());
+        verify(readOnlyTransactions).call(eq(false), any());
+        verify(sharedInvoiceCacheRepository, never()).save(any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void get_sharedTierFailures_fallBackToComputing() {
+        when(sharedInvoiceCacheRepository.findValid(eq(1L), any())).thenThrow(new DataAccessResourceFailureException("down"));
+        when(changeLogRepository.findLatestChangeId(1L)).thenReturn(42L);
+        doThrow(new DataAccessResourceFailureException("down")).when(sharedInvoiceCacheRepository).save(any(), any(), anyLong(), any());
+
+        assertEquals(INVOICE, sharedInvoiceCache.get(1L, Mono.just(INVOICE)).block());
+
+        when(changeLogRepository.findLatestChangeId(1L)).thenThrow(new DataAccessResourceFailureException("down"));
+        assertEquals(INVOICE, sharedInvoiceCache.get(1L, Mono.just(INVOICE)).block());
+        verify(sharedInvoiceCacheRepository, times(1)).save(any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void get_loaderFailure_isPropagatedAndNotShared() {
+        when(sharedInvoiceCacheRepository.findValid(eq(1L), any())).thenReturn(Optional.empty());
+
+        Mono<InvoiceResponseDTO> invoice = sharedInvoiceCache.get(1L, Mono.error(new IllegalStateException("DB error")));
+
+        assertThrows(IllegalStateException.class, invoice::block);
+        verify(sharedInvoiceCacheRepository, never()).save(any(), any(), anyLong(), any());
+    }
+
+    @Test
+    void get_disabled_returnsLoader() {
+        Mono<InvoiceResponseDTO> loader = Mono.just(INVOICE);
+
+        assertSame(loader, sharedInvoiceCache(false).get(1L, loader));
+        verifyNoInteractions(sharedInvoiceCacheRepository);
+    }
+
+    @Test
+    void onRentalChanged_outsideTransaction_logsChangeAtOnce() {
+        sharedInvoiceCache.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 10L, 1L, "F001", 3));
+
+        verify(changeLogRepository).append(List.of(1L));
+    }
+
+    @Test
+    void onRentalChanged_inTransaction_logsEachCustomerOnceBeforeCompletion() {
+        SessionImplementor session = mock(SessionImplementor.class);
+        ActionQueue actionQueue = mock(ActionQueue.class);
+        when(entityManager.unwrap(SessionImplementor.class)).thenReturn(session);
+        when(session.getActionQueue()).thenReturn(actionQueue);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            sharedInvoiceCache.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 10L, 1L, "F001", 3));
+            sharedInvoiceCache.onRentalChanged(new RentalChangedEvent(RentalChangeType.ADDED, 11L, 2L, "F002", 1));
+            sharedInvoiceCache.onRentalChanged(new RentalChangedEvent(RentalChangeType.REMOVED, 12L, 1L, "F003", 2));
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+        verifyNoInteractions(changeLogRepository);
+
+        ArgumentCaptor<BeforeTransactionCompletionProcess> beforeCompletion = ArgumentCaptor.forClass(BeforeTransactionCompletionProcess.class);
+        verify(actionQueue).registerProcess(beforeCompletion.capture());
+        beforeCompletion.getValue().doBeforeTransactionCompletion(session);
+
+        verify(changeLogRepository).append(List.of(1L, 2L));
+    }
+
+    @Test
+    void pollChanges_startsAtEndOfLogAndReturnsLaterChangedCustomers() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        sharedInvoiceCache.bindTo(registry);
+        when(changeLogRepository.findLatestChangeId()).thenReturn(10L);
+        assertEquals(Set.of(), sharedInvoiceCache.pollChanges());
+
+        when(changeLogRepository.findChangesAfter(10L, 100)).thenReturn(List.of(
+                change(11, 1L, 40), change(12, 2L, 20), change(13, 1L, 10)));
+
+        assertEquals(Set.of(1L, 2L), sharedInvoiceCache.pollChanges());
+        assertEquals(3, registry.get("movie.rental.invoice-cache.invalidations").counter().count());
+        assertEquals(40, registry.get("movie.rental.invoice-cache.invalidation.lag").timer().max(TimeUnit.MILLISECONDS));
+        assertEquals(10, registry.get("movie.rental.invoice-cache.invalidation.last-lag").gauge().value());
+    }
+
+    @Test
+    void pollChanges_looksUpSkippedChangeIdsAgain() {
+        when(changeLogRepository.findLatestChangeId()).thenReturn(10L);
+        sharedInvoiceCache.pollChanges();
+        when(changeLogRepository.findChangesAfter(10L, 100)).thenReturn(List.of(change(13, 3L, 5)));
+        assertEquals(Set.of(3L), sharedInvoiceCache.pollChanges());
+
+        when(changeLogRepository.findChanges(Set.of(11L, 12L))).thenReturn(List.of(change(12, 2L, 900)));
+        when(changeLogRepository.findChangesAfter(13L, 100)).thenReturn(List.of());
+        assertEquals(Set.of(2L), sharedInvoiceCache.pollChanges());
+
+        when(changeLogRepository.findChanges(Set.of(11L))).thenReturn(List.of());
+        assertEquals(Set.of(), sharedInvoiceCache.pollChanges());
+        verify(changeLogRepository).findChanges(Set.of(11L));
+    }
+
+    @Test
+    void appliedChangeId_staysBelowSkippedChangeIds() {
+        assertEquals(-1, sharedInvoiceCache.appliedChangeId());
+        when(changeLogRepository.findLatestChangeId()).thenReturn(10L);
+        sharedInvoiceCache.pollChanges();
+        assertEquals(10, sharedInvoiceCache.appliedChangeId());
+
+        when(changeLogRepository.findChangesAfter(10L, 100)).thenReturn(List.of(change(13, 3L, 5)));
+        sharedInvoiceCache.pollChanges();
+
+        assertEquals(10, sharedInvoiceCache.appliedChangeId());
+        assertEquals(-1, sharedInvoiceCache(false).appliedChangeId());
+    }
+
+    @Test
+    void customersChangedAfter_readsChangesAfterIdWhileLogReachesBack() {
+        when(changeLogRepository.findCustomerIdsChangedAfter(42L)).thenReturn(Set.of(2L));
+
+        assertEquals(Optional.of(Set.of(2L)), sharedInvoiceCache.customersChangedAfter(42L, Instant.now()));
+        assertEquals(Optional.empty(), sharedInvoiceCache.customersChangedAfter(-1L, Instant.now()));
+        assertEquals(Optional.empty(), sharedInvoiceCache.customersChangedAfter(42L, Instant.now().minus(Duration.ofMinutes(11))));
+        assertEquals(Optional.empty(), sharedInvoiceCache(false).customersChangedAfter(42L, Instant.now()));
+    }
+
+    @Test
+    void purge_deletesExpiredInvoicesAndChangesBeyondRetention() {
+        sharedInvoiceCache.purge();
+
+        ArgumentCaptor<Instant> invoiceCutoff = ArgumentCaptor.forClass(Instant.class);
+        ArgumentCaptor<Instant> changeCutoff = ArgumentCaptor.forClass(Instant.class);
+        verify(sharedInvoiceCacheRepository).deleteComputedBefore(invoiceCutoff.capture());
+        verify(changeLogRepository).deleteChangedBefore(changeCutoff.capture());
+        assertEquals(Duration.ofSeconds(30), Duration.between(changeCutoff.getValue(), invoiceCutoff.getValue()));
+    }
+
+    private SharedInvoiceCache sharedInvoiceCache(boolean enabled) {
+        return new SharedInvoiceCache(sharedInvoiceCacheRepository, changeLogRepository, entityManager, readOnlyTransactions, new ObjectMapper(), Schedulers.immediate(),
+                enabled, Duration.ofMinutes(10), Duration.ofSeconds(30), Duration.ofMinutes(1), 100);
+    }
+
+    private static InvoiceChangeDTO change(long changeId, Long customerId, long lagMillis) {
+        return new InvoiceChangeDTO(changeId, customerId, NOW, NOW.plusMillis(lagMillis));
+    }
+}
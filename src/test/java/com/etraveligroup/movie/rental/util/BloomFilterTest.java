@@ -0,0 +1,64 @@
+package com.etraveligroup.movie.rental.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_addedKeys_alwaysTrue() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (long id = 1; id <= 10_000; id++) {
+            filter.put(id);
+            filter.put("customer " + id);
+        }
+
+        for (long id = 1; id <= 10_000; id++) {
+            assertTrue(filter.mightContain(id));
+            assertTrue(filter.mightContain("customer " + id));
+        }
+    }
+
+    @Test
+    void mightContain_absentKeys_falsePositiveRateNearConfiguredRate() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        for (long id = 1; id <= 10_000; id++) {
+            filter.put(id);
+        }
+
+        int falsePositives = 0;
+        for (long id = 10_001; id <= 110_000; id++) {
+            if (filter.mightContain(id)) {
+                falsePositives++;
+            }
+        }
+
+        assertTrue(falsePositives < 2_000, "false positives: " + falsePositives);
+        assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.005);
+    }
+
+    @Test
+    void mightContain_longAndStringKeys_doNotShareEntries() {
+        BloomFilter filter = BloomFilter.create(100, 0.01);
+        filter.put(42L);
+
+        assertTrue(filter.mightContain(42L));
+        assertFalse(filter.mightContain("42"));
+    }
+
+    @Test
+    void create_sizesBitsAndHashesForRate() {
+        BloomFilter filter = BloomFilter.create(1_000, 0.01);
+
+        assertEquals(9_586, filter.bitCount());
+        assertEquals(7, filter.hashCount());
+        assertEquals(0.0, filter.expectedFalsePositiveRate());
+    }
+
+    @Test
+    void create_invalidRate_throws() {
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 0));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(100, 1));
+    }
+}
@@ -0,0 +1,23 @@
+package com.etraveligroup.movie.rental.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomerNameNormalizerTest {
+
+    @Test
+    void normalize_trimsAndLowerCases() {
+        assertEquals("john doe", CustomerNameNormalizer.normalize("  John DOE "));
+    }
+
+    @Test
+    void normalize_alreadyNormalized_returnsSameKey() {
+        assertEquals("jane smith", CustomerNameNormalizer.normalize("jane smith"));
+    }
+
+    @Test
+    void normalize_null_returnsNull() {
+        assertNull(CustomerNameNormalizer.normalize(null));
+    }
+}
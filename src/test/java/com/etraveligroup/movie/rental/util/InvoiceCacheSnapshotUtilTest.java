@@ -0,0 +1,79 @@
+package com.etraveligroup.movie.rental.util;
+
+import com.etraveligroup.movie.rental.dto.CachedInvoiceDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceCacheSnapshotDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceItemDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvoiceCacheSnapshotUtilTest {
+
+    private static final Instant CREATED_AT = Instant.parse("2024-05-01T10:15:30.123Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writeAndRead_roundTripsInvoicesInOrder() {
+        Path file = directory.resolve("snapshots/invoice-cache.snapshot");
+        List<CachedInvoiceDTO> invoices = List.of(
+                new CachedInvoiceDTO(7L, new InvoiceResponseDTO("Zoë", List.of(new InvoiceItemDTO("Cars", new BigDecimal("1.5"))),
+                        new BigDecimal("1.5"), 1), CREATED_AT.minusSeconds(60)),
+                new CachedInvoiceDTO(3L, new InvoiceResponseDTO("John Doe", List.of(new InvoiceItemDTO("Matrix", new BigDecimal("2"))),
+                        new BigDecimal("2"), 2), CREATED_AT.minusSeconds(5)));
+
+        InvoiceCacheSnapshotUtil.write(file, new InvoiceCacheSnapshotDTO(CREATED_AT, 42L, invoices));
+
+        assertEquals(new InvoiceCacheSnapshotDTO(CREATED_AT, 42L, invoices), InvoiceCacheSnapshotUtil.read(file));
+        assertFalse(Files.exists(directory.resolve("snapshots/invoice-cache.snapshot.tmp")));
+    }
+
+    @Test
+    void write_compressesRepetitiveInvoices() throws Exception {
+        Path file = directory.resolve("invoice-cache.snapshot");
+        InvoiceResponseDTO invoice = new InvoiceResponseDTO("John Doe",
+                Collections.nCopies(50, new InvoiceItemDTO("You've Got Mail", new BigDecimal("3.50"))), new BigDecimal("175.00"), 50);
+        int jsonLength = new ObjectMapper().writeValueAsBytes(invoice).length;
+        List<CachedInvoiceDTO> invoices = LongStream.rangeClosed(1, 100)
+                .mapToObj(customerId -> new CachedInvoiceDTO(customerId, invoice, CREATED_AT))
+                .toList();
+
+        InvoiceCacheSnapshotUtil.write(file, new InvoiceCacheSnapshotDTO(CREATED_AT, 42L, invoices));
+
+        assertTrue(Files.size(file) < jsonLength * 100L / 20, "snapshot of " + Files.size(file) + " bytes");
+        assertEquals(100, InvoiceCacheSnapshotUtil.read(file).invoices().size());
+    }
+
+    @Test
+    void writeAndRead_roundTripsTitlesTheInvoiceTextCannotHold() {
+        Path file = directory.resolve("invoice-cache.snapshot");
+        List<CachedInvoiceDTO> invoices = List.of(new CachedInvoiceDTO(1L,
+                new InvoiceResponseDTO("John Doe", List.of(new InvoiceItemDTO("Tab\tTitle\nPart 2", BigDecimal.ONE)), BigDecimal.ONE, 1),
+                CREATED_AT));
+
+        InvoiceCacheSnapshotUtil.write(file, new InvoiceCacheSnapshotDTO(CREATED_AT, 42L, invoices));
+
+        assertEquals(invoices, InvoiceCacheSnapshotUtil.read(file).invoices());
+    }
+
+    @Test
+    void read_rejectsOtherFiles() throws Exception {
+        Path file = directory.resolve("not-a-snapshot");
+        Files.writeString(file, "plain text");
+
+        assertThrows(UncheckedIOException.class, () -> InvoiceCacheSnapshotUtil.read(file));
+    }
+}
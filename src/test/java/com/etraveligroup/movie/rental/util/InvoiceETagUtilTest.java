@@ -0,0 +1,62 @@
+package com.etraveligroup.movie.rental.util;
+
+import com.etraveligroup.movie.rental.dto.InvoiceItemDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvoiceETagUtilTest {
+
+    private static final InvoiceResponseDTO INVOICE = invoice("Matrix", "2.00");
+
+    @Test
+    void eTag_isStableQuotedAndSpecificToTheFormat() {
+        String textTag = InvoiceETagUtil.eTag(INVOICE, MediaType.TEXT_PLAIN);
+
+        assertEquals(textTag, InvoiceETagUtil.eTag(INVOICE, MediaType.TEXT_PLAIN));
+        assertTrue(textTag.matches("\"plain-[0-9a-f]{32}\""));
+        assertNotEquals(textTag, InvoiceETagUtil.eTag(INVOICE, MediaType.APPLICATION_PDF));
+        assertNotEquals(textTag, InvoiceETagUtil.eTag(invoice("Matrix", "3.50"), MediaType.TEXT_PLAIN));
+        assertEquals(textTag, InvoiceETagUtil.eTag(invoice("Matrix", "2"), MediaType.TEXT_PLAIN));
+    }
+
+    @Test
+    void eTag_missingFields_hashAsMarkerDistinctFromEmptyText() {
+        InvoiceResponseDTO missing = new InvoiceResponseDTO(null, List.of(new InvoiceItemDTO(null, null)), null, 0);
+        InvoiceResponseDTO empty = new InvoiceResponseDTO("", List.of(new InvoiceItemDTO("", null)), null, 0);
+
+        String missingTag = InvoiceETagUtil.eTag(missing, MediaType.TEXT_PLAIN);
+
+        assertEquals(missingTag, InvoiceETagUtil.eTag(missing, MediaType.TEXT_PLAIN));
+        assertNotEquals(missingTag, InvoiceETagUtil.eTag(empty, MediaType.TEXT_PLAIN));
+        assertNotNull(InvoiceETagUtil.eTag(new InvoiceResponseDTO("John Doe", null, BigDecimal.ONE, 1), MediaType.TEXT_PLAIN));
+    }
+
+    @Test
+    void matches_acceptsListsWildcardAndWeakTags() {
+        String eTag = InvoiceETagUtil.eTag(INVOICE, MediaType.APPLICATION_JSON);
+
+        assertTrue(InvoiceETagUtil.matches(eTag, eTag));
+        assertTrue(InvoiceETagUtil.matches("\"other\", " + eTag, eTag));
+        assertTrue(InvoiceETagUtil.matches("W/" + eTag, eTag));
+        assertTrue(InvoiceETagUtil.matches("*", eTag));
+    }
+
+    @Test
+    void matches_rejectsMissingOrDifferentTags() {
+        String eTag = InvoiceETagUtil.eTag(INVOICE, MediaType.APPLICATION_JSON);
+
+        assertFalse(InvoiceETagUtil.matches(null, eTag));
+        assertFalse(InvoiceETagUtil.matches(" ", eTag));
+        assertFalse(InvoiceETagUtil.matches("\"other\"", eTag));
+    }
+
+    private static InvoiceResponseDTO invoice(String title, String price) {
+        return new InvoiceResponseDTO("John Doe", List.of(new InvoiceItemDTO(title, new BigDecimal(price))), new BigDecimal(price), 1);
+    }
+}
@@ -0,0 +1,128 @@
+package com.etraveligroup.movie.rental.util;
+
+import com.etraveligroup.movie.rental.dto.InvoiceItemDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvoiceHtmlWriterTest {
+
+    static final InvoiceResponseDTO GOLDEN_INVOICE = new InvoiceResponseDTO("Jane \"JJ\" O'Neil", List.of(
+            new InvoiceItemDTO("You've Got Mail", new BigDecimal("3.50")),
+            new InvoiceItemDTO("Fast & Furious <Tokyo Drift>", new BigDecimal("2.00")),
+            new InvoiceItemDTO("Amélie", new BigDecimal("1.50"))), new BigDecimal("7.00"), 3);
+
+    private static final int SAMPLES = 500;
+    private static final String[] TITLES = {"Matrix", "You've Got Mail", "Fast & Furious", "<script>alert(\"x\")</script>",
+            "Amélie", "千と千尋の神隠し", "Movie 🎬 Night", "&amp; already escaped", "tab\there", "", " "};
+
+    private final SpringTemplateEngine templateEngine = templateEngine();
+
+    @Test
+    void toHtml_matchesGoldenFile() throws IOException {
+        String golden = readGolden();
+
+        assertEquals(golden, InvoiceHtmlWriter.toHtml(GOLDEN_INVOICE));
+        assertEquals(golden, thymeleaf(GOLDEN_INVOICE));
+    }
+
+    @Test
+    void toHtml_randomInvoices_matchThymeleaf() {
+        SplittableRandom random = new SplittableRandom(20_240_801);
+        for (int i = 0; i < SAMPLES; i++) {
+            InvoiceResponseDTO invoice = randomInvoice(random);
+
+            assertEquals(thymeleaf(invoice), InvoiceHtmlWriter.toHtml(invoice), invoice::toString);
+        }
+    }
+
+    @Test
+    void toHtml_nullFieldsAndNoItems_matchThymeleaf() {
+        for (InvoiceResponseDTO invoice : List.of(
+                new InvoiceResponseDTO(null, List.of(new InvoiceItemDTO(null, null)), null, 0),
+                new InvoiceResponseDTO("John Doe", List.of(), BigDecimal.ZERO, 0),
+                new InvoiceResponseDTO("John Doe", null, new BigDecimal("-1.5"), -2))) {
+            assertEquals(thymeleaf(invoice), InvoiceHtmlWriter.toHtml(invoice), invoice::toString);
+        }
+    }
+
+    @Test
+    void toHtml_afterLargeInvoice_writesSmallInvoiceFromScratch() {
+        List<InvoiceItemDTO> items = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            items.add(new InvoiceItemDTO("Movie Title Number " + i, BigDecimal.valueOf(i, 2)));
+        }
+        InvoiceResponseDTO large = new InvoiceResponseDTO("Jane Smith", items, new BigDecimal("19990.00"), 2_000);
+
+        assertEquals(thymeleaf(large), InvoiceHtmlWriter.toHtml(large));
+        assertEquals(readGoldenUnchecked(), InvoiceHtmlWriter.toHtml(GOLDEN_INVOICE));
+    }
+
+    static SpringTemplateEngine templateEngine() {
+        ClassLoaderTemplateResolver resolver = new ClassLoaderTemplateResolver();
+        resolver.setPrefix("templates/");
+        resolver.setSuffix(".html");
+        resolver.setCharacterEncoding("UTF-8");
+        SpringTemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        return engine;
+    }
+
+    static String readGolden() throws IOException {
+        try (InputStream in = InvoiceHtmlWriterTest.class.getResourceAsStream("/golden/invoice.html")) {
+            assertNotNull(in, "golden/invoice.html is missing");
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String readGoldenUnchecked() {
+        try {
+            return readGolden();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String thymeleaf(InvoiceResponseDTO invoice) {
+        Context context = new Context();
+        context.setVariable("invoice", invoice);
+        return templateEngine.process("invoice-template", context);
+    }
+
+    private static InvoiceResponseDTO randomInvoice(SplittableRandom random) {
+        int count = random.nextInt(0, 20);
+        List<InvoiceItemDTO> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new InvoiceItemDTO(randomText(random), randomAmount(random)));
+        }
+        return new InvoiceResponseDTO(randomText(random), items, randomAmount(random), random.nextInt(-5, 1_000_000));
+    }
+
+    // A title from the list or random characters, including markup and control characters and unpaired surrogates
+    private static String randomText(SplittableRandom random) {
+        if (random.nextInt(4) > 0) {
+            return TITLES[random.nextInt(TITLES.length)];
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = random.nextInt(0, 30); i > 0; i--) {
+            text.append((char) (random.nextBoolean() ? random.nextInt(0, 0x80) : random.nextInt(0, 0x10000)));
+        }
+        return text.toString();
+    }
+
+    private static BigDecimal randomAmount(SplittableRandom random) {
+        return BigDecimal.valueOf(random.nextLong(-1_000_000_000L, 1_000_000_000_000L), random.nextInt(0, 5));
+    }
+}
@@ -0,0 +1,115 @@
+package com.etraveligroup.movie.rental.util;
+
+import com.etraveligroup.movie.rental.dto.InvoiceItemDTO;
+import com.etraveligroup.movie.rental.dto.InvoiceResponseDTO;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InvoiceTextWriterTest {
+
+    private static final int SAMPLES = 2_000;
+    private static final String[] TITLES = {"Matrix", "You've Got Mail", "Fast & Furious X", "Amélie", "千と千尋の神隠し",
+            "Movie 🎬 Night", "broken \uD83C surrogate", "", "\t"};
+
+    @Test
+    void write_matchesFormatter() {
+        InvoiceResponseDTO invoice = new InvoiceResponseDTO("John Doe", List.of(
+                new InvoiceItemDTO("Matrix", new BigDecimal("3.50")),
+                new InvoiceItemDTO("Cars", new BigDecimal("9.5"))), new BigDecimal("13.00"), 2);
+
+        assertEquals(InvoiceFormatter.format(invoice), new String(InvoiceTextWriter.toBytes(invoice), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void write_roundsAndSignsAmountsLikeFormatter() {
+        List<InvoiceItemDTO> items = new ArrayList<>();
+        for (String amount : List.of("1.005", "1.004", "-1.005", "-0.001", "0", "-0", "0.995", "123456789.999", "1E+3",
+                "12345678901234567890.125", "-99999999999999999.995")) {
+            items.add(new InvoiceItemDTO("Title", new BigDecimal(amount)));
+        }
+        items.add(new InvoiceItemDTO(null, null));
+        InvoiceResponseDTO invoice = new InvoiceResponseDTO(null, items, new BigDecimal("-2.5"), -3);
+        byte[] expected = InvoiceFormatter.format(invoice).getBytes(StandardCharsets.UTF_8);
+
+        assertArrayEquals(expected, InvoiceTextWriter.toBytes(invoice));
+        assertEquals(expected.length, InvoiceTextWriter.encodedLength(invoice));
+    }
+
+    @Test
+    void write_randomInvoices_matchFormatterByteForByte() {
+        SplittableRandom random = new SplittableRandom(20_240_701);
+        for (int i = 0; i < SAMPLES; i++) {
+            InvoiceResponseDTO invoice = randomInvoice(random);
+            byte[] expected = InvoiceFormatter.format(invoice).getBytes(StandardCharsets.UTF_8);
+
+            assertArrayEquals(expected, InvoiceTextWriter.toBytes(invoice), invoice::toString);
+            assertEquals(expected.length, InvoiceTextWriter.encodedLength(invoice), invoice::toString);
+        }
+    }
+
+    @Test
+    void write_invoiceLargerThanChunk_isWrittenInSeveralChunks() throws IOException {
+        List<InvoiceItemDTO> items = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            items.add(new InvoiceItemDTO("Movie Title Number " + i + " 千と千尋", BigDecimal.valueOf(i, 2)));
+        }
+        InvoiceResponseDTO invoice = new InvoiceResponseDTO("Jane Smith", items, new BigDecimal("4995.00"), 1_000);
+        CountingOutputStream out = new CountingOutputStream();
+
+        InvoiceTextWriter.write(invoice, out);
+
+        assertArrayEquals(InvoiceFormatter.format(invoice).getBytes(StandardCharsets.UTF_8), out.toByteArray());
+        assertTrue(out.writes > 1);
+    }
+
+    @Test
+    void write_localeWithOtherDecimalSeparator_fallsBackToFormatter() {
+        Locale defaultLocale = Locale.getDefault(Locale.Category.FORMAT);
+        InvoiceResponseDTO invoice = new InvoiceResponseDTO("Jean Dupont",
+                List.of(new InvoiceItemDTO("Amélie", new BigDecimal("3.50"))), new BigDecimal("3.50"), 1);
+        try {
+            Locale.setDefault(Locale.Category.FORMAT, Locale.FRANCE);
+            byte[] bytes = InvoiceTextWriter.toBytes(invoice);
+
+            assertArrayEquals(InvoiceFormatter.format(invoice).getBytes(StandardCharsets.UTF_8), bytes);
+            assertTrue(new String(bytes, StandardCharsets.UTF_8).contains("3,50"));
+        } finally {
+            Locale.setDefault(Locale.Category.FORMAT, defaultLocale);
+        }
+    }
+
+    private static InvoiceResponseDTO randomInvoice(SplittableRandom random) {
+        int count = random.nextInt(0, 20);
+        List<InvoiceItemDTO> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(new InvoiceItemDTO(TITLES[random.nextInt(TITLES.length)] + i, randomAmount(random)));
+        }
+        return new InvoiceResponseDTO(TITLES[random.nextInt(TITLES.length)], items, randomAmount(random),
+                random.nextInt(-5, 1_000_000));
+    }
+
+    private static BigDecimal randomAmount(SplittableRandom random) {
+        return BigDecimal.valueOf(random.nextLong(-1_000_000_000L, 1_000_000_000_000L), random.nextInt(0, 5));
+    }
+
+    private static final class CountingOutputStream extends ByteArrayOutputStream {
+
+        private int writes;
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            writes++;
+            super.write(b, off, len);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.etraveligroup.movie.rental.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyUtilTest {
+
+    private static final int SAMPLES = 10_000;
+
+    @Test
+    void toCents_twoDecimalAmounts_isExact() {
+        assertEquals(350, MoneyUtil.toCents(new BigDecimal("3.50")));
+        assertEquals(300, MoneyUtil.toCents(new BigDecimal("3")));
+        assertEquals(-125, MoneyUtil.toCents(new BigDecimal("-1.25")));
+    }
+
+    @Test
+    void toCents_roundsHalfUp() {
+        assertEquals(101, MoneyUtil.toCents(new BigDecimal("1.005")));
+        assertEquals(100, MoneyUtil.toCents(new BigDecimal("1.0049")));
+        assertEquals(-101, MoneyUtil.toCents(new BigDecimal("-1.005")));
+    }
+
+    @Test
+    void toCents_nullOrOutOfRange_throwsException() {
+        assertThrows(IllegalArgumentException.class, () -> MoneyUtil.toCents(null));
+        assertThrows(ArithmeticException.class, () -> MoneyUtil.toCents(new BigDecimal("1E+17")));
+    }
+
+    @Test
+    void toAmount_hasTwoDecimals() {
+        assertEquals(new BigDecimal("3.50"), MoneyUtil.toAmount(350));
+        assertEquals(new BigDecimal("0.00"), MoneyUtil.toAmount(0));
+    }
+
+    @Test
+    void addAndMultiply_overflow_throwsException() {
+        assertThrows(ArithmeticException.class, () -> MoneyUtil.add(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> MoneyUtil.multiply(Long.MAX_VALUE / 2, 3));
+    }
+
+    @Test
+    void toCentsAndBack_matchesBigDecimalRounding() {
+        SplittableRandom random = new SplittableRandom(20_240_601);
+        for (int i = 0; i < SAMPLES; i++) {
+            BigDecimal amount = BigDecimal.valueOf(random.nextLong(-1_000_000_000_000L, 1_000_000_000_000L), random.nextInt(0, 6));
+
+            assertEquals(amount.setScale(2, RoundingMode.HALF_UP), MoneyUtil.toAmount(MoneyUtil.toCents(amount)), amount::toPlainString);
+        }
+    }
+
+    @Test
+    void add_matchesBigDecimalSum() {
+        SplittableRandom random = new SplittableRandom(20_240_602);
+        for (int i = 0; i < SAMPLES; i++) {
+            long cents = random.nextLong(-1_000_000_000_000L, 1_000_000_000_000L);
+            long otherCents = random.nextLong(-1_000_000_000_000L, 1_000_000_000_000L);
+
+            assertEquals(MoneyUtil.toAmount(cents).add(MoneyUtil.toAmount(otherCents)), MoneyUtil.toAmount(MoneyUtil.add(cents, otherCents)));
+        }
+    }
+}
@@ -28,4 +28,19 @@ package com.etraveligroup.movie.rental.util;
             void calculateFrequentRenterPoints_nullPricingCode_throwsException() {
                 assertThrows(IllegalArgumentException.class, () -> PointsCalculator.calculateFrequentRenterPoints(null, 3));
             }
+
+            @Test
+            void calculateFrequentRenterPoints_classifiedPricingCode_matchesPricingCode() {
+                for (int days = 0; days <= 5; days++) {
+                    assertEquals(PointsCalculator.calculateFrequentRenterPoints("new", days), PointsCalculator.calculateFrequentRenterPoints(true, days));
+                    assertEquals(PointsCalculator.calculateFrequentRenterPoints("regular", days), PointsCalculator.calculateFrequentRenterPoints(false, days));
+                }
+            }
+
+            @Test
+            void isNewRelease_ignoresCase() {
+                assertTrue(PointsCalculator.isNewRelease("New"));
+                assertFalse(PointsCalculator.isNewRelease("childrens"));
+                assertThrows(IllegalArgumentException.class, () -> PointsCalculator.isNewRelease(null));
+            }
         }
\ No newline at end of file
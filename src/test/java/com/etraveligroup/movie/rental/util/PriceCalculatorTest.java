@@ -9,6 +9,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.SplittableRandom;
 import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -49,4 +50,77 @@ class PriceCalculatorTest {
         assertThrows(IllegalArgumentException.class, () -> PriceCalculator.calculateRentalAmount(pricing, 0));
         assertThrows(IllegalArgumentException.class, () -> PriceCalculator.calculateRentalAmount(pricing, -1));
     }
-}
\ No newline at end of file
+
+    @ParameterizedTest
+    @MethodSource("rentalAmountProvider")
+    void calculateRentalAmount_flatPricing_returnsExpectedAmount(int days, BigDecimal expected) {
+        BigDecimal result = PriceCalculator.calculateRentalAmount(3, BigDecimal.valueOf(10), BigDecimal.valueOf(2), days);
+        assertEquals(expected, result);
+    }
+
+    @Test
+    void calculateRentalAmount_flatPricingNullPrice_throwsException() {
+        assertThrows(IllegalArgumentException.class, () -> PriceCalculator.calculateRentalAmount(3, null, BigDecimal.ONE, 2));
+        assertThrows(IllegalArgumentException.class, () -> PriceCalculator.calculateRentalAmount(3, BigDecimal.ONE, null, 2));
+    }
+
+    @ParameterizedTest
+    @MethodSource("rentalAmountProvider")
+    void calculateRentalAmountCents_variousDays_returnsExpectedAmount(int days, BigDecimal expected) {
+        when(pricing.getBaseDays()).thenReturn(3);
+        when(pricing.getBasePrice()).thenReturn(BigDecimal.valueOf(10));
+        when(pricing.getExtraPricePerDay()).thenReturn(BigDecimal.valueOf(2));
+
+        assertEquals(MoneyUtil.toCents(expected), PriceCalculator.calculateRentalAmountCents(pricing, days));
+    }
+
+    @Test
+    void calculateRentalAmountCents_invalidInput_throwsException() {
+        assertThrows(IllegalArgumentException.class, () -> PriceCalculator.calculateRentalAmountCents(null, 2));
+        assertThrows(IllegalArgumentException.class, () -> PriceCalculator.calculateRentalAmountCents(pricing, 2));
+        assertThrows(IllegalArgumentException.class, () -> PriceCalculator.calculateRentalAmountCents(3, 100, 50, 0));
+    }
+
+    @Test
+    void calculateRentalAmountCents_overflow_throwsException() {
+        assertThrows(ArithmeticException.class, () -> PriceCalculator.calculateRentalAmountCents(1, 100, Long.MAX_VALUE / 2, 4));
+        assertThrows(ArithmeticException.class, () -> PriceCalculator.calculateRentalAmountCents(1, Long.MAX_VALUE, 1, 2));
+    }
+
+    @Test
+    void calculateRentalAmountCents_matchesBigDecimalCalculation() {
+        SplittableRandom random = new SplittableRandom(20_240_603);
+        for (int i = 0; i < 10_000; i++) {
+            int baseDays = random.nextInt(0, 10);
+            BigDecimal basePrice = BigDecimal.valueOf(random.nextLong(0, 100_000_000L), 2);
+            BigDecimal extraPricePerDay = BigDecimal.valueOf(random.nextLong(0, 100_000_000L), 2);
+            int days = random.nextInt(1, 10_000);
+
+            BigDecimal expected = PriceCalculator.calculateRentalAmount(baseDays, basePrice, extraPricePerDay, days);
+            long cents = PriceCalculator.calculateRentalAmountCents(baseDays, MoneyUtil.toCents(basePrice), MoneyUtil.toCents(extraPricePerDay), days);
+
+            assertEquals(0, expected.compareTo(MoneyUtil.toAmount(cents)),
+                    () -> baseDays + " days at " + basePrice + ", then " + extraPricePerDay + " per day, for " + days + " days");
+        }
+    }
+
+    @Test
+    void calculateRentalAmountCents_invoiceTotalsMatchBigDecimalSums() {
+        SplittableRandom random = new SplittableRandom(20_240_604);
+        for (int invoice = 0; invoice < 1_000; invoice++) {
+            BigDecimal expectedTotal = BigDecimal.ZERO;
+            long totalCents = 0;
+            for (int rental = random.nextInt(1, 50); rental > 0; rental--) {
+                int baseDays = random.nextInt(0, 5);
+                BigDecimal basePrice = BigDecimal.valueOf(random.nextLong(0, 10_000), 2);
+                BigDecimal extraPricePerDay = BigDecimal.valueOf(random.nextLong(0, 10_000), 2);
+                int days = random.nextInt(1, 30);
+                expectedTotal = expectedTotal.add(PriceCalculator.calculateRentalAmount(baseDays, basePrice, extraPricePerDay, days));
+                totalCents = MoneyUtil.add(totalCents, PriceCalculator.calculateRentalAmountCents(
+                        baseDays, MoneyUtil.toCents(basePrice), MoneyUtil.toCents(extraPricePerDay), days));
+            }
+
+            assertEquals(expectedTotal.setScale(2), MoneyUtil.toAmount(totalCents));
+        }
+    }
+}